@@ -0,0 +1,213 @@
+package com.example.limit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/****
+ * AdaptiveLimit
+ *
+ * The number of requests of one kind, e.g. the reads, that may run at the
+ *   same time. The limit follows the latency of the requests instead of
+ *   being a fixed number:
+ *
+ * 1. Every window, the average latency of the window (the short RTT) is
+ *   compared with a slow moving average of the past windows (the long RTT).
+ *   While the short RTT stays within tolerance times the long RTT, the limit
+ *   grows by about its square root. When it goes above, e.g. because the
+ *   database slowed down, the limit shrinks in proportion. Each window moves
+ *   the limit a fifth of the way to the new one. This is the gradient
+ *   algorithm of Netflix concurrency-limits.
+ *
+ * 2. A window with a failed request, i.e. a 5xx or an exception, cuts the
+ *   limit by BACKOFF_RATIO instead, like the decrease of AIMD.
+ *
+ * 3. The limit only grows when the requests actually used at least half of
+ *   it, so a quiet instance does not end up with a limit it never tested.
+ *
+ * The requests in flight are an AtomicInteger that tryAcquire() only
+ *   increments below the limit, with a compare-and-set and no lock. The
+ *   latencies are added up in LongAdders. At the end of a window, the first
+ *   request to finish recomputes the limit, the others do not wait for it.
+ *
+ * The limit, the requests in flight and the accepted and rejected requests
+ *   are metrics under the given prefix, e.g. employees.limiter.limit,
+ *   tagged with the operation.
+ *
+ */
+public class AdaptiveLimit {
+
+	/*
+	 * The share of the new limit in the smoothed one of each window.
+	 */
+	private static final double SMOOTHING = 0.2;
+
+	/*
+	 * The long RTT moves by 1/LONG_WINDOWS of the difference each window.
+	 */
+	private static final int LONG_WINDOWS = 20;
+
+	private static final double BACKOFF_RATIO = 0.9;
+
+	/*
+	 * A window with fewer samples is merged into the next one, so a couple of
+	 *   slow requests of a quiet window do not move the limit.
+	 */
+	private static final int MIN_SAMPLES = 10;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final long windowNanos;
+	private final double tolerance;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final LongAdder rttNanos = new LongAdder();
+	private final LongAdder samples = new LongAdder();
+	private final LongAdder drops = new LongAdder();
+	private final AtomicBoolean updating = new AtomicBoolean();
+
+	private final Counter accepted;
+	private final Counter rejected;
+
+	private volatile int limit;
+	private volatile long windowEnd;
+
+	/*
+	 * Only read and written by the thread that won the updating flag.
+	 */
+	private double estimate;
+	private double longRttNanos;
+
+	public AdaptiveLimit(String metricPrefix, String operation, int initialLimit, int minLimit, int maxLimit,
+			Duration window, double tolerance, MeterRegistry meterRegistry) {
+		if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit)
+			throw new IllegalArgumentException(
+					"The limits of " + operation + " should be 1 <= min-limit <= initial-limit <= max-limit.");
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.windowNanos = window.toNanos();
+		this.tolerance = tolerance;
+		this.limit = initialLimit;
+		this.estimate = initialLimit;
+		this.windowEnd = System.nanoTime() + windowNanos;
+
+		Gauge.builder(metricPrefix + ".limit", this, AdaptiveLimit::getLimit)
+				.description("The concurrency limit of the requests")
+				.tag("operation", operation)
+				.register(meterRegistry);
+		Gauge.builder(metricPrefix + ".in.flight", this, AdaptiveLimit::getInFlight)
+				.description("The requests running under the concurrency limit")
+				.tag("operation", operation)
+				.register(meterRegistry);
+		accepted = requests(meterRegistry, metricPrefix, operation, "accepted");
+		rejected = requests(meterRegistry, metricPrefix, operation, "rejected");
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/*
+	 * Takes a slot for a request, or returns false right away when all of them
+	 *   are taken. A true has to be followed by a release().
+	 */
+	public boolean tryAcquire() {
+		for (;;) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				if (current + 1 > maxInFlight.get())
+					maxInFlight.accumulateAndGet(current + 1, Math::max);
+				accepted.increment();
+				return true;
+			}
+		}
+	}
+
+	/*
+	 * Gives the slot back and records how the request went. startNanos and
+	 *   endNanos are System.nanoTime() values.
+	 */
+	public void release(long startNanos, long endNanos, boolean dropped) {
+		inFlight.decrementAndGet();
+		if (dropped) {
+			drops.increment();
+		} else {
+			rttNanos.add(endNanos - startNanos);
+			samples.increment();
+		}
+		if (endNanos - windowEnd >= 0)
+			update(endNanos);
+	}
+
+	/*
+	 * Gives the slot back without a sample, e.g. for a request that went
+	 *   async and whose latency says nothing about the others.
+	 */
+	public void releaseWithoutSample() {
+		inFlight.decrementAndGet();
+	}
+
+	private void update(long now) {
+		if (!updating.compareAndSet(false, true))
+			return;
+		try {
+			if (now - windowEnd < 0)
+				return;
+			windowEnd = now + windowNanos;
+			long dropCount = drops.sumThenReset();
+			if (dropCount == 0 && samples.sum() < MIN_SAMPLES)
+				return;
+
+			long count = samples.sumThenReset();
+			long sum = rttNanos.sumThenReset();
+			int peak = maxInFlight.getAndSet(inFlight.get());
+			if (dropCount > 0)
+				estimate = estimate * BACKOFF_RATIO;
+			else
+				estimate = nextEstimate((double) sum / count, peak);
+			estimate = Math.max(minLimit, Math.min(maxLimit, estimate));
+			limit = (int) estimate;
+		} finally {
+			updating.set(false);
+		}
+	}
+
+	private double nextEstimate(double shortRttNanos, int peak) {
+		if (longRttNanos == 0)
+			longRttNanos = shortRttNanos;
+		else
+			longRttNanos += (shortRttNanos - longRttNanos) / LONG_WINDOWS;
+		// The latency went back down a lot, e.g. after a slow period: catch up faster
+		if (longRttNanos / shortRttNanos > 2)
+			longRttNanos *= 0.95;
+
+		if (peak < estimate / 2)
+			return estimate;
+		double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+		double next = estimate * gradient + Math.sqrt(estimate);
+		return estimate * (1 - SMOOTHING) + next * SMOOTHING;
+	}
+
+	private static Counter requests(MeterRegistry meterRegistry, String metricPrefix, String operation,
+			String result) {
+		return Counter.builder(metricPrefix + ".requests")
+				.description("The requests accepted and rejected by the concurrency limit")
+				.tag("operation", operation)
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+}
@@ -0,0 +1,152 @@
+package com.example.limit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/****
+ * ConcurrencyLimitFilter
+ *
+ * Sheds the requests above the concurrency limit, see AdaptiveLimit, instead
+ *   of letting them queue in Tomcat:
+ *
+ * 1. GET, HEAD and OPTIONS requests count against the read limit, the others
+ *   against the write limit. A burst of slow writes then cannot take the
+ *   slots of the reads, and the other way around.
+ *
+ * 2. A request above its limit gets a 503 right away, with a Retry-After
+ *   header and the error body of the application, see ErrorBody, or else a
+ *   fixed JSON one. It never reaches a controller or the database, so it
+ *   costs about as much as a 404.
+ *
+ * 3. A request under its limit goes on. When it is done, its latency goes to
+ *   the limit, and a 5xx or an exception counts as a failure.
+ *
+ * The excluded paths are the long-lived requests, e.g. the long polls of a
+ *   change feed, which would hold a slot for their whole timeout. A request
+ *   that still goes async gives its slot back when it completes,
+ *   without a latency sample.
+ *
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	public static final String MESSAGE = "Too many requests are running, try again later.";
+
+	/*
+	 * The body of the 503 without an ErrorBody.
+	 */
+	private static final byte[] DEFAULT_BODY = ("{\"status\":503,\"error\":\"Service Unavailable\","
+			+ "\"message\":\"" + MESSAGE + "\"}").getBytes(StandardCharsets.UTF_8);
+
+	private final AdaptiveLimit readLimit;
+	private final AdaptiveLimit writeLimit;
+	private final Set<String> excludedPaths;
+	private final String retryAfter;
+	private final ErrorBody errorBody;
+
+	public ConcurrencyLimitFilter(AdaptiveLimit readLimit, AdaptiveLimit writeLimit, Set<String> excludedPaths,
+			long retryAfterSeconds) {
+		this(readLimit, writeLimit, excludedPaths, retryAfterSeconds, ConcurrencyLimitFilter::writeDefaultBody);
+	}
+
+	public ConcurrencyLimitFilter(AdaptiveLimit readLimit, AdaptiveLimit writeLimit, Set<String> excludedPaths,
+			long retryAfterSeconds, ErrorBody errorBody) {
+		this.readLimit = readLimit;
+		this.writeLimit = writeLimit;
+		this.excludedPaths = Set.copyOf(excludedPaths);
+		this.retryAfter = Long.toString(Math.max(1, retryAfterSeconds));
+		this.errorBody = errorBody;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !excludedPaths.isEmpty()
+				&& excludedPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		AdaptiveLimit limit = isRead(request.getMethod()) ? readLimit : writeLimit;
+		if (!limit.tryAcquire()) {
+			reject(response);
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			chain.doFilter(request, response);
+			failed = response.getStatus() >= 500;
+		} finally {
+			if (request.isAsyncStarted())
+				request.getAsyncContext().addListener(new ReleaseOnComplete(limit));
+			else
+				limit.release(start, System.nanoTime(), failed);
+		}
+	}
+
+	private void reject(HttpServletResponse response) throws IOException {
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+		errorBody.write(response);
+	}
+
+	private static void writeDefaultBody(HttpServletResponse response) throws IOException {
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setContentLength(DEFAULT_BODY.length);
+		response.getOutputStream().write(DEFAULT_BODY);
+	}
+
+	private static boolean isRead(String method) {
+		return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+	}
+
+	/*
+	 * Writes the body of a rejected request, after its status and Retry-After
+	 *   header are set. It also sets the content type.
+	 */
+	@FunctionalInterface
+	public interface ErrorBody {
+
+		void write(HttpServletResponse response) throws IOException;
+	}
+
+	private static final class ReleaseOnComplete implements AsyncListener {
+
+		private final AdaptiveLimit limit;
+
+		ReleaseOnComplete(AdaptiveLimit limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			limit.releaseWithoutSample();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.limit;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/***
+ * AdaptiveLimitTest
+ *
+ * This is the test class for AdaptiveLimit. It runs without an application context, and
+ *   the metrics go to a SimpleMeterRegistry. The requests are simulated: each window takes every slot,
+ *   then gives them back with the end of the window as their end time, so the limit
+ *   moves the same way on every run.
+ */
+public class AdaptiveLimitTest {
+
+	private static final String METRIC_PREFIX = "test.limiter";
+
+	private static final Duration WINDOW = Duration.ofMillis(100);
+
+	private static final Duration FAST = Duration.ofMillis(10);
+
+	private static final Duration SLOW = Duration.ofMillis(100);
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /***
+     * tryAcquireStopsAtLimit
+     *
+     * This is a method to test that no more requests than the limit run at the same time.
+     *
+     * Here's the flow:
+     * - Take the 2 slots of a limit of 2, and check that a third request is rejected.
+     * - Give one back and check that the next request gets it.
+     * - Check the in-flight gauge and the accepted and rejected counters.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST tryAcquire stops at the limit")
+	void tryAcquireStopsAtLimit() throws Exception {
+		AdaptiveLimit limit = new AdaptiveLimit(METRIC_PREFIX, "read", 2, 1, 10, WINDOW, 1.5, meterRegistry);
+
+		Assertions.assertTrue(limit.tryAcquire());
+		Assertions.assertTrue(limit.tryAcquire());
+		Assertions.assertFalse(limit.tryAcquire());
+		limit.release(System.nanoTime(), System.nanoTime(), false);
+		Assertions.assertTrue(limit.tryAcquire());
+
+		Assertions.assertEquals(2, meterRegistry.get(METRIC_PREFIX + ".in.flight").tag("operation", "read").gauge().value());
+		Assertions.assertEquals(3, requests("read", "accepted"));
+		Assertions.assertEquals(1, requests("read", "rejected"));
+	}
+
+    /***
+     * limitFollowsLatency
+     *
+     * This is a method to test that the limit grows while the latency holds, and shrinks
+     *   when it goes up.
+     *
+     * Here's the flow:
+     * - Run 20 windows of 10 ms requests and check that the limit grew.
+     * - Run 5 windows of 100 ms requests and check that the limit shrank.
+     * - Check that the limit gauge has the last limit.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST limit follows latency")
+	void limitFollowsLatency() throws Exception {
+		AdaptiveLimit limit = new AdaptiveLimit(METRIC_PREFIX, "read", 10, 1, 100, WINDOW, 1.5, meterRegistry);
+		long time = System.nanoTime();
+
+		for (int i = 0; i < 20; i++)
+			time = runWindow(limit, time, FAST, false);
+		int grown = limit.getLimit();
+		Assertions.assertTrue(grown > 10, () -> "Limit " + grown);
+
+		for (int i = 0; i < 5; i++)
+			time = runWindow(limit, time, SLOW, false);
+		int shrunk = limit.getLimit();
+		Assertions.assertTrue(shrunk < grown, () -> "Limit " + shrunk + " after " + grown);
+		Assertions.assertEquals(shrunk, meterRegistry.get(METRIC_PREFIX + ".limit").tag("operation", "read").gauge().value());
+	}
+
+    /***
+     * failuresBackOff
+     *
+     * This is a method to test that failed requests cut the limit, however fast they were,
+     *   and never below the min limit.
+     *
+     * Here's the flow:
+     * - Run windows of fast requests that all fail and check that the limit goes down.
+     * - Keep going and check that it stops at the min limit.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST failures back off")
+	void failuresBackOff() throws Exception {
+		AdaptiveLimit limit = new AdaptiveLimit(METRIC_PREFIX, "write", 20, 4, 50, WINDOW, 1.5, meterRegistry);
+		long time = System.nanoTime();
+
+		for (int i = 0; i < 3; i++)
+			time = runWindow(limit, time, FAST, true);
+		Assertions.assertTrue(limit.getLimit() < 20, () -> "Limit " + limit.getLimit());
+
+		for (int i = 0; i < 50; i++)
+			time = runWindow(limit, time, FAST, true);
+		Assertions.assertEquals(4, limit.getLimit());
+	}
+
+	/*
+	 * Takes every slot, then gives them back at the end of the window. Returns
+	 *   the end of the window.
+	 */
+	private static long runWindow(AdaptiveLimit limit, long start, Duration latency, boolean failed) {
+		int slots = limit.getLimit();
+		for (int i = 0; i < slots; i++)
+			Assertions.assertTrue(limit.tryAcquire());
+		long end = start + WINDOW.toNanos();
+		for (int i = 0; i < slots; i++)
+			limit.release(end - latency.toNanos(), end, failed);
+		return end;
+	}
+
+	private double requests(String operation, String result) {
+		return meterRegistry.get(METRIC_PREFIX + ".requests").tag("operation", operation).tag("result", result)
+				.counter().count();
+	}
+}
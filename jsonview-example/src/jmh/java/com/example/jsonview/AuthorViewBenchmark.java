@@ -0,0 +1,81 @@
+package com.example.jsonview;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures the serialization of the authors returned by AuthorController, once
+ * per view. Like Spring MVC does for a @JsonView controller method, a writer
+ * for the view is created on every call.
+ * 
+ * The "None" view serializes the authors without a view, as a baseline.
+ * 
+ * Each view runs with the reflection-based serializers of Jackson and with the
+ * AuthorSerializer and BookSerializer of AuthorJsonModule, which the application
+ * registers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorViewBenchmark {
+
+    @Param({ "None", "IdAndName", "IdAndNameWithBooks", "AllDetails" })
+    public String view;
+
+    @Param({ "reflection", "serializer" })
+    public String serializer;
+
+    private ObjectMapper mapper;
+
+    private Class<?> viewClass;
+
+    private List<Author> authors;
+
+    @Setup
+    public void setup() {
+        // The same configuration as the ObjectMapper of Spring Boot
+        mapper = "serializer".equals(serializer)
+                ? Jackson2ObjectMapperBuilder.json().modulesToInstall(new AuthorJsonModule()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        authors = new AuthorRepository().getUsers();
+        switch (view) {
+            case "IdAndName":
+                viewClass = AuthorView.IdAndName.class;
+                break;
+            case "IdAndNameWithBooks":
+                viewClass = AuthorView.IdAndNameWithBooks.class;
+                break;
+            case "AllDetails":
+                viewClass = AuthorView.AllDetails.class;
+                break;
+            default:
+                viewClass = null;
+        }
+    }
+
+    @Benchmark
+    public byte[] writeAuthors() throws IOException {
+        if (viewClass == null)
+            return mapper.writeValueAsBytes(authors);
+        return mapper.writerWithView(viewClass).writeValueAsBytes(authors);
+    }
+}
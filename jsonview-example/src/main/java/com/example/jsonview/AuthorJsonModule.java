@@ -0,0 +1,21 @@
+package com.example.jsonview;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers AuthorSerializer and BookSerializer. Spring Boot adds every Module
+ * bean to its ObjectMapper, so they are used by AuthorController.
+ */
+@Component
+public class AuthorJsonModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public AuthorJsonModule() {
+        super(AuthorJsonModule.class.getSimpleName());
+        addSerializer(Author.class, new AuthorSerializer());
+        addSerializer(Book.class, new BookSerializer());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.jsonview;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a Book straight to the JsonGenerator, with the fields of the active
+ * view only, the same way the reflection-based serializer of Jackson does for
+ * the @JsonView annotations of Book. Keep the two in line: a new field or view
+ * has to be added here too.
+ */
+public class BookSerializer extends StdSerializer<Book> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializableString ISBN = new SerializedString("isbn");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString PUBLICATION_DATE = new SerializedString("publicationDate");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+
+    public BookSerializer() {
+        super(Book.class);
+    }
+
+    @Override
+    public void serialize(Book book, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        write(book, gen, provider.getActiveView());
+    }
+
+    /**
+     * Also used by AuthorSerializer for the books of an author, so they do not
+     * go through a lookup of the serializer each.
+     */
+    static void write(Book book, JsonGenerator gen, Class<?> view) throws IOException {
+        gen.writeStartObject(book);
+        if (AuthorSerializer.inView(AuthorView.IdAndNameWithBooks.class, view)) {
+            gen.writeFieldName(ISBN);
+            gen.writeString(book.getIsbn());
+            gen.writeFieldName(TITLE);
+            gen.writeString(book.getTitle());
+        }
+        if (AuthorSerializer.inView(AuthorView.AllDetails.class, view)) {
+            gen.writeFieldName(PUBLICATION_DATE);
+            gen.writeString(book.getPublicationDate());
+            gen.writeFieldName(DESCRIPTION);
+            gen.writeString(book.getDescription());
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.jsonview;
+
+import java.time.Duration;
+import java.util.Set;
+
+import com.example.limit.AdaptiveLimit;
+import com.example.limit.ConcurrencyLimitFilter;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Puts ConcurrencyLimitFilter in front of AuthorController, with a read and a
+ * write limit set up by the authors.limiter.* properties. The filter runs right
+ * after the http.server.requests metrics filter, so the 503s are still counted
+ * there. The filter and the limits are in the concurrency-limit module, shared
+ * with the REST API example.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "authors.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitConfiguration {
+
+    private static final String METRIC_PREFIX = "authors.limiter";
+
+    @Bean
+    public AdaptiveLimit readLimit(
+            @Value("${authors.limiter.read.initial-limit:50}") int initialLimit,
+            @Value("${authors.limiter.read.min-limit:5}") int minLimit,
+            @Value("${authors.limiter.read.max-limit:200}") int maxLimit,
+            @Value("${authors.limiter.window:100ms}") Duration window,
+            @Value("${authors.limiter.tolerance:1.5}") double tolerance,
+            MeterRegistry meterRegistry) {
+        return new AdaptiveLimit(METRIC_PREFIX, "read", initialLimit, minLimit, maxLimit, window, tolerance,
+                meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveLimit writeLimit(
+            @Value("${authors.limiter.write.initial-limit:10}") int initialLimit,
+            @Value("${authors.limiter.write.min-limit:2}") int minLimit,
+            @Value("${authors.limiter.write.max-limit:50}") int maxLimit,
+            @Value("${authors.limiter.window:100ms}") Duration window,
+            @Value("${authors.limiter.tolerance:1.5}") double tolerance,
+            MeterRegistry meterRegistry) {
+        return new AdaptiveLimit(METRIC_PREFIX, "write", initialLimit, minLimit, maxLimit, window, tolerance,
+                meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Qualifier("readLimit") AdaptiveLimit readLimit,
+            @Qualifier("writeLimit") AdaptiveLimit writeLimit,
+            @Value("${authors.limiter.retry-after:1s}") Duration retryAfter) {
+        // Retry-After is in whole seconds, rounded up
+        long retryAfterSeconds = (retryAfter.toMillis() + 999) / 1000;
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(readLimit, writeLimit, Set.of(), retryAfterSeconds));
+        registration.addUrlPatterns("/authors", "/authors/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.jsonview;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Checks that AuthorSerializer and BookSerializer write the same bytes as the
+ * reflection-based serializers of Jackson, for every view and without one.
+ */
+class AuthorSerializerTest {
+
+    private static final List<Class<?>> VIEWS = Arrays.asList(
+            null, AuthorView.IdAndName.class, AuthorView.IdAndNameWithBooks.class, AuthorView.AllDetails.class);
+
+    @Test
+    void sameBytesAsReflection() throws Exception {
+        assertSameBytes(Jackson2ObjectMapperBuilder.json());
+    }
+
+    @Test
+    void sameBytesAsReflectionWithTimestamps() throws Exception {
+        assertSameBytes(Jackson2ObjectMapperBuilder.json().featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    private static void assertSameBytes(Jackson2ObjectMapperBuilder builder) throws Exception {
+        ObjectMapper reflection = builder.build();
+        ObjectMapper tuned = builder.modulesToInstall(new AuthorJsonModule()).build();
+        List<Author> authors = authors();
+        for (Class<?> view : VIEWS) {
+            Assertions.assertArrayEquals(
+                    reflection.writerWithView(view).writeValueAsBytes(authors),
+                    tuned.writerWithView(view).writeValueAsBytes(authors),
+                    () -> String.valueOf(view));
+            for (Author author : authors) {
+                Assertions.assertEquals(
+                        reflection.writerWithView(view).writeValueAsString(author),
+                        tuned.writerWithView(view).writeValueAsString(author),
+                        () -> String.valueOf(view));
+            }
+            Book book = authors.get(0).getBooks().get(0);
+            Assertions.assertEquals(
+                    reflection.writerWithView(view).writeValueAsString(book),
+                    tuned.writerWithView(view).writeValueAsString(book),
+                    () -> String.valueOf(view));
+        }
+    }
+
+    /**
+     * The authors of AuthorRepository, and a few with the fields that it does
+     * not have: nulls, escaped characters and no books.
+     */
+    private static List<Author> authors() {
+        List<Author> authors = new ArrayList<>(new AuthorRepository().getUsers());
+        authors.add(new Author(null, null, null, null, null, null, null));
+        authors.add(new Author(-1, "José \"Pepe\"", "Rizal\n", Date.valueOf("0001-01-01"), "", "\u0000 😀",
+                Collections.emptyList()));
+        authors.add(new Author(Integer.MAX_VALUE, "A", "B", Date.valueOf("9999-12-31"), "C", "D",
+                Arrays.asList(new Book(null, null, null, null), null)));
+        return authors;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.employee.sys.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.example.employee.sys.SpringBootDemoApplication;
+import com.example.employee.sys.service.EmployeeService;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/***
+ * BenchmarkApplication
+ * 
+ * Starts the API for the benchmarks with the configuration of the default 
+ *   profile, i.e. an in-memory H2 database.
+ *   
+ * The benchmarks run with the test classpath, where the test 
+ *   application.properties hides the main one. The main one is therefore 
+ *   loaded from target/classes explicitly, the benchmarks are run from the
+ *   project directory.
+ *
+ */
+final class BenchmarkApplication {
+	
+	static final String MAIN_CONFIG = "file:target/classes/application.properties";
+	
+	private BenchmarkApplication() {}
+	
+	static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+		return new SpringApplicationBuilder(SpringBootDemoApplication.class)
+				.web(type)
+				.properties("spring.config.location=" + MAIN_CONFIG,
+						"spring.main.banner-mode=off",
+						"server.port=0",
+						"logging.level.root=WARN")
+				.properties(properties)
+				.run();
+	}
+	
+	/*
+	 * Inserts the given number of employees through the batch create, on top
+	 *   of the 3 rows of data.sql.
+	 */
+	static void seed(EmployeeService service, int rows) throws IOException {
+		String ndjson = IntStream.rangeClosed(1, rows)
+				.mapToObj(i -> String.format(
+						"{\"employeeName\":\"Employee %d\",\"position\":\"Developer\",\"dateHired\":\"2020-01-01\"}", i))
+				.collect(Collectors.joining("\n"));
+		service.saveEmployees(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.employee.sys.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.protobuf.EmployeeProtobuf;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/***
+ * ContentNegotiationBenchmark
+ *
+ * Compares the formats of GET /employees on a list of 10,000 employees,
+ *   without Spring MVC around them. The Jackson mappers are built the same
+ *   way as the ones of the controllers, see ContentNegotiationConfiguration.
+ *
+ * 1. write - the list to bytes, like the response of the API.
+ * 2. read - the bytes back to a list, like a client of the API.
+ *
+ * Each one runs for json, cbor, smile and protobuf. The setup prints the
+ *   size of the body in each format, as is and with gzip.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentNegotiationBenchmark {
+
+	private static final int EMPLOYEES = 10_000;
+
+	@Param({ "json", "cbor", "smile", "protobuf" })
+	private String format;
+
+	private ObjectMapper mapper;
+
+	private ObjectReader reader;
+
+	private List<Employee> employees;
+
+	private byte[] body;
+
+	@Setup
+	public void setup() throws IOException {
+		switch (format) {
+		case "json":
+			mapper = Jackson2ObjectMapperBuilder.json().build();
+			break;
+		case "cbor":
+			mapper = Jackson2ObjectMapperBuilder.cbor().build();
+			break;
+		case "smile":
+			mapper = Jackson2ObjectMapperBuilder.smile().build();
+			break;
+		default:
+			mapper = null;
+		}
+		reader = mapper == null ? null : mapper.readerForListOf(Employee.class);
+		employees = IntStream.rangeClosed(1, EMPLOYEES)
+				.mapToObj(i -> new Employee(i, "Employee " + i, i % 10 == 0 ? "Manager" : "Developer",
+						Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(i % 1000))))
+				.collect(Collectors.toList());
+		body = write();
+
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+			gzip.write(body);
+		}
+		System.out.printf("%n%s body of %d employees: %d bytes, %d bytes with gzip%n",
+				format, EMPLOYEES, body.length, gzipped.size());
+	}
+
+	@Benchmark
+	public byte[] write() throws IOException {
+		if (mapper != null)
+			return mapper.writeValueAsBytes(employees);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(body == null ? 8192 : body.length);
+		EmployeeProtobuf.writeEmployees(employees, out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public List<Employee> read() throws IOException {
+		if (reader != null)
+			return reader.readValue(body);
+		return EmployeeProtobuf.readEmployees(new ByteArrayInputStream(body));
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.employee.sys.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.example.employee.sys.service.EmployeeService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/***
+ * EmployeeControllerBenchmark
+ * 
+ * Measures a full dispatch through EmployeeController with MockMvc: the 
+ *   DispatcherServlet, the argument resolution, the service, H2 and the JSON
+ *   body. There is no network in between, so this is the cost of the API
+ *   itself.
+ *   
+ * 1. getEmployeeById - GET /employees/1, served from the employee cache.
+ * 2. getEmployeeByIdNotModified - the same with a matching If-None-Match.
+ * 3. getEmployees - GET /employees with the default limit.
+ * 4. getEmployeeByIdNotFound - GET /employees/999 of an ID that does not 
+ *   exist, served from the negative cache. Compare its allocations with 
+ *   getEmployeeById by running with -prof gc.
+ * 5. searchEmployees - GET /employees/search?prefix=employee%201, served 
+ *   from the search index.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeControllerBenchmark {
+	
+	private ConfigurableApplicationContext context;
+	
+	private MockMvc mockMvc;
+	
+	@Setup
+	public void setup() throws IOException {
+		context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+		EmployeeService service = context.getBean(EmployeeService.class);
+		BenchmarkApplication.seed(service, 100);
+		// Do not wait for the load on startup
+		service.loadSearchIndex();
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public MvcResult getEmployeeById() throws Exception {
+		return mockMvc.perform(get("/employees/{id}", 1)).andReturn();
+	}
+	
+	@Benchmark
+	public MvcResult getEmployeeByIdNotModified() throws Exception {
+		return mockMvc.perform(get("/employees/{id}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"0\"")).andReturn();
+	}
+	
+	@Benchmark
+	public MvcResult getEmployees() throws Exception {
+		return mockMvc.perform(get("/employees")).andReturn();
+	}
+	
+	@Benchmark
+	public MvcResult getEmployeeByIdNotFound() throws Exception {
+		return mockMvc.perform(get("/employees/{id}", 999)).andReturn();
+	}
+	
+	@Benchmark
+	public MvcResult searchEmployees() throws Exception {
+		return mockMvc.perform(get("/employees/search").param("prefix", "employee 1")).andReturn();
+	}
+}
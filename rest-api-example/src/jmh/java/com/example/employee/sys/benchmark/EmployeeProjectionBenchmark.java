@@ -0,0 +1,174 @@
+package com.example.employee.sys.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeStats;
+import com.example.employee.sys.projection.EmployeeColumns;
+import com.example.employee.sys.projection.EmployeeProjection;
+import com.example.employee.sys.repository.EmployeeRepository;
+import com.example.employee.sys.service.EmployeeService;
+import com.example.employee.sys.stats.HeadcountCounters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/***
+ * EmployeeProjectionBenchmark
+ *
+ * Compares the employee projection with the JPA entities for the reports.
+ *   The database is seeded with the given number of employees, with 8
+ *   positions and hire dates over 20 years.
+ *
+ * 1. columnsStats, columnsCountHired - scans of the projection, for 
+ *   GET /employees/stats and GET /employees/headcount.
+ * 2. entitiesStats, entitiesCountHired - the same on a List of the Employee
+ *   entities that is already loaded.
+ * 3. findAllStats - the JPA path as a whole: findAll, then the same as
+ *   entitiesStats.
+ * 4. sqlStats, sqlCountHired - the GROUP BY and COUNT queries used while
+ *   the projection is cold.
+ *
+ * The setup also prints the memory per row of both: the size of the columns
+ *   and the heap taken by the loaded entities.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EmployeeProjectionBenchmark {
+
+	private static final String[] POSITIONS = {
+			"Developer", "Manager", "Director", "Supervisor", "Analyst", "Designer", "Tester", "Architect" };
+
+	private static final LocalDate FROM = LocalDate.of(2015, 1, 1);
+	private static final LocalDate TO = LocalDate.of(2019, 12, 31);
+
+	@Param({ "100000" })
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private EmployeeRepository repo;
+
+	private EmployeeProjection projection;
+
+	private List<Employee> entities;
+
+	@Setup
+	public void setup() throws IOException {
+		context = BenchmarkApplication.start(WebApplicationType.NONE, "employee.projection.enabled=true");
+		EmployeeService service = context.getBean(EmployeeService.class);
+		repo = context.getBean(EmployeeRepository.class);
+		projection = context.getBean(EmployeeProjection.class);
+
+		String ndjson = IntStream.range(0, rows)
+				.mapToObj(i -> String.format(
+						"{\"employeeName\":\"Employee %d\",\"position\":\"%s\",\"dateHired\":\"%s\"}",
+						i, POSITIONS[i % POSITIONS.length], LocalDate.of(2000, 1, 1).plusDays(i % 7300)))
+				.collect(Collectors.joining("\n"));
+		service.saveEmployees(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+		service.loadProjection();
+
+		long before = usedHeap();
+		entities = repo.findAll();
+		long entityBytes = usedHeap() - before;
+
+		EmployeeColumns columns = projection.snapshot();
+		System.out.printf("%nMemory per row: columns %.1f bytes, entities %.1f bytes (%d rows)%n",
+				(double) columns.columnBytes() / columns.size(), (double) entityBytes / entities.size(), entities.size());
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public EmployeeStats columnsStats() {
+		return projection.snapshot().stats();
+	}
+
+	@Benchmark
+	public long columnsCountHired() {
+		return projection.snapshot().countHired(FROM, TO, "Developer");
+	}
+
+	@Benchmark
+	public EmployeeStats entitiesStats() {
+		return stats(entities);
+	}
+
+	@Benchmark
+	public long entitiesCountHired() {
+		return entities.stream()
+				.filter(employee -> "Developer".equals(employee.getPosition()) && employee.getDateHired() != null)
+				.map(employee -> employee.getDateHired().toLocalDate())
+				.filter(date -> !date.isBefore(FROM) && !date.isAfter(TO))
+				.count();
+	}
+
+	@Benchmark
+	public EmployeeStats findAllStats() {
+		return stats(repo.findAll());
+	}
+
+	@Benchmark
+	public EmployeeStats sqlStats() {
+		return HeadcountCounters.toStats(repo.countByPositionAndHireYear());
+	}
+
+	@Benchmark
+	public long sqlCountHired() {
+		return repo.countHired(java.sql.Date.valueOf(FROM), java.sql.Date.valueOf(TO), "Developer");
+	}
+
+	private static EmployeeStats stats(List<Employee> employees) {
+		Map<String, Long> byPosition = employees.stream()
+				.filter(employee -> employee.getPosition() != null)
+				.collect(Collectors.groupingBy(Employee::getPosition, TreeMap::new, Collectors.counting()));
+		Map<Integer, Long> byHireYear = employees.stream()
+				.filter(employee -> employee.getDateHired() != null)
+				.collect(Collectors.groupingBy(EmployeeProjectionBenchmark::hireYear, TreeMap::new, Collectors.counting()));
+		Map<String, Map<Integer, Long>> byPositionAndHireYear = employees.stream()
+				.filter(employee -> employee.getPosition() != null && employee.getDateHired() != null)
+				.collect(Collectors.groupingBy(Employee::getPosition, TreeMap::new, 
+						Collectors.groupingBy(EmployeeProjectionBenchmark::hireYear, TreeMap::new, Collectors.counting())));
+		return new EmployeeStats(employees.size(), byPosition, byHireYear, byPositionAndHireYear);
+	}
+
+	private static int hireYear(Employee employee) {
+		return employee.getDateHired().toLocalDate().getYear();
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+}
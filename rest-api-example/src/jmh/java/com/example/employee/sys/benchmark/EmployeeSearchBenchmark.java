@@ -0,0 +1,102 @@
+package com.example.employee.sys.benchmark;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.search.EmployeeSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * EmployeeSearchBenchmark
+ *
+ * Measures the EmployeeSearchIndex on its own, with 1,000,000 employees by
+ *   default. Their names are made of random syllables, e.g. "Kelaro Vinuta",
+ *   and they have one of 10 positions.
+ *
+ * 1. searchOneLetter - a prefix of 1 letter, e.g. the first keystroke.
+ * 2. searchThreeLetters - a prefix of 3 letters.
+ * 3. searchWithPosition - a prefix of 1 letter and a position.
+ * 4. searchNoMatch - a prefix that no name starts with.
+ *
+ * Every search asks for the default limit of 10 employees. The server time of
+ *   GET /employees/search is this plus the dispatch, see
+ *   EmployeeControllerBenchmark.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EmployeeSearchBenchmark {
+
+	private static final String[] SYLLABLES = {
+			"ka", "le", "ro", "vi", "nu", "ta", "mi", "so", "de", "ja", "pe", "lu", "na", "go", "ri", "be" };
+
+	private static final String[] POSITIONS = {
+			"Developer", "Manager", "Director", "Supervisor", "Analyst",
+			"Designer", "Tester", "Architect", "Recruiter", "Accountant" };
+
+	private static final int LIMIT = 10;
+
+	@Param({ "1000000" })
+	public int employees;
+
+	private EmployeeSearchIndex index;
+
+	@Setup
+	public void setup() {
+		index = new EmployeeSearchIndex(true);
+		index.beginLoad();
+		SplittableRandom random = new SplittableRandom(42);
+		Date dateHired = Date.valueOf("2020-01-01");
+		for (int id = 1; id <= employees; id++) {
+			String name = name(random, 3) + " " + name(random, 3);
+			index.load(new Employee(id, name, POSITIONS[random.nextInt(POSITIONS.length)], dateHired));
+		}
+		index.markReady();
+	}
+
+	@Benchmark
+	public List<Employee> searchOneLetter() {
+		return index.search("k", null, LIMIT);
+	}
+
+	@Benchmark
+	public List<Employee> searchThreeLetters() {
+		return index.search("kel", null, LIMIT);
+	}
+
+	@Benchmark
+	public List<Employee> searchWithPosition() {
+		return index.search("k", "Architect", LIMIT);
+	}
+
+	@Benchmark
+	public List<Employee> searchNoMatch() {
+		return index.search("zz", null, LIMIT);
+	}
+
+	private static String name(SplittableRandom random, int syllables) {
+		StringBuilder name = new StringBuilder();
+		for (int i = 0; i < syllables; i++)
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+		return name.toString();
+	}
+}
@@ -0,0 +1,116 @@
+package com.example.employee.sys.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.example.employee.sys.entity.BatchItemResult;
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.service.EmployeeService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+
+/***
+ * EmployeeServiceBenchmark
+ * 
+ * Measures EmployeeServiceImpl against the in-memory H2 database, with and
+ *   without the employee cache. The database is seeded with the given number
+ *   of employees before the measurements.
+ *   
+ * 1. getEmployeeById - a random employee, read through the cache.
+ * 2. getEmployeesFirstSlice, getEmployeesLastSliceByCursor and 
+ *   getEmployeesLastSliceByPage - the first and the last 20 employees. The
+ *   last two show the difference between keyset and offset pagination.
+ * 3. saveEmployees - a batch create of 100 employees.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+	
+	private static final int LIMIT = 20;
+	
+	private static final int BATCH_SIZE = 100;
+	
+	@Param({ "true", "false" })
+	public boolean cacheEnabled;
+	
+	@Param({ "10000" })
+	public int rows;
+	
+	private ConfigurableApplicationContext context;
+	
+	private EmployeeService service;
+	
+	private int maxId;
+	
+	private byte[] batch;
+	
+	@Setup
+	public void setup() throws IOException {
+		context = BenchmarkApplication.start(WebApplicationType.NONE, 
+				"employee.cache.enabled=" + cacheEnabled);
+		service = context.getBean(EmployeeService.class);
+		BenchmarkApplication.seed(service, rows);
+		maxId = service.getEmployees().stream().mapToInt(Employee::getEmployeeId).max().getAsInt();
+		
+		batch = IntStream.range(0, BATCH_SIZE)
+				.mapToObj(i -> "{\"employeeName\":\"Batch Employee\",\"position\":\"Developer\"}")
+				.collect(Collectors.joining("\n"))
+				.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public Optional<Employee> getEmployeeById() {
+		return service.getEmployeeById(ThreadLocalRandom.current().nextInt(1, maxId + 1));
+	}
+	
+	@Benchmark
+	public Slice<Employee> getEmployeesFirstSlice() {
+		return service.getEmployees(null, null, LIMIT);
+	}
+	
+	@Benchmark
+	public Slice<Employee> getEmployeesLastSliceByCursor() {
+		return service.getEmployees(maxId - LIMIT, null, LIMIT);
+	}
+	
+	@Benchmark
+	public Slice<Employee> getEmployeesLastSliceByPage() {
+		return service.getEmployees(null, maxId / LIMIT, LIMIT);
+	}
+	
+	@Benchmark
+	public List<BatchItemResult> saveEmployees() throws IOException {
+		return service.saveEmployees(new ByteArrayInputStream(batch));
+	}
+}
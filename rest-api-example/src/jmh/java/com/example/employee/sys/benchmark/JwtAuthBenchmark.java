@@ -0,0 +1,120 @@
+package com.example.employee.sys.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import com.example.employee.sys.auth.AuthenticatedToken;
+import com.example.employee.sys.auth.JwtAuthenticationFilter;
+import com.example.employee.sys.auth.TokenAuthenticator;
+import com.example.employee.sys.common.StandInKeyServer;
+import com.example.employee.sys.service.EmployeeService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/***
+ * JwtAuthBenchmark
+ *
+ * Measures what the authentication adds to a request. The API fetches its
+ *   keys from a StandInKeyServer, like JwtAuthConfigurationTest.
+ *
+ * 1. verify - verifying a token without the token cache, i.e. its parse and
+ *   its RS256 signature check. This is the cost of the first request of a
+ *   token.
+ * 2. authenticateCached - the same token from the token cache. This is the
+ *   cost of every other request of that token.
+ * 3. getEmployeeById - GET /employees/1 with MockMvc and no authentication,
+ *   the same as EmployeeControllerBenchmark.getEmployeeById.
+ * 4. getEmployeeByIdWithToken - the same request with a cached token, through
+ *   the JwtAuthenticationFilter. The difference with getEmployeeById is the
+ *   authentication overhead per request.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+	private StandInKeyServer keyServer;
+
+	private ConfigurableApplicationContext context;
+
+	private TokenAuthenticator authenticator;
+
+	private String token;
+
+	private MockMvc mockMvc;
+
+	private MockMvc mockMvcWithAuth;
+
+	@Setup
+	public void setup() throws IOException {
+		keyServer = new StandInKeyServer();
+		context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+				"employee.auth.enabled=true",
+				"employee.auth.issuer=" + StandInKeyServer.ISSUER,
+				"employee.auth.jwks-uri=" + keyServer.jwksUri());
+		BenchmarkApplication.seed(context.getBean(EmployeeService.class), 100);
+		authenticator = context.getBean(TokenAuthenticator.class);
+		token = keyServer.token("demouser", Duration.ofHours(1), "user");
+
+		@SuppressWarnings("unchecked")
+		FilterRegistrationBean<JwtAuthenticationFilter> filter =
+				context.getBean("jwtAuthenticationFilter", FilterRegistrationBean.class);
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+		mockMvcWithAuth = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+				.addFilter(filter.getFilter(), "/employees/*")
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+		keyServer.close();
+	}
+
+	@Benchmark
+	public AuthenticatedToken verify() {
+		return authenticator.verify(token);
+	}
+
+	@Benchmark
+	public AuthenticatedToken authenticateCached() {
+		return authenticator.authenticate(token);
+	}
+
+	@Benchmark
+	public MvcResult getEmployeeById() throws Exception {
+		return mockMvc.perform(get("/employees/{id}", 1)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult getEmployeeByIdWithToken() throws Exception {
+		return mockMvcWithAuth.perform(get("/employees/{id}", 1)
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+			.andReturn();
+	}
+}
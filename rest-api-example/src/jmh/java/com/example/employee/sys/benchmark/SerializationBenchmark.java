@@ -0,0 +1,98 @@
+package com.example.employee.sys.benchmark;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.Error;
+import com.example.employee.sys.json.EmployeeJsonModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/***
+ * SerializationBenchmark
+ * 
+ * Measures the Jackson serialization of the response bodies, without Spring 
+ *   MVC around it. The ObjectMapper is built the same way Spring Boot builds 
+ *   the one used by the controllers.
+ *   
+ * 1. Employee, which formats its date with @JsonFormat, alone and in a list
+ *   of 20 like a slice of GET /employees.
+ * 2. Error, the body of every error response.
+ * 3. Employee from JSON, like the body of POST /employees.
+ *
+ * Each one runs with the reflection-based BeanSerializer of Jackson and with
+ *   the hand-written EmployeeSerializer of EmployeeJsonModule, which the
+ *   application registers. Only the writing of the employees differs.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+	
+	@Param({ "reflection", "serializer" })
+	private String serializer;
+	
+	private ObjectMapper mapper;
+	
+	private Employee employee;
+	
+	private List<Employee> employees;
+	
+	private Error error;
+	
+	private byte[] employeeJson;
+	
+	@Setup
+	public void setup() throws IOException {
+		mapper = "serializer".equals(serializer)
+				? Jackson2ObjectMapperBuilder.json().modulesToInstall(new EmployeeJsonModule()).build()
+				: Jackson2ObjectMapperBuilder.json().build();
+		employee = new Employee(1, "John Doe", "Developer", Date.valueOf("2001-01-01"));
+		employees = IntStream.rangeClosed(1, 20)
+				.mapToObj(i -> new Employee(i, "Employee " + i, "Developer", Date.valueOf("2001-01-01")))
+				.collect(Collectors.toList());
+		error = new Error(new java.util.Date(), "NotFoundException", "Unable to find employee with ID 999");
+		employeeJson = mapper.writeValueAsBytes(employee);
+	}
+	
+	@Benchmark
+	public byte[] writeEmployee() throws IOException {
+		return mapper.writeValueAsBytes(employee);
+	}
+	
+	@Benchmark
+	public byte[] writeEmployeeList() throws IOException {
+		return mapper.writeValueAsBytes(employees);
+	}
+	
+	@Benchmark
+	public byte[] writeError() throws IOException {
+		return mapper.writeValueAsBytes(error);
+	}
+	
+	@Benchmark
+	public Employee readEmployee() throws IOException {
+		return mapper.readValue(employeeJson, Employee.class);
+	}
+}
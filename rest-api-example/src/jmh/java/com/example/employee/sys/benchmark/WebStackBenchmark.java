@@ -0,0 +1,128 @@
+package com.example.employee.sys.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/***
+ * WebStackBenchmark
+ *
+ * Compares the ways the API can handle requests under high concurrency:
+ *   - servlet: the default, Spring MVC on the 200 Tomcat threads with JPA.
+ *   - virtual: the same on virtual threads, see VirtualThreadsConfiguration.
+ *   - reactive: Spring WebFlux on Netty with R2DBC.
+ *
+ * The API runs on a local port and each of the 256 benchmark threads sends
+ *   one request at a time over HTTP, so there are always 256 requests in 
+ *   flight. That is more than the 200 Tomcat threads.
+ *
+ * The employee cache is disabled so all of them go to the database on every
+ *   request. All of them have a pool of 10 connections. The concurrency limit
+ *   is disabled too, so the servlet stacks queue the requests like the
+ *   reactive one instead of shedding them.
+ *
+ * 1. getEmployeeById - GET /employees/{id} of a random seed employee.
+ * 2. getEmployees - GET /employees with the default limit.
+ *
+ * Use -Djmh.args="-t <threads>" for another level of concurrency. The
+ *   reactive stack is only built with the reactive profile:
+ *
+ *   ./mvnw -P jmh,reactive -DskipTests verify -Djmh.includes=WebStackBenchmark
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(256)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WebStackBenchmark {
+
+	private static final int SEED_ROWS = 100;
+
+	@Param({ "servlet", "virtual", "reactive" })
+	public String stack;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient client;
+
+	private String baseUrl;
+
+	private int maxId;
+
+	@Setup
+	public void setup() throws IOException, InterruptedException {
+		switch (stack) {
+		case "reactive":
+			context = BenchmarkApplication.start(WebApplicationType.REACTIVE,
+					"spring.profiles.active=reactive", "employee.cache.enabled=false");
+			break;
+		case "virtual":
+			context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+					"employee.virtual-threads.enabled=true", "employee.cache.enabled=false",
+					"employee.limiter.enabled=false");
+			break;
+		default:
+			context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+					"employee.cache.enabled=false", "employee.limiter.enabled=false");
+		}
+		baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+		// Seed through the API, the batch create is not available in the reactive mode
+		for (int i = 1; i <= SEED_ROWS; i++) {
+			HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/employees"))
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+					.POST(HttpRequest.BodyPublishers.ofString(String.format(
+							"{\"employeeName\":\"Employee %d\",\"position\":\"Developer\",\"dateHired\":\"2020-01-01\"}", i)))
+					.build(), HttpResponse.BodyHandlers.discarding());
+			String location = response.headers().firstValue(HttpHeaders.LOCATION).orElseThrow();
+			maxId = Math.max(maxId, Integer.parseInt(location.substring(location.lastIndexOf('/') + 1)));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int getEmployeeById() throws IOException, InterruptedException {
+		int id = ThreadLocalRandom.current().nextInt(1, maxId + 1);
+		return get("/employees/" + id);
+	}
+
+	@Benchmark
+	public int getEmployees() throws IOException, InterruptedException {
+		return get("/employees");
+	}
+
+	private int get(String path) throws IOException, InterruptedException {
+		return client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+				HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+	}
+}
@@ -1,7 +1,10 @@
 package com.example.employee.sys;
 
+import com.example.employee.sys.startup.ClassCountingApplicationStartup;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /***
  * This is the main application.	
@@ -10,13 +13,31 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * 	scanning of components for beans, and loading of configuration from the  
  * 	application.properties/yaml file.
  * 
+ * The @EnableScheduling annotation runs the @Scheduled methods, e.g. the
+ * 	reconciliation of the headcount counters in EmployeeServiceImpl.
+ * 
+ * The startup steps are recorded for the startup and startupreport actuator
+ * 	endpoints, see StartupReporter.
+ * 
  *  @author andie
  */
 @SpringBootApplication
+@EnableScheduling
 public class SpringBootDemoApplication {
 
+	/*
+	 * The number of startup steps kept, there are a few per bean.
+	 */
+	private static final int STARTUP_STEPS = 20_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(SpringBootDemoApplication.class, args);
+		application().run(args);
+	}
+
+	public static SpringApplication application() {
+		SpringApplication application = new SpringApplication(SpringBootDemoApplication.class);
+		application.setApplicationStartup(new ClassCountingApplicationStartup(STARTUP_STEPS));
+		return application;
 	}
 
 }
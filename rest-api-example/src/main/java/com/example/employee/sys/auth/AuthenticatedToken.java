@@ -0,0 +1,67 @@
+package com.example.employee.sys.auth;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/****
+ * AuthenticatedToken
+ *
+ * What is left of an access token once its signature and claims are
+ *   verified: the user, the roles and the time the token expires. It is
+ *   what TokenAuthenticator caches, so it is immutable and small.
+ *
+ * The roles are the realm roles and the client roles of the API, e.g.
+ *   "user". The authorities are the same roles with the ROLE_ prefix, the
+ *   way Spring names them.
+ *
+ */
+public final class AuthenticatedToken implements Principal {
+
+	private final String subject;
+	private final String username;
+	private final Set<String> roles;
+	private final List<String> authorities;
+	private final Instant expiresAt;
+
+	public AuthenticatedToken(String subject, String username, Set<String> roles, Instant expiresAt) {
+		this.subject = subject;
+		this.username = username;
+		this.roles = Set.copyOf(roles);
+		this.authorities = roles.stream()
+				.map(role -> "ROLE_" + role)
+				.sorted()
+				.collect(Collectors.toUnmodifiableList());
+		this.expiresAt = expiresAt;
+	}
+
+	/*
+	 * The preferred_username of the token, or its subject when it has none.
+	 */
+	@Override
+	public String getName() {
+		return username != null ? username : subject;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public Set<String> getRoles() {
+		return roles;
+	}
+
+	public List<String> getAuthorities() {
+		return authorities;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public boolean hasRole(String role) {
+		return roles.contains(role);
+	}
+}
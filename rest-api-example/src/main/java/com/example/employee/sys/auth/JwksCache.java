@@ -0,0 +1,174 @@
+package com.example.employee.sys.auth;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/****
+ * JwksCache
+ *
+ * The signing keys of the auth server, i.e. the JSON Web Key Set (JWKS) of
+ *   the Keycloak realm, kept in memory so a token is verified without a
+ *   call to the auth server. Each key is held as a ready JWSVerifier, by
+ *   its key ID (kid).
+ *
+ * The keys are fetched from employee.auth.jwks-uri:
+ *
+ * 1. On startup, and then every employee.auth.jwks-refresh-interval, by the
+ *   scheduler. A key the auth server publishes ahead of a rotation is
+ *   therefore known before the first token signed with it comes in.
+ *
+ * 2. When a token has a key ID that is not known, e.g. the realm keys were
+ *   rotated since the last refresh. This happens on the request thread, so
+ *   it is done at most once every employee.auth.jwks-min-refresh-interval,
+ *   and a flood of tokens with made-up key IDs cannot turn into a flood of
+ *   calls to the auth server.
+ *
+ * A refresh that fails keeps the keys it had, and the tokens signed with
+ *   them are still accepted. The employees.auth.jwks.refreshes counter has
+ *   the refreshes by result.
+ *
+ */
+public class JwksCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(JwksCache.class);
+
+	private final URI jwksUri;
+	private final Duration timeout;
+	private final long minRefreshNanos;
+	private final HttpClient httpClient;
+	private final Counter succeeded;
+	private final Counter failed;
+
+	private volatile Map<String, JWSVerifier> verifiers = Map.of();
+
+	/*
+	 * The start of the last refresh, only read and written under the lock.
+	 */
+	private boolean refreshed;
+	private long lastRefreshNanos;
+
+	public JwksCache(URI jwksUri, Duration timeout, Duration minRefreshInterval, MeterRegistry meterRegistry) {
+		this.jwksUri = jwksUri;
+		this.timeout = timeout;
+		this.minRefreshNanos = minRefreshInterval.toNanos();
+		this.httpClient = HttpClient.newBuilder()
+				.connectTimeout(timeout)
+				.build();
+		this.succeeded = refreshCounter(meterRegistry, "success");
+		this.failed = refreshCounter(meterRegistry, "failure");
+	}
+
+	private static Counter refreshCounter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("employees.auth.jwks.refreshes")
+				.description("Fetches of the signing keys of the auth server")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	/*
+	 * The verifier of the key with the given key ID, or null when the auth
+	 *   server does not have such a key. An unknown key ID refreshes the keys
+	 *   first, unless they were refreshed less than the minimum interval ago.
+	 */
+	public JWSVerifier verifierFor(String keyId) {
+		JWSVerifier verifier = verifiers.get(keyId);
+		if (verifier != null)
+			return verifier;
+		synchronized (this) {
+			// Another thread may have refreshed the keys while this one waited
+			verifier = verifiers.get(keyId);
+			if (verifier != null || (refreshed && System.nanoTime() - lastRefreshNanos < minRefreshNanos))
+				return verifier;
+			refresh();
+			return verifiers.get(keyId);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${employee.auth.jwks-refresh-interval:PT5M}")
+	public void scheduledRefresh() {
+		refresh();
+	}
+
+	/*
+	 * Fetches the keys and replaces the ones there were. Returns whether it
+	 *   worked, the keys are left as they were otherwise.
+	 */
+	public synchronized boolean refresh() {
+		refreshed = true;
+		lastRefreshNanos = System.nanoTime();
+		try {
+			HttpRequest request = HttpRequest.newBuilder(jwksUri)
+					.timeout(timeout)
+					.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+					.GET()
+					.build();
+			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200)
+				throw new IOException("Status " + response.statusCode());
+			verifiers = verifiersOf(JWKSet.parse(response.body()));
+			succeeded.increment();
+			return true;
+		} catch (IOException | ParseException e) {
+			failed.increment();
+			logger.warn("Unable to fetch the signing keys from {}, keeping the {} keys there were: {}",
+					jwksUri, verifiers.size(), e.toString());
+			return false;
+		} catch (InterruptedException e) {
+			failed.increment();
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	public int size() {
+		return verifiers.size();
+	}
+
+	/*
+	 * The signing keys of the set with a key ID. The encryption keys, which
+	 *   Keycloak publishes in the same set, and the key types that are not
+	 *   used to sign tokens are left out.
+	 */
+	static Map<String, JWSVerifier> verifiersOf(JWKSet keys) {
+		Map<String, JWSVerifier> verifiers = new HashMap<>();
+		for (JWK key : keys.getKeys()) {
+			if (key.getKeyID() == null || KeyUse.ENCRYPTION.equals(key.getKeyUse()))
+				continue;
+			try {
+				if (key instanceof RSAKey)
+					verifiers.put(key.getKeyID(), new RSASSAVerifier((RSAKey) key));
+				else if (key instanceof ECKey)
+					verifiers.put(key.getKeyID(), new ECDSAVerifier((ECKey) key));
+			} catch (JOSEException e) {
+				logger.warn("Ignoring the signing key {}: {}", key.getKeyID(), e.getMessage());
+			}
+		}
+		return Map.copyOf(verifiers);
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.employee.sys.auth;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Date;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import com.example.employee.sys.entity.Error;
+import com.example.employee.sys.exceptions.ForbiddenException;
+import com.example.employee.sys.exceptions.InvalidTokenException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/****
+ * JwtAuthenticationFilter
+ *
+ * Lets a request through only with a valid bearer access token that has the
+ *   required role, employee.auth.required-role, the same way the
+ *   keycloak.security-constraints of the Keycloak adapter do:
+ *
+ * 1. No token, or one that TokenAuthenticator rejects, gets a 401 with the
+ *   WWW-Authenticate header of RFC 6750 and the usual error body.
+ *
+ * 2. A valid token without the role gets a 403.
+ *
+ * 3. Otherwise the request goes on, with the user as its principal:
+ *   getUserPrincipal() is the AuthenticatedToken, getRemoteUser() its name
+ *   and isUserInRole() checks its roles.
+ *
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+	private static final String BEARER = "Bearer ";
+
+	private final TokenAuthenticator authenticator;
+	private final String requiredRole;
+	private final ObjectMapper objectMapper;
+
+	public JwtAuthenticationFilter(TokenAuthenticator authenticator, String requiredRole, ObjectMapper objectMapper) {
+		this.authenticator = authenticator;
+		this.requiredRole = requiredRole == null || requiredRole.isBlank() ? null : requiredRole;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+			reject(response, HttpStatus.UNAUTHORIZED, "Bearer",
+					new InvalidTokenException("A bearer access token is required."));
+			return;
+		}
+
+		AuthenticatedToken token;
+		try {
+			token = authenticator.authenticate(authorization.substring(BEARER.length()).trim());
+		} catch (InvalidTokenException e) {
+			reject(response, HttpStatus.UNAUTHORIZED, "Bearer error=\"invalid_token\"", e);
+			return;
+		}
+		if (requiredRole != null && !token.hasRole(requiredRole)) {
+			reject(response, HttpStatus.FORBIDDEN, "Bearer error=\"insufficient_scope\"",
+					new ForbiddenException("The access token does not have the " + requiredRole + " role."));
+			return;
+		}
+		chain.doFilter(new AuthenticatedRequest(request, token), response);
+	}
+
+	private void reject(HttpServletResponse response, HttpStatus status, String challenge, RuntimeException e)
+			throws IOException {
+		response.setStatus(status.value());
+		response.setHeader(HttpHeaders.WWW_AUTHENTICATE, challenge);
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(),
+				new Error(new Date(), e.getClass().getSimpleName(), e.getMessage()));
+	}
+
+	private static final class AuthenticatedRequest extends HttpServletRequestWrapper {
+
+		private final AuthenticatedToken token;
+
+		AuthenticatedRequest(HttpServletRequest request, AuthenticatedToken token) {
+			super(request);
+			this.token = token;
+		}
+
+		@Override
+		public Principal getUserPrincipal() {
+			return token;
+		}
+
+		@Override
+		public String getRemoteUser() {
+			return token.getName();
+		}
+
+		@Override
+		public boolean isUserInRole(String role) {
+			return token.hasRole(role);
+		}
+
+		@Override
+		public String getAuthType() {
+			return "Bearer";
+		}
+	}
+}
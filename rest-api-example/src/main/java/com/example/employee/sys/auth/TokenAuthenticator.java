@@ -0,0 +1,258 @@
+package com.example.employee.sys.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.example.employee.sys.exceptions.InvalidTokenException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/****
+ * TokenAuthenticator
+ *
+ * Turns the access token of a request into an AuthenticatedToken, without
+ *   calling the auth server:
+ *
+ * 1. The token is looked up in a cache of the tokens verified already. Most
+ *   requests stop here, the cost is one SHA-256 of the token.
+ *
+ * 2. Otherwise it is verified, see verify(). The signature is checked with
+ *   the key of JwksCache, and the claims against the configuration. The
+ *   result goes into the cache.
+ *
+ * The cache holds up to employee.auth.token-cache-size tokens. Each one is
+ *   kept until its exp claim (plus the clock skew), so an expired token is
+ *   never served from the cache. It is keyed by the SHA-256 of the token,
+ *   the tokens themselves are not kept in memory.
+ *
+ * A token that fails is not cached, it is verified again on every request.
+ *   That only costs the parse and the signature check, the keys are never
+ *   fetched more than once every employee.auth.jwks-min-refresh-interval.
+ *
+ * The employees.auth.tokens counter has the tokens by result (cached,
+ *   verified, rejected) and the employees.auth.verification timer the time
+ *   it takes to verify one.
+ *
+ */
+public class TokenAuthenticator {
+
+	/*
+	 * The asymmetric algorithms. "none" and the HMAC ones are refused, the
+	 *   API does not share a secret with the auth server.
+	 */
+	private static final Set<JWSAlgorithm> ALGORITHMS = algorithms();
+
+	private static final String ACCESS_TOKEN_TYPE = "Bearer";
+
+	private final JwksCache keys;
+	private final String issuer;
+	private final String audience;
+	private final String clientId;
+	private final Duration clockSkew;
+	private final Cache<String, AuthenticatedToken> tokens;
+
+	private final Counter cached;
+	private final Counter verified;
+	private final Counter rejected;
+	private final Timer verification;
+
+	public TokenAuthenticator(JwksCache keys, String issuer, String audience, String clientId,
+			Duration clockSkew, long cacheSize, MeterRegistry meterRegistry) {
+		this.keys = keys;
+		this.issuer = issuer;
+		this.audience = audience == null || audience.isBlank() ? null : audience;
+		this.clientId = clientId;
+		this.clockSkew = clockSkew;
+		this.tokens = Caffeine.newBuilder()
+				.maximumSize(cacheSize)
+				.expireAfter(new UntilExpired(clockSkew))
+				.build();
+
+		this.cached = tokenCounter(meterRegistry, "cached");
+		this.verified = tokenCounter(meterRegistry, "verified");
+		this.rejected = tokenCounter(meterRegistry, "rejected");
+		this.verification = Timer.builder("employees.auth.verification")
+				.description("Time to verify an access token that is not cached")
+				.register(meterRegistry);
+	}
+
+	private static Counter tokenCounter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("employees.auth.tokens")
+				.description("Access tokens of the requests by result")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	/*
+	 * The token from the cache, or verified and cached. Throws an
+	 *   InvalidTokenException when it cannot be trusted.
+	 */
+	public AuthenticatedToken authenticate(String token) {
+		String key = hash(token);
+		AuthenticatedToken authenticated = tokens.getIfPresent(key);
+		if (authenticated != null) {
+			cached.increment();
+			return authenticated;
+		}
+		try {
+			authenticated = verification.record(() -> verify(token));
+		} catch (InvalidTokenException e) {
+			rejected.increment();
+			throw e;
+		}
+		tokens.put(key, authenticated);
+		verified.increment();
+		return authenticated;
+	}
+
+	/*
+	 * Verifies the token without the cache: the signature, the exp and nbf
+	 *   claims with the clock skew, the issuer, the audience when one is
+	 *   configured, and that it is an access token and not e.g. an ID token.
+	 */
+	public AuthenticatedToken verify(String token) {
+		SignedJWT jwt;
+		JWTClaimsSet claims;
+		try {
+			jwt = SignedJWT.parse(token);
+			claims = jwt.getJWTClaimsSet();
+		} catch (ParseException e) {
+			throw new InvalidTokenException("The access token is not a signed JWT.", e);
+		}
+
+		JWSHeader header = jwt.getHeader();
+		if (!ALGORITHMS.contains(header.getAlgorithm()))
+			throw new InvalidTokenException("The access token is signed with " + header.getAlgorithm()
+					+ ", which is not accepted.");
+		if (header.getKeyID() == null)
+			throw new InvalidTokenException("The access token has no key ID.");
+		JWSVerifier verifier = keys.verifierFor(header.getKeyID());
+		if (verifier == null)
+			throw new InvalidTokenException("The access token is signed with an unknown key.");
+		try {
+			if (!verifier.supportedJWSAlgorithms().contains(header.getAlgorithm()) || !jwt.verify(verifier))
+				throw new InvalidTokenException("The signature of the access token is not valid.");
+		} catch (JOSEException e) {
+			throw new InvalidTokenException("The signature of the access token is not valid.", e);
+		}
+
+		Instant now = Instant.now();
+		Date expiresAt = claims.getExpirationTime();
+		if (expiresAt == null)
+			throw new InvalidTokenException("The access token has no expiration time.");
+		if (now.isAfter(expiresAt.toInstant().plus(clockSkew)))
+			throw new InvalidTokenException("The access token expired.");
+		Date notBefore = claims.getNotBeforeTime();
+		if (notBefore != null && now.plus(clockSkew).isBefore(notBefore.toInstant()))
+			throw new InvalidTokenException("The access token is not valid yet.");
+		if (!issuer.equals(claims.getIssuer()))
+			throw new InvalidTokenException("The access token is from another issuer.");
+		if (audience != null && (claims.getAudience() == null || !claims.getAudience().contains(audience)))
+			throw new InvalidTokenException("The access token is not meant for this API.");
+		Object type = claims.getClaim("typ");
+		if (type != null && !ACCESS_TOKEN_TYPE.equals(type))
+			throw new InvalidTokenException("The token is not an access token.");
+
+		Object username = claims.getClaim("preferred_username");
+		return new AuthenticatedToken(claims.getSubject(), username instanceof String ? (String) username : null,
+				rolesOf(claims), expiresAt.toInstant());
+	}
+
+	public long cachedTokens() {
+		return tokens.estimatedSize();
+	}
+
+	/*
+	 * The realm roles and the client roles of the API, the way Keycloak puts
+	 *   them in its tokens:
+	 *
+	 *   "realm_access": { "roles": [ "user" ] },
+	 *   "resource_access": { "spring-boot-demo": { "roles": [ "admin" ] } }
+	 */
+	private Set<String> rolesOf(JWTClaimsSet claims) {
+		Set<String> roles = new HashSet<>();
+		addRoles(claims.getClaim("realm_access"), roles);
+		Object resourceAccess = claims.getClaim("resource_access");
+		if (resourceAccess instanceof Map)
+			addRoles(((Map<?, ?>) resourceAccess).get(clientId), roles);
+		return roles;
+	}
+
+	private static void addRoles(Object access, Set<String> roles) {
+		if (!(access instanceof Map))
+			return;
+		Object names = ((Map<?, ?>) access).get("roles");
+		if (!(names instanceof Collection))
+			return;
+		for (Object name : (Collection<?>) names) {
+			if (name instanceof String)
+				roles.add((String) name);
+		}
+	}
+
+	static String hash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static Set<JWSAlgorithm> algorithms() {
+		Set<JWSAlgorithm> algorithms = new HashSet<>(JWSAlgorithm.Family.RSA);
+		algorithms.addAll(JWSAlgorithm.Family.EC);
+		return Set.copyOf(algorithms);
+	}
+
+	/*
+	 * Keeps each token until it expires. A read or an update does not change
+	 *   that.
+	 */
+	private static final class UntilExpired implements Expiry<String, AuthenticatedToken> {
+
+		private final Duration clockSkew;
+
+		UntilExpired(Duration clockSkew) {
+			this.clockSkew = clockSkew;
+		}
+
+		@Override
+		public long expireAfterCreate(String key, AuthenticatedToken token, long currentTime) {
+			long millis = Duration.between(Instant.now(), token.getExpiresAt().plus(clockSkew)).toMillis();
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, AuthenticatedToken token, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, token, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(String key, AuthenticatedToken token, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.example.employee.sys.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.example.employee.sys.entity.Employee;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/****
+ * EmployeeCache
+ * 
+ * This is a bounded, in-process read-through cache of employees by ID that
+ *   sits in front of the repository. Missing IDs are cached too, as an empty
+ *   Optional, but only for a short time. That way repeated lookups of an
+ *   unknown ID do not all reach the database.
+ *   
+ * Entries are evicted when the cache is full (least recently and frequently
+ *   used first) and when their time to live is over. The service evicts an
+ *   employee whenever it is created, updated or deleted.
+ *   
+ * The hit, miss and eviction counts are exported as the cache.* metrics with
+ *   the cache=employees tag.
+ *   
+ * When employee.cache.enabled is false, every lookup goes to the loader.
+ *
+ */
+@Component
+public class EmployeeCache {
+
+	public static final String NAME = "employees";
+
+	private final boolean enabled;
+	private final Cache<Integer, Optional<Employee>> cache;
+
+	public EmployeeCache(
+			@Value("${employee.cache.enabled:true}") boolean enabled,
+			@Value("${employee.cache.maximum-size:10000}") long maximumSize,
+			@Value("${employee.cache.time-to-live:10m}") Duration timeToLive,
+			@Value("${employee.cache.negative-time-to-live:5s}") Duration negativeTimeToLive,
+			MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfter(new FoundOrMissingExpiry(timeToLive, negativeTimeToLive))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+	}
+
+	/*
+	 * Returns the cached employee, or loads it with the given function and
+	 *   caches the result. Concurrent lookups of the same missing ID share a 
+	 *   single load.
+	 */
+	public Optional<Employee> get(Integer id, Function<Integer, Optional<Employee>> loader) {
+		if (!enabled)
+			return loader.apply(id);
+		return cache.get(id, loader);
+	}
+
+	public void evict(Integer id) {
+		cache.invalidate(id);
+	}
+
+	public void evictAll() {
+		cache.invalidateAll();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/*
+	 * Found employees live for the time to live, missing ones for the much
+	 *   shorter negative time to live. Reads do not extend either.
+	 */
+	private static final class FoundOrMissingExpiry implements Expiry<Integer, Optional<Employee>> {
+
+		private final long timeToLiveNanos;
+		private final long negativeTimeToLiveNanos;
+
+		FoundOrMissingExpiry(Duration timeToLive, Duration negativeTimeToLive) {
+			this.timeToLiveNanos = timeToLive.toNanos();
+			this.negativeTimeToLiveNanos = negativeTimeToLive.toNanos();
+		}
+
+		@Override
+		public long expireAfterCreate(Integer id, Optional<Employee> employee, long currentTime) {
+			return employee.isPresent() ? timeToLiveNanos : negativeTimeToLiveNanos;
+		}
+
+		@Override
+		public long expireAfterUpdate(Integer id, Optional<Employee> employee, long currentTime, long currentDuration) {
+			return expireAfterCreate(id, employee, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(Integer id, Optional<Employee> employee, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
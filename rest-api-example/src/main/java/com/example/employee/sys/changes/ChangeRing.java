@@ -0,0 +1,145 @@
+package com.example.employee.sys.changes;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.example.employee.sys.entity.EmployeeChange;
+
+/****
+ * ChangeRing
+ *
+ * A bounded ring buffer of the last changes, by the sequence of the change
+ *   log. The change of sequence n is kept in the slot n % capacity until the
+ *   change of sequence n + capacity takes its place. Nothing is ever removed,
+ *   a reader that is more than capacity changes behind has lost some of them.
+ *
+ * A sequence can be missing, e.g. one whose row of the change log was
+ *   already deleted when an instance starts. The producer then stores an
+ *   empty event in its slot, which the readers go past without returning it.
+ *
+ * It takes no lock. There is a single producer, EmployeeChangeLog, which
+ *   stores the events in their slots before it moves the last sequence.
+ *   Readers only read the slots up to the last sequence, so any number of
+ *   them can run at the same time as the producer and as each other.
+ *
+ */
+final class ChangeRing {
+
+	/*
+	 * Returned by read() to a reader that has to resync.
+	 */
+	static final long RESYNC = -1;
+
+	private final AtomicReferenceArray<Event> slots;
+	private final int mask;
+
+	/*
+	 * The ring has every change after first, until they are replaced.
+	 */
+	private volatile long first;
+	private volatile long last;
+
+	/*
+	 * The capacity is rounded up to a power of two, so the slot of a
+	 *   sequence is a mask instead of a division.
+	 */
+	ChangeRing(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("The capacity should be between 1 and 2^30.");
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+	}
+
+	int capacity() {
+		return slots.length();
+	}
+
+	/*
+	 * Starts the ring after the given sequence, before anything is published.
+	 *   The readers of an earlier sequence have to resync.
+	 */
+	void start(long sequence) {
+		first = sequence;
+		last = sequence;
+	}
+
+	/*
+	 * The sequence of the last change stored.
+	 */
+	long lastSequence() {
+		return last;
+	}
+
+	/*
+	 * Stores a change. Its sequence must be greater than the last one, the
+	 *   sequences in between are stored as empty events.
+	 */
+	void publish(Event event) {
+		long previous = last;
+		if (event.sequence <= previous)
+			throw new IllegalArgumentException("The change " + event.sequence + " is not after " + previous + ".");
+		for (long skipped = Math.max(previous + 1, event.sequence - slots.length() + 1); skipped < event.sequence; skipped++)
+			slots.set((int) (skipped & mask), new Event(skipped, null, null));
+		slots.set((int) (event.sequence & mask), event);
+		last = event.sequence;
+	}
+
+	/*
+	 * Whether read() has something for a reader at the given sequence: a
+	 *   later change, or the reader has to resync. The last sequence is always
+	 *   a change, never an empty event.
+	 */
+	boolean hasNext(long after) {
+		long last = this.last;
+		return after < last || after - last > slots.length();
+	}
+
+	/*
+	 * Adds the changes after the given sequence to the list, oldest first and
+	 *   at most max of them. Returns the sequence the reader is at after them,
+	 *   or RESYNC when some of them are lost, i.e. they were replaced by newer
+	 *   ones or are from before the start.
+	 *
+	 * A reader a little after the last sequence, e.g. one that got the later
+	 *   changes from another instance, stays where it is until they are stored
+	 *   here. One more than capacity changes ahead has to resync, it cannot be
+	 *   a reader of this log that another instance is ahead of.
+	 */
+	long read(long after, int max, List<Event> into) {
+		long last = this.last;
+		if (after >= last)
+			return after - last > slots.length() ? RESYNC : after;
+		if (after < first || last - after > slots.length())
+			return RESYNC;
+		long at = after;
+		for (long sequence = after + 1; sequence <= last && into.size() < max; sequence++) {
+			Event event = slots.get((int) (sequence & mask));
+			if (event == null || event.sequence != sequence)
+				return RESYNC;
+			if (event.change != null)
+				into.add(event);
+			at = sequence;
+		}
+		return at;
+	}
+
+	/*
+	 * A change with its sequence, and its JSON rendered once for all the
+	 *   subscribers. The change is null for a skipped sequence.
+	 */
+	static final class Event {
+
+		final long sequence;
+		final EmployeeChange change;
+		final String json;
+
+		Event(long sequence, EmployeeChange change, String json) {
+			this.sequence = sequence;
+			this.change = change;
+			this.json = json;
+		}
+	}
+}
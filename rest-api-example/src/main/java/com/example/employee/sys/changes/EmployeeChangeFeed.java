@@ -0,0 +1,364 @@
+package com.example.employee.sys.changes;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import com.example.employee.sys.changes.ChangeRing.Event;
+import com.example.employee.sys.entity.ChangeBatch;
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.example.employee.sys.exceptions.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/****
+ * EmployeeChangeFeed
+ *
+ * This is the feed of GET /employees/changes. EmployeeChangeLog publishes
+ *   the changes it reads from the change log table, i.e. the creates,
+ *   updates and deletes committed through any instance, and the feed hands
+ *   them to the subscribers:
+ *
+ * 1. Server-sent events. The subscriber keeps the response open and gets
+ *   each change as an event, see subscribe().
+ *
+ * 2. Long polls. The request waits until there is a change after the one the
+ *   client already has, or until the timeout, see poll().
+ *
+ * The changes go through a ChangeRing of employee.changes.buffer-size. Every
+ *   event ID is "<epoch>-<sequence>", where the epoch identifies the change
+ *   log and the sequence is the number of the change in it, so it means the
+ *   same on every instance. A client resumes from the event ID it got last
+ *   (the Last-Event-ID header, which browsers send when they reconnect),
+ *   whichever instance it reconnects to. When that change is no longer in
+ *   the ring, or the event ID is of another change log, e.g. of the
+ *   in-memory database before a restart, the client is told to resync: read
+ *   all the employees again, then go on from the event ID it is given. A
+ *   client that is a little ahead of this instance, because another one read
+ *   the change log first, waits for this one to catch up.
+ *
+ * No thread waits for a subscriber. The SSE responses and the long polls
+ *   are asynchronous requests, and they are held in two sets. Publishing a
+ *   change stores it and schedules one dispatch on the applicationTaskExecutor,
+ *   whatever the number of subscribers. The dispatch then schedules a drain
+ *   of each SSE subscriber that is not already draining, and completes the
+ *   long polls that have changes. A subscriber only uses a thread while its
+ *   events are written, and one that falls behind by more than the ring
+ *   only costs a resync.
+ *
+ */
+@Component
+@Profile("!reactive")
+public class EmployeeChangeFeed {
+
+	private static final long RESYNC = ChangeRing.RESYNC;
+
+	private final ChangeRing ring;
+
+	/*
+	 * The epoch of the change log, set once it is read.
+	 */
+	private volatile String epoch = "0";
+	private final ObjectMapper objectMapper;
+	private final TaskExecutor executor;
+	private final int maxBatch;
+	private final long sseTimeoutMillis;
+	private final long longPollTimeoutMillis;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final Set<LongPoll> polls = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+	public EmployeeChangeFeed(
+			ObjectMapper objectMapper,
+			@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor executor,
+			MeterRegistry meterRegistry,
+			@Value("${employee.changes.buffer-size:4096}") int bufferSize,
+			@Value("${employee.changes.max-batch:100}") int maxBatch,
+			@Value("${employee.changes.sse-timeout:30m}") Duration sseTimeout,
+			@Value("${employee.changes.long-poll-timeout:30s}") Duration longPollTimeout) {
+		this.ring = new ChangeRing(bufferSize);
+		this.objectMapper = objectMapper;
+		this.executor = executor;
+		this.maxBatch = maxBatch;
+		this.sseTimeoutMillis = sseTimeout.toMillis();
+		this.longPollTimeoutMillis = longPollTimeout.toMillis();
+
+		Gauge.builder("employees.changes.subscribers", subscribers, Set::size)
+			.description("Open server-sent event streams of GET /employees/changes")
+			.register(meterRegistry);
+		Gauge.builder("employees.changes.long-polls", polls, Set::size)
+			.description("Long polls of GET /employees/changes waiting for a change")
+			.register(meterRegistry);
+	}
+
+	int capacity() {
+		return ring.capacity();
+	}
+
+	/*
+	 * Starts the feed of the change log of the given epoch, after the given
+	 *   change, before anything is published.
+	 */
+	void start(String epoch, long sequence) {
+		ring.start(sequence);
+		this.epoch = epoch;
+	}
+
+	/*
+	 * Publishes a committed change. The sequences must be published in order
+	 *   and by one thread at a time. The employee is null for a deleted
+	 *   one.
+	 */
+	void publish(long sequence, EmployeeChange.Type type, int employeeId, Employee employee) {
+		EmployeeChange change = new EmployeeChange(idOf(sequence), type, employeeId, employee);
+		ring.publish(new Event(sequence, change, toJson(change)));
+		if (!subscribers.isEmpty() || !polls.isEmpty())
+			signal();
+	}
+
+	/*
+	 * Opens a stream of server-sent events with the changes after the given
+	 *   event ID, or the changes from now on when there is none. Each change
+	 *   is a "created", "updated" or "deleted" event, and a "resync" event
+	 *   tells the client to read all the employees again.
+	 */
+	public SseEmitter subscribe(String lastEventId) {
+		SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+		Subscriber subscriber = new Subscriber(emitter, cursorOf(lastEventId));
+		// The client reconnects with the Last-Event-ID header
+		emitter.onTimeout(emitter::complete);
+		emitter.onCompletion(subscriber::close);
+		emitter.onError(error -> subscriber.close());
+		subscribers.add(subscriber);
+		subscriber.schedule();
+		return emitter;
+	}
+
+	/*
+	 * Waits for the changes after the given event ID, or the changes from now
+	 *   on when there is none, and returns up to limit of them. Returns right
+	 *   away when there already are some or when the client has to resync.
+	 */
+	public DeferredResult<ChangeBatch> poll(String lastEventId, Integer limit) {
+		if (limit != null && limit < 1)
+			throw new BadRequestException("The limit query parameter should be 1 or greater.");
+		long cursor = cursorOf(lastEventId);
+		DeferredResult<ChangeBatch> result = new DeferredResult<>(longPollTimeoutMillis);
+		LongPoll poll = new LongPoll(cursor, limit == null ? maxBatch : Math.min(limit, maxBatch), result);
+		result.onTimeout(() -> result.setResult(new ChangeBatch(false, idOf(cursor), List.of())));
+		result.onCompletion(() -> polls.remove(poll));
+
+		if (poll.tryComplete())
+			return result;
+		polls.add(poll);
+		// In case a change was published before the poll was added
+		poll.tryComplete();
+		return result;
+	}
+
+	/*
+	 * Sends a comment to the SSE subscribers that had no event for a while,
+	 *   so proxies keep their connection open and closed ones are found.
+	 */
+	@Scheduled(fixedRateString = "${employee.changes.heartbeat-interval:PT15S}")
+	public void heartbeat() {
+		for (Subscriber subscriber : subscribers) {
+			subscriber.heartbeat = true;
+			subscriber.schedule();
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		for (Subscriber subscriber : subscribers)
+			subscriber.emitter.complete();
+	}
+
+	private void signal() {
+		if (dispatchScheduled.compareAndSet(false, true))
+			executor.execute(this::dispatch);
+	}
+
+	/*
+	 * Reset before the subscribers are visited, so a change published in the
+	 *   meantime schedules another dispatch instead of being missed.
+	 */
+	private void dispatch() {
+		dispatchScheduled.set(false);
+		for (Subscriber subscriber : subscribers)
+			subscriber.schedule();
+		for (LongPoll poll : polls)
+			poll.tryComplete();
+	}
+
+	String idOf(long sequence) {
+		return epoch + "-" + sequence;
+	}
+
+	/*
+	 * The sequence of an event ID, the last one when there is no event ID,
+	 *   and RESYNC when it is not one of this change log.
+	 */
+	long cursorOf(String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank())
+			return ring.lastSequence();
+		String epoch = this.epoch;
+		int dash = lastEventId.lastIndexOf('-');
+		if (dash != epoch.length() || !lastEventId.startsWith(epoch))
+			return RESYNC;
+		try {
+			long sequence = Long.parseLong(lastEventId.substring(dash + 1));
+			return sequence >= 0 ? sequence : RESYNC;
+		} catch (NumberFormatException e) {
+			return RESYNC;
+		}
+	}
+
+	private String toJson(EmployeeChange change) {
+		try {
+			return objectMapper.writeValueAsString(change);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Unable to write the change of employee " + change.getEmployeeId(), e);
+		}
+	}
+
+	/*
+	 * An open SSE response. Its events are written by drain(), which runs on
+	 *   the executor and never twice at the same time.
+	 */
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private volatile boolean heartbeat;
+		private volatile boolean closed;
+
+		/*
+		 * The sequence of the last change sent. Only used by drain().
+		 */
+		private long cursor;
+
+		Subscriber(SseEmitter emitter, long cursor) {
+			this.emitter = emitter;
+			this.cursor = cursor;
+		}
+
+		void schedule() {
+			if (!closed && scheduled.compareAndSet(false, true))
+				executor.execute(this::drain);
+		}
+
+		void close() {
+			closed = true;
+			subscribers.remove(this);
+		}
+
+		private void drain() {
+			try {
+				send();
+			} catch (IOException | IllegalStateException e) {
+				// The client is gone, the container completes the response
+				close();
+			} finally {
+				scheduled.set(false);
+			}
+			// A change stored after send() read the ring, whose dispatch found this one still scheduled
+			if (!closed && ring.hasNext(cursor))
+				schedule();
+		}
+
+		private void send() throws IOException {
+			List<Event> events = new ArrayList<>();
+			boolean sent = false;
+			while (true) {
+				events.clear();
+				long next = ring.read(cursor, maxBatch, events);
+				if (next == RESYNC) {
+					cursor = ring.lastSequence();
+					emitter.send(SseEmitter.event()
+							.id(idOf(cursor))
+							.name("resync")
+							.data("{\"resync\":true,\"lastEventId\":\"" + idOf(cursor) + "\"}"));
+					sent = true;
+					continue;
+				}
+				for (Event event : events) {
+					emitter.send(SseEmitter.event()
+							.id(event.change.getId())
+							.name(event.change.getType().name().toLowerCase(Locale.ROOT))
+							.data(event.json));
+					cursor = event.sequence;
+				}
+				cursor = next;
+				if (events.isEmpty())
+					break;
+				sent = true;
+			}
+			if (heartbeat) {
+				heartbeat = false;
+				if (!sent)
+					emitter.send(SseEmitter.event().comment("heartbeat"));
+			}
+		}
+	}
+
+	/*
+	 * A long poll waiting for a change after its cursor.
+	 */
+	private final class LongPoll {
+
+		private final long cursor;
+		private final int limit;
+		private final DeferredResult<ChangeBatch> result;
+
+		LongPoll(long cursor, int limit, DeferredResult<ChangeBatch> result) {
+			this.cursor = cursor;
+			this.limit = limit;
+			this.result = result;
+		}
+
+		/*
+		 * Completes the poll if there is a change for it. Returns whether it
+		 *   is complete.
+		 */
+		boolean tryComplete() {
+			if (result.isSetOrExpired())
+				return true;
+			if (!ring.hasNext(cursor))
+				return false;
+
+			List<Event> events = new ArrayList<>(Math.min(limit, 16));
+			long next = ring.read(cursor, limit, events);
+			if (next == RESYNC)
+				return result.setResult(new ChangeBatch(true, idOf(ring.lastSequence()), List.of()));
+			if (events.isEmpty())
+				return false;
+			List<EmployeeChange> changes = new ArrayList<>(events.size());
+			for (Event event : events)
+				changes.add(event.change);
+			return result.setResult(new ChangeBatch(false, idOf(next), changes));
+		}
+	}
+}
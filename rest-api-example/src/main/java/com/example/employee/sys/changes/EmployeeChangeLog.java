@@ -0,0 +1,218 @@
+package com.example.employee.sys.changes;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.example.employee.sys.entity.EmployeeChangeLogState;
+import com.example.employee.sys.entity.EmployeeChangeRecord;
+import com.example.employee.sys.repository.EmployeeChangeLogStateRepository;
+import com.example.employee.sys.repository.EmployeeChangeRepository;
+import com.example.employee.sys.routing.DataSourceRouting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/****
+ * EmployeeChangeLog
+ *
+ * The change log shared by the instances behind the load balancer, the
+ *   employee_changes table. It is what makes GET /employees/changes the
+ *   same on every instance:
+ *
+ * 1. EmployeeServiceImpl records each create, update and delete in the
+ *   transaction of the change, see record(). A change that is rolled back
+ *   leaves no row. The rows are inserted in JDBC batches like the employees.
+ *
+ * 2. The committed rows are numbered in the order they are found, by the
+ *   first instance to look for them. It holds the lock of the state row of
+ *   employee_change_log while it does, so the numbers have no gap and no
+ *   two instances give out the same one. See numberNewChanges().
+ *
+ * 3. Every instance reads the numbered rows every
+ *   employee.changes.poll-interval, and right away after a change committed
+ *   through it, see pollSoon(). It publishes them to its EmployeeChangeFeed
+ *   in order. On startup, it first loads the last employee.changes.buffer-size
+ *   changes, so a client can resume on an instance that just started.
+ *
+ * 4. The numbered rows older than employee.changes.retention are deleted.
+ *
+ * A change committed after a later one was numbered simply gets the next
+ *   number, so no instance ever waits for a change that may never come.
+ *
+ * The rows are read from the primary database, a read replica would only
+ *   add its lag to the feed.
+ *
+ */
+@Component
+@Profile("!reactive")
+public class EmployeeChangeLog {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeChangeLog.class);
+
+	/*
+	 * The rows numbered or read per query.
+	 */
+	private static final int POLL_BATCH = 500;
+
+	private final EmployeeChangeRepository repo;
+	private final EmployeeChangeLogStateRepository stateRepo;
+	private final EmployeeChangeFeed feed;
+	private final TransactionTemplate transactionTemplate;
+	private final TaskExecutor executor;
+	private final long retentionMillis;
+
+	private final AtomicBoolean pollScheduled = new AtomicBoolean();
+
+	/*
+	 * Only used by poll(), which is synchronized.
+	 */
+	private boolean started;
+	private long lastSequence;
+
+	public EmployeeChangeLog(
+			EmployeeChangeRepository repo,
+			EmployeeChangeLogStateRepository stateRepo,
+			EmployeeChangeFeed feed,
+			TransactionTemplate transactionTemplate,
+			@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor executor,
+			@Value("${employee.changes.retention:1h}") Duration retention) {
+		this.repo = repo;
+		this.stateRepo = stateRepo;
+		this.feed = feed;
+		this.transactionTemplate = transactionTemplate;
+		this.executor = executor;
+		this.retentionMillis = retention.toMillis();
+	}
+
+	/*
+	 * Records a change of an employee. It must be called in the transaction
+	 *   of the change. The employee is null for a deleted one.
+	 */
+	public void record(EmployeeChange.Type type, int employeeId, Employee employee) {
+		repo.save(new EmployeeChangeRecord(type, employeeId, employee));
+	}
+
+	/*
+	 * Records the creation of the employees, in the transaction that saved
+	 *   them. The rows are inserted at the next flush, in JDBC batches.
+	 */
+	public void recordCreated(List<Employee> employees) {
+		List<EmployeeChangeRecord> records = new ArrayList<>(employees.size());
+		for (Employee employee : employees)
+			records.add(new EmployeeChangeRecord(EmployeeChange.Type.CREATED, employee.getEmployeeId(), employee));
+		repo.saveAll(records);
+	}
+
+	/*
+	 * Reads the new changes on the applicationTaskExecutor, e.g. once a change
+	 *   made through this instance is committed. Calls made while one is
+	 *   scheduled share it.
+	 */
+	public void pollSoon() {
+		if (pollScheduled.compareAndSet(false, true)) {
+			executor.execute(() -> {
+				pollScheduled.set(false);
+				poll();
+			});
+		}
+	}
+
+	@PostConstruct
+	@Scheduled(fixedDelayString = "${employee.changes.poll-interval:PT0.5S}")
+	public synchronized void poll() {
+		try {
+			DataSourceRouting.runOnPrimary(() -> {
+				if (!started)
+					start();
+				numberNewChanges();
+				publishNewChanges();
+			});
+		} catch (DataAccessException e) {
+			logger.warn("Unable to read the change log after change {}", lastSequence, e);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${employee.changes.cleanup-interval:PT1M}")
+	public void deleteOldChanges() {
+		try {
+			int deleted = repo.deleteChangedBefore(new Timestamp(System.currentTimeMillis() - retentionMillis));
+			if (deleted > 0)
+				logger.debug("Deleted {} changes from the change log", deleted);
+		} catch (DataAccessException e) {
+			logger.warn("Unable to delete the old changes of the change log", e);
+		}
+	}
+
+	/*
+	 * Reads the state of the change log, or creates it for a new database.
+	 *   The feed starts buffer-size changes before the last one.
+	 */
+	private void start() {
+		EmployeeChangeLogState state = stateRepo.findById(EmployeeChangeLogState.ID).orElseGet(() -> {
+			try {
+				return transactionTemplate.execute(status -> stateRepo.saveAndFlush(
+						new EmployeeChangeLogState(Long.toString(System.currentTimeMillis(), Character.MAX_RADIX))));
+			} catch (DataIntegrityViolationException e) {
+				// Another instance created it first
+				return stateRepo.findById(EmployeeChangeLogState.ID).orElseThrow(() -> e);
+			}
+		});
+		lastSequence = Math.max(0, state.getLastSequence() - feed.capacity());
+		feed.start(state.getEpoch(), lastSequence);
+		started = true;
+	}
+
+	/*
+	 * Numbers the committed changes that have no logSequence yet. The lock of
+	 *   the state row makes the instances take turns, and the one that waited
+	 *   finds the rows that were numbered in the meantime gone from its query.
+	 */
+	private void numberNewChanges() {
+		if (!repo.existsByLogSequenceIsNull())
+			return;
+		transactionTemplate.executeWithoutResult(status -> {
+			EmployeeChangeLogState state = stateRepo.lockById(EmployeeChangeLogState.ID)
+					.orElseThrow(() -> new IllegalStateException("The change log has no state row."));
+			long sequence = state.getLastSequence();
+			List<EmployeeChangeRecord> records;
+			do {
+				records = repo.findByLogSequenceIsNullOrderByRecordId(PageRequest.of(0, POLL_BATCH));
+				for (EmployeeChangeRecord record : records)
+					record.setLogSequence(++sequence);
+				repo.flush();
+			} while (records.size() == POLL_BATCH);
+			state.setLastSequence(sequence);
+		});
+	}
+
+	private void publishNewChanges() {
+		while (true) {
+			List<EmployeeChangeRecord> records = repo.findByLogSequenceGreaterThanOrderByLogSequence(
+					lastSequence, PageRequest.of(0, POLL_BATCH));
+			for (EmployeeChangeRecord record : records) {
+				feed.publish(record.getLogSequence(), record.getType(), record.getEmployeeId(), record.toEmployee());
+				lastSequence = record.getLogSequence();
+			}
+			if (records.size() < POLL_BATCH)
+				return;
+		}
+	}
+}
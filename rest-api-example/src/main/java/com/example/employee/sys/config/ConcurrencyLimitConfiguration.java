@@ -0,0 +1,104 @@
+package com.example.employee.sys.config;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+
+import com.example.employee.sys.entity.Error;
+import com.example.employee.sys.exceptions.ServiceUnavailableException;
+import com.example.limit.AdaptiveLimit;
+import com.example.limit.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/****
+ * ConcurrencyLimitConfiguration
+ *
+ * Limits the number of employee requests that run at the same time, see
+ *   ConcurrencyLimitFilter. It is enabled with employee.limiter.enabled=true.
+ *
+ * 1. readLimit and writeLimit are the adaptive limits of the reads and the
+ *   writes, each set up with its employee.limiter.read.* or
+ *   employee.limiter.write.* properties. They start at the initial limit and
+ *   then move between the min and the max limit with the latency.
+ *
+ * 2. concurrencyLimitFilter sheds the requests of employee.limiter.url-patterns
+ *   above those limits, except employee.limiter.excluded-paths. They get the
+ *   usual error body, with the ServiceUnavailableException type.
+ *
+ * AdaptiveLimit and ConcurrencyLimitFilter are in the concurrency-limit
+ *   module, which the jsonview example uses too. The metrics are the
+ *   employees.limiter.* ones.
+ *
+ * The filter runs right after the http.server.requests metrics filter, so the
+ *   503s are still counted there, and before the authentication filter, so a
+ *   shed request does not cost a token verification.
+ *
+ * @Profile("!reactive") leaves it out of the reactive mode, which has no
+ *   servlet filters.
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employee.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitConfiguration {
+
+	private static final String METRIC_PREFIX = "employees.limiter";
+
+	@Bean
+	public AdaptiveLimit readLimit(
+			@Value("${employee.limiter.read.initial-limit:50}") int initialLimit,
+			@Value("${employee.limiter.read.min-limit:5}") int minLimit,
+			@Value("${employee.limiter.read.max-limit:200}") int maxLimit,
+			@Value("${employee.limiter.window:100ms}") Duration window,
+			@Value("${employee.limiter.tolerance:1.5}") double tolerance,
+			MeterRegistry meterRegistry) {
+		return new AdaptiveLimit(METRIC_PREFIX, "read", initialLimit, minLimit, maxLimit, window, tolerance,
+				meterRegistry);
+	}
+
+	@Bean
+	public AdaptiveLimit writeLimit(
+			@Value("${employee.limiter.write.initial-limit:10}") int initialLimit,
+			@Value("${employee.limiter.write.min-limit:2}") int minLimit,
+			@Value("${employee.limiter.write.max-limit:50}") int maxLimit,
+			@Value("${employee.limiter.window:100ms}") Duration window,
+			@Value("${employee.limiter.tolerance:1.5}") double tolerance,
+			MeterRegistry meterRegistry) {
+		return new AdaptiveLimit(METRIC_PREFIX, "write", initialLimit, minLimit, maxLimit, window, tolerance,
+				meterRegistry);
+	}
+
+	@Bean
+	public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+			@Qualifier("readLimit") AdaptiveLimit readLimit,
+			@Qualifier("writeLimit") AdaptiveLimit writeLimit,
+			ObjectMapper objectMapper,
+			@Value("${employee.limiter.retry-after:1s}") Duration retryAfter,
+			@Value("${employee.limiter.url-patterns:/employees,/employees/*,/employees:batch}") String[] urlPatterns,
+			@Value("${employee.limiter.excluded-paths:/employees/changes,/employees/export}") Set<String> excludedPaths) {
+		// Retry-After is in whole seconds, rounded up
+		long retryAfterSeconds = (retryAfter.toMillis() + 999) / 1000;
+		FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+				new ConcurrencyLimitFilter(readLimit, writeLimit, excludedPaths, retryAfterSeconds, response -> {
+					ServiceUnavailableException e = new ServiceUnavailableException(ConcurrencyLimitFilter.MESSAGE);
+					response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+					objectMapper.writeValue(response.getOutputStream(),
+							new Error(new Date(), e.getClass().getSimpleName(), e.getMessage()));
+				}));
+		registration.addUrlPatterns(urlPatterns);
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+		return registration;
+	}
+}
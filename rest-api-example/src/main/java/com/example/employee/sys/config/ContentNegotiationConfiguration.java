@@ -0,0 +1,66 @@
+package com.example.employee.sys.config;
+
+import java.util.List;
+
+import com.example.employee.sys.protobuf.EmployeeProtobufHttpMessageConverter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/****
+ * ContentNegotiationConfiguration
+ *
+ * Adds the binary formats of the employees next to JSON. The client picks
+ *   one with the Accept header, and sends a request body in it with the
+ *   Content-Type header:
+ *
+ * 1. application/cbor and application/x-jackson-smile, the binary formats of
+ *   Jackson. The body is the same as the JSON one, e.g. the dateHired is
+ *   still a yyyy-MM-dd string, so a Jackson client reads it into the same
+ *   classes. They work for the other bodies too, e.g. the stats.
+ *
+ * 2. application/x-protobuf for the employees and the lists of employees,
+ *   see EmployeeProtobufHttpMessageConverter and static/proto/employee.proto.
+ *
+ * The converters are added after the JSON one, so JSON stays the format of
+ *   a request without an Accept header or one that accepts anything.
+ *
+ * Spring MVC already adds CBOR and Smile converters when their Jackson
+ *   modules are on the classpath, with a plain ObjectMapper. They are
+ *   replaced with ones built like the JSON ObjectMapper of Spring Boot,
+ *   i.e. with the spring.jackson.* properties and the same modules.
+ *
+ * @Profile("!reactive") leaves it out of the reactive mode, which serves
+ *   JSON only.
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+public class ContentNegotiationConfiguration implements WebMvcConfigurer {
+
+	private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+	public ContentNegotiationConfiguration(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+		this.builders = builders;
+	}
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+				|| converter instanceof MappingJackson2SmileHttpMessageConverter);
+		// The builder is a prototype bean, each call gets a new one
+		converters.add(new MappingJackson2CborHttpMessageConverter(
+				builders.getObject().factory(new CBORFactory()).build()));
+		converters.add(new MappingJackson2SmileHttpMessageConverter(
+				builders.getObject().factory(new SmileFactory()).build()));
+		converters.add(new EmployeeProtobufHttpMessageConverter());
+	}
+}
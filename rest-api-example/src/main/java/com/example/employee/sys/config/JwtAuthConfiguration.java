@@ -0,0 +1,81 @@
+package com.example.employee.sys.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import com.example.employee.sys.auth.JwksCache;
+import com.example.employee.sys.auth.JwtAuthenticationFilter;
+import com.example.employee.sys.auth.TokenAuthenticator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/****
+ * JwtAuthConfiguration
+ *
+ * Authenticates the requests with the access tokens of the Keycloak realm,
+ *   verified by the API itself instead of the auth server. It is enabled
+ *   with employee.auth.enabled=true.
+ *
+ * 1. jwksCache holds the signing keys of the realm, fetched from
+ *   employee.auth.jwks-uri and refreshed in the background.
+ *
+ * 2. tokenAuthenticator verifies a token with those keys, and caches it
+ *   until it expires.
+ *
+ * 3. jwtAuthenticationFilter lets the requests of employee.auth.url-patterns
+ *   through with a valid token that has employee.auth.required-role.
+ *
+ * Once the keys are fetched, a request only waits for the auth server when
+ *   its token was signed by a key that is not known yet, i.e. right after
+ *   the realm keys were rotated.
+ *
+ * @Profile("!reactive") leaves it out of the reactive mode, which has no
+ *   servlet filters.
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employee.auth.enabled", havingValue = "true")
+public class JwtAuthConfiguration {
+
+	@Bean
+	public JwksCache jwksCache(
+			@Value("${employee.auth.jwks-uri:${employee.auth.issuer}/protocol/openid-connect/certs}") URI jwksUri,
+			@Value("${employee.auth.jwks-timeout:5s}") Duration timeout,
+			@Value("${employee.auth.jwks-min-refresh-interval:10s}") Duration minRefreshInterval,
+			MeterRegistry meterRegistry) {
+		return new JwksCache(jwksUri, timeout, minRefreshInterval, meterRegistry);
+	}
+
+	@Bean
+	public TokenAuthenticator tokenAuthenticator(
+			JwksCache jwksCache,
+			@Value("${employee.auth.issuer}") String issuer,
+			@Value("${employee.auth.audience:}") String audience,
+			@Value("${employee.auth.client-id:spring-boot-demo}") String clientId,
+			@Value("${employee.auth.clock-skew:30s}") Duration clockSkew,
+			@Value("${employee.auth.token-cache-size:10000}") long cacheSize,
+			MeterRegistry meterRegistry) {
+		return new TokenAuthenticator(jwksCache, issuer, audience, clientId, clockSkew, cacheSize, meterRegistry);
+	}
+
+	@Bean
+	public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilter(
+			TokenAuthenticator tokenAuthenticator,
+			ObjectMapper objectMapper,
+			@Value("${employee.auth.required-role:user}") String requiredRole,
+			@Value("${employee.auth.url-patterns:/employees,/employees/*,/employees:batch}") String[] urlPatterns) {
+		FilterRegistrationBean<JwtAuthenticationFilter> registration =
+				new FilterRegistrationBean<>(new JwtAuthenticationFilter(tokenAuthenticator, requiredRole, objectMapper));
+		registration.addUrlPatterns(urlPatterns);
+		return registration;
+	}
+}
@@ -0,0 +1,132 @@
+package com.example.employee.sys.config;
+
+import javax.sql.DataSource;
+
+import com.example.employee.sys.routing.ConsistencyTokenFilter;
+import com.example.employee.sys.routing.ReadWriteRoutingDataSource;
+import com.example.employee.sys.routing.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/****
+ * ReadReplicaConfiguration
+ *
+ * Sends the read-only transactions to a read replica of the database and
+ *   everything else to the primary. It is enabled with 
+ *   employee.read-replica.enabled=true.
+ *
+ * Instead of the one DataSource of Spring Boot, there are three:
+ *
+ * 1. primaryDataSource, the Hikari pool named "primary". It is set up from 
+ *   the spring.datasource.* properties, like the DataSource it replaces.
+ *
+ * 2. replicaDataSource, the Hikari pool named "replica". It is set up from 
+ *   the employee.read-replica.datasource.* properties, e.g. jdbc-url, 
+ *   username, password and maximum-pool-size.
+ *
+ * 3. dataSource, the one JPA and everything else uses. It picks one of the
+ *   pools for each connection through routingDataSource, see
+ *   ReadWriteRoutingDataSource.
+ *
+ * The hikaricp.* metrics, e.g. the time to get a connection and the time it
+ *   is used, are exported for each pool with its pool tag.
+ *
+ * Open-in-view is turned off with it, so a write that follows a read in
+ *   the same request still goes to the primary, see
+ *   ReadReplicaEnvironmentPostProcessor.
+ *
+ * The ConsistencyTokenFilter lets a client read its own writes while the
+ *   replica catches up, see ReadYourWrites.
+ *
+ * With employee.read-replica.init-scripts, the given SQL scripts are run on
+ *   the replica on startup. This is only meant for a local replica that is
+ *   a separate H2 database, see application-replica.properties.
+ *
+ * @Profile("!reactive") leaves it out of the reactive mode, which has no 
+ *   JDBC DataSource.
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employee.read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.build();
+		dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+		return dataSource;
+	}
+
+	@Bean
+	@ConfigurationProperties("employee.read-replica.datasource")
+	public HikariDataSource replicaDataSource() {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+		return dataSource;
+	}
+
+	/*
+	 * A bean of its own so its employees.datasource.routes metric is bound
+	 *   like any other MeterBinder.
+	 */
+	@Bean
+	public ReadWriteRoutingDataSource routingDataSource(
+			@Qualifier("primaryDataSource") DataSource primary,
+			@Qualifier("replicaDataSource") DataSource replica) {
+		return new ReadWriteRoutingDataSource(primary, replica);
+	}
+
+	/*
+	 * The transaction manager opens its connection before the transaction is
+	 *   marked read-only. The LazyConnectionDataSourceProxy hands out a proxy
+	 *   instead, and only opens the real connection, on the pool chosen at 
+	 *   that point, when the first statement runs.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+
+	@Bean
+	public DataSourceInitializer replicaDataSourceInitializer(
+			@Qualifier("replicaDataSource") DataSource replica,
+			@Value("${employee.read-replica.init-scripts:}") String[] scripts,
+			ResourceLoader resourceLoader) {
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+		for (String script : scripts)
+			populator.addScript(resourceLoader.getResource(script.trim()));
+
+		DataSourceInitializer initializer = new DataSourceInitializer();
+		initializer.setDataSource(replica);
+		initializer.setDatabasePopulator(populator);
+		initializer.setEnabled(scripts.length > 0);
+		return initializer;
+	}
+
+	@Bean
+	public FilterRegistrationBean<ConsistencyTokenFilter> consistencyTokenFilter(ReadYourWrites readYourWrites) {
+		FilterRegistrationBean<ConsistencyTokenFilter> registration = 
+				new FilterRegistrationBean<>(new ConsistencyTokenFilter(readYourWrites));
+		registration.addUrlPatterns("/*");
+		return registration;
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.employee.sys.config;
+
+import java.util.Collections;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/****
+ * ReadReplicaEnvironmentPostProcessor
+ *
+ * Turns off open-in-view, spring.jpa.open-in-view=false, when the read 
+ *   replica is enabled, see ReadReplicaConfiguration.
+ *
+ * With open-in-view, every request keeps one EntityManager, and Hibernate 
+ *   holds its connection until the request ends. A read-only transaction 
+ *   would get a connection to the replica, and a write later in the same 
+ *   request would then go to the replica too. Without it, each transaction 
+ *   gets its own connection, from the pool it is routed to.
+ *
+ * The property source comes first, so this wins over the application 
+ *   properties. It is registered in META-INF/spring.factories.
+ *
+ */
+public class ReadReplicaEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+	static final String PROPERTY_SOURCE_NAME = "readReplica";
+
+	@Override
+	public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+		if (environment.getProperty("employee.read-replica.enabled", Boolean.class, false)) {
+			environment.getPropertySources().addFirst(new MapPropertySource(PROPERTY_SOURCE_NAME,
+					Collections.singletonMap("spring.jpa.open-in-view", "false")));
+		}
+	}
+}
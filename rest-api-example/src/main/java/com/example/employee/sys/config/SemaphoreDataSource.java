@@ -0,0 +1,111 @@
+package com.example.employee.sys.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/****
+ * SemaphoreDataSource
+ *
+ * Wraps the connection pool so that at most a fixed number of threads hold a
+ *   JDBC connection at the same time. A thread takes a permit before it gets
+ *   a connection and gives it back when it closes the connection.
+ *
+ * This is for virtual threads. JDBC drivers that block inside synchronized
+ *   code pin the virtual thread to its carrier thread, and a pinned carrier
+ *   cannot run any other virtual thread. Waiting on the semaphore does not
+ *   pin, so thousands of requests can wait for a connection while only the
+ *   permitted ones can pin carriers.
+ *
+ * The semaphore is fair: the connections are handed out in the order they
+ *   were asked for.
+ *
+ */
+final class SemaphoreDataSource extends DelegatingDataSource {
+
+	private final Semaphore permits;
+
+	SemaphoreDataSource(DataSource target, int permits) {
+		super(target);
+		this.permits = new Semaphore(permits, true);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		acquire();
+		try {
+			return releasingOnClose(super.getConnection());
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		acquire();
+		try {
+			return releasingOnClose(super.getConnection(username, password));
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	int getAvailablePermits() {
+		return permits.availablePermits();
+	}
+
+	int getWaitingThreads() {
+		return permits.getQueueLength();
+	}
+
+	private void acquire() throws SQLException {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a JDBC connection permit", e);
+		}
+	}
+
+	/*
+	 * Returns a proxy of the connection that gives the permit back the first
+	 *   time it is closed. Everything else goes straight to the connection.
+	 */
+	private Connection releasingOnClose(Connection connection) {
+		AtomicBoolean released = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(
+				Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "close":
+						try {
+							connection.close();
+						} finally {
+							if (released.compareAndSet(false, true))
+								permits.release();
+						}
+						return null;
+					default:
+						try {
+							return method.invoke(connection, args);
+						} catch (InvocationTargetException e) {
+							throw e.getTargetException();
+						}
+					}
+				});
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.employee.sys.config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/****
+ * VirtualThreadsConfiguration
+ *
+ * Runs the request handling on virtual threads instead of the pool of 200
+ *   Tomcat threads. It is enabled with employee.virtual-threads.enabled=true.
+ *
+ * A virtual thread that waits for the database gives its carrier thread to
+ *   another virtual thread, so thousands of requests can be in flight without
+ *   thousands of platform threads. The number of concurrent requests is then
+ *   bound by server.tomcat.max-connections, not by server.tomcat.threads.max.
+ *
+ * Three beans are swapped:
+ *
+ * 1. Tomcat's executor. Every request runs on a new virtual thread.
+ *
+ * 2. The applicationTaskExecutor, which Spring MVC uses for asynchronous
+ *   requests and Spring for @Async methods. Its tasks run on virtual threads
+ *   too.
+ *
+ * 3. The dataSource bean is wrapped in a SemaphoreDataSource that lets at
+ *   most employee.virtual-threads.jdbc-permits threads use a JDBC connection
+ *   at the same time. Its state is exported as the jdbc.permits.* metrics.
+ *   Only the @Primary one the application uses is, by its name. The pools
+ *   behind it, e.g. those of ReadReplicaConfiguration, keep their own type,
+ *   and a connection does not take two permits.
+ *
+ * @ConditionalOnProperty only creates the beans when the property is true.
+ *   Otherwise the API runs on platform threads as before.
+ *
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "employee.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+	private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(virtualThreads("task-vt-")));
+	}
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(
+				Executors.newThreadPerTaskExecutor(virtualThreads("http-vt-")));
+	}
+
+	/*
+	 * The permits default to the size of the Hikari pool, so no thread waits
+	 *   inside the pool itself. With a driver that pins, keep them at or below
+	 *   the number of carrier threads (jdk.virtualThreadScheduler.parallelism,
+	 *   the number of CPUs by default).
+	 */
+	@Bean
+	public static BeanPostProcessor semaphoreDataSourcePostProcessor(
+			@Value("${employee.virtual-threads.jdbc-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (DATA_SOURCE_BEAN_NAME.equals(beanName) && bean instanceof DataSource 
+						&& !(bean instanceof SemaphoreDataSource))
+					return new SemaphoreDataSource((DataSource) bean, permits);
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public MeterBinder jdbcPermitsMetrics(ObjectProvider<DataSource> dataSource) {
+		return registry -> dataSource.ifAvailable(ds -> {
+			if (!(ds instanceof SemaphoreDataSource))
+				return;
+			SemaphoreDataSource semaphore = (SemaphoreDataSource) ds;
+			Gauge.builder("jdbc.permits.available", semaphore, SemaphoreDataSource::getAvailablePermits)
+				.description("JDBC connection permits that are free")
+				.register(registry);
+			Gauge.builder("jdbc.permits.waiting", semaphore, SemaphoreDataSource::getWaitingThreads)
+				.description("Threads waiting for a JDBC connection permit")
+				.register(registry);
+		});
+	}
+
+	private static ThreadFactory virtualThreads(String prefix) {
+		return Thread.ofVirtual().name(prefix, 0).factory();
+	}
+}
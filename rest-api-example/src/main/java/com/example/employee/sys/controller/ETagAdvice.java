@@ -0,0 +1,81 @@
+package com.example.employee.sys.controller;
+
+import java.util.List;
+
+import com.example.employee.sys.entity.Employee;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/****
+ * ETagAdvice
+ *
+ * Adds the ETag to the employees returned by the GET requests of
+ *   EmployeeController, once the format of the body is known:
+ *
+ * 1. The tag is the one of ETags for the employee or the list of employees,
+ *   with the subtype of the format when it is not JSON. A client that reads
+ *   the same employees in JSON and in CBOR gets two different tags.
+ *
+ * 2. When the If-None-Match header matches the tag, the status is set to
+ *   304 Not Modified and no body is written.
+ *
+ * The controller does not set the ETag itself: Spring would compare it with
+ *   If-None-Match before the format is chosen, and answer 304 to a CBOR
+ *   request with the tag of the JSON body.
+ *
+ * In the reactive mode, the bodies are always JSON and ReactiveEmployeeController
+ *   sets the ETag of ETags as is.
+ *
+ */
+@RestControllerAdvice(assignableTypes = EmployeeController.class)
+@Profile("!reactive")
+public class ETagAdvice implements ResponseBodyAdvice<Object> {
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		ResolvableType type = ResolvableType.forMethodParameter(returnType);
+		if (HttpEntity.class.isAssignableFrom(type.toClass()))
+			type = type.getGeneric(0);
+		return type.toClass() == Employee.class || type.asCollection().resolveGeneric(0) == Employee.class;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		if (body == null || !(HttpMethod.GET.equals(request.getMethod()) || HttpMethod.HEAD.equals(request.getMethod())))
+			return body;
+
+		String eTag = body instanceof Employee ? ETags.of((Employee) body) : ETags.of((List<Employee>) body);
+		eTag = ETags.of(eTag, selectedContentType);
+		response.getHeaders().setETag(eTag);
+		if (matches(request.getHeaders().getIfNoneMatch(), eTag)) {
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			return null;
+		}
+		return body;
+	}
+
+	/*
+	 * If-None-Match uses the weak comparison, so W/"3" matches "3".
+	 */
+	private static boolean matches(List<String> ifNoneMatch, String eTag) {
+		for (String tag : ifNoneMatch) {
+			if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(eTag))
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.employee.sys.controller;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.exceptions.BadRequestException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+
+/****
+ * ETags
+ * 
+ * Builds and reads the entity tags of the employee resources. The tags are
+ *   computed from the version column of the employees, so they are known
+ *   without serializing the response body.
+ *   
+ * 1. An employee's ETag is its version, e.g. "3". It changes on every update.
+ * 
+ * 2. The ETag of a list of employees is a hash of the ID and version of each
+ *   employee in it. It changes when an employee in the list is updated, added
+ *   or removed.
+ *   
+ * 3. In the other formats of the body (see ContentNegotiationConfiguration),
+ *   the subtype of the format is added to the tag, e.g. "3-cbor" or
+ *   "3-protobuf". ETagAdvice adds it once the format is known.
+ *   
+ * They are strong ETags: the same tag always means the same bytes. The
+ *   responses also have Vary: Accept, which keeps a cache from mixing the
+ *   formats up.
+ * 
+ */
+final class ETags {
+	
+	private ETags() {}
+	
+	static String of(Employee employee) {
+		return quote(String.valueOf(employee.getVersion()));
+	}
+	
+	static String of(List<Employee> employees) {
+		ByteBuffer buffer = ByteBuffer.allocate(employees.size() * 2 * Integer.BYTES);
+		for (Employee employee : employees)
+			buffer.putInt(employee.getEmployeeId()).putInt(employee.getVersion());
+		return quote(DigestUtils.md5DigestAsHex(buffer.array()));
+	}
+	
+	/*
+	 * The ETag of the same body written in the given format. A JSON body 
+	 *   keeps the tag as is.
+	 */
+	static String of(String eTag, MediaType contentType) {
+		if (contentType == null || isJson(contentType))
+			return eTag;
+		String subtype = contentType.getSubtype();
+		if (subtype.startsWith("x-"))
+			subtype = subtype.substring(2);
+		return quote(eTag.substring(1, eTag.length() - 1) + "-" + subtype);
+	}
+	
+	/*
+	 * Reads the version the client expects from an If-Match header. Returns 
+	 *   null when the header is missing or "*", i.e. any version will do.
+	 *   
+	 * If-Match uses the strong comparison, so a weak ETag or an ETag that is
+	 *   not one of ours never matches the employee. The ETag of any format of
+	 *   the employee does, since they all stand for the same version.
+	 */
+	static Integer parseIfMatch(String ifMatch, Integer id) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+			return null;
+		
+		String tag = ifMatch.trim();
+		if (tag.contains(","))
+			throw new BadRequestException("The If-Match header should contain a single ETag.");
+		if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\""))
+			throw new PreconditionFailedException(id);
+		String version = tag.substring(1, tag.length() - 1);
+		int format = version.indexOf('-');
+		if (format > 0)
+			version = version.substring(0, format);
+		try {
+			return Integer.valueOf(version);
+		} catch (NumberFormatException e) {
+			throw new PreconditionFailedException(id);
+		}
+	}
+	
+	private static boolean isJson(MediaType contentType) {
+		return contentType.getSubtype().equals("json") || contentType.getSubtype().endsWith("+json");
+	}
+	
+	private static String quote(String value) {
+		return "\"" + value + "\"";
+	}
+}
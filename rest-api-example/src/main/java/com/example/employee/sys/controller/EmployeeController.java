@@ -1,15 +1,35 @@
 package com.example.employee.sys.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import com.example.employee.sys.changes.EmployeeChangeFeed;
+import com.example.employee.sys.entity.BatchItemResult;
+import com.example.employee.sys.entity.ChangeBatch;
 import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeStats;
+import com.example.employee.sys.entity.Headcount;
 import com.example.employee.sys.exceptions.InternalServerException;
 import com.example.employee.sys.service.EmployeeService;
+import com.example.employee.sys.service.ExportFormat;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,7 +37,12 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /****
  * EmployeeController
@@ -41,28 +66,172 @@ import org.springframework.web.bind.annotation.RestController;
  *   
  * @PathVariable is used to map a URL path parameter to a method variable.
  * 
+ * @RequestParam is used to map a URL query parameter to a method variable.
+ * 
  * @RequestBody is used to map an HTTP request body to a method variable.
  * 
+ * @RequestHeader is used to map an HTTP request header to a method variable.
+ * 
  * @Valid is a an annotation that marks the associated parameter for validation. 
  * 
+ * @Profile("!reactive") leaves this controller out of the reactive mode, where
+ *   ReactiveEmployeeController serves the same API on Spring WebFlux.
+ * 
  * @author andie
  *
  */
 @RestController
+@Profile("!reactive")
 public class EmployeeController {
 	
+	/*
+	 * Response header carrying the cursor for the next slice of employees. It
+	 *   is only present when there are more employees to fetch.
+	 */
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	
+	/*
+	 * Media type of a JSON Merge Patch (RFC 7386) request body.
+	 */
+	public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+	
 	@Autowired
 	EmployeeService service;
 	
+	@Autowired
+	EmployeeChangeFeed changeFeed;
+	
+	/*
+	 * The response body stays a plain JSON array as defined in the OAS. The
+	 *   pagination details are returned as headers: X-Next-Cursor and a Link
+	 *   header with rel="next" that the client can follow as is.
+	 *   
+	 * The ETag is computed from the employees in the slice and the format of
+	 *   the body, see ETagAdvice. When it matches the If-None-Match header, 
+	 *   the answer is 304 Not Modified without the body.
+	 *   
+	 * The body is JSON, CBOR, Smile or Protobuf depending on the Accept header,
+	 *   see ContentNegotiationConfiguration. The element type of the response
+	 *   is declared for the Protobuf converter.
+	 */
 	@GetMapping("/employees")
-	public ResponseEntity<Object> getEmployees() {
-		return ResponseEntity.ok().body(service.getEmployees()); 
+	public ResponseEntity<List<Employee>> getEmployees(
+			@RequestParam(name = "cursor", required = false) Integer cursor,
+			@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		Slice<Employee> slice = service.getEmployees(cursor, page, limit);
+		List<Employee> employees = slice.getContent();
+		
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (slice.hasNext() && !employees.isEmpty()) {
+			int nextCursor = employees.get(employees.size() - 1).getEmployeeId();
+			ServletUriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequest();
+			if (page != null)
+				next.replaceQueryParam("page", page + 1);
+			else
+				next.replaceQueryParam("cursor", nextCursor);
+			next.replaceQueryParam("limit", slice.getSize());
+			
+			response.header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor))
+					.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", next.toUriString()));
+		}
+		return response.varyBy(HttpHeaders.ACCEPT).body(employees); 
+	}
+	
+	/*
+	 * Streams the whole employees table as NDJSON (default) or CSV. The rows
+	 *   are written to the response as they are read from the database, so
+	 *   this works for any table size without loading it into memory.
+	 */
+	@GetMapping("/employees/export")
+	public void exportEmployees(
+			@RequestParam(name = "format", defaultValue = "ndjson") String format,
+			HttpServletResponse response) throws IOException {
+		ExportFormat exportFormat = ExportFormat.fromValue(format);
+		response.setContentType(exportFormat.getMediaType());
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, 
+				String.format("attachment; filename=\"employees.%s\"", exportFormat.getValue()));
+		service.exportEmployees(response.getOutputStream(), exportFormat);
+	}
+	
+	/*
+	 * Type-ahead search for the HR front end: the employees whose name starts
+	 *   with the prefix, with the given position when there is one, ordered 
+	 *   by name. It is served from the in-memory search index, so it can be
+	 *   called on every keystroke.
+	 *   
+	 * Like GET /employees, answers 304 Not Modified when the If-None-Match 
+	 *   header matches the ETag of the result.
+	 */
+	@GetMapping("/employees/search")
+	public ResponseEntity<List<Employee>> searchEmployees(
+			@RequestParam(name = "prefix", required = false) String prefix,
+			@RequestParam(name = "position", required = false) String position,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		List<Employee> employees = service.searchEmployees(prefix, position, limit);
+		return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(employees);
 	}
 	
+	/*
+	 * Report of the number of employees hired in a date range, e.g. 
+	 *   ?hiredFrom=2020-01-01&hiredTo=2020-12-31&position=Developer. Each
+	 *   query parameter is optional.
+	 */
+	@GetMapping("/employees/headcount")
+	public ResponseEntity<Object> getHeadcount(
+			@RequestParam(name = "hiredFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate hiredFrom,
+			@RequestParam(name = "hiredTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate hiredTo,
+			@RequestParam(name = "position", required = false) String position) {
+		long count = service.countHired(hiredFrom, hiredTo, position);
+		return ResponseEntity.ok().body(new Headcount(hiredFrom, hiredTo, position, count));
+	}
+	
+	/*
+	 * Report of the number of employees by position, by year of dateHired and
+	 *   by both. It is served from counters kept up to date by the writes, so
+	 *   it costs the same whatever the size of the table.
+	 */
+	@GetMapping("/employees/stats")
+	public ResponseEntity<Object> getStats() {
+		EmployeeStats stats = service.getStats();
+		return ResponseEntity.ok().body(stats);
+	}
+	
+	/*
+	 * Feed of the employees created, updated and deleted, so clients do not 
+	 *   have to poll GET /employees to find them. With Accept: 
+	 *   text/event-stream, e.g. from an EventSource, the changes are sent as
+	 *   server-sent events as they happen. Otherwise, the request is a long
+	 *   poll that answers with the next changes, or with none after a timeout.
+	 *   
+	 * The client resumes from the last event ID it got, with the 
+	 *   Last-Event-ID header or the after query parameter.
+	 */
+	@GetMapping(path = "/employees/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(name = "after", required = false) String after) {
+		return changeFeed.subscribe(after != null ? after : lastEventId);
+	}
+	
+	@GetMapping("/employees/changes")
+	public DeferredResult<ChangeBatch> pollChanges(
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(name = "after", required = false) String after,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		return changeFeed.poll(after != null ? after : lastEventId, limit);
+	}
+	
+	/*
+	 * Like GET /employees, answers 304 Not Modified when the If-None-Match 
+	 *   header matches the ETag of the employee.
+	 */
 	@GetMapping("/employees/{employeeId}")
-	public ResponseEntity<Object> getEmployeeById(
+	public ResponseEntity<Employee> getEmployeeById(
 			@PathVariable("employeeId") Integer employeeId) {
-		return ResponseEntity.ok().body(service.getEmployeeById(employeeId)); 
+		Employee employee = service.getEmployeeById(employeeId).get();
+		return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(employee); 
 	}
 	
 	@PostMapping("/employees")
@@ -78,17 +247,54 @@ public class EmployeeController {
 		} 
 	}
 	
-	@PatchMapping("/employees/{employeeId}")
+	/*
+	 * Creates many employees in one request. The body is either a JSON array
+	 *   or NDJSON (one employee per line), optionally gzip-compressed with
+	 *   Content-Encoding: gzip. The body is read as a stream so it is never
+	 *   held in memory as a whole.
+	 *   
+	 * Always returns 200 with one result per item. Items that failed can be
+	 *   fixed and resent on their own.
+	 */
+	@PostMapping(
+			path = "/employees:batch", 
+			consumes = { MediaType.APPLICATION_JSON_VALUE, ExportFormat.NDJSON_MEDIA_TYPE })
+	public ResponseEntity<Object> saveEmployees(HttpServletRequest request) throws IOException {
+		InputStream body = request.getInputStream();
+		if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING)))
+			body = new GZIPInputStream(body);
+		
+		List<BatchItemResult> results = service.saveEmployees(body);
+		return ResponseEntity.ok().body(results);
+	}
+	
+	/*
+	 * Partially updates an employee with a JSON Merge Patch. Only the fields in
+	 *   the body are changed and a field set to null is cleared. A plain
+	 *   application/json body is handled the same way.
+	 *   
+	 * With an If-Match header, the employee is only updated if its ETag still
+	 *   matches, otherwise 412 Precondition Failed is returned.
+	 */
+	@PatchMapping(
+			path = "/employees/{employeeId}", 
+			consumes = { MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
 	public ResponseEntity<Object> updateEmployee(
-			@RequestBody Employee employee,
-			@PathVariable("employeeId") Integer employeeId) {
-		service.updateEmployee(employee, employeeId);
+			@RequestBody JsonNode patch,
+			@PathVariable("employeeId") Integer employeeId,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		service.updateEmployee(patch, employeeId, ETags.parseIfMatch(ifMatch, employeeId));
 		return ResponseEntity.noContent().build();
 	}	
 	
+	/*
+	 * Honors If-Match the same way as PATCH /employees/{employeeId}.
+	 */
 	@DeleteMapping("/employees/{employeeId}")
-	public ResponseEntity<Object> deleteEmployee(@PathVariable("employeeId") Integer employeeId) {
-		service.deleteEmployee(employeeId);
+	public ResponseEntity<Object> deleteEmployee(
+			@PathVariable("employeeId") Integer employeeId,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		service.deleteEmployee(employeeId, ETags.parseIfMatch(ifMatch, employeeId));
 		return ResponseEntity.noContent().build();
 	}
 }
@@ -0,0 +1,153 @@
+package com.example.employee.sys.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/****
+ * ErrorTemplate
+ *
+ * Writes the JSON of the Error model for one type of exception, without
+ *   creating an Error and without Jackson:
+ *
+ *   {"timestamp":"2021-09-01T10:15:30.000+00:00","type":"NotFoundException","message":"..."}
+ *
+ * Everything but the timestamp and the message is encoded once, when the
+ *   template is created. A response is then a single byte array and a
+ *   ResponseEntity. The output is the same as Jackson's for an Error,
+ *   including the date format of the timestamp.
+ *
+ * The timestamp is read from the clock and formatted at most once per
+ *   millisecond. All the errors of the same millisecond share its bytes.
+ *
+ */
+final class ErrorTemplate {
+
+	private static final byte[] TIMESTAMP_START = ascii("{\"timestamp\":\"");
+	private static final byte[] END = ascii("\"}");
+	private static final byte[] NONE = new byte[0];
+	private static final byte[] NULL = ascii("null");
+
+	/*
+	 * Same format as Jackson's StdDateFormat, which Spring Boot uses for the
+	 *   java.util.Date of the Error model.
+	 */
+	private static final DateTimeFormatter TIMESTAMP_FORMAT =
+			DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx").withZone(ZoneOffset.UTC);
+
+	private static final HttpHeaders JSON = HttpHeaders.readOnlyHttpHeaders(jsonHeaders());
+
+	private static volatile Timestamp lastTimestamp = new Timestamp(Long.MIN_VALUE, NONE);
+
+	private final HttpStatus status;
+	private final byte[] typeAndMessageStart;
+	private final byte[] fixedMessage;
+
+	private ErrorTemplate(HttpStatus status, String type, String fixedMessage) {
+		this.status = status;
+		this.typeAndMessageStart = ascii("\",\"type\":\"" + type + "\",\"message\":\"");
+		this.fixedMessage = fixedMessage == null ? NONE : quote(fixedMessage);
+	}
+
+	static ErrorTemplate of(Class<? extends Throwable> type, HttpStatus status) {
+		return new ErrorTemplate(status, type.getSimpleName(), null);
+	}
+
+	/*
+	 * A template whose message always starts with messagePrefix, e.g. the
+	 *   message of a NotFoundException followed by the ID.
+	 */
+	static ErrorTemplate of(Class<? extends Throwable> type, HttpStatus status, String messagePrefix) {
+		return new ErrorTemplate(status, type.getSimpleName(), messagePrefix);
+	}
+
+	ResponseEntity<Object> toResponse(String message) {
+		return render(message == null ? NONE : quote(message));
+	}
+
+	/*
+	 * Writes the digits of the number after the message prefix, without
+	 *   creating a String. A null number is written as null, like
+	 *   String.valueOf does.
+	 */
+	ResponseEntity<Object> toResponse(Integer number) {
+		return render(number == null ? NULL : digits(number));
+	}
+
+	private ResponseEntity<Object> render(byte[] message) {
+		byte[] timestamp = timestamp();
+		byte[] body = new byte[TIMESTAMP_START.length + timestamp.length
+				+ typeAndMessageStart.length + fixedMessage.length + message.length + END.length];
+		int offset = put(body, 0, TIMESTAMP_START);
+		offset = put(body, offset, timestamp);
+		offset = put(body, offset, typeAndMessageStart);
+		offset = put(body, offset, fixedMessage);
+		offset = put(body, offset, message);
+		put(body, offset, END);
+		return new ResponseEntity<Object>(body, JSON, status);
+	}
+
+	private static byte[] timestamp() {
+		long now = System.currentTimeMillis();
+		Timestamp last = lastTimestamp;
+		if (last.millis != now) {
+			last = new Timestamp(now, ascii(TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(now))));
+			lastTimestamp = last;
+		}
+		return last.bytes;
+	}
+
+	private static byte[] digits(int number) {
+		long value = Math.abs((long) number);
+		int length = number < 0 ? 2 : 1;
+		for (long rest = value / 10; rest > 0; rest /= 10)
+			length++;
+		byte[] digits = new byte[length];
+		int i = length;
+		do {
+			digits[--i] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value > 0);
+		if (number < 0)
+			digits[0] = '-';
+		return digits;
+	}
+
+	private static int put(byte[] target, int offset, byte[] source) {
+		System.arraycopy(source, 0, target, offset, source.length);
+		return offset + source.length;
+	}
+
+	private static byte[] quote(String value) {
+		return JsonStringEncoder.getInstance().quoteAsUTF8(value);
+	}
+
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static HttpHeaders jsonHeaders() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		return headers;
+	}
+
+	private static final class Timestamp {
+
+		private final long millis;
+		private final byte[] bytes;
+
+		private Timestamp(long millis, byte[] bytes) {
+			this.millis = millis;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -3,9 +3,14 @@ package com.example.employee.sys.controller;
 import java.util.Date;
 
 import com.example.employee.sys.entity.Error;
+import com.example.employee.sys.exceptions.BadRequestException;
 import com.example.employee.sys.exceptions.InternalServerException;
 import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
 
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,22 +33,52 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
  *      class, ResponseEntityExceptionHandler. Overriding the method here to
  *      insert custom implementation to handle unsupported method scenarios.
  *   3. NotFoundException - this is a custom exception class.
- *   4. InternalServerException - this is the generic catch-all exception class.
+ *   4. BadRequestException - this is a custom exception class for invalid
+ *      request values, e.g. query parameters.
+ *   5. PreconditionFailedException - this is a custom exception class for an
+ *      If-Match header that does not match the current ETag.
+ *   6. OptimisticLockingFailureException - this is thrown by Spring when an
+ *      employee was changed by another request while it was being updated.
+ *   7. InternalServerException - this is the generic catch-all exception class.
  *      
  * BAD_REQUEST, CONFLICT, UNAUTHORIZED scenarios should be handled here too.
  * 
+ * The 404, 400, 412 and 500 bodies of the custom exceptions are written
+ *   straight to bytes from an ErrorTemplate, without an Error object or
+ *   Jackson. Together with the stackless NotFoundException, a 404 costs
+ *   about as much as a cache hit.
+ * 
+ * Every handler passes the exception on to the http.server.requests metrics, 
+ *   so the request timers are tagged with the exception type. Without this,
+ *   a handled exception is recorded as exception="None".
+ * 
  * @RestControllerAdvice is used to intercept exceptions thrown in the app.
  * 
  * @ExceptionHandler is used on methods that will handle the specified exception
  *   class.
  * 
+ * In the reactive mode, ReactiveExceptionController takes over.
+ * 
  * @author andie
  *
  */
 @RestControllerAdvice
+@Profile("!reactive")
 public class ExceptionController extends ResponseEntityExceptionHandler {
 
-		
+	/*
+	 * The error bodies of the most frequent exceptions are written from
+	 *   templates, see ErrorTemplate. The others still build an Error.
+	 */
+	private static final ErrorTemplate NOT_FOUND =
+			ErrorTemplate.of(NotFoundException.class, HttpStatus.NOT_FOUND, NotFoundException.MESSAGE_PREFIX);
+	private static final ErrorTemplate BAD_REQUEST =
+			ErrorTemplate.of(BadRequestException.class, HttpStatus.BAD_REQUEST);
+	private static final ErrorTemplate PRECONDITION_FAILED =
+			ErrorTemplate.of(PreconditionFailedException.class, HttpStatus.PRECONDITION_FAILED);
+	private static final ErrorTemplate INTERNAL_SERVER =
+			ErrorTemplate.of(InternalServerException.class, HttpStatus.INTERNAL_SERVER_ERROR);
+
     /**
      * handleMethodArgumentNotValid()
      * This method already exists in the helper class, ResponseEntityExceptionHandler.
@@ -58,6 +93,7 @@ public class ExceptionController extends ResponseEntityExceptionHandler {
 	        HttpHeaders headers, 
 	        HttpStatus status, 
 	        WebRequest request) {
+		recordException(e, request);
 		Error error = new Error(new Date(), e.getClass().getSimpleName(), e.getMessage());
 		return new ResponseEntity<Object>(error, HttpStatus.BAD_REQUEST);
 	}
@@ -76,6 +112,7 @@ public class ExceptionController extends ResponseEntityExceptionHandler {
 	        HttpHeaders headers, 
 	        HttpStatus status, 
 	        WebRequest request) {
+		recordException(e, request);
 		Error error = new Error(new Date(), e.getClass().getSimpleName(), e.getMessage());
 		return new ResponseEntity<Object>(error, HttpStatus.METHOD_NOT_ALLOWED);
 	}
@@ -87,12 +124,61 @@ public class ExceptionController extends ResponseEntityExceptionHandler {
 	 *   consumer may want to know.
 	 * 
 	 * @param e
+	 * @param request
 	 * @return 404 status with the error object as response body
 	 */
 	@ExceptionHandler(NotFoundException.class)
-	public final ResponseEntity<Object> handleNotFoundException(NotFoundException e) {
-		Error error = new Error(new Date(), e.getClass().getSimpleName(), e.getMessage());
-		return new ResponseEntity<Object>(error, HttpStatus.NOT_FOUND);
+	public final ResponseEntity<Object> handleNotFoundException(NotFoundException e, WebRequest request) {
+		recordException(e, request);
+		return NOT_FOUND.toResponse(e.getId());
+	}
+	
+	/**
+	 * handleBadRequestException()
+	 * This catches and handles request values that the API cannot work with,
+	 *   e.g. an invalid page or limit query parameter.
+	 * 
+	 * @param e
+	 * @param request
+	 * @return 400 status with the error object as response body
+	 */
+	@ExceptionHandler(BadRequestException.class)
+	public final ResponseEntity<Object> handleBadRequestException(BadRequestException e, WebRequest request) {
+		recordException(e, request);
+		return BAD_REQUEST.toResponse(e.getMessage());
+	}
+	
+	/**
+	 * handlePreconditionFailedException()
+	 * This catches and handles conditional requests whose If-Match header does
+	 *   not match the current ETag of the employee.
+	 * 
+	 * @param e
+	 * @param request
+	 * @return 412 status with the error object as response body
+	 */
+	@ExceptionHandler(PreconditionFailedException.class)
+	public final ResponseEntity<Object> handlePreconditionFailedException(PreconditionFailedException e, WebRequest request) {
+		recordException(e, request);
+		return PRECONDITION_FAILED.toResponse(e.getMessage());
+	}
+	
+	/**
+	 * handleOptimisticLockingFailureException()
+	 * This catches and handles an update or delete that lost the race against
+	 *   another request changing the same employee. The API consumer can read
+	 *   the employee again and retry.
+	 * 
+	 * @param e
+	 * @param request
+	 * @return 409 status with the error object as response body
+	 */
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public final ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException e, WebRequest request) {
+		recordException(e, request);
+		Error error = new Error(new Date(), e.getClass().getSimpleName(), 
+				"The employee was changed by another request, read it again and retry.");
+		return new ResponseEntity<Object>(error, HttpStatus.CONFLICT);
 	}
 	
 	/**
@@ -102,12 +188,36 @@ public class ExceptionController extends ResponseEntityExceptionHandler {
 	 *   handlers.
 	 * 
 	 * @param e
+	 * @param request
 	 * @return 500 status with the error object as response body
 	 */
 	@ExceptionHandler(InternalServerException.class)
-	public final ResponseEntity<Object> handleAllExceptions(InternalServerException e) {
-		Error error = new Error(new Date(), e.getClass().getSimpleName(), e.getMessage());
-	    return new ResponseEntity<Object>(error, HttpStatus.INTERNAL_SERVER_ERROR);	
+	public final ResponseEntity<Object> handleAllExceptions(InternalServerException e, WebRequest request) {
+		recordException(e, request);
+		return INTERNAL_SERVER.toResponse(e.getMessage());
+	}
+	
+	/**
+	 * handleExceptionInternal()
+	 * This method already exists in the helper class, ResponseEntityExceptionHandler.
+	 *   All the other Spring MVC exceptions it handles end up here. Overriding
+	 *   it only to record the exception in the request metrics.
+	 * 
+	 * @return the response built by the helper class
+	 */
+	@Override
+	protected ResponseEntity<Object> handleExceptionInternal(
+			Exception e, 
+			Object body, 
+			HttpHeaders headers, 
+			HttpStatus status, 
+			WebRequest request) {
+		recordException(e, request);
+		return super.handleExceptionInternal(e, body, headers, status, request);
+	}
+	
+	private void recordException(Exception e, WebRequest request) {
+		request.setAttribute(ErrorAttributes.ERROR_ATTRIBUTE, e, WebRequest.SCOPE_REQUEST);
 	}
 	
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.example.employee.sys.entity;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/***
+ * BatchItemResult model
+ * 
+ * This is the result of one item of a batch request. The index is the
+ *   position of the item in the request body, starting at 0. Created items
+ *   carry the new employee ID and the rest carry the error details, so the
+ *   client only has to resend the items that were not created.
+ *
+ */
+@JsonInclude(Include.NON_NULL)
+public class BatchItemResult {
+
+	public enum Status {
+		CREATED, INVALID, FAILED
+	}
+
+	private int index;
+	private Status status;
+	private Integer employeeId;
+	private List<String> errors;
+
+	public BatchItemResult(int index, Status status, Integer employeeId, List<String> errors) {
+		this.index = index;
+		this.status = status;
+		this.employeeId = employeeId;
+		this.errors = errors;
+	}
+
+	public static BatchItemResult created(int index, Integer employeeId) {
+		return new BatchItemResult(index, Status.CREATED, employeeId, null);
+	}
+
+	public static BatchItemResult invalid(int index, List<String> errors) {
+		return new BatchItemResult(index, Status.INVALID, null, errors);
+	}
+
+	public static BatchItemResult failed(int index, String error) {
+		return new BatchItemResult(index, Status.FAILED, null, List.of(error));
+	}
+
+	public int getIndex() {
+		return index;
+	}
+	public void setIndex(int index) {
+		this.index = index;
+	}
+	public Status getStatus() {
+		return status;
+	}
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+	public Integer getEmployeeId() {
+		return employeeId;
+	}
+	public void setEmployeeId(Integer employeeId) {
+		this.employeeId = employeeId;
+	}
+	public List<String> getErrors() {
+		return errors;
+	}
+	public void setErrors(List<String> errors) {
+		this.errors = errors;
+	}
+}
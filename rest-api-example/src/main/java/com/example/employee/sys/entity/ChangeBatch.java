@@ -0,0 +1,49 @@
+package com.example.employee.sys.entity;
+
+import java.util.List;
+
+/***
+ * ChangeBatch model
+ * 
+ * This is the answer of a long poll of GET /employees/changes: the changes
+ *   after the requested event ID, oldest first, and the event ID to send
+ *   with the next poll. It has no changes when the poll timed out.
+ *   
+ * When resync is true, the requested event ID is too old or unknown and the
+ *   changes after it are lost. The client should read all the employees 
+ *   again, then poll from lastEventId.
+ *
+ */
+public class ChangeBatch {
+
+	private boolean resync;
+	private String lastEventId;
+	private List<EmployeeChange> changes;
+
+	public ChangeBatch() {}
+
+	public ChangeBatch(boolean resync, String lastEventId, List<EmployeeChange> changes) {
+		this.resync = resync;
+		this.lastEventId = lastEventId;
+		this.changes = changes;
+	}
+
+	public boolean isResync() {
+		return resync;
+	}
+	public void setResync(boolean resync) {
+		this.resync = resync;
+	}
+	public String getLastEventId() {
+		return lastEventId;
+	}
+	public void setLastEventId(String lastEventId) {
+		this.lastEventId = lastEventId;
+	}
+	public List<EmployeeChange> getChanges() {
+		return changes;
+	}
+	public void setChanges(List<EmployeeChange> changes) {
+		this.changes = changes;
+	}
+}
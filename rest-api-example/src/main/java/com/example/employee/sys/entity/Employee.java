@@ -2,17 +2,24 @@ package com.example.employee.sys.entity;
 
 import java.sql.Date;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonFormat.Shape;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 /****
  * Employee model
  * 
@@ -23,27 +30,50 @@ import com.fasterxml.jackson.annotation.JsonFormat.Shape;
  * 1. @Entity is used to annotate that this class represents data that can be 
  *   persisted to a database.
  *   
- * 2. @Table specifies the name of the table in the database.
+ * 2. @Table specifies the name of the table in the database, and the indexes
+ *   used by the name-prefix search of GET /employees/search.
+ *   
+ *   @DynamicUpdate is a Hibernate annotation that makes the UPDATE statement
+ *   only set the columns that were changed, instead of all of them.
  * 
  * 3. @Id marks the variable as the primary key for the entity. This works in
  *   tandem with the @GeneratedValue annotation which indicates how the ID is to
- *   be generated.
+ *   be generated, and @SequenceGenerator which defines the database sequence
+ *   the IDs come from.
+ * 
+ * 4. @Version marks the column that Hibernate uses for optimistic locking.
  * 
  * @author andie
  *
  */
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = {
+		@Index(name = "ix_employees_name", columnList = "employeeNameKey"),
+		@Index(name = "ix_employees_position_name", columnList = "positionKey, employeeNameKey")
+})
+@DynamicUpdate
 public class Employee {
 
 	/*
 	 * The employeeId variable
 	 * 
-	 * The GenerationType.IDENTITY indicates that the database will generate the
-	 *   ID and will auto-increment it.
+	 * The GenerationType.SEQUENCE indicates that the IDs come from the 
+	 *   employees_seq database sequence. Each call to the sequence reserves a
+	 *   block of ALLOCATION_SIZE IDs that this JVM hands out from memory, so
+	 *   most inserts need no extra round trip. Since the ID is known before the
+	 *   INSERT, Hibernate can also send the inserts in JDBC batches, which is
+	 *   not possible with GenerationType.IDENTITY.
+	 *   
+	 * The blocks are reserved by the database so several instances can share
+	 *   the same table. The pooled-lo optimizer is used, see 
+	 *   hibernate.id.optimizer.pooled.preferred in application.properties: the
+	 *   sequence value is the first ID of the block.
 	 */
+	public static final int ALLOCATION_SIZE = 50;
+	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)	
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+	@SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = ALLOCATION_SIZE)
 	private int employeeId;
 
 	/*
@@ -63,6 +93,39 @@ public class Employee {
 	@JsonFormat(pattern = "yyyy-MM-dd", shape = Shape.STRING)
     // @JsonFormat(pattern = "yyyy-MM-dd", shape = Shape.STRING)
 	private Date dateHired;
+	
+	/*
+	 * The version variable
+	 * 
+	 * Hibernate increments the version on every UPDATE and only updates or
+	 *   deletes the row if its version is still the one that was read. A 
+	 *   concurrent change therefore fails instead of being overwritten.
+	 *   
+	 * @JsonIgnore keeps it out of the JSON body. The API exposes it as the
+	 *   ETag of the employee instead.
+	 */
+	@Version
+	@JsonIgnore
+	private int version;
+
+	/*
+	 * The employeeNameKey and positionKey variables
+	 * 
+	 * The name and the position in lower case, computed by the database. They
+	 *   are the keys of the indexes of the name-prefix search, which is then
+	 *   case-insensitive like the in-memory search index. Hibernate never 
+	 *   writes them, and they have no getters, so the API does not expose 
+	 *   them.
+	 *   
+	 * The computed columns are defined by the schema scripts of each database,
+	 *   db/h2/employees-schema.sql and 
+	 *   db/sqlserver/employees-search-migration.sql.
+	 */
+	@Column(insertable = false, updatable = false)
+	private String employeeNameKey;
+
+	@Column(insertable = false, updatable = false)
+	private String positionKey;
 
 	/*
 	 * Constructors: empty and all arguments
@@ -106,5 +169,11 @@ public class Employee {
 	public void setDateHired(Date dateHired) {
 		this.dateHired = dateHired;
 	}
+	public int getVersion() {
+		return version;
+	}
+	public void setVersion(int version) {
+		this.version = version;
+	}
 
 }
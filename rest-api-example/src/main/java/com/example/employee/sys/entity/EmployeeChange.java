@@ -0,0 +1,60 @@
+package com.example.employee.sys.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/***
+ * EmployeeChange model
+ * 
+ * This is one event of GET /employees/changes: an employee was created,
+ *   updated or deleted. The id is the event ID to resume from, see 
+ *   EmployeeChangeFeed. Created and updated events carry the employee as it
+ *   was committed, deleted events only its ID.
+ *
+ */
+@JsonInclude(Include.NON_NULL)
+public class EmployeeChange {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	private String id;
+	private Type type;
+	private int employeeId;
+	private Employee employee;
+
+	public EmployeeChange() {}
+
+	public EmployeeChange(String id, Type type, int employeeId, Employee employee) {
+		this.id = id;
+		this.type = type;
+		this.employeeId = employeeId;
+		this.employee = employee;
+	}
+
+	public String getId() {
+		return id;
+	}
+	public void setId(String id) {
+		this.id = id;
+	}
+	public Type getType() {
+		return type;
+	}
+	public void setType(Type type) {
+		this.type = type;
+	}
+	public int getEmployeeId() {
+		return employeeId;
+	}
+	public void setEmployeeId(int employeeId) {
+		this.employeeId = employeeId;
+	}
+	public Employee getEmployee() {
+		return employee;
+	}
+	public void setEmployee(Employee employee) {
+		this.employee = employee;
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.employee.sys.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/****
+ * EmployeeChangeLogState model
+ *
+ * The single row of the employee_change_log table, shared by the instances:
+ *
+ * 1. epoch identifies this change log. It is the time the row was created,
+ *   in base 36, e.g. with a new database, and is the first part of every
+ *   event ID of GET /employees/changes. An event ID of another epoch is
+ *   never taken for a change of this log, its client resyncs instead.
+ *
+ * 2. lastSequence is the logSequence of the last change numbered. The
+ *   instance that numbers the new changes holds the lock of this row, see
+ *   EmployeeChangeLog.
+ *
+ */
+@Entity
+@Table(name = "employee_change_log")
+public class EmployeeChangeLogState {
+
+	public static final int ID = 1;
+
+	@Id
+	private int id;
+
+	@Column(nullable = false, length = 16)
+	private String epoch;
+
+	private long lastSequence;
+
+	/*
+	 * Constructors: empty and for a new change log
+	 */
+
+	public EmployeeChangeLogState() {}
+
+	public EmployeeChangeLogState(String epoch) {
+		this.id = ID;
+		this.epoch = epoch;
+	}
+
+	/*
+	 * Getter and Setter methods
+	 */
+
+	public int getId() {
+		return id;
+	}
+	public String getEpoch() {
+		return epoch;
+	}
+	public long getLastSequence() {
+		return lastSequence;
+	}
+	public void setLastSequence(long lastSequence) {
+		this.lastSequence = lastSequence;
+	}
+}
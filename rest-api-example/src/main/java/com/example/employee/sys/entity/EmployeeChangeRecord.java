@@ -0,0 +1,119 @@
+package com.example.employee.sys.entity;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+/****
+ * EmployeeChangeRecord model
+ *
+ * This is one row of the change log, the employee_changes table. A row is
+ *   inserted in the same transaction as each create, update or delete of an
+ *   employee, so the log has exactly the committed changes, whichever
+ *   instance made them. Every instance reads it into its feed of
+ *   GET /employees/changes, see EmployeeChangeLog.
+ *
+ * 1. @Id recordId comes from the employee_changes_seq sequence, in blocks of
+ *   Employee.ALLOCATION_SIZE like the employee IDs, so the rows of a batch
+ *   are inserted in JDBC batches. The IDs say nothing about the order of
+ *   the commits.
+ *
+ * 2. logSequence is the number of the change in the feed, and its event ID.
+ *   It is null until the change is committed and EmployeeChangeLog numbers
+ *   it, in the order the committed changes are found. The numbers have no
+ *   gap, a rolled back change never gets one.
+ *
+ * 3. The employee is stored as it was committed, without its version. A
+ *   deleted employee only has its ID.
+ *
+ * 4. changedAt is the time of the insert, used to delete the old rows.
+ *
+ */
+@Entity
+@Table(name = "employee_changes", indexes = {
+		@Index(name = "ix_employee_changes_log_sequence", columnList = "logSequence", unique = true),
+		@Index(name = "ix_employee_changes_changed_at", columnList = "changedAt")
+})
+public class EmployeeChangeRecord {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_changes_seq")
+	@SequenceGenerator(name = "employee_changes_seq", sequenceName = "employee_changes_seq",
+			allocationSize = Employee.ALLOCATION_SIZE)
+	private long recordId;
+
+	private Long logSequence;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 16)
+	private EmployeeChange.Type type;
+
+	private int employeeId;
+
+	private String employeeName;
+
+	private String position;
+
+	private Date dateHired;
+
+	@Column(nullable = false)
+	private Timestamp changedAt;
+
+	/*
+	 * Constructors: empty and from a change of an employee
+	 */
+
+	public EmployeeChangeRecord() {}
+
+	public EmployeeChangeRecord(EmployeeChange.Type type, int employeeId, Employee employee) {
+		this.type = type;
+		this.employeeId = employeeId;
+		if (employee != null) {
+			this.employeeName = employee.getEmployeeName();
+			this.position = employee.getPosition();
+			this.dateHired = employee.getDateHired();
+		}
+		this.changedAt = new Timestamp(System.currentTimeMillis());
+	}
+
+	/*
+	 * The employee as it was committed, or null when it was deleted.
+	 */
+	public Employee toEmployee() {
+		return type == EmployeeChange.Type.DELETED ? null
+				: new Employee(employeeId, employeeName, position, dateHired);
+	}
+
+	/*
+	 * Getter and Setter methods
+	 */
+
+	public long getRecordId() {
+		return recordId;
+	}
+	public Long getLogSequence() {
+		return logSequence;
+	}
+	public void setLogSequence(Long logSequence) {
+		this.logSequence = logSequence;
+	}
+	public EmployeeChange.Type getType() {
+		return type;
+	}
+	public int getEmployeeId() {
+		return employeeId;
+	}
+	public Timestamp getChangedAt() {
+		return changedAt;
+	}
+}
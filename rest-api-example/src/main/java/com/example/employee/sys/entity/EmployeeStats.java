@@ -0,0 +1,55 @@
+package com.example.employee.sys.entity;
+
+import java.util.Map;
+
+/***
+ * EmployeeStats model
+ *
+ * This is the answer of GET /employees/stats: the number of employees in
+ *   total, by position, by year of dateHired, and by position then year.
+ *   Employees without a position or a dateHired are only counted in the
+ *   total and in the groups that do not need the missing value.
+ *
+ */
+public class EmployeeStats {
+
+	private long total;
+	private Map<String, Long> byPosition;
+	private Map<Integer, Long> byHireYear;
+	private Map<String, Map<Integer, Long>> byPositionAndHireYear;
+
+	public EmployeeStats() {}
+
+	public EmployeeStats(long total, Map<String, Long> byPosition, Map<Integer, Long> byHireYear,
+			Map<String, Map<Integer, Long>> byPositionAndHireYear) {
+		this.total = total;
+		this.byPosition = byPosition;
+		this.byHireYear = byHireYear;
+		this.byPositionAndHireYear = byPositionAndHireYear;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+	public void setTotal(long total) {
+		this.total = total;
+	}
+	public Map<String, Long> getByPosition() {
+		return byPosition;
+	}
+	public void setByPosition(Map<String, Long> byPosition) {
+		this.byPosition = byPosition;
+	}
+	public Map<Integer, Long> getByHireYear() {
+		return byHireYear;
+	}
+	public void setByHireYear(Map<Integer, Long> byHireYear) {
+		this.byHireYear = byHireYear;
+	}
+	public Map<String, Map<Integer, Long>> getByPositionAndHireYear() {
+		return byPositionAndHireYear;
+	}
+	public void setByPositionAndHireYear(Map<String, Map<Integer, Long>> byPositionAndHireYear) {
+		this.byPositionAndHireYear = byPositionAndHireYear;
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.employee.sys.entity;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/***
+ * Headcount model
+ * 
+ * This is the answer of GET /employees/headcount: the number of employees
+ *   hired in a date range, with a position or not. The range and the 
+ *   position are the ones of the request, the missing ones are left out.
+ *
+ */
+@JsonInclude(Include.NON_NULL)
+public class Headcount {
+
+	private LocalDate hiredFrom;
+	private LocalDate hiredTo;
+	private String position;
+	private long count;
+
+	public Headcount(LocalDate hiredFrom, LocalDate hiredTo, String position, long count) {
+		this.hiredFrom = hiredFrom;
+		this.hiredTo = hiredTo;
+		this.position = position;
+		this.count = count;
+	}
+
+	public LocalDate getHiredFrom() {
+		return hiredFrom;
+	}
+	public void setHiredFrom(LocalDate hiredFrom) {
+		this.hiredFrom = hiredFrom;
+	}
+	public LocalDate getHiredTo() {
+		return hiredTo;
+	}
+	public void setHiredTo(LocalDate hiredTo) {
+		this.hiredTo = hiredTo;
+	}
+	public String getPosition() {
+		return position;
+	}
+	public void setPosition(String position) {
+		this.position = position;
+	}
+	public long getCount() {
+		return count;
+	}
+	public void setCount(long count) {
+		this.count = count;
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.employee.sys.entity;
+
+import java.util.List;
+
+/***
+ * StartupReport model
+ *
+ * This is the answer of the startupreport actuator endpoint: where the last
+ *   startup of the application spent its time. The phases are the startup
+ *   steps of Spring Boot, Spring and Spring Data added up by name, e.g. 
+ *   spring.context.refresh, and the beans are the slowest bean 
+ *   instantiations. The duration and the classes of a step include the ones
+ *   of the steps nested in it, so they overlap.
+ *
+ * recorded is false when the application was not started with a
+ *   BufferingApplicationStartup, e.g. in the @SpringBootTest tests. Only the
+ *   totals are known then.
+ *
+ */
+public class StartupReport {
+
+	private boolean recorded;
+	private long startupMillis;
+	private long jvmUptimeMillis;
+	private long classesLoaded;
+	private List<Step> phases;
+	private List<Step> beans;
+
+	public StartupReport() {}
+
+	public StartupReport(boolean recorded, long startupMillis, long jvmUptimeMillis, long classesLoaded,
+			List<Step> phases, List<Step> beans) {
+		this.recorded = recorded;
+		this.startupMillis = startupMillis;
+		this.jvmUptimeMillis = jvmUptimeMillis;
+		this.classesLoaded = classesLoaded;
+		this.phases = phases;
+		this.beans = beans;
+	}
+
+	public boolean isRecorded() {
+		return recorded;
+	}
+	public void setRecorded(boolean recorded) {
+		this.recorded = recorded;
+	}
+	public long getStartupMillis() {
+		return startupMillis;
+	}
+	public void setStartupMillis(long startupMillis) {
+		this.startupMillis = startupMillis;
+	}
+	public long getJvmUptimeMillis() {
+		return jvmUptimeMillis;
+	}
+	public void setJvmUptimeMillis(long jvmUptimeMillis) {
+		this.jvmUptimeMillis = jvmUptimeMillis;
+	}
+	public long getClassesLoaded() {
+		return classesLoaded;
+	}
+	public void setClassesLoaded(long classesLoaded) {
+		this.classesLoaded = classesLoaded;
+	}
+	public List<Step> getPhases() {
+		return phases;
+	}
+	public void setPhases(List<Step> phases) {
+		this.phases = phases;
+	}
+	public List<Step> getBeans() {
+		return beans;
+	}
+	public void setBeans(List<Step> beans) {
+		this.beans = beans;
+	}
+
+	/*
+	 * A phase or a bean: the number of steps, their total duration and the
+	 *   number of classes loaded while they ran.
+	 */
+	public static class Step {
+
+		private String name;
+		private int count;
+		private double durationMillis;
+		private long classesLoaded;
+
+		public Step() {}
+
+		public Step(String name, int count, double durationMillis, long classesLoaded) {
+			this.name = name;
+			this.count = count;
+			this.durationMillis = durationMillis;
+			this.classesLoaded = classesLoaded;
+		}
+
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		public int getCount() {
+			return count;
+		}
+		public void setCount(int count) {
+			this.count = count;
+		}
+		public double getDurationMillis() {
+			return durationMillis;
+		}
+		public void setDurationMillis(double durationMillis) {
+			this.durationMillis = durationMillis;
+		}
+		public long getClassesLoaded() {
+			return classesLoaded;
+		}
+		public void setClassesLoaded(long classesLoaded) {
+			this.classesLoaded = classesLoaded;
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.example.employee.sys.exceptions;
+
+/**
+ * This is a sample custom exception for requests that are syntactically fine
+ *   but carry values the API cannot work with, e.g. a negative page number.
+ *   The message is returned to the API consumer as is.
+ *
+ */
+public class BadRequestException extends RuntimeException {
+
+	private static final long serialVersionUID = 2350187420386409126L;
+
+	public BadRequestException(String msg) {
+        super(msg);
+    }
+}
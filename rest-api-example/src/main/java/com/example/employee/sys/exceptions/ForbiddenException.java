@@ -0,0 +1,16 @@
+package com.example.employee.sys.exceptions;
+
+/**
+ * Thrown when the access token of a request is valid but does not have the
+ *   role the API requires. The authentication filter answers it with a 403
+ *   and the message.
+ *
+ */
+public class ForbiddenException extends RuntimeException {
+
+	private static final long serialVersionUID = -2318850736027394715L;
+
+	public ForbiddenException(String msg) {
+		super(msg, null, false, StackTraces.ENABLED);
+	}
+}
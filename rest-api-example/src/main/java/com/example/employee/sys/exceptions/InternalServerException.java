@@ -5,6 +5,9 @@ package com.example.employee.sys.exceptions;
  *   API consumer about the error instead of just a stack trace. Customized
  *   messages can be returned.
  *   
+ * Like NotFoundException, it has no stack trace unless StackTraces says so.
+ *   The message says what went wrong.
+ *   
  * @author andie
  *
  */
@@ -13,6 +16,6 @@ public class InternalServerException extends RuntimeException {
 	private static final long serialVersionUID = -7983968386629429924L;
 
 	public InternalServerException(String msg) {
-        super(String.format("The service has encountered an issue. Here are the details: %s" ,msg));
+        super("The service has encountered an issue. Here are the details: " + msg, null, false, StackTraces.ENABLED);
     }
 }
@@ -0,0 +1,24 @@
+package com.example.employee.sys.exceptions;
+
+/**
+ * Thrown when the access token of a request cannot be trusted, e.g. it is
+ *   malformed, expired, from another issuer or not signed by a key of the
+ *   auth server. The authentication filter answers it with a 401 and the
+ *   message, before the request reaches a controller.
+ *   
+ * A client with a stale token gets it on every request, so like 
+ *   NotFoundException it has no stack trace (see StackTraces).
+ *
+ */
+public class InvalidTokenException extends RuntimeException {
+
+	private static final long serialVersionUID = 4381620937485203547L;
+
+	public InvalidTokenException(String msg) {
+		this(msg, null);
+	}
+
+	public InvalidTokenException(String msg, Throwable cause) {
+		super(msg, cause, false, StackTraces.ENABLED);
+	}
+}
@@ -5,14 +5,33 @@ package com.example.employee.sys.exceptions;
  *   API consumer about the error instead of just a stack trace. Customized
  *   messages can be returned.
  *   
+ * This is the most frequent exception of the API, e.g. crawlers and stale 
+ *   clients asking for deleted employees, so it is kept cheap: it has no 
+ *   stack trace (see StackTraces) and only builds its message when asked.
+ *   The exception controller writes the ID into the error body directly.
+ *   
  * @author andie
  *
  */
 public class NotFoundException extends RuntimeException {
     
 	private static final long serialVersionUID = -7983968386629429924L;
+	
+	public static final String MESSAGE_PREFIX = "Unable to find employee with ID ";
+	
+	private final Integer id;
 
 	public NotFoundException(Integer id) {
-        super(String.format("Unable to find employee with ID %d", id));
+		super(null, null, false, StackTraces.ENABLED);
+		this.id = id;
     }
+	
+	public Integer getId() {
+		return id;
+	}
+	
+	@Override
+	public String getMessage() {
+		return MESSAGE_PREFIX + id;
+	}
 }
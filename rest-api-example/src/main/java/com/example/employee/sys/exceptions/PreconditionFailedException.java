@@ -0,0 +1,16 @@
+package com.example.employee.sys.exceptions;
+
+/**
+ * This is a sample custom exception for conditional requests whose If-Match
+ *   header does not match the current ETag of the employee. The API consumer
+ *   should GET the employee again and retry with the new ETag.
+ *
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+	private static final long serialVersionUID = -4470193846561823215L;
+
+	public PreconditionFailedException(Integer id) {
+        super(String.format("The employee with ID %d has been changed since it was read", id));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.employee.sys.exceptions;
+
+/**
+ * Stands for a request that the concurrency limit turned away because too
+ *   many of its kind were already running. The limiter filter answers it with
+ *   a 503, a Retry-After header and the message, before the request reaches a
+ *   controller, see ConcurrencyLimitConfiguration.
+ *
+ * It is answered the most when the API is overloaded, so like
+ *   NotFoundException it has no stack trace (see StackTraces).
+ *
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = -6093152864211975340L;
+
+	public ServiceUnavailableException(String msg) {
+		super(msg, null, false, StackTraces.ENABLED);
+	}
+}
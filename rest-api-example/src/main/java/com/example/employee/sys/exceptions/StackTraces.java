@@ -0,0 +1,19 @@
+package com.example.employee.sys.exceptions;
+
+/**
+ * Decides if the hot exceptions of the API fill in their stack trace. 
+ *   NotFoundException and InternalServerException are thrown on purpose and
+ *   fully handled by the exception controller, so their stack trace is never
+ *   looked at. Filling it in walks the whole call stack of the request, which
+ *   costs more than the rest of a 404.
+ *   
+ * Start the JVM with -Demployee.exceptions.stack-traces=true to get the stack
+ *   traces back, e.g. to find out where an exception comes from.
+ *
+ */
+final class StackTraces {
+
+	static final boolean ENABLED = Boolean.getBoolean("employee.exceptions.stack-traces");
+
+	private StackTraces() {}
+}
@@ -0,0 +1,30 @@
+package com.example.employee.sys.json;
+
+import com.example.employee.sys.entity.Employee;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import org.springframework.stereotype.Component;
+
+/****
+ * EmployeeJsonModule
+ *
+ * The Jackson module of the hand-written serializers, see
+ *   EmployeeSerializer.
+ *
+ * Spring Boot registers every Module bean with the Jackson2ObjectMapperBuilder,
+ *   so the serializer is used by the ObjectMapper of the controllers, the
+ *   CBOR and Smile converters of ContentNegotiationConfiguration, the change
+ *   feed and the reactive mode alike. Only the writing is replaced, the
+ *   bodies are still read with the BeanDeserializer of Employee.
+ *
+ */
+@Component
+public class EmployeeJsonModule extends SimpleModule {
+
+	private static final long serialVersionUID = 1L;
+
+	public EmployeeJsonModule() {
+		super(EmployeeJsonModule.class.getSimpleName());
+		addSerializer(Employee.class, new EmployeeSerializer());
+	}
+}
@@ -0,0 +1,156 @@
+package com.example.employee.sys.json;
+
+import java.io.IOException;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import com.example.employee.sys.entity.Employee;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/****
+ * EmployeeSerializer
+ *
+ * Writes an Employee straight to the JsonGenerator, instead of the
+ *   BeanSerializer that Jackson builds from the entity with reflection. The
+ *   output is the same, byte for byte, see EmployeeSerializerTest:
+ *
+ * 1. The fields are written in the order Jackson finds them, i.e. the order
+ *   of the fields of Employee. The version is left out like @JsonIgnore does.
+ *
+ * 2. A null employeeName, position or dateHired is written as null, since
+ *   the spring.jackson.default-property-inclusion is not set.
+ *
+ * 3. The dateHired is written as yyyy-MM-dd like the @JsonFormat on it, in
+ *   the time zone and locale of the ObjectMapper. The digits are computed
+ *   from the days since 1970-01-01, without a SimpleDateFormat. The rare
+ *   dates and locales where that could differ from SimpleDateFormat, e.g.
+ *   before the Gregorian calendar or th_TH with its Buddhist years, still
+ *   go through one.
+ *
+ * The field names are SerializedStrings, so their quoted bytes are computed
+ *   once instead of on every write.
+ *
+ * Keep it in line with the fields and the Jackson annotations of Employee.
+ *   A new field has to be added here too, or it is left out of the body.
+ *
+ */
+public class EmployeeSerializer extends StdSerializer<Employee> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializableString EMPLOYEE_ID = new SerializedString("employeeId");
+	private static final SerializableString EMPLOYEE_NAME = new SerializedString("employeeName");
+	private static final SerializableString POSITION = new SerializedString("position");
+	private static final SerializableString DATE_HIRED = new SerializedString("dateHired");
+
+	/*
+	 * The pattern of the @JsonFormat of the dateHired.
+	 */
+	private static final String DATE_PATTERN = "yyyy-MM-dd";
+
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+
+	/*
+	 * The days that are written without a SimpleDateFormat. From 1583 on,
+	 *   its GregorianCalendar and the ISO calendar of LocalDate agree, and up
+	 *   to 9999 the year has 4 digits.
+	 */
+	private static final long FIRST_DAY = LocalDate.of(1583, 1, 1).toEpochDay();
+	private static final long LAST_DAY = LocalDate.of(9999, 12, 31).toEpochDay();
+
+	/*
+	 * The last locale found to format the pattern with the Gregorian calendar
+	 *   and the ASCII digits. It is almost always the only one.
+	 */
+	private static volatile Locale plainLocale;
+
+	public EmployeeSerializer() {
+		super(Employee.class);
+	}
+
+	@Override
+	public void serialize(Employee employee, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeStartObject(employee);
+		writeFields(employee, gen, provider);
+		gen.writeEndObject();
+	}
+
+	@Override
+	public void serializeWithType(Employee employee, JsonGenerator gen, SerializerProvider provider,
+			TypeSerializer typeSer) throws IOException {
+		WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(employee, JsonToken.START_OBJECT));
+		writeFields(employee, gen, provider);
+		typeSer.writeTypeSuffix(gen, typeId);
+	}
+
+	private static void writeFields(Employee employee, JsonGenerator gen, SerializerProvider provider)
+			throws IOException {
+		gen.writeFieldName(EMPLOYEE_ID);
+		gen.writeNumber(employee.getEmployeeId());
+		gen.writeFieldName(EMPLOYEE_NAME);
+		gen.writeString(employee.getEmployeeName());
+		gen.writeFieldName(POSITION);
+		gen.writeString(employee.getPosition());
+		gen.writeFieldName(DATE_HIRED);
+		if (employee.getDateHired() == null)
+			gen.writeNull();
+		else
+			writeDate(employee.getDateHired(), gen, provider.getTimeZone(), provider.getLocale());
+	}
+
+	/*
+	 * Writes the date as yyyy-MM-dd in the time zone. The offset comes from
+	 *   the same TimeZone a SimpleDateFormat would use, so the day is the same
+	 *   one around midnight and the daylight saving changes.
+	 */
+	private static void writeDate(Date date, JsonGenerator gen, TimeZone timeZone, Locale locale) throws IOException {
+		long millis = date.getTime();
+		long epochDay = Math.floorDiv(millis + timeZone.getOffset(millis), MILLIS_PER_DAY);
+		if (epochDay < FIRST_DAY || epochDay > LAST_DAY || !isPlain(locale)) {
+			SimpleDateFormat format = new SimpleDateFormat(DATE_PATTERN, locale);
+			format.setTimeZone(timeZone);
+			gen.writeString(format.format(date));
+			return;
+		}
+		LocalDate day = LocalDate.ofEpochDay(epochDay);
+		char[] chars = new char[10];
+		int year = day.getYear();
+		chars[0] = (char) ('0' + year / 1000);
+		chars[1] = (char) ('0' + year / 100 % 10);
+		chars[2] = (char) ('0' + year / 10 % 10);
+		chars[3] = (char) ('0' + year % 10);
+		chars[4] = '-';
+		chars[5] = (char) ('0' + day.getMonthValue() / 10);
+		chars[6] = (char) ('0' + day.getMonthValue() % 10);
+		chars[7] = '-';
+		chars[8] = (char) ('0' + day.getDayOfMonth() / 10);
+		chars[9] = (char) ('0' + day.getDayOfMonth() % 10);
+		gen.writeString(chars, 0, chars.length);
+	}
+
+	/*
+	 * Whether a SimpleDateFormat of the locale uses the Gregorian calendar and
+	 *   the digits 0 to 9, like the ones written above.
+	 */
+	private static boolean isPlain(Locale locale) {
+		if (locale == plainLocale)
+			return true;
+		boolean plain = "gregory".equals(Calendar.getInstance(locale).getCalendarType())
+				&& DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+		if (plain)
+			plainLocale = locale;
+		return plain;
+	}
+}
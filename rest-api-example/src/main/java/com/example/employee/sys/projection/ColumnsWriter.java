@@ -0,0 +1,172 @@
+package com.example.employee.sys.projection;
+
+import static com.example.employee.sys.projection.EmployeeColumns.CHUNK_BITS;
+import static com.example.employee.sys.projection.EmployeeColumns.CHUNK_MASK;
+import static com.example.employee.sys.projection.EmployeeColumns.CHUNK_SIZE;
+import static com.example.employee.sys.projection.EmployeeColumns.DELETED;
+import static com.example.employee.sys.projection.EmployeeColumns.NO_DATE;
+import static com.example.employee.sys.projection.EmployeeColumns.NO_POSITION;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.employee.sys.entity.Employee;
+
+/****
+ * ColumnsWriter
+ *
+ * Builds the EmployeeColumns snapshots. It is not thread-safe, the
+ *   EmployeeProjection uses one writer at a time.
+ *
+ * Until publish() is called, the chunks are written in place. After that,
+ *   they belong to the published snapshot too, and the next write to a chunk
+ *   copies it first (copy-on-write). The arrays of chunks are copied the same
+ *   way. A change to one row therefore copies one chunk of each column, not
+ *   the whole table.
+ *
+ * A deleted row keeps its place with an ID of 0, so the other rows do not
+ *   move. Once a quarter of the rows are deleted, the next publish() compacts
+ *   the columns.
+ *
+ */
+final class ColumnsWriter {
+
+	private static final int MAX_POSITIONS = Short.MAX_VALUE;
+
+	private int[][] ids = new int[0][];
+	private int[][] hireDays = new int[0][];
+	private short[][] positionCodes = new short[0][];
+	private boolean[] ownedChunks = new boolean[0];
+	private boolean ownedChunkArrays = true;
+
+	private final List<String> positions = new ArrayList<>();
+	private final Map<String, Short> codes = new HashMap<>();
+	private final Map<Integer, Integer> rowOfId = new HashMap<>();
+
+	private int rows;
+	private int deleted;
+
+	ColumnsWriter() {
+		positions.add(null);
+	}
+
+	/*
+	 * Adds the employee, or overwrites its row if it is already there.
+	 */
+	void put(Employee employee) {
+		int employeeId = employee.getEmployeeId();
+		int hireDay = employee.getDateHired() == null ? NO_DATE : (int) employee.getDateHired().toLocalDate().toEpochDay();
+		short code = code(employee.getPosition());
+
+		Integer row = rowOfId.get(employeeId);
+		if (row == null) {
+			row = rows++;
+			rowOfId.put(employeeId, row);
+		}
+		int chunk = writableChunk(row >>> CHUNK_BITS);
+		int index = row & CHUNK_MASK;
+		ids[chunk][index] = employeeId;
+		hireDays[chunk][index] = hireDay;
+		positionCodes[chunk][index] = code;
+	}
+
+	void remove(int employeeId) {
+		Integer row = rowOfId.remove(employeeId);
+		if (row == null)
+			return;
+		int chunk = writableChunk(row >>> CHUNK_BITS);
+		ids[chunk][row & CHUNK_MASK] = DELETED;
+		deleted++;
+	}
+
+	/*
+	 * Returns a snapshot of the rows written so far. The writer can go on
+	 *   writing, the snapshot does not change.
+	 */
+	EmployeeColumns publish() {
+		if (deleted > rows / 4 && deleted > CHUNK_SIZE)
+			compact();
+		Arrays.fill(ownedChunks, false);
+		ownedChunkArrays = false;
+		return new EmployeeColumns(ids, hireDays, positionCodes, positions.toArray(new String[0]),
+				rows, rows - deleted);
+	}
+
+	private short code(String position) {
+		if (position == null)
+			return NO_POSITION;
+		Short code = codes.get(position);
+		if (code == null) {
+			if (positions.size() > MAX_POSITIONS)
+				throw new IllegalStateException("More than " + MAX_POSITIONS + " positions");
+			code = (short) positions.size();
+			positions.add(position);
+			codes.put(position, code);
+		}
+		return code;
+	}
+
+	/*
+	 * Returns the chunk, copied or created first if it cannot be written in
+	 *   place.
+	 */
+	private int writableChunk(int chunk) {
+		if (!ownedChunkArrays || chunk >= ids.length) {
+			int length = Math.max(ids.length, chunk + 1);
+			ids = Arrays.copyOf(ids, length);
+			hireDays = Arrays.copyOf(hireDays, length);
+			positionCodes = Arrays.copyOf(positionCodes, length);
+			ownedChunks = Arrays.copyOf(ownedChunks, length);
+			ownedChunkArrays = true;
+		}
+		if (!ownedChunks[chunk]) {
+			if (ids[chunk] == null) {
+				ids[chunk] = new int[CHUNK_SIZE];
+				hireDays[chunk] = new int[CHUNK_SIZE];
+				positionCodes[chunk] = new short[CHUNK_SIZE];
+			} else {
+				ids[chunk] = ids[chunk].clone();
+				hireDays[chunk] = hireDays[chunk].clone();
+				positionCodes[chunk] = positionCodes[chunk].clone();
+			}
+			ownedChunks[chunk] = true;
+		}
+		return chunk;
+	}
+
+	/*
+	 * Moves the live rows to new chunks, in the same order, without the
+	 *   deleted ones.
+	 */
+	private void compact() {
+		int[][] oldIds = ids;
+		int[][] oldHireDays = hireDays;
+		short[][] oldPositionCodes = positionCodes;
+		int oldRows = rows;
+
+		ids = new int[0][];
+		hireDays = new int[0][];
+		positionCodes = new short[0][];
+		ownedChunks = new boolean[0];
+		ownedChunkArrays = true;
+		rowOfId.clear();
+		rows = 0;
+		deleted = 0;
+
+		for (int row = 0; row < oldRows; row++) {
+			int employeeId = oldIds[row >>> CHUNK_BITS][row & CHUNK_MASK];
+			if (employeeId == DELETED)
+				continue;
+			int newRow = rows++;
+			rowOfId.put(employeeId, newRow);
+			int chunk = writableChunk(newRow >>> CHUNK_BITS);
+			int index = newRow & CHUNK_MASK;
+			ids[chunk][index] = employeeId;
+			hireDays[chunk][index] = oldHireDays[row >>> CHUNK_BITS][row & CHUNK_MASK];
+			positionCodes[chunk][index] = oldPositionCodes[row >>> CHUNK_BITS][row & CHUNK_MASK];
+		}
+	}
+}
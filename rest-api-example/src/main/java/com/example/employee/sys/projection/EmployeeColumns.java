@@ -0,0 +1,223 @@
+package com.example.employee.sys.projection;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.example.employee.sys.entity.EmployeeStats;
+
+/****
+ * EmployeeColumns
+ *
+ * This is one immutable snapshot of the employees table, stored by column
+ *   instead of one object per row:
+ *
+ *   ids            int[]    the employeeId of each row, 0 for a deleted row
+ *   hireDays       int[]    the dateHired as a number of days since
+ *                           1970-01-01, NO_DATE when there is none
+ *   positionCodes  short[]  the position as an index in the positions
+ *                           dictionary, 0 when there is none
+ *
+ *   A row costs 10 bytes. The few distinct positions are kept once in the
+ *   dictionary. The scans below read the arrays from start to end, which is
+ *   what the CPU caches and prefetchers are best at.
+ *
+ * The columns are split into chunks of CHUNK_SIZE rows. A write copies only
+ *   the chunk it changes and shares the others with the previous snapshot,
+ *   see EmployeeProjection. A snapshot is never changed once published, so
+ *   it can be read by any number of threads without a lock.
+ *
+ */
+public final class EmployeeColumns {
+
+	static final int CHUNK_BITS = 12;
+	static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	public static final int NO_DATE = Integer.MIN_VALUE;
+	static final int DELETED = 0;
+	static final short NO_POSITION = 0;
+
+	static final EmployeeColumns EMPTY = new EmployeeColumns(
+			new int[0][], new int[0][], new short[0][], new String[] { null }, 0, 0);
+
+	/*
+	 * The days since 1970-01-01 of January 1st of every year from FIRST_YEAR,
+	 *   to find the year of a day without creating a LocalDate.
+	 */
+	private static final int FIRST_YEAR = 1900;
+	private static final int[] YEAR_STARTS = new int[2200 - FIRST_YEAR + 1];
+
+	static {
+		for (int i = 0; i < YEAR_STARTS.length; i++)
+			YEAR_STARTS[i] = (int) LocalDate.of(FIRST_YEAR + i, 1, 1).toEpochDay();
+	}
+
+	final int[][] ids;
+	final int[][] hireDays;
+	final short[][] positionCodes;
+	final String[] positions;
+	final int rows;
+	final int live;
+
+	EmployeeColumns(int[][] ids, int[][] hireDays, short[][] positionCodes, String[] positions, int rows, int live) {
+		this.ids = ids;
+		this.hireDays = hireDays;
+		this.positionCodes = positionCodes;
+		this.positions = positions;
+		this.rows = rows;
+		this.live = live;
+	}
+
+	/*
+	 * The number of employees.
+	 */
+	public int size() {
+		return live;
+	}
+
+	/*
+	 * The bytes taken by the arrays of this snapshot, without the dictionary.
+	 *   Rows that were deleted and not compacted yet are included.
+	 */
+	public long columnBytes() {
+		long bytes = 0;
+		for (int chunk = 0; chunk < ids.length; chunk++)
+			bytes += arrayBytes(ids[chunk].length, 4) + arrayBytes(hireDays[chunk].length, 4)
+					+ arrayBytes(positionCodes[chunk].length, 2);
+		return bytes + 3 * arrayBytes(ids.length, 4);
+	}
+
+	/*
+	 * The counts of GET /employees/stats while the headcount counters are 
+	 *   cold: the number of employees in total, by position, by year of 
+	 *   dateHired and by both, in one scan. An employee without a position or
+	 *   a dateHired is only counted in the groups that do not need it.
+	 *
+	 * The rows are counted in a flat array by position code and year, or in
+	 *   a map for the years outside of YEAR_STARTS.
+	 */
+	public EmployeeStats stats() {
+		int slots = YEAR_STARTS.length;
+		// yearIndex() never returns the last index, it counts the rows without a date
+		int noDateSlot = slots - 1;
+		long[] counts = new long[positions.length * slots];
+		Map<Integer, long[]> otherYears = new TreeMap<>();
+		for (int chunk = 0; chunk < ids.length; chunk++) {
+			int[] chunkIds = ids[chunk];
+			int[] chunkDays = hireDays[chunk];
+			short[] chunkCodes = positionCodes[chunk];
+			int length = rowsIn(chunk);
+			for (int i = 0; i < length; i++) {
+				if (chunkIds[i] == DELETED)
+					continue;
+				int day = chunkDays[i];
+				int index = day == NO_DATE ? noDateSlot : yearIndex(day);
+				if (index >= 0)
+					counts[chunkCodes[i] * slots + index]++;
+				else
+					otherYears.computeIfAbsent(LocalDate.ofEpochDay(day).getYear(), 
+							year -> new long[positions.length])[chunkCodes[i]]++;
+			}
+		}
+
+		long total = 0;
+		Map<String, Long> byPosition = new TreeMap<>();
+		Map<Integer, Long> byHireYear = new TreeMap<>();
+		Map<String, Map<Integer, Long>> byPositionAndHireYear = new TreeMap<>();
+		for (int code = 0; code < positions.length; code++) {
+			for (int index = 0; index < slots; index++) {
+				long count = counts[code * slots + index];
+				if (count > 0)
+					total += add(code, index == noDateSlot ? null : FIRST_YEAR + index, count, 
+							byPosition, byHireYear, byPositionAndHireYear);
+			}
+		}
+		for (Map.Entry<Integer, long[]> year : otherYears.entrySet())
+			for (int code = 0; code < positions.length; code++)
+				if (year.getValue()[code] > 0)
+					total += add(code, year.getKey(), year.getValue()[code], 
+							byPosition, byHireYear, byPositionAndHireYear);
+		return new EmployeeStats(total, byPosition, byHireYear, byPositionAndHireYear);
+	}
+
+	private long add(int code, Integer year, long count, Map<String, Long> byPosition, Map<Integer, Long> byHireYear,
+			Map<String, Map<Integer, Long>> byPositionAndHireYear) {
+		String position = positions[code];
+		if (position != null)
+			byPosition.merge(position, count, Long::sum);
+		if (year != null)
+			byHireYear.merge(year, count, Long::sum);
+		if (position != null && year != null)
+			byPositionAndHireYear.computeIfAbsent(position, key -> new TreeMap<>()).merge(year, count, Long::sum);
+		return count;
+	}
+
+	/*
+	 * The number of employees hired from one day to another, both included.
+	 *   When position is not null, only the employees with that position are
+	 *   counted.
+	 */
+	public long countHired(LocalDate from, LocalDate to, String position) {
+		// Clamped to the range of an int, above NO_DATE
+		int fromDay = (int) Math.max(from.toEpochDay(), NO_DATE + 1L);
+		int toDay = (int) Math.min(to.toEpochDay(), Integer.MAX_VALUE);
+		if (position == null)
+			return countHired(fromDay, toDay);
+
+		short code = codeOf(position);
+		if (code == NO_POSITION)
+			return 0;
+		long count = 0;
+		for (int chunk = 0; chunk < ids.length; chunk++) {
+			int[] chunkIds = ids[chunk];
+			int[] chunkDays = hireDays[chunk];
+			short[] chunkCodes = positionCodes[chunk];
+			int length = rowsIn(chunk);
+			for (int i = 0; i < length; i++)
+				if (chunkCodes[i] == code && chunkIds[i] != DELETED
+						&& chunkDays[i] >= fromDay && chunkDays[i] <= toDay)
+					count++;
+		}
+		return count;
+	}
+
+	private long countHired(int fromDay, int toDay) {
+		long count = 0;
+		for (int chunk = 0; chunk < ids.length; chunk++) {
+			int[] chunkIds = ids[chunk];
+			int[] chunkDays = hireDays[chunk];
+			int length = rowsIn(chunk);
+			for (int i = 0; i < length; i++)
+				if (chunkIds[i] != DELETED && chunkDays[i] >= fromDay && chunkDays[i] <= toDay)
+					count++;
+		}
+		return count;
+	}
+
+	int rowsIn(int chunk) {
+		return chunk == ids.length - 1 ? rows - (chunk << CHUNK_BITS) : CHUNK_SIZE;
+	}
+
+	short codeOf(String position) {
+		for (short code = 1; code < positions.length; code++)
+			if (positions[code].equals(position))
+				return code;
+		return NO_POSITION;
+	}
+
+	private static int yearIndex(int day) {
+		if (day < YEAR_STARTS[0] || day >= YEAR_STARTS[YEAR_STARTS.length - 1])
+			return -1;
+		int index = Arrays.binarySearch(YEAR_STARTS, day);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/*
+	 * An array with a 16-byte header, rounded up to 8 bytes.
+	 */
+	private static long arrayBytes(int length, int elementBytes) {
+		return (16 + (long) length * elementBytes + 7) & ~7L;
+	}
+}
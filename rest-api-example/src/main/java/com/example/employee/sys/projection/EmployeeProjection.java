@@ -0,0 +1,187 @@
+package com.example.employee.sys.projection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.example.employee.sys.entity.Employee;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/****
+ * EmployeeProjection
+ *
+ * This is an optional in-memory read model of the employees table for the
+ *   reports: GET /employees/headcount, and GET /employees/stats while the
+ *   headcount counters are cold. It holds the columns the reports need in an
+ *   EmployeeColumns snapshot instead of one Employee object per row. It is
+ *   enabled with employee.projection.enabled=true.
+ *
+ * Readers get the current snapshot with snapshot() and scan it without any
+ *   lock. Every write builds the next snapshot and swaps it in, so a reader
+ *   always sees the table as it was at one point in time, and the readers
+ *   never slow down the writers.
+ *
+ * The projection is loaded from the database on startup, see
+ *   EmployeeServiceImpl.loadProjection(). It is cold until then and the
+ *   reports use SQL instead. Writes made while it loads are kept aside and
+ *   applied on top of the loaded rows, so none of them is lost.
+ *
+ * The service loads it again every employee.projection.reload-interval,
+ *   which undoes any drift, e.g. from rows written by another instance. The
+ *   current snapshot is read until the new one is swapped in.
+ *
+ */
+@Component
+public class EmployeeProjection {
+
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeProjection.class);
+
+	private final boolean enabled;
+
+	private volatile EmployeeColumns columns = EmployeeColumns.EMPTY;
+	private volatile boolean ready;
+
+	/*
+	 * Guarded by this.
+	 */
+	private ColumnsWriter writer = new ColumnsWriter();
+	private boolean loading;
+	private final List<Consumer<ColumnsWriter>> writesWhileLoading = new ArrayList<>();
+
+	public EmployeeProjection(@Value("${employee.projection.enabled:false}") boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	/*
+	 * The current snapshot. It never changes, get a new one to see later
+	 *   writes.
+	 */
+	public EmployeeColumns snapshot() {
+		return columns;
+	}
+
+	/*
+	 * Adds the employee, or replaces it if it is already in the projection.
+	 */
+	public synchronized void put(Employee employee) {
+		Employee row = copy(employee);
+		write(columnsWriter -> columnsWriter.put(row));
+	}
+
+	/*
+	 * Same as put() for each employee, with a single swap at the end.
+	 */
+	public synchronized void putAll(List<Employee> employees) {
+		List<Employee> rows = new ArrayList<>(employees.size());
+		for (Employee employee : employees)
+			rows.add(copy(employee));
+		write(columnsWriter -> rows.forEach(columnsWriter::put));
+	}
+
+	public synchronized void remove(Integer employeeId) {
+		write(columnsWriter -> columnsWriter.remove(employeeId));
+	}
+
+	/*
+	 * Starts loading the projection from the database. The rows are added to
+	 *   the returned writer, then handed to finishLoad(). The current snapshot
+	 *   stays readable in the meantime.
+	 */
+	public synchronized ColumnsLoader beginLoad() {
+		loading = enabled;
+		writesWhileLoading.clear();
+		return new ColumnsLoader();
+	}
+
+	/*
+	 * Applies the writes made during the load on top of the loaded rows and
+	 *   swaps in the result.
+	 */
+	public synchronized void finishLoad(ColumnsLoader loader) {
+		if (!loading)
+			return;
+		writer = loader.writer;
+		try {
+			for (Consumer<ColumnsWriter> write : writesWhileLoading)
+				write.accept(writer);
+			columns = writer.publish();
+			ready = true;
+		} catch (IllegalStateException e) {
+			fail(e);
+		} finally {
+			loading = false;
+			writesWhileLoading.clear();
+		}
+	}
+
+	/*
+	 * Makes the projection cold and empty, e.g. when a load failed.
+	 */
+	public synchronized void clear() {
+		ready = false;
+		loading = false;
+		writesWhileLoading.clear();
+		writer = new ColumnsWriter();
+		columns = EmployeeColumns.EMPTY;
+	}
+
+	/*
+	 * Applies the write to the current snapshot and swaps in the next one.
+	 *   During a load, it is also kept for finishLoad().
+	 */
+	private void write(Consumer<ColumnsWriter> write) {
+		if (loading)
+			writesWhileLoading.add(write);
+		if (!ready)
+			return;
+		try {
+			write.accept(writer);
+			columns = writer.publish();
+		} catch (IllegalStateException e) {
+			fail(e);
+		}
+	}
+
+	/*
+	 * The writes come after the commit of the service, they must not fail.
+	 *   The projection is turned off instead, and the reports use SQL.
+	 */
+	private void fail(IllegalStateException e) {
+		logger.warn("The employee projection is turned off, the reports use the database", e);
+		ready = false;
+		writer = new ColumnsWriter();
+		columns = EmployeeColumns.EMPTY;
+	}
+
+	private static Employee copy(Employee employee) {
+		return new Employee(employee.getEmployeeId(), employee.getEmployeeName(),
+				employee.getPosition(), employee.getDateHired());
+	}
+
+	/*
+	 * Collects the rows read from the database. It is only used by the thread
+	 *   that loads.
+	 */
+	public static final class ColumnsLoader {
+
+		private final ColumnsWriter writer = new ColumnsWriter();
+
+		private ColumnsLoader() {}
+
+		public void add(Employee employee) {
+			writer.put(employee);
+		}
+	}
+}
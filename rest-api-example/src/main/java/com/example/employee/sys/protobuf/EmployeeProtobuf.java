@@ -0,0 +1,160 @@
+package com.example.employee.sys.protobuf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.example.employee.sys.entity.Employee;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/****
+ * EmployeeProtobuf
+ *
+ * Writes and reads the Employee and EmployeeList messages of
+ *   static/proto/employee.proto, the Protobuf format of the employee
+ *   endpoints.
+ *
+ * The messages are written straight from the Employee entities with the
+ *   CodedOutputStream of the Protobuf runtime, and read straight into new
+ *   ones. There are no classes generated by protoc, so there is no copy of
+ *   each employee into a message and no protoc in the build. The clients
+ *   generate their own classes from the .proto file.
+ *
+ * The dateHired is the number of days since 1970-01-01, so neither side
+ *   formats or parses a date.
+ *
+ * Keep the field numbers below in line with the .proto file. The unknown
+ *   fields are skipped when reading, like generated code does.
+ *
+ */
+public final class EmployeeProtobuf {
+
+	public static final String MEDIA_TYPE_VALUE = "application/x-protobuf";
+
+	/*
+	 * The field numbers of the Employee message.
+	 */
+	private static final int EMPLOYEE_ID = 1;
+	private static final int EMPLOYEE_NAME = 2;
+	private static final int POSITION = 3;
+	private static final int DATE_HIRED = 4;
+
+	/*
+	 * The field number of the employees of the EmployeeList message.
+	 */
+	private static final int EMPLOYEES = 1;
+
+	private EmployeeProtobuf() {}
+
+	/*
+	 * Writes an Employee message.
+	 */
+	public static void writeEmployee(Employee employee, OutputStream output) throws IOException {
+		CodedOutputStream out = CodedOutputStream.newInstance(output);
+		writeFields(employee, out);
+		out.flush();
+	}
+
+	/*
+	 * Writes an EmployeeList message. Each employee is written as it comes,
+	 *   only its own size is computed beforehand.
+	 */
+	public static void writeEmployees(Collection<Employee> employees, OutputStream output) throws IOException {
+		CodedOutputStream out = CodedOutputStream.newInstance(output);
+		for (Employee employee : employees) {
+			out.writeTag(EMPLOYEES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			out.writeUInt32NoTag(fieldsSize(employee));
+			writeFields(employee, out);
+		}
+		out.flush();
+	}
+
+	/*
+	 * Reads an Employee message, up to the end of the input.
+	 */
+	public static Employee readEmployee(InputStream input) throws IOException {
+		return readFields(CodedInputStream.newInstance(input));
+	}
+
+	/*
+	 * Reads an EmployeeList message, up to the end of the input.
+	 */
+	public static List<Employee> readEmployees(InputStream input) throws IOException {
+		CodedInputStream in = CodedInputStream.newInstance(input);
+		List<Employee> employees = new ArrayList<>();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			if (tag != tag(EMPLOYEES, WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+				in.skipField(tag);
+				continue;
+			}
+			int limit = in.pushLimit(in.readRawVarint32());
+			employees.add(readFields(in));
+			in.popLimit(limit);
+		}
+		return employees;
+	}
+
+	/*
+	 * The default values of proto3, i.e. 0 and the fields not set, are not
+	 *   written.
+	 */
+	private static void writeFields(Employee employee, CodedOutputStream out) throws IOException {
+		if (employee.getEmployeeId() != 0)
+			out.writeInt32(EMPLOYEE_ID, employee.getEmployeeId());
+		if (employee.getEmployeeName() != null)
+			out.writeString(EMPLOYEE_NAME, employee.getEmployeeName());
+		if (employee.getPosition() != null)
+			out.writeString(POSITION, employee.getPosition());
+		if (employee.getDateHired() != null)
+			out.writeInt32(DATE_HIRED, epochDay(employee.getDateHired()));
+	}
+
+	private static int fieldsSize(Employee employee) {
+		int size = 0;
+		if (employee.getEmployeeId() != 0)
+			size += CodedOutputStream.computeInt32Size(EMPLOYEE_ID, employee.getEmployeeId());
+		if (employee.getEmployeeName() != null)
+			size += CodedOutputStream.computeStringSize(EMPLOYEE_NAME, employee.getEmployeeName());
+		if (employee.getPosition() != null)
+			size += CodedOutputStream.computeStringSize(POSITION, employee.getPosition());
+		if (employee.getDateHired() != null)
+			size += CodedOutputStream.computeInt32Size(DATE_HIRED, epochDay(employee.getDateHired()));
+		return size;
+	}
+
+	private static Employee readFields(CodedInputStream in) throws IOException {
+		Employee employee = new Employee();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			if (tag == tag(EMPLOYEE_ID, WireFormat.WIRETYPE_VARINT))
+				employee.setEmployeeId(in.readInt32());
+			else if (tag == tag(EMPLOYEE_NAME, WireFormat.WIRETYPE_LENGTH_DELIMITED))
+				employee.setEmployeeName(in.readStringRequireUtf8());
+			else if (tag == tag(POSITION, WireFormat.WIRETYPE_LENGTH_DELIMITED))
+				employee.setPosition(in.readStringRequireUtf8());
+			else if (tag == tag(DATE_HIRED, WireFormat.WIRETYPE_VARINT))
+				employee.setDateHired(Date.valueOf(LocalDate.ofEpochDay(in.readInt32())));
+			else
+				in.skipField(tag);
+		}
+		return employee;
+	}
+
+	/*
+	 * The days since 1970-01-01 of the date as it was read from the DATE
+	 *   column, which java.sql.Date keeps in the default time zone.
+	 */
+	private static int epochDay(Date date) {
+		return (int) date.toLocalDate().toEpochDay();
+	}
+
+	private static int tag(int fieldNumber, int wireType) {
+		return fieldNumber << 3 | wireType;
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.employee.sys.protobuf;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.employee.sys.entity.Employee;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+/****
+ * EmployeeProtobufHttpMessageConverter
+ *
+ * The application/x-protobuf converter of Spring MVC for the employees, see
+ *   EmployeeProtobuf:
+ *
+ * 1. It writes an Employee as an Employee message, and a List<Employee> as
+ *   an EmployeeList message. The controller method has to declare the
+ *   element type, e.g. ResponseEntity<List<Employee>>, since it cannot be
+ *   told from an empty list.
+ *
+ * 2. It reads an Employee, e.g. the body of POST /employees.
+ *
+ * Any other type is left to the other converters, so a request for another
+ *   body in Protobuf is answered with 406 Not Acceptable.
+ *
+ */
+public class EmployeeProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(EmployeeProtobuf.MEDIA_TYPE_VALUE);
+
+	public EmployeeProtobufHttpMessageConverter() {
+		super(MEDIA_TYPE);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return Employee.class == clazz;
+	}
+
+	/*
+	 * The media types that the content negotiation offers for a body of the
+	 *   class. A list is only told apart by its declared type in canWrite(),
+	 *   so any collection gets the Protobuf type here.
+	 */
+	@Override
+	public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+		return supports(clazz) || Collection.class.isAssignableFrom(clazz)
+				? getSupportedMediaTypes() : Collections.emptyList();
+	}
+
+	@Override
+	public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+		return Employee.class == type && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+		return (Employee.class == clazz || isEmployees(type)) && canWrite(mediaType);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+		return read(clazz, null, inputMessage);
+	}
+
+	@Override
+	public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+		try {
+			return EmployeeProtobuf.readEmployee(inputMessage.getBody());
+		} catch (IOException e) {
+			throw new HttpMessageNotReadableException("The body is not a valid Employee message.", e, inputMessage);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+		if (body instanceof Employee)
+			EmployeeProtobuf.writeEmployee((Employee) body, outputMessage.getBody());
+		else
+			EmployeeProtobuf.writeEmployees((Collection<Employee>) body, outputMessage.getBody());
+	}
+
+	/*
+	 * Whether the type is a collection of employees, e.g. List<Employee>.
+	 */
+	private static boolean isEmployees(@Nullable Type type) {
+		return type != null && ResolvableType.forType(type).asCollection().resolveGeneric(0) == Employee.class;
+	}
+}
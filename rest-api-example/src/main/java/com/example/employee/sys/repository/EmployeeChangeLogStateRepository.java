@@ -0,0 +1,30 @@
+package com.example.employee.sys.repository;
+
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import com.example.employee.sys.entity.EmployeeChangeLogState;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/****
+ * This is the repository of the state row of the change log, the 
+ *   employee_change_log table. See EmployeeChangeLog.
+ *
+ */
+@Repository
+public interface EmployeeChangeLogStateRepository extends JpaRepository<EmployeeChangeLogState, Integer> {
+
+	/*
+	 * The state of the change log, locked until the end of the transaction,
+	 *   e.g. with SELECT ... FOR UPDATE on H2.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select s from EmployeeChangeLogState s where s.id = :id")
+	Optional<EmployeeChangeLogState> lockById(@Param("id") int id);
+}
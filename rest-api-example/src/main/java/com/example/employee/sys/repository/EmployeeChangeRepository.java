@@ -0,0 +1,46 @@
+package com.example.employee.sys.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.example.employee.sys.entity.EmployeeChangeRecord;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/****
+ * This is the repository of the change log, the employee_changes table that
+ *   every instance reads into its feed of GET /employees/changes. See
+ *   EmployeeChangeLog.
+ *
+ */
+@Repository
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChangeRecord, Long> {
+
+	/*
+	 * The numbered changes after the given logSequence, in order, limited by
+	 *   the pageable. This seeks straight to it on the unique index.
+	 */
+	List<EmployeeChangeRecord> findByLogSequenceGreaterThanOrderByLogSequence(long logSequence, Pageable pageable);
+
+	/*
+	 * The committed changes that are not numbered yet, oldest first.
+	 */
+	List<EmployeeChangeRecord> findByLogSequenceIsNullOrderByRecordId(Pageable pageable);
+
+	boolean existsByLogSequenceIsNull();
+
+	/*
+	 * Deletes the numbered changes made before the given time, in one DELETE
+	 *   statement.
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from EmployeeChangeRecord c where c.changedAt < :before and c.logSequence is not null")
+	int deleteChangedBefore(@Param("before") Timestamp before);
+}
@@ -1,8 +1,19 @@
 package com.example.employee.sys.repository;
 
+import java.sql.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import com.example.employee.sys.entity.Employee;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /****
@@ -24,9 +35,88 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
 
+	/*
+	 * Number of rows the JDBC driver fetches per round trip when streaming.
+	 */
+	String STREAM_FETCH_SIZE = "500";
+
 	/*
 	 * We are not limited to the methods exposed by JPA. We can create custom
 	 *   queries. Check out the official docs:
 	 *   https://docs.spring.io/spring-data/jpa/docs/current/reference/html/#jpa.query-methods
 	 */
+
+	/*
+	 * Keyset (cursor) pagination. Returns the employees with an ID greater than
+	 *   the given cursor, limited and sorted by the pageable. This uses the 
+	 *   primary key index to seek straight to the cursor, so the cost of a page
+	 *   does not grow with how deep into the table the client is.
+	 * 
+	 * A Slice is returned instead of a Page so no COUNT(*) query is issued. 
+	 *   Spring Data fetches one extra row to know if there is a next slice.
+	 */
+	Slice<Employee> findByEmployeeIdGreaterThan(int employeeId, Pageable pageable);
+
+	/*
+	 * Offset pagination for the page/limit query parameters of the OAS. Same
+	 *   as findAll(Pageable) but without the COUNT(*) query.
+	 */
+	Slice<Employee> findAllBy(Pageable pageable);
+
+	/*
+	 * Name-prefix searches, used until the search index is loaded. Spring Data
+	 *   turns StartingWith into a LIKE 'prefix%' with the wildcards of the 
+	 *   prefix escaped, which can seek on the ix_employees_name and
+	 *   ix_employees_position_name indexes. Only the first page is read.
+	 *   
+	 * They compare the lower-case keys of Employee, so the prefix and the 
+	 *   position have to be in lower case too.
+	 */
+	List<Employee> findByEmployeeNameKeyStartingWith(String prefixKey, Pageable pageable);
+
+	List<Employee> findByPositionKeyAndEmployeeNameKeyStartingWith(String positionKey, String prefixKey, 
+			Pageable pageable);
+
+	/*
+	 * Counts the employees hired in a date range, both ends included, with 
+	 *   the given position unless it is null. Used by GET /employees/headcount
+	 *   when the employee projection is not loaded.
+	 */
+	@Query("select count(e) from Employee e where e.dateHired between :from and :to"
+			+ " and (:position is null or e.position = :position)")
+	long countHired(@Param("from") Date from, @Param("to") Date to, @Param("position") String position);
+
+	/*
+	 * The number of employees by position and year of dateHired, in one
+	 *   GROUP BY query. Used to set the counters of GET /employees/stats, and
+	 *   by GET /employees/stats itself until they are set.
+	 */
+	@Query("select e.position as position, year(e.dateHired) as hireYear, count(e) as headcount"
+			+ " from Employee e group by e.position, year(e.dateHired)")
+	List<HeadcountRow> countByPositionAndHireYear();
+
+	/*
+	 * A row of countByPositionAndHireYear. Spring Data implements it from the
+	 *   aliases of the query.
+	 */
+	interface HeadcountRow {
+		String getPosition();
+		Integer getHireYear();
+		long getHeadcount();
+	}
+
+	/*
+	 * Streams all employees ordered by ID straight from a JDBC cursor instead of
+	 *   loading them into a List. The entities are loaded read-only so Hibernate
+	 *   keeps no snapshot of them for dirty checking.
+	 * 
+	 * The stream holds an open connection. It must be consumed inside a 
+	 *   transaction and closed afterwards, e.g. with try-with-resources.
+	 */
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE),
+		@QueryHint(name = "org.hibernate.readOnly", value = "true")
+	})
+	@Query("select e from Employee e order by e.employeeId")
+	Stream<Employee> streamAll();
 }
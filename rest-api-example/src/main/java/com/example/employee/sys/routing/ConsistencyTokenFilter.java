@@ -0,0 +1,59 @@
+package com.example.employee.sys.routing;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/****
+ * ConsistencyTokenFilter
+ *
+ * Gives the read-your-writes guarantee to the API clients:
+ *
+ * 1. The response of every write (POST, PUT, PATCH and DELETE) has a 
+ *   consistency token in the X-Consistency-Token header.
+ *
+ * 2. A request that sends a token back, in the same header, reads from the
+ *   primary database during the read-your-writes window after the write.
+ *   After that, the replica has caught up and the token is ignored.
+ *
+ * The token is set before the request is handled, since the response may be
+ *   committed by then. It is therefore also set on the writes that fail.
+ *
+ */
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+
+	private final ReadYourWrites readYourWrites;
+
+	public ConsistencyTokenFilter(ReadYourWrites readYourWrites) {
+		this.readYourWrites = readYourWrites;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (isWrite(request.getMethod()))
+			response.setHeader(ReadYourWrites.TOKEN_HEADER, readYourWrites.newToken());
+
+		if (!readYourWrites.requiresPrimary(request.getHeader(ReadYourWrites.TOKEN_HEADER))) {
+			chain.doFilter(request, response);
+			return;
+		}
+		Boolean previous = DataSourceRouting.set(Boolean.TRUE);
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			DataSourceRouting.set(previous);
+		}
+	}
+
+	private static boolean isWrite(String method) {
+		return HttpMethod.POST.matches(method) || HttpMethod.PUT.matches(method)
+				|| HttpMethod.PATCH.matches(method) || HttpMethod.DELETE.matches(method);
+	}
+}
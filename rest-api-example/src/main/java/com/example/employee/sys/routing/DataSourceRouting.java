@@ -0,0 +1,60 @@
+package com.example.employee.sys.routing;
+
+import java.util.function.Supplier;
+
+/****
+ * DataSourceRouting
+ *
+ * Tells ReadWriteRoutingDataSource that the reads of the current thread must
+ *   go to the primary database instead of a read replica, e.g. because the
+ *   client has just written the rows it reads, or because the rows are loaded
+ *   into a read model that has to match the primary.
+ *
+ * Writes always go to the primary, whatever is set here. Without a read
+ *   replica, everything goes to the primary and this has no effect.
+ *
+ */
+public final class DataSourceRouting {
+
+	private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+	private DataSourceRouting() {}
+
+	/*
+	 * Runs the work with its reads on the primary database. The transactions
+	 *   must start inside the work, a connection that is already open keeps
+	 *   its database.
+	 */
+	public static <T> T onPrimary(Supplier<T> work) {
+		Boolean previous = set(Boolean.TRUE);
+		try {
+			return work.get();
+		} finally {
+			set(previous);
+		}
+	}
+
+	public static void runOnPrimary(Runnable work) {
+		onPrimary(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	public static boolean isPrimaryRequired() {
+		return PRIMARY_REQUIRED.get() != null;
+	}
+
+	/*
+	 * Sets the flag and returns the previous one, for ConsistencyTokenFilter
+	 *   which cannot wrap the filter chain in a Supplier.
+	 */
+	static Boolean set(Boolean primaryRequired) {
+		Boolean previous = PRIMARY_REQUIRED.get();
+		if (primaryRequired == null)
+			PRIMARY_REQUIRED.remove();
+		else
+			PRIMARY_REQUIRED.set(primaryRequired);
+		return previous;
+	}
+}
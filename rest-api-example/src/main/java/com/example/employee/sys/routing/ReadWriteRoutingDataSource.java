@@ -0,0 +1,83 @@
+package com.example.employee.sys.routing;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/****
+ * ReadWriteRoutingDataSource
+ *
+ * Hands out the connections of the primary database or of a read replica:
+ *
+ * 1. Read-only transactions, e.g. @Transactional(readOnly = true) and the
+ *   read methods of the Spring Data repositories, use the replica.
+ * 2. Unless DataSourceRouting requires the primary for the current thread.
+ * 3. Everything else uses the primary: read-write transactions and the 
+ *   statements outside of a transaction.
+ *
+ * The choice is made when the connection is opened, and the transaction
+ *   only knows it is read-only once it has started. This DataSource must
+ *   therefore be wrapped in a LazyConnectionDataSourceProxy, which only opens
+ *   the connection at the first statement. See ReadReplicaConfiguration.
+ *
+ * The number of connections routed to each database is exported as the
+ *   employees.datasource.routes metric. The connection pools are named 
+ *   "primary" and "replica", and the hikaricp.* metrics of each pool, e.g.
+ *   hikaricp.connections.usage, have the matching pool tag.
+ *
+ * It is a MeterBinder bean rather than taking the MeterRegistry: the registry
+ *   binds the DataSource metrics, so it needs the DataSources first. The
+ *   routes are counted from the start and exported once it is bound.
+ *
+ */
+public final class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica";
+
+	private final LongAdder writes = new LongAdder();
+	private final LongAdder consistentReads = new LongAdder();
+	private final LongAdder replicaReads = new LongAdder();
+
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+		setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		routes(meterRegistry, writes, PRIMARY, "write");
+		routes(meterRegistry, consistentReads, PRIMARY, "read-your-writes");
+		routes(meterRegistry, replicaReads, REPLICA, "read");
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			writes.increment();
+			return PRIMARY;
+		}
+		if (DataSourceRouting.isPrimaryRequired()) {
+			consistentReads.increment();
+			return PRIMARY;
+		}
+		replicaReads.increment();
+		return REPLICA;
+	}
+
+	private static void routes(MeterRegistry meterRegistry, LongAdder count, String pool, String reason) {
+		FunctionCounter.builder("employees.datasource.routes", count, LongAdder::sum)
+				.description("Connections opened on each database")
+				.tag("pool", pool)
+				.tag("reason", reason)
+				.register(meterRegistry);
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.employee.sys.routing;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/****
+ * ReadYourWrites
+ *
+ * A read replica lags a little behind the primary database. For the 
+ *   read-your-writes window after a write, the reads that could see the old
+ *   rows go to the primary instead:
+ *
+ * 1. The reads of a client that sends the consistency token it got from its
+ *   write, in the X-Consistency-Token header. See ConsistencyTokenFilter.
+ *
+ * 2. The loads of the employee cache for an employee written through this
+ *   instance, whoever reads it. Otherwise the old row read from the replica
+ *   would stay in the cache for its whole time to live.
+ *
+ * The token is the time of the write in milliseconds. The window should be
+ *   longer than the usual replica lag, employee.read-replica.read-your-writes-window.
+ *   A token more than MAX_CLOCK_SKEW_MILLIS in the future is ignored, so a
+ *   client cannot pin its reads to the primary with a made-up time. The skew
+ *   allows for a token written by another instance whose clock is a little
+ *   ahead.
+ *
+ * Without a read replica (employee.read-replica.enabled=false), nothing is
+ *   recorded and everything reads from the primary anyway.
+ *
+ */
+@Component
+public class ReadYourWrites {
+
+	public static final String TOKEN_HEADER = "X-Consistency-Token";
+
+	static final long MAX_CLOCK_SKEW_MILLIS = 1000;
+
+	private final boolean enabled;
+	private final long windowMillis;
+	private final Cache<Integer, Boolean> recentWrites;
+
+	public ReadYourWrites(
+			@Value("${employee.read-replica.enabled:false}") boolean enabled,
+			@Value("${employee.read-replica.read-your-writes-window:5s}") Duration window) {
+		this.enabled = enabled;
+		this.windowMillis = window.toMillis();
+		this.recentWrites = Caffeine.newBuilder()
+				.expireAfterWrite(window)
+				.build();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/*
+	 * Records that the employee was written. Call it before the employee is
+	 *   evicted from the cache, so the next load already goes to the primary.
+	 */
+	public void markWritten(Integer employeeId) {
+		if (enabled)
+			recentWrites.put(employeeId, Boolean.TRUE);
+	}
+
+	public boolean isRecentlyWritten(Integer employeeId) {
+		return enabled && recentWrites.getIfPresent(employeeId) != null;
+	}
+
+	/*
+	 * The token of a write made now.
+	 */
+	public String newToken() {
+		return Long.toString(System.currentTimeMillis());
+	}
+
+	/*
+	 * Whether the reads of a client with the given token must go to the 
+	 *   primary. A token that is not a number, or is too far in the future, is
+	 *   ignored.
+	 */
+	public boolean requiresPrimary(String token) {
+		if (!enabled || token == null)
+			return false;
+		try {
+			long writtenAt = Long.parseLong(token.trim());
+			long age = System.currentTimeMillis() - writtenAt;
+			return age >= -MAX_CLOCK_SKEW_MILLIS && age < windowMillis;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+}
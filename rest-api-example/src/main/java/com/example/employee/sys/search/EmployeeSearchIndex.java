@@ -0,0 +1,281 @@
+package com.example.employee.sys.search;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import com.example.employee.sys.entity.Employee;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/****
+ * EmployeeSearchIndex
+ *
+ * This is an in-memory index of all the employees for the type-ahead search
+ *   of GET /employees/search. It answers "employees whose name starts with
+ *   a prefix, optionally with a given position" without going to the
+ *   database.
+ *
+ * The employees are kept in two sorted sets:
+ *   1. by name, for a search on the prefix only.
+ *   2. by position then name, for a search on the position and the prefix.
+ *
+ *   A search seeks to the first employee whose name is not lower than the
+ *   prefix and reads in order until the name no longer starts with it or
+ *   the limit is reached. Its cost depends on the limit, not on the number
+ *   of employees. Names and positions are compared case-insensitively.
+ *
+ * The sets are concurrent skip lists, so searches take no lock and run
+ *   while the service writes. Writes are serialized, each one replaces the
+ *   old entry of the employee, if any.
+ *
+ * The index is cold until it has been loaded from the database, see
+ *   EmployeeServiceImpl.loadSearchIndex(). Until then, isReady() is false and
+ *   the service searches the database instead. Writes made while it loads
+ *   are applied as they come and win over the rows being loaded.
+ *
+ * The service loads it again every employee.search.reload-interval, which
+ *   undoes any drift, e.g. from rows written by another instance. The new
+ *   sets are built next to the ones being searched and swapped in when
+ *   they are complete, so the index stays warm while it reloads.
+ *
+ * When employee.search.index-enabled is false, the index stays empty and
+ *   cold.
+ *
+ */
+@Component
+public class EmployeeSearchIndex {
+
+	private static final Comparator<Entry> BY_NAME = Comparator
+			.comparing((Entry entry) -> entry.nameKey)
+			.thenComparingInt(entry -> entry.employeeId);
+
+	private static final Comparator<Entry> BY_POSITION_AND_NAME = Comparator
+			.comparing((Entry entry) -> entry.positionKey)
+			.thenComparing(BY_NAME);
+
+	private final boolean enabled;
+
+	private volatile Entries entries = new Entries();
+
+	/*
+	 * The entries being loaded, null unless a load is in progress. Guarded
+	 *   by this.
+	 */
+	private Entries loadingEntries;
+
+	/*
+	 * The same few positions are shared by many employees. Every position is
+	 *   kept once, with its key.
+	 */
+	private final ConcurrentHashMap<String, String[]> positions = new ConcurrentHashMap<>();
+
+	/*
+	 * IDs removed while the index loads, so the loader does not add them back.
+	 */
+	private final Set<Integer> removedWhileLoading = new HashSet<>();
+
+	private volatile boolean ready;
+
+	public EmployeeSearchIndex(@Value("${employee.search.index-enabled:true}") boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public int size() {
+		return entries.byId.size();
+	}
+
+	/*
+	 * Returns up to limit employees whose name starts with the prefix, ordered
+	 *   by name then ID. When position is not null, only the employees with
+	 *   that position are returned.
+	 */
+	public List<Employee> search(String prefix, String position, int limit) {
+		Entries current = entries;
+		String nameKey = key(prefix);
+		NavigableSet<Entry> candidates;
+		String positionKey = null;
+		if (position == null) {
+			candidates = current.byName.tailSet(new Entry(Integer.MIN_VALUE, nameKey, ""), true);
+		} else {
+			positionKey = key(position);
+			candidates = current.byPositionAndName.tailSet(new Entry(Integer.MIN_VALUE, nameKey, positionKey), true);
+		}
+
+		List<Employee> employees = new ArrayList<>(Math.min(limit, 16));
+		for (Entry entry : candidates) {
+			if (employees.size() == limit
+					|| !entry.nameKey.startsWith(nameKey)
+					|| (positionKey != null && !entry.positionKey.equals(positionKey)))
+				break;
+			employees.add(entry.toEmployee());
+		}
+		return employees;
+	}
+
+	/*
+	 * Adds the employee, or replaces it if it is already in the index.
+	 */
+	public synchronized void put(Employee employee) {
+		if (!enabled)
+			return;
+		Entry entry = entry(employee);
+		entries.put(entry);
+		if (loadingEntries != null)
+			loadingEntries.put(entry);
+	}
+
+	public synchronized void remove(Integer employeeId) {
+		if (!enabled)
+			return;
+		entries.remove(employeeId);
+		if (loadingEntries != null) {
+			loadingEntries.remove(employeeId);
+			removedWhileLoading.add(employeeId);
+		}
+	}
+
+	/*
+	 * Empties the index and makes it cold.
+	 */
+	public synchronized void clear() {
+		ready = false;
+		entries = new Entries();
+		loadingEntries = null;
+		removedWhileLoading.clear();
+	}
+
+	/*
+	 * Starts new entries, which load() fills and markReady() swaps in. The
+	 *   current ones are searched in the meantime.
+	 */
+	public synchronized void beginLoad() {
+		loadingEntries = enabled ? new Entries() : null;
+		removedWhileLoading.clear();
+	}
+
+	/*
+	 * Adds an employee read from the database while the index loads. It is
+	 *   skipped when the service has already put or removed it, since the
+	 *   service has the newer state.
+	 */
+	public synchronized void load(Employee employee) {
+		if (loadingEntries == null || loadingEntries.byId.containsKey(employee.getEmployeeId())
+				|| removedWhileLoading.contains(employee.getEmployeeId()))
+			return;
+		loadingEntries.put(entry(employee));
+	}
+
+	public synchronized void markReady() {
+		if (loadingEntries == null)
+			return;
+		entries = loadingEntries;
+		loadingEntries = null;
+		removedWhileLoading.clear();
+		ready = true;
+	}
+
+	private Entry entry(Employee employee) {
+		String[] position = employee.getPosition() == null
+				? null
+				: positions.computeIfAbsent(employee.getPosition(), value -> new String[] { value, key(value) });
+		return new Entry(employee, position);
+	}
+
+	private static String key(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+
+	/*
+	 * The employees by ID, and in the two orders of the searches.
+	 */
+	private static final class Entries {
+
+		private final NavigableSet<Entry> byName = new ConcurrentSkipListSet<>(BY_NAME);
+		private final NavigableSet<Entry> byPositionAndName = new ConcurrentSkipListSet<>(BY_POSITION_AND_NAME);
+		private final ConcurrentHashMap<Integer, Entry> byId = new ConcurrentHashMap<>();
+
+		private void put(Entry entry) {
+			Entry old = byId.put(entry.employeeId, entry);
+			if (old != null)
+				unlink(old);
+			byName.add(entry);
+			byPositionAndName.add(entry);
+		}
+
+		private void remove(Integer employeeId) {
+			Entry old = byId.remove(employeeId);
+			if (old != null)
+				unlink(old);
+		}
+
+		private void unlink(Entry entry) {
+			byName.remove(entry);
+			byPositionAndName.remove(entry);
+		}
+	}
+
+	/*
+	 * What the index keeps of an employee. The date is kept as a number so
+	 *   the entry cannot be changed through it.
+	 */
+	private static final class Entry {
+
+		private static final long NO_DATE = Long.MIN_VALUE;
+
+		private final int employeeId;
+		private final int version;
+		private final String employeeName;
+		private final String nameKey;
+		private final String position;
+		private final String positionKey;
+		private final long dateHired;
+
+		private Entry(Employee employee, String[] position) {
+			this.employeeId = employee.getEmployeeId();
+			this.version = employee.getVersion();
+			this.employeeName = employee.getEmployeeName();
+			this.nameKey = key(employee.getEmployeeName());
+			this.position = position == null ? null : position[0];
+			this.positionKey = position == null ? "" : position[1];
+			this.dateHired = employee.getDateHired() == null ? NO_DATE : employee.getDateHired().getTime();
+		}
+
+		/*
+		 * A probe to seek to in a sorted set. It sorts before every employee
+		 *   with the same keys.
+		 */
+		private Entry(int employeeId, String nameKey, String positionKey) {
+			this.employeeId = employeeId;
+			this.version = 0;
+			this.employeeName = null;
+			this.nameKey = nameKey;
+			this.position = null;
+			this.positionKey = positionKey;
+			this.dateHired = NO_DATE;
+		}
+
+		private Employee toEmployee() {
+			Employee employee = new Employee(employeeId, employeeName, position,
+					dateHired == NO_DATE ? null : new Date(dateHired));
+			employee.setVersion(version);
+			return employee;
+		}
+	}
+}
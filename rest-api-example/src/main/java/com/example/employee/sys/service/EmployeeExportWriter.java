@@ -0,0 +1,127 @@
+package com.example.employee.sys.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.example.employee.sys.entity.Employee;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * EmployeeExportWriter
+ * 
+ * Writes employees one at a time to an output stream in one of the export
+ *   formats. Nothing is kept once a row is written, so the memory used does
+ *   not depend on the number of rows. The target stream is flushed but never
+ *   closed by this writer.
+ *
+ */
+abstract class EmployeeExportWriter implements Closeable {
+
+	static EmployeeExportWriter open(ExportFormat format, OutputStream out, ObjectMapper mapper) throws IOException {
+		switch (format) {
+		case CSV:
+			return new Csv(out);
+		case NDJSON:
+		default:
+			return new Ndjson(out, mapper);
+		}
+	}
+
+	abstract void write(Employee employee) throws IOException;
+
+	abstract void flush() throws IOException;
+
+	/*
+	 * One JSON document per line. The employees are serialized with the
+	 *   application ObjectMapper so they look exactly like GET /employees.
+	 */
+	private static final class Ndjson extends EmployeeExportWriter {
+
+		private final JsonGenerator generator;
+		private final ObjectWriter writer;
+
+		Ndjson(OutputStream out, ObjectMapper mapper) throws IOException {
+			this.generator = mapper.getFactory().createGenerator(out);
+			this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			this.generator.setRootValueSeparator(null);
+			// Flushing is done per chunk by the caller, not per row
+			this.writer = mapper.writerFor(Employee.class)
+					.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		}
+
+		@Override
+		void write(Employee employee) throws IOException {
+			writer.writeValue(generator, employee);
+			generator.writeRaw('\n');
+		}
+
+		@Override
+		void flush() throws IOException {
+			generator.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			generator.close();
+		}
+	}
+
+	/*
+	 * RFC 4180 CSV with a header row. Values with a comma, quote or line break
+	 *   are quoted.
+	 */
+	private static final class Csv extends EmployeeExportWriter {
+
+		private final Writer writer;
+
+		Csv(OutputStream out) throws IOException {
+			this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			this.writer.write("employeeId,employeeName,position,dateHired\r\n");
+		}
+
+		@Override
+		void write(Employee employee) throws IOException {
+			writer.write(Integer.toString(employee.getEmployeeId()));
+			writer.write(',');
+			writeValue(employee.getEmployeeName());
+			writer.write(',');
+			writeValue(employee.getPosition());
+			writer.write(',');
+			if (employee.getDateHired() != null)
+				writer.write(employee.getDateHired().toString());
+			writer.write("\r\n");
+		}
+
+		private void writeValue(String value) throws IOException {
+			if (value == null)
+				return;
+			if (value.indexOf(',') < 0 && value.indexOf('"') < 0 
+					&& value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+				writer.write(value);
+				return;
+			}
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\""));
+			writer.write('"');
+		}
+
+		@Override
+		void flush() throws IOException {
+			writer.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			// Flush only, the servlet container owns the output stream
+			writer.flush();
+		}
+	}
+}
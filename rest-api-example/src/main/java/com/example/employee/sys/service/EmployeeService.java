@@ -1,15 +1,33 @@
 package com.example.employee.sys.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import com.example.employee.sys.entity.BatchItemResult;
 import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeStats;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.springframework.data.domain.Slice;
 
 public interface EmployeeService {
 
 	List<Employee> getEmployees();
+	Slice<Employee> getEmployees(Integer cursor, Integer page, Integer limit);
 	Optional<Employee> getEmployeeById(Integer id);
+	List<Employee> searchEmployees(String prefix, String position, Integer limit);
+	int loadSearchIndex();
+	long countHired(LocalDate from, LocalDate to, String position);
+	int loadProjection();
+	EmployeeStats getStats();
+	boolean reconcileStats();
 	Integer saveEmployee(Employee employee);
-	void updateEmployee(Employee employee, Integer id);
-	void deleteEmployee(Integer id);
+	List<BatchItemResult> saveEmployees(InputStream in) throws IOException;
+	void updateEmployee(JsonNode patch, Integer id, Integer expectedVersion);
+	void deleteEmployee(Integer id, Integer expectedVersion);
+	long exportEmployees(OutputStream out, ExportFormat format) throws IOException;
 }
@@ -1,14 +1,75 @@
 package com.example.employee.sys.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.example.employee.sys.cache.EmployeeCache;
+import com.example.employee.sys.changes.EmployeeChangeLog;
+import com.example.employee.sys.entity.BatchItemResult;
 import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.example.employee.sys.entity.EmployeeStats;
+import com.example.employee.sys.exceptions.BadRequestException;
 import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
+import com.example.employee.sys.projection.EmployeeProjection;
 import com.example.employee.sys.repository.EmployeeRepository;
+import com.example.employee.sys.routing.DataSourceRouting;
+import com.example.employee.sys.routing.ReadYourWrites;
+import com.example.employee.sys.search.EmployeeSearchIndex;
+import com.example.employee.sys.stats.HeadcountCounters;
+import com.example.employee.sys.stats.HeadcountKey;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * EmployeeServiceImpl
@@ -26,14 +87,135 @@ import org.springframework.stereotype.Service;
  *   business layer of the code. This is where all business requirement logic
  *   should be done.
  *
+ * @Profile("!reactive") leaves it out of the reactive mode, which has no JPA
+ *   and uses ReactiveEmployeeServiceImpl instead.
+ *
  */
 @Service
+@Profile("!reactive")
 public class EmployeeServiceImpl implements EmployeeService {
 	
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeServiceImpl.class);
+	
+	private static final Sort BY_EMPLOYEE_ID = Sort.by("employeeId");
+	
+	private static final Sort BY_EMPLOYEE_NAME_KEY = Sort.by("employeeNameKey", "employeeId");
+	
+	/*
+	 * The hire dates used when a report has no start or no end date.
+	 */
+	private static final LocalDate EARLIEST_HIRE_DATE = LocalDate.of(1, 1, 1);
+	private static final LocalDate LATEST_HIRE_DATE = LocalDate.of(9999, 12, 31);
+	
+	/*
+	 * The pause before the second attempt of a reconciliation of the headcount
+	 *   counters, doubled for the third and so on.
+	 */
+	private static final long RECONCILE_RETRY_PAUSE_MILLIS = 100;
+
 	@Autowired
 	private EmployeeRepository repo;
 	
+	@Autowired
+	private EmployeeCache cache;
+	
+	@Autowired
+	private EmployeeSearchIndex searchIndex;
+	
+	@Autowired
+	private EmployeeProjection projection;
+	
+	@Autowired
+	private HeadcountCounters stats;
+	
+	@Autowired
+	private EmployeeChangeLog changeLog;
+	
+	@Autowired
+	private ReadYourWrites readYourWrites;
+	
+	@Autowired
+	@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	private TaskExecutor taskExecutor;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Autowired
+	private Validator validator;
+	
+	private TransactionTemplate transactionTemplate;
+	
+	private TransactionTemplate readOnlyTransactionTemplate;
+	
+	/*
+	 * Page size used when the client does not send a limit, and the hard 
+	 *   maximum page size regardless of what the client asks for.
+	 */
+	@Value("${employee.page.default-limit:20}")
+	private int defaultLimit;
+	
+	@Value("${employee.page.max-limit:100}")
+	private int maxLimit;
+	
+	/*
+	 * Number of exported rows after which the output is flushed and the
+	 *   persistence context is cleared, so neither grows with the table.
+	 */
+	@Value("${employee.export.clear-interval:" + EmployeeRepository.STREAM_FETCH_SIZE + "}")
+	private int exportClearInterval;
+	
+	/*
+	 * Number of valid employees written per transaction by saveEmployees. Inside
+	 *   a chunk, Hibernate sends the inserts in JDBC batches of 
+	 *   spring.jpa.properties.hibernate.jdbc.batch_size.
+	 */
+	@Value("${employee.batch.chunk-size:500}")
+	private int batchChunkSize;
+	
+	/*
+	 * Number of employees returned by a search when the client does not send
+	 *   a limit. The max limit of the pages applies too.
+	 */
+	@Value("${employee.search.default-limit:10}")
+	private int searchDefaultLimit;
+	
+	/*
+	 * Whether the search index is loaded in the background once the 
+	 *   application is ready. Searches use the database until it is.
+	 */
+	@Value("${employee.search.load-on-startup:true}")
+	private boolean searchLoadOnStartup;
+	
+	/*
+	 * Whether the headcount counters of GET /employees/stats are set from the
+	 *   database in the background once the application is ready, instead of
+	 *   at the first reconciliation.
+	 */
+	@Value("${employee.stats.load-on-startup:true}")
+	private boolean statsLoadOnStartup;
+	
+	/*
+	 * Number of times a reconciliation of the headcount counters is tried
+	 *   before they are made cold, when employees are written while it runs.
+	 */
+	@Value("${employee.stats.reconcile-attempts:3}")
+	private int statsReconcileAttempts;
+	
 	public EmployeeServiceImpl() { }
+	
+	@Autowired
+	void setTransactionManager(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+	}
 
 	/*
 	 * The following commented code are samples for the other types of 
@@ -50,39 +232,565 @@ public class EmployeeServiceImpl implements EmployeeService {
 //      this.repo = repo;
 //  }
 	
+	/*
+	 * The reads of the following methods are read-only transactions, so they
+	 *   go to the read replica when there is one. See ReadWriteRoutingDataSource.
+	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<Employee> getEmployees() {
 		return repo.findAll();
 	}
 	
+	/*
+	 * Gets one slice of employees ordered by ID. The cursor is the last
+	 *   employeeId the client has seen (keyset pagination) and page is the
+	 *   1-based page number (offset pagination). Only one of them can be used.
+	 *   Without both, the first slice is returned.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<Employee> getEmployees(Integer cursor, Integer page, Integer limit) {
+		int size = resolveLimit(limit, defaultLimit);
+		
+		if (cursor != null && page != null)
+			throw new BadRequestException("Use either the cursor or the page query parameter, not both.");
+		
+		if (page != null) {
+			if (page < 1)
+				throw new BadRequestException("The page query parameter should be 1 or greater.");
+			return repo.findAllBy(PageRequest.of(page - 1, size, BY_EMPLOYEE_ID));
+		}
+		
+		return repo.findByEmployeeIdGreaterThan(
+				cursor == null ? 0 : cursor, PageRequest.of(0, size, BY_EMPLOYEE_ID));
+	}
+	
+	/*
+	 * Reads through the employee cache. A miss costs a single findById, and 
+	 *   an ID that does not exist is cached briefly as well.
+	 *   
+	 * findById runs in a read-only transaction of its own, so a miss reads
+	 *   from the read replica when there is one. Only a miss opens one, a hit
+	 *   takes no connection at all. An employee written through this instance
+	 *   a moment ago is read from the primary instead, or the replica could
+	 *   put its old row in the cache. See ReadYourWrites.
+	 */
 	@Override
 	public Optional<Employee> getEmployeeById(Integer id) {
-		if (!repo.existsById(id))
+		Optional<Employee> employee = cache.get(id, this::findById);
+		if (employee.isEmpty())
 			throw new NotFoundException(id);
+		return employee;
+	}
+	
+	/*
+	 * Type-ahead search on the name prefix, optionally filtered by position.
+	 *   The search index answers from memory once it is loaded. Until then,
+	 *   the database is searched with the employee_name_key and position_key
+	 *   indexes of the employees table.
+	 *   
+	 * Both compare names and positions case-insensitively: the keys are the
+	 *   lower-case columns, and the prefix and the position are lowered the
+	 *   same way.
+	 */
+	@Override
+	public List<Employee> searchEmployees(String prefix, String position, Integer limit) {
+		boolean noPrefix = prefix == null || prefix.isEmpty();
+		boolean noPosition = position == null || position.isBlank();
+		if (noPrefix && noPosition)
+			throw new BadRequestException("Use the prefix or the position query parameter, or both.");
+		int size = resolveLimit(limit, searchDefaultLimit);
+		String namePrefix = noPrefix ? "" : prefix;
+		
+		if (searchIndex.isReady())
+			return searchIndex.search(namePrefix, noPosition ? null : position, size);
+		
+		PageRequest pageable = PageRequest.of(0, size, BY_EMPLOYEE_NAME_KEY);
+		String prefixKey = namePrefix.toLowerCase(Locale.ROOT);
+		if (noPosition)
+			return repo.findByEmployeeNameKeyStartingWith(prefixKey, pageable);
+		return repo.findByPositionKeyAndEmployeeNameKeyStartingWith(position.toLowerCase(Locale.ROOT), prefixKey, 
+				pageable);
+	}
+	
+	/*
+	 * Counts the employees hired from one date to another, both included, 
+	 *   with the given position when there is one. A missing date leaves that
+	 *   end of the range open.
+	 *   
+	 * The employee projection scans its columns in memory once it is loaded.
+	 *   Until then, or when it is disabled, the database counts.
+	 */
+	@Override
+	public long countHired(LocalDate from, LocalDate to, String position) {
+		LocalDate first = from == null ? EARLIEST_HIRE_DATE : from;
+		LocalDate last = to == null ? LATEST_HIRE_DATE : to;
+		if (first.isAfter(last))
+			throw new BadRequestException("The hiredFrom query parameter should not be after hiredTo.");
+		
+		if (projection.isReady())
+			return projection.snapshot().countHired(first, last, position);
+		return repo.countHired(Date.valueOf(first), Date.valueOf(last), position);
+	}
+	
+	/*
+	 * Counts the employees by position, by year of dateHired and by both. 
+	 *   
+	 * The counts come from the headcount counters, which every write of this
+	 *   service keeps up to date. While they are cold, or when they are
+	 *   disabled, the employee projection scans its columns if it is loaded.
+	 *   Otherwise the database counts with a GROUP BY query.
+	 */
+	@Override
+	public EmployeeStats getStats() {
+		if (stats.isReady())
+			return stats.snapshot();
+		if (projection.isReady())
+			return projection.snapshot().stats();
+		return HeadcountCounters.toStats(repo.countByPositionAndHireYear());
+	}
+	
+	/*
+	 * Sets the headcount counters to the counts of the database, which undoes
+	 *   any drift, e.g. from rows written by another instance. Runs every
+	 *   employee.stats.reconcile-interval. 
+	 *   
+	 * It cannot be applied when employees are written while it runs, see 
+	 *   HeadcountCounters. It is then tried again up to 
+	 *   employee.stats.reconcile-attempts times, after a short pause. If none
+	 *   of them is applied, the counters are made cold, so the stats come from
+	 *   the database until the next reconciliation is.
+	 *   
+	 * Returns whether the counters were set.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${employee.stats.reconcile-interval:PT10M}", 
+			initialDelayString = "${employee.stats.reconcile-interval:PT10M}")
+	public boolean reconcileStats() {
+		if (!stats.isEnabled())
+			return false;
+		for (int attempt = 1; attempt <= statsReconcileAttempts; attempt++) {
+			if (attempt > 1 && !pause(RECONCILE_RETRY_PAUSE_MILLIS << (attempt - 2)))
+				break;
+			long token = stats.beginReconcile();
+			// The replica could lag behind the writes the counters already have
+			if (token >= 0 && stats.reconcile(token, DataSourceRouting.onPrimary(() ->
+					readOnlyTransactionTemplate.execute(status -> repo.countByPositionAndHireYear()))))
+				return true;
+		}
+		if (stats.isReady())
+			logger.warn("Unable to reconcile the headcount counters while employees were being written, "
+					+ "the stats use the database until the next reconciliation");
+		stats.clear();
+		return false;
+	}
+	
+	private static boolean pause(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	/*
+	 * Loads the search index, the employee projection and the headcount
+	 *   counters in the background once the application is ready, so the startup does not wait for the 
+	 *   whole table to be read.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (searchIndex.isEnabled() && searchLoadOnStartup)
+			loadInBackground("search index", this::loadSearchIndex, searchIndex::clear);
+		if (projection.isEnabled())
+			loadInBackground("employee projection", this::loadProjection, projection::clear);
+		if (stats.isEnabled() && statsLoadOnStartup)
+			loadInBackground("headcount counters", this::reconcileStats, stats::clear);
+	}
+	
+	/*
+	 * Loads the search index and the employee projection again, which undoes
+	 *   any drift, e.g. from rows written by another instance or straight in
+	 *   the database. They stay warm while they reload, and the writes made in
+	 *   the meantime are applied on top of the rows read. Runs every 
+	 *   employee.search.reload-interval and employee.projection.reload-interval,
+	 *   on the task executor so the other scheduled tasks do not wait for it.
+	 */
+	@Scheduled(fixedDelayString = "${employee.search.reload-interval:PT10M}", 
+			initialDelayString = "${employee.search.reload-interval:PT10M}")
+	public void reloadSearchIndex() {
+		if (searchIndex.isEnabled() && searchLoadOnStartup)
+			loadInBackground("search index", this::loadSearchIndex, searchIndex::clear);
+	}
+	
+	@Scheduled(fixedDelayString = "${employee.projection.reload-interval:PT10M}", 
+			initialDelayString = "${employee.projection.reload-interval:PT10M}")
+	public void reloadProjection() {
+		if (projection.isEnabled())
+			loadInBackground("employee projection", this::loadProjection, projection::clear);
+	}
+	
+	private void loadInBackground(String name, Runnable load, Runnable clear) {
+		taskExecutor.execute(() -> {
+			try {
+				load.run();
+			} catch (RuntimeException e) {
+				clear.run();
+				logger.warn("Unable to load the {}, the database is used instead", name, e);
+			}
+		});
+	}
+	
+	/*
+	 * Reads all employees into new sets of the search index and swaps them
+	 *   in. Writes made in the meantime are applied to the index as usual.
+	 *   
+	 * Returns the number of employees in the index.
+	 */
+	@Override
+	public synchronized int loadSearchIndex() {
+		long start = System.nanoTime();
+		searchIndex.beginLoad();
+		forEachEmployee(searchIndex::load);
+		searchIndex.markReady();
+		
+		logger.info("Loaded {} employees into the search index in {} ms", 
+				searchIndex.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return searchIndex.size();
+	}
+	
+	/*
+	 * Reads all employees into a new snapshot of the employee projection and
+	 *   swaps it in. Writes made in the meantime are applied on top of it.
+	 *   
+	 * Returns the number of employees in the projection.
+	 */
+	@Override
+	public synchronized int loadProjection() {
+		long start = System.nanoTime();
+		EmployeeProjection.ColumnsLoader loader = projection.beginLoad();
+		forEachEmployee(loader::add);
+		projection.finishLoad(loader);
+		
+		logger.info("Loaded {} employees into the employee projection ({} bytes of columns) in {} ms", 
+				projection.snapshot().size(), projection.snapshot().columnBytes(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return projection.snapshot().size();
+	}
+	
+	/*
+	 * Reads all employees like exportEmployees does: from a JDBC cursor,
+	 *   clearing the persistence context as it goes.
+	 *   
+	 * The rows come from the primary. The writes are applied on top of them as
+	 *   they commit, so a replica that lags behind would lose the ones it does
+	 *   not have yet.
+	 */
+	private void forEachEmployee(Consumer<Employee> action) {
+		DataSourceRouting.runOnPrimary(() -> readOnlyTransactionTemplate.executeWithoutResult(status -> {
+			long rows = 0;
+			try (Stream<Employee> employees = repo.streamAll()) {
+				Iterator<Employee> iterator = employees.iterator();
+				while (iterator.hasNext()) {
+					action.accept(iterator.next());
+					if (++rows % exportClearInterval == 0)
+						entityManager.clear();
+				}
+			}
+		}));
+	}
+	
+	private Optional<Employee> findById(Integer id) {
+		if (readYourWrites.isRecentlyWritten(id))
+			return DataSourceRouting.onPrimary(() -> repo.findById(id));
 		return repo.findById(id);
 	}
 	
 	@Override
 	public Integer saveEmployee(Employee employee) {
-		return repo.save(employee).getEmployeeId();
+		Employee saved = transactionTemplate.execute(status -> {
+			// An employee with an ID replaces the existing one, if any. The merge
+			// of save() reuses the entity loaded here instead of selecting it again
+			Employee existing = employee.getEmployeeId() == 0 ? null 
+					: repo.findById(employee.getEmployeeId()).orElse(null);
+			HeadcountKey before = existing == null ? null : HeadcountKey.of(existing);
+			// The body has no version, so the replacement takes the one of the 
+			// row: the last writer wins, as before @Version, instead of a 409
+			if (existing != null)
+				employee.setVersion(existing.getVersion());
+			Employee result = repo.save(employee);
+			stats.record(before, HeadcountKey.of(result));
+			changeLog.record(before == null ? EmployeeChange.Type.CREATED : EmployeeChange.Type.UPDATED, 
+					result.getEmployeeId(), result);
+			afterCommit(changeLog::pollSoon);
+			return result;
+		});
+		// Drops a cached "not found" for this ID, or the old row if it existed
+		readYourWrites.markWritten(saved.getEmployeeId());
+		cache.evict(saved.getEmployeeId());
+		searchIndex.put(saved);
+		projection.put(saved);
+		return saved.getEmployeeId();
 	}
 	
+	/*
+	 * Creates the employees read from the given JSON array or NDJSON stream.
+	 * 
+	 * The items are read and validated one at a time. Valid employees are 
+	 *   collected into chunks and each chunk is written in its own transaction.
+	 *   A failing chunk is rolled back and reported without stopping the others.
+	 *   
+	 * Returns one result per item, in the order of the request body. A 
+	 *   malformed JSON document stops the processing since the position of the
+	 *   next item cannot be trusted; it is reported as the last result.
+	 */
 	@Override
-	public void updateEmployee(Employee employee, Integer id) {
-		if (!repo.existsById(id))
-			throw new NotFoundException(id);
+	public List<BatchItemResult> saveEmployees(InputStream in) throws IOException {
+		List<BatchItemResult> results = new ArrayList<>();
+		List<Employee> chunk = new ArrayList<>(batchChunkSize);
+		List<Integer> chunkIndexes = new ArrayList<>(batchChunkSize);
+		
+		try (MappingIterator<Employee> items = objectMapper.readerFor(Employee.class).readValues(in)) {
+			int index = 0;
+			while (true) {
+				Employee employee;
+				try {
+					if (!items.hasNextValue())
+						break;
+					employee = items.nextValue();
+				} catch (JsonParseException e) {
+					results.add(BatchItemResult.invalid(index, List.of("Malformed JSON: " + e.getOriginalMessage())));
+					break;
+				} catch (JsonMappingException e) {
+					// The iterator skips the rest of the bad item so the next one can be read
+					results.add(BatchItemResult.invalid(index++, List.of(e.getOriginalMessage())));
+					continue;
+				}
+				
+				List<String> errors = validate(employee);
+				if (!errors.isEmpty()) {
+					results.add(BatchItemResult.invalid(index++, errors));
+					continue;
+				}
+				
+				// Items of a batch are always new employees
+				employee.setEmployeeId(0);
+				chunk.add(employee);
+				chunkIndexes.add(index++);
+				results.add(null);
+				if (chunk.size() == batchChunkSize)
+					saveChunk(chunk, chunkIndexes, results);
+			}
+		}
+		saveChunk(chunk, chunkIndexes, results);
+		return results;
+	}
+	
+	private List<String> validate(Employee employee) {
+		if (employee == null)
+			return List.of("The employee should not be null.");
+		return validator.validate(employee).stream()
+				.map(ConstraintViolation::getMessage)
+				.sorted()
+				.collect(Collectors.toList());
+	}
+	
+	private void saveChunk(List<Employee> chunk, List<Integer> chunkIndexes, List<BatchItemResult> results) {
+		if (chunk.isEmpty())
+			return;
 		
-		// TODO handle full and partial updates
+		try {
+			List<Employee> saved = transactionTemplate.execute(status -> {
+				List<Employee> savedChunk = repo.saveAll(chunk);
+				for (Employee employee : savedChunk)
+					stats.record(null, HeadcountKey.of(employee));
+				changeLog.recordCreated(savedChunk);
+				// Sends the employees, then the changes, in JDBC batches
+				repo.flush();
+				// Keep the persistence context from growing with the batch
+				entityManager.clear();
+				return savedChunk;
+			});
+			for (int i = 0; i < chunkIndexes.size(); i++) {
+				int index = chunkIndexes.get(i);
+				Employee employee = saved.get(i);
+				readYourWrites.markWritten(employee.getEmployeeId());
+				cache.evict(employee.getEmployeeId());
+				searchIndex.put(employee);
+				results.set(index, BatchItemResult.created(index, employee.getEmployeeId()));
+			}
+			projection.putAll(saved);
+			changeLog.pollSoon();
+		} catch (DataAccessException | TransactionException e) {
+			logger.warn("Unable to save a chunk of {} employees", chunk.size(), e);
+			for (int index : chunkIndexes)
+				results.set(index, BatchItemResult.failed(index, e.getMostSpecificCause().getMessage()));
+		}
 		
-		employee.setEmployeeId(id);
-		repo.save(employee);
+		chunk.clear();
+		chunkIndexes.clear();
 	}
 	
+	/*
+	 * Applies a JSON Merge Patch (RFC 7386) to an employee. Only the fields in
+	 *   the patch are changed and a field set to null is cleared. The 
+	 *   employeeId cannot be changed.
+	 *   
+	 * The employee is read once and changed while it is managed by Hibernate. 
+	 *   On commit, Hibernate only updates the columns that actually changed 
+	 *   (see @DynamicUpdate on Employee) and skips the UPDATE when nothing did.
+	 *   
+	 * When expectedVersion is given, the patch is only applied to that version
+	 *   of the employee. The UPDATE is checked against the version that was 
+	 *   read, so a change committed in between fails with an 
+	 *   OptimisticLockingFailureException instead of being overwritten.
+	 */
 	@Override
-	public void deleteEmployee(Integer id) {
-		if (!repo.existsById(id))
-			throw new NotFoundException(id);
-		repo.deleteById(id);
+	@Transactional
+	public void updateEmployee(JsonNode patch, Integer id, Integer expectedVersion) {
+		if (patch == null || !patch.isObject())
+			throw new BadRequestException("The merge patch should be a JSON object.");
+		
+		Employee employee = findVersion(id, expectedVersion);
+		HeadcountKey before = HeadcountKey.of(employee);
+		
+		ObjectNode changes = ((ObjectNode) patch).deepCopy();
+		changes.remove("employeeId");
+		try {
+			objectMapper.readerForUpdating(employee).readValue(changes);
+		} catch (JsonProcessingException e) {
+			throw new BadRequestException("The merge patch has an invalid value: " + e.getOriginalMessage());
+		} catch (IOException e) {
+			throw new BadRequestException("The merge patch has an invalid value: " + e.getMessage());
+		}
+		
+		List<String> errors = validate(employee);
+		if (!errors.isEmpty())
+			throw new BadRequestException(String.join(" ", errors));
+		
+		stats.record(before, HeadcountKey.of(employee));
+		changeLog.record(EmployeeChange.Type.UPDATED, id, employee);
+		afterCommit(() -> {
+			readYourWrites.markWritten(id);
+			cache.evict(id);
+			searchIndex.put(employee);
+			projection.put(employee);
+			changeLog.pollSoon();
+		});
+	}
+	
+	/*
+	 * Deletes an employee, only if it is still at expectedVersion when one is
+	 *   given. Like updateEmployee, the DELETE is checked against the version
+	 *   that was read.
+	 */
+	@Override
+	@Transactional
+	public void deleteEmployee(Integer id, Integer expectedVersion) {
+		Employee employee = findVersion(id, expectedVersion);
+		repo.delete(employee);
+		stats.record(HeadcountKey.of(employee), null);
+		changeLog.record(EmployeeChange.Type.DELETED, id, null);
+		afterCommit(() -> {
+			readYourWrites.markWritten(id);
+			cache.evict(id);
+			searchIndex.remove(id);
+			projection.remove(id);
+			changeLog.pollSoon();
+		});
+	}
+	
+	private Employee findVersion(Integer id, Integer expectedVersion) {
+		Employee employee = repo.findById(id).orElseThrow(() -> new NotFoundException(id));
+		if (expectedVersion != null && employee.getVersion() != expectedVersion)
+			throw new PreconditionFailedException(id);
+		return employee;
+	}
+	
+	/*
+	 * Streams all employees to the given output stream in the given format.
+	 * 
+	 * The rows come from a JDBC cursor and are written one at a time. Writing
+	 *   blocks while the client is not reading, which also stops fetching rows
+	 *   from the database. That way a slow client slows down the export instead
+	 *   of filling up the heap.
+	 * 
+	 * Returns the number of exported employees.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long exportEmployees(OutputStream out, ExportFormat format) throws IOException {
+		long start = System.nanoTime();
+		long rows = 0;
+		
+		try (Stream<Employee> employees = repo.streamAll();
+				EmployeeExportWriter writer = EmployeeExportWriter.open(format, out, objectMapper)) {
+			Iterator<Employee> iterator = employees.iterator();
+			while (iterator.hasNext()) {
+				writer.write(iterator.next());
+				if (++rows % exportClearInterval == 0) {
+					writer.flush();
+					entityManager.clear();
+				}
+			}
+		} finally {
+			recordExport(format, rows, System.nanoTime() - start);
+		}
+		return rows;
+	}
+	
+	private void recordExport(ExportFormat format, long rows, long elapsedNanos) {
+		double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000d;
+		double rowsPerSecond = rows / seconds;
+		
+		Timer.builder("employees.export")
+			.description("Time taken to export the employees table")
+			.tag("format", format.getValue())
+			.register(meterRegistry)
+			.record(elapsedNanos, TimeUnit.NANOSECONDS);
+		meterRegistry.counter("employees.export.rows", "format", format.getValue()).increment(rows);
+		DistributionSummary.builder("employees.export.throughput")
+			.description("Rows per second of each export")
+			.baseUnit("rows/s")
+			.tag("format", format.getValue())
+			.register(meterRegistry)
+			.record(rowsPerSecond);
+		
+		logger.info("Exported {} employees as {} in {} ms ({} rows/s)", 
+				rows, format.getValue(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(rowsPerSecond));
+	}
+	
+	/*
+	 * Runs the action, e.g. evicting the employee from the cache, once the
+	 *   current transaction is committed. Evicting earlier would let a 
+	 *   concurrent read put the old row back into the cache before the change
+	 *   is visible. The employee is marked as written just before, so the
+	 *   next miss reads it from the primary. The search index and the employee projection are updated
+	 *   and the change log is read at the same time, so they never show a 
+	 *   change that was rolled back.
+	 */
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+	
+	private int resolveLimit(Integer limit, int whenMissing) {
+		if (limit == null)
+			return whenMissing;
+		if (limit < 1)
+			throw new BadRequestException("The limit query parameter should be 1 or greater.");
+		return Math.min(limit, maxLimit);
 	}
 
 }
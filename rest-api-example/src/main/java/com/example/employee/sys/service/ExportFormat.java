@@ -0,0 +1,43 @@
+package com.example.employee.sys.service;
+
+import com.example.employee.sys.exceptions.BadRequestException;
+
+/**
+ * ExportFormat
+ * 
+ * The formats supported by the employee export. Each one has the value of
+ *   the format query parameter, the response content type and the file
+ *   extension used in the Content-Disposition header.
+ *
+ */
+public enum ExportFormat {
+
+	NDJSON("ndjson", ExportFormat.NDJSON_MEDIA_TYPE),
+	CSV("csv", "text/csv");
+
+	public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+	private final String value;
+	private final String mediaType;
+
+	ExportFormat(String value, String mediaType) {
+		this.value = value;
+		this.mediaType = mediaType;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public String getMediaType() {
+		return mediaType;
+	}
+
+	public static ExportFormat fromValue(String value) {
+		for (ExportFormat format : values()) {
+			if (format.value.equalsIgnoreCase(value))
+				return format;
+		}
+		throw new BadRequestException(String.format("Unsupported export format %s. Use ndjson or csv.", value));
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.employee.sys.startup;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+/****
+ * ClassCountingApplicationStartup
+ *
+ * Records the startup steps of Spring, e.g. the instantiation of each bean,
+ *   like BufferingApplicationStartup, and tags each one with the number of
+ *   classes the JVM loaded while it ran (classes.loaded). Loading a class is
+ *   a good part of the cost of a step the first time it runs.
+ *
+ * The count comes from the ClassLoadingMXBean and covers all the threads, so
+ *   it is only exact for the steps run on the main thread while nothing else
+ *   loads classes. A step includes the classes of the steps nested in it.
+ *
+ * It is still a BufferingApplicationStartup, so the startup endpoint of the
+ *   actuator sees it.
+ *
+ */
+public class ClassCountingApplicationStartup extends BufferingApplicationStartup {
+
+	public static final String CLASSES_LOADED_TAG = "classes.loaded";
+
+	private static final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+	public ClassCountingApplicationStartup(int capacity) {
+		super(capacity);
+	}
+
+	@Override
+	public StartupStep start(String name) {
+		StartupStep step = super.start(name);
+		long loadedBefore = classLoading.getTotalLoadedClassCount();
+		return new StartupStep() {
+
+			@Override
+			public String getName() {
+				return step.getName();
+			}
+
+			@Override
+			public long getId() {
+				return step.getId();
+			}
+
+			@Override
+			public Long getParentId() {
+				return step.getParentId();
+			}
+
+			@Override
+			public StartupStep tag(String key, String value) {
+				step.tag(key, value);
+				return this;
+			}
+
+			@Override
+			public StartupStep tag(String key, Supplier<String> value) {
+				step.tag(key, value);
+				return this;
+			}
+
+			@Override
+			public Tags getTags() {
+				return step.getTags();
+			}
+
+			@Override
+			public void end() {
+				step.tag(CLASSES_LOADED_TAG, Long.toString(classLoading.getTotalLoadedClassCount() - loadedBefore));
+				step.end();
+			}
+		};
+	}
+}
@@ -0,0 +1,33 @@
+package com.example.employee.sys.startup;
+
+import com.example.employee.sys.entity.StartupReport;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/****
+ * StartupReportEndpoint
+ *
+ * The startupreport actuator endpoint, GET /actuator/startupreport. It 
+ *   answers with the StartupReport of the last startup, see StartupReporter.
+ *
+ * The startup endpoint of Spring Boot, /actuator/startup, has every step
+ *   recorded instead.
+ *
+ */
+@Component
+@Endpoint(id = "startupreport")
+public class StartupReportEndpoint {
+
+	private final StartupReporter reporter;
+
+	public StartupReportEndpoint(StartupReporter reporter) {
+		this.reporter = reporter;
+	}
+
+	@ReadOperation
+	public StartupReport report() {
+		return reporter.getReport();
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.employee.sys.startup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.example.employee.sys.entity.StartupReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/****
+ * StartupReporter
+ *
+ * Builds the StartupReport of the startupreport actuator endpoint once the
+ *   application is ready, from the steps recorded by the 
+ *   ClassCountingApplicationStartup of SpringBootDemoApplication.main(). The
+ *   report is kept, so draining the steps with the startup endpoint of the
+ *   actuator does not change it.
+ *
+ * The slowest beans are logged, e.g. entityManagerFactory for Hibernate and
+ *   its DDL, or dataSourceScriptDatabaseInitializer for data.sql. With 
+ *   employee.startup.report-file, the report is also written to that file as
+ *   JSON, to compare startups over time.
+ *
+ */
+@Component
+public class StartupReporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(StartupReporter.class);
+
+	static final String BEAN_STEP = "spring.beans.instantiate";
+
+	private final ObjectMapper objectMapper;
+	private final int topBeans;
+	private final String reportFile;
+
+	private volatile StartupReport report = new StartupReport(false, 0, 0, 0, List.of(), List.of());
+
+	public StartupReporter(
+			ObjectMapper objectMapper,
+			@Value("${employee.startup.top-beans:20}") int topBeans,
+			@Value("${employee.startup.report-file:}") String reportFile) {
+		this.objectMapper = objectMapper;
+		this.topBeans = topBeans;
+		this.reportFile = reportFile;
+	}
+
+	public StartupReport getReport() {
+		return report;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady(ApplicationReadyEvent event) {
+		ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+		List<TimelineEvent> steps = startup instanceof BufferingApplicationStartup
+				? ((BufferingApplicationStartup) startup).getBufferedTimeline().getEvents() : List.of();
+		Duration timeTaken = event.getTimeTaken();
+		report = build(startup instanceof BufferingApplicationStartup, steps, timeTaken == null ? 0 : timeTaken.toMillis());
+
+		logger.info("Started in {} ms with {} classes loaded, the slowest beans: {}", report.getStartupMillis(), 
+				report.getClassesLoaded(), report.getBeans().stream().limit(5)
+					.map(bean -> bean.getName() + " " + Math.round(bean.getDurationMillis()) + " ms")
+					.collect(Collectors.joining(", ")));
+		if (!reportFile.isBlank())
+			write(Paths.get(reportFile));
+	}
+
+	StartupReport build(boolean recorded, List<TimelineEvent> steps, long startupMillis) {
+		Map<String, StartupReport.Step> phases = new LinkedHashMap<>();
+		List<StartupReport.Step> beans = new ArrayList<>();
+		for (TimelineEvent event : steps) {
+			StartupStep step = event.getStartupStep();
+			double millis = event.getDuration().toNanos() / 1_000_000d;
+			long classes = classesLoaded(step);
+			phases.merge(step.getName(), new StartupReport.Step(step.getName(), 1, millis, classes), 
+					(sum, one) -> new StartupReport.Step(sum.getName(), sum.getCount() + 1, 
+							sum.getDurationMillis() + millis, sum.getClassesLoaded() + classes));
+			// A FactoryBean, e.g. the one of entityManagerFactory, is instantiated as &name
+			if (BEAN_STEP.equals(step.getName()))
+				beans.add(new StartupReport.Step(BeanFactoryUtils.transformedBeanName(tag(step, "beanName")), 
+						1, millis, classes));
+		}
+
+		Comparator<StartupReport.Step> slowestFirst = 
+				Comparator.comparingDouble(StartupReport.Step::getDurationMillis).reversed();
+		List<StartupReport.Step> sortedPhases = new ArrayList<>(phases.values());
+		sortedPhases.sort(slowestFirst);
+		beans.sort(slowestFirst);
+		return new StartupReport(recorded, startupMillis, 
+				ManagementFactory.getRuntimeMXBean().getUptime(),
+				ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount(),
+				sortedPhases, beans.subList(0, Math.min(topBeans, beans.size())));
+	}
+
+	private void write(Path path) {
+		try {
+			if (path.getParent() != null)
+				Files.createDirectories(path.getParent());
+			objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+		} catch (IOException e) {
+			logger.warn("Unable to write the startup report to {}", path, e);
+		}
+	}
+
+	private static long classesLoaded(StartupStep step) {
+		String classes = tag(step, ClassCountingApplicationStartup.CLASSES_LOADED_TAG);
+		return classes == null ? 0 : Long.parseLong(classes);
+	}
+
+	private static String tag(StartupStep step, String key) {
+		for (StartupStep.Tag tag : step.getTags())
+			if (key.equals(tag.getKey()))
+				return tag.getValue();
+		return null;
+	}
+}
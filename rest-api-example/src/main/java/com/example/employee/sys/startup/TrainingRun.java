@@ -0,0 +1,89 @@
+package com.example.employee.sys.startup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/****
+ * TrainingRun
+ *
+ * The training run of the Class Data Sharing (AppCDS) archive of the Docker
+ *   image. It is enabled with employee.training-run.enabled=true.
+ *
+ * The JVM started with -XX:ArchiveClassesAtExit writes every class it loaded
+ *   to the archive when it exits. The next JVMs started with 
+ *   -XX:SharedArchiveFile map them from the archive instead of reading, 
+ *   parsing and verifying them from the jars again, which is a good part of
+ *   the startup of Spring Boot and Hibernate.
+ *
+ * Once the application is ready, the training run sends the requests of
+ *   employee.training-run.paths to itself, so the classes of a request, e.g.
+ *   Spring MVC and Jackson, are loaded and archived too. Then it closes the
+ *   application and exits. The exit code is 1 when a request did not succeed,
+ *   which fails the image build.
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "employee.training-run.enabled", havingValue = "true")
+public class TrainingRun {
+
+	private static final Logger logger = LoggerFactory.getLogger(TrainingRun.class);
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final List<String> paths;
+
+	public TrainingRun(@Value("${employee.training-run.paths:/employees}") List<String> paths) {
+		this.paths = paths;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void run(ApplicationReadyEvent event) {
+		ConfigurableApplicationContext context = event.getApplicationContext();
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		int exitCode = sendRequests(port) ? 0 : 1;
+		System.exit(SpringApplication.exit(context, () -> exitCode));
+	}
+
+	private boolean sendRequests(int port) {
+		HttpClient client = HttpClient.newBuilder()
+				.connectTimeout(REQUEST_TIMEOUT)
+				.build();
+		boolean succeeded = true;
+		for (String path : paths) {
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path.trim()))
+					.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+					.timeout(REQUEST_TIMEOUT)
+					.build();
+			try {
+				int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+				logger.info("Training run: GET {} returned {}", path, status);
+				succeeded &= status / 100 == 2;
+			} catch (IOException e) {
+				logger.error("Training run: GET {} failed", path, e);
+				succeeded = false;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return succeeded;
+	}
+}
@@ -0,0 +1,275 @@
+package com.example.employee.sys.stats;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.employee.sys.entity.EmployeeStats;
+import com.example.employee.sys.repository.EmployeeRepository.HeadcountRow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/****
+ * HeadcountCounters
+ *
+ * These are the counters behind GET /employees/stats: the number of
+ *   employees by position, by year of dateHired, and by both. Every write of
+ *   EmployeeServiceImpl moves its employee from the group it was in to the
+ *   one it is in now, see record(). A read adds up a few counters per group,
+ *   so its cost depends on the number of positions and years, not on the
+ *   number of employees.
+ *
+ * The counters are LongAdders in concurrent maps. Writers on different
+ *   threads update them without a lock and without contending on a single
+ *   memory location.
+ *
+ * The counters start cold. They are set from a GROUP BY query on startup,
+ *   then again every employee.stats.reconcile-interval, see
+ *   EmployeeServiceImpl.reconcileStats(). The reconciliation resets any
+ *   drift, e.g. rows changed by another instance or straight in the
+ *   database. Until the first one, isReady() is false and the service
+ *   answers with the GROUP BY query instead.
+ *
+ * A reconciliation is only applied when no write committed while the query
+ *   ran. Otherwise it could not tell whether the query saw that write, and
+ *   the write would be counted twice or not at all. It is tried again a few
+ *   times, and when the writes never leave a gap for it, the counters are
+ *   made cold instead of serving counts that may have drifted. The service
+ *   then uses the GROUP BY query until a reconciliation is applied.
+ *
+ * The employees.stats.cold gauge is 1 while the counters are cold, i.e.
+ *   while GET /employees/stats runs the GROUP BY query.
+ *
+ */
+@Component
+public class HeadcountCounters implements MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(HeadcountCounters.class);
+
+	private final boolean enabled;
+
+	private volatile Counters counters = new Counters();
+	private volatile boolean ready;
+
+	/*
+	 * Writes that began and did not end yet, and the number of times a write
+	 *   began or ended. A reconciliation compares them before and after its
+	 *   query.
+	 */
+	private final AtomicInteger writesInFlight = new AtomicInteger();
+	private final AtomicLong writeEvents = new AtomicLong();
+
+	/*
+	 * Held for read by the writes applying their change, and for write by a
+	 *   reconciliation checking the writes and swapping the counters.
+	 */
+	private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+	public HeadcountCounters(@Value("${employee.stats.enabled:true}") boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		if (enabled)
+			Gauge.builder("employees.stats.cold", this, headcount -> headcount.isReady() ? 0 : 1)
+					.description("Whether the headcount counters are cold and the stats use the database")
+					.register(meterRegistry);
+	}
+
+	/*
+	 * Records that an employee moved from one group to another, e.g.
+	 *   (null, key) for a new employee and (key, null) for a deleted one.
+	 *
+	 * Within a transaction, the counters are changed once it commits and left
+	 *   as they are if it rolls back. Outside of one, they are changed now.
+	 */
+	public void record(HeadcountKey before, HeadcountKey after) {
+		if (!enabled || (before == null ? after == null : before.equals(after)))
+			return;
+
+		writesInFlight.incrementAndGet();
+		writeEvents.incrementAndGet();
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			endWrite(before, after, true);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				endWrite(before, after, status == STATUS_COMMITTED);
+			}
+		});
+	}
+
+	private void endWrite(HeadcountKey before, HeadcountKey after, boolean committed) {
+		swapLock.readLock().lock();
+		try {
+			if (committed) {
+				Counters current = counters;
+				if (before != null)
+					current.add(before, -1);
+				if (after != null)
+					current.add(after, 1);
+			}
+		} finally {
+			writeEvents.incrementAndGet();
+			writesInFlight.decrementAndGet();
+			swapLock.readLock().unlock();
+		}
+	}
+
+	/*
+	 * The counts as they are now. Only meaningful once isReady().
+	 */
+	public EmployeeStats snapshot() {
+		return counters.toStats();
+	}
+
+	/*
+	 * Starts a reconciliation. Returns the token to hand to reconcile() with
+	 *   the rows of the GROUP BY query, or -1 when a write is in flight and
+	 *   the reconciliation should be skipped.
+	 */
+	public long beginReconcile() {
+		swapLock.writeLock().lock();
+		try {
+			return writesInFlight.get() == 0 ? writeEvents.get() : -1;
+		} finally {
+			swapLock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Replaces the counters with the counts of the rows, if no write began or
+	 *   ended since beginReconcile(). Returns whether they were replaced.
+	 */
+	public boolean reconcile(long token, List<HeadcountRow> rows) {
+		if (!enabled || token < 0)
+			return false;
+		Counters reconciled = Counters.of(rows);
+
+		swapLock.writeLock().lock();
+		try {
+			if (writesInFlight.get() != 0 || writeEvents.get() != token)
+				return false;
+			if (ready && !counters.sameCountsAs(reconciled))
+				logger.warn("The headcount counters drifted from the database, they are reset to {} employees",
+						reconciled.total.sum());
+			counters = reconciled;
+			ready = true;
+			return true;
+		} finally {
+			swapLock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Makes the counters cold and empty, e.g. when a reconciliation failed or
+	 *   could not be applied.
+	 */
+	public void clear() {
+		swapLock.writeLock().lock();
+		try {
+			ready = false;
+			counters = new Counters();
+		} finally {
+			swapLock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * The counts of the rows of a GROUP BY query, the same way snapshot()
+	 *   gives them. Used when the counters are not ready.
+	 */
+	public static EmployeeStats toStats(List<HeadcountRow> rows) {
+		return Counters.of(rows).toStats();
+	}
+
+	/*
+	 * One set of counters. A reconciliation builds a new one and swaps it in,
+	 *   so a read never sees half of each.
+	 */
+	private static final class Counters {
+
+		final LongAdder total = new LongAdder();
+		final ConcurrentMap<String, LongAdder> byPosition = new ConcurrentHashMap<>();
+		final ConcurrentMap<Integer, LongAdder> byHireYear = new ConcurrentHashMap<>();
+		final ConcurrentMap<String, ConcurrentMap<Integer, LongAdder>> byPositionAndHireYear = new ConcurrentHashMap<>();
+
+		static Counters of(List<HeadcountRow> rows) {
+			Counters counters = new Counters();
+			for (HeadcountRow row : rows)
+				counters.add(new HeadcountKey(row.getPosition(), row.getHireYear()), row.getHeadcount());
+			return counters;
+		}
+
+		void add(HeadcountKey key, long delta) {
+			total.add(delta);
+			String position = key.getPosition();
+			Integer hireYear = key.getHireYear();
+			if (position != null)
+				byPosition.computeIfAbsent(position, k -> new LongAdder()).add(delta);
+			if (hireYear != null)
+				byHireYear.computeIfAbsent(hireYear, k -> new LongAdder()).add(delta);
+			if (position != null && hireYear != null)
+				byPositionAndHireYear.computeIfAbsent(position, k -> new ConcurrentHashMap<>())
+						.computeIfAbsent(hireYear, k -> new LongAdder()).add(delta);
+		}
+
+		EmployeeStats toStats() {
+			Map<String, Map<Integer, Long>> both = new TreeMap<>();
+			byPositionAndHireYear.forEach((position, years) -> {
+				Map<Integer, Long> counts = sums(years);
+				if (!counts.isEmpty())
+					both.put(position, counts);
+			});
+			return new EmployeeStats(total.sum(), sums(byPosition), sums(byHireYear), both);
+		}
+
+		boolean sameCountsAs(Counters other) {
+			EmployeeStats mine = toStats();
+			EmployeeStats theirs = other.toStats();
+			return mine.getTotal() == theirs.getTotal()
+					&& mine.getByPositionAndHireYear().equals(theirs.getByPositionAndHireYear())
+					&& mine.getByPosition().equals(theirs.getByPosition())
+					&& mine.getByHireYear().equals(theirs.getByHireYear());
+		}
+
+		/*
+		 * The groups with at least one employee, sorted.
+		 */
+		private static <K> Map<K, Long> sums(Map<K, LongAdder> counters) {
+			Map<K, Long> sums = new TreeMap<>();
+			counters.forEach((key, counter) -> {
+				long sum = counter.sum();
+				if (sum > 0)
+					sums.put(key, sum);
+			});
+			return sums;
+		}
+	}
+}
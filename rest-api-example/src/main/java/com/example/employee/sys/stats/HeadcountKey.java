@@ -0,0 +1,60 @@
+package com.example.employee.sys.stats;
+
+import java.util.Objects;
+
+import com.example.employee.sys.entity.Employee;
+
+/***
+ * HeadcountKey
+ *
+ * The group an employee is counted in by HeadcountCounters: its position and
+ *   the year of its dateHired. Either one can be null.
+ *
+ */
+public final class HeadcountKey {
+
+	private final String position;
+	private final Integer hireYear;
+
+	public HeadcountKey(String position, Integer hireYear) {
+		this.position = position;
+		this.hireYear = hireYear;
+	}
+
+	/*
+	 * The key of the employee as it is now. Later changes to the employee do
+	 *   not change the key.
+	 */
+	public static HeadcountKey of(Employee employee) {
+		Integer hireYear = employee.getDateHired() == null ? null : employee.getDateHired().toLocalDate().getYear();
+		return new HeadcountKey(employee.getPosition(), hireYear);
+	}
+
+	public String getPosition() {
+		return position;
+	}
+
+	public Integer getHireYear() {
+		return hireYear;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof HeadcountKey))
+			return false;
+		HeadcountKey key = (HeadcountKey) other;
+		return Objects.equals(position, key.position) && Objects.equals(hireYear, key.hireYear);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(position, hireYear);
+	}
+
+	@Override
+	public String toString() {
+		return position + "/" + hireYear;
+	}
+}
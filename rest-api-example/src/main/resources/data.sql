@@ -1,3 +1,6 @@
-INSERT INTO employees (employee_id, employee_name, position, date_hired) VALUES (1, 'John Doe', 'Developer', '2001-01-01');
-INSERT INTO employees (employee_id, employee_name, position, date_hired) VALUES (2, 'Jane Doe', 'Manager', '2002-02-02');
-INSERT INTO employees (employee_id, employee_name, position, date_hired) VALUES (3, 'Bob Doe', 'Supervisor', '2003-03-03');
\ No newline at end of file
+INSERT INTO employees (employee_id, employee_name, position, date_hired, version) VALUES (1, 'John Doe', 'Developer', '2001-01-01', 0);
+INSERT INTO employees (employee_id, employee_name, position, date_hired, version) VALUES (2, 'Jane Doe', 'Manager', '2002-02-02', 0);
+INSERT INTO employees (employee_id, employee_name, position, date_hired, version) VALUES (3, 'Bob Doe', 'Supervisor', '2003-03-03', 0);
+
+-- The rows above have explicit IDs. Start the ID sequence after the highest one.
+ALTER SEQUENCE employees_seq RESTART WITH 4;
@@ -0,0 +1,44 @@
+-- Schema of the in-memory H2 database, in both modes. In the default mode,
+-- Hibernate validates it against the Employee, EmployeeChangeRecord and
+-- EmployeeChangeLogState entities.
+-- The sequences are incremented by Employee.ALLOCATION_SIZE.
+
+CREATE SEQUENCE IF NOT EXISTS employees_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS employees (
+    employee_id   INTEGER      NOT NULL,
+    date_hired    DATE,
+    employee_name VARCHAR(255),
+    position      VARCHAR(255),
+    version       INTEGER      NOT NULL,
+    employee_name_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(employee_name)),
+    position_key      VARCHAR(255) GENERATED ALWAYS AS (LOWER(position)),
+    PRIMARY KEY (employee_id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_employees_name ON employees (employee_name_key);
+CREATE INDEX IF NOT EXISTS ix_employees_position_name ON employees (position_key, employee_name_key);
+
+CREATE SEQUENCE IF NOT EXISTS employee_changes_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS employee_changes (
+    record_id     BIGINT       NOT NULL,
+    changed_at    TIMESTAMP    NOT NULL,
+    date_hired    DATE,
+    employee_id   INTEGER      NOT NULL,
+    employee_name VARCHAR(255),
+    log_sequence  BIGINT,
+    position      VARCHAR(255),
+    type          VARCHAR(16)  NOT NULL,
+    PRIMARY KEY (record_id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ix_employee_changes_log_sequence ON employee_changes (log_sequence);
+CREATE INDEX IF NOT EXISTS ix_employee_changes_changed_at ON employee_changes (changed_at);
+
+CREATE TABLE IF NOT EXISTS employee_change_log (
+    id            INTEGER      NOT NULL,
+    epoch         VARCHAR(16)  NOT NULL,
+    last_sequence BIGINT       NOT NULL,
+    PRIMARY KEY (id)
+);
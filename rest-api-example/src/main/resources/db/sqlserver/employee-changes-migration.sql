@@ -0,0 +1,34 @@
+-- Adds the change log read by every instance into the feed of
+-- GET /employees/changes, see EmployeeChangeLog. A row is inserted with each
+-- create, update and delete of an employee, numbered in log_sequence once it
+-- is committed, and deleted after employee.changes.retention. The sequence
+-- is incremented by Employee.ALLOCATION_SIZE, and employee_change_log holds
+-- the epoch and the last log_sequence of the log.
+--
+-- Run it before deploying the API version that has EmployeeChangeRecord.
+
+CREATE SEQUENCE employee_changes_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE employee_changes (
+    record_id     BIGINT       NOT NULL,
+    changed_at    DATETIME2    NOT NULL,
+    date_hired    DATE,
+    employee_id   INT          NOT NULL,
+    employee_name VARCHAR(255),
+    log_sequence  BIGINT,
+    position      VARCHAR(255),
+    type          VARCHAR(16)  NOT NULL,
+    CONSTRAINT pk_employee_changes PRIMARY KEY (record_id)
+);
+
+-- Filtered, since the rows not numbered yet all have a NULL log_sequence
+CREATE UNIQUE INDEX ix_employee_changes_log_sequence ON employee_changes (log_sequence)
+    WHERE log_sequence IS NOT NULL;
+CREATE INDEX ix_employee_changes_changed_at ON employee_changes (changed_at);
+
+CREATE TABLE employee_change_log (
+    id            INT          NOT NULL,
+    epoch         VARCHAR(16)  NOT NULL,
+    last_sequence BIGINT       NOT NULL,
+    CONSTRAINT pk_employee_change_log PRIMARY KEY (id)
+);
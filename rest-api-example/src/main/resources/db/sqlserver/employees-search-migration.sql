@@ -0,0 +1,15 @@
+-- Adds the indexes of the name-prefix search of GET /employees/search. They
+-- are used by the LIKE 'prefix%' queries until the in-memory search index of
+-- the API is loaded, e.g. right after it starts.
+--
+-- Run it before deploying the API version that has GET /employees/search.
+--
+-- The search is case-insensitive, so the indexes are on the lower-case name
+-- and position. They are computed columns, which the API never writes.
+
+ALTER TABLE employees ADD
+    employee_name_key AS LOWER(employee_name) PERSISTED,
+    position_key AS LOWER(position) PERSISTED;
+
+CREATE INDEX ix_employees_name ON employees (employee_name_key);
+CREATE INDEX ix_employees_position_name ON employees (position_key, employee_name_key);
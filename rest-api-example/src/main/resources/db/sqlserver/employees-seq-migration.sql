@@ -0,0 +1,34 @@
+-- Migrates an existing employees table from an IDENTITY key to the
+-- employees_seq sequence used by the Employee entity.
+--
+-- SQL Server cannot drop the IDENTITY property of a column, so the table is
+-- rebuilt with a plain INT key and the rows are copied with their IDs. The
+-- sequence then starts after the highest existing ID. It must be incremented
+-- by the same value as Employee.ALLOCATION_SIZE.
+--
+-- Stop all the API instances before running this script.
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+CREATE TABLE employees_new (
+    employee_id   INT          NOT NULL,
+    date_hired    DATE         NULL,
+    employee_name VARCHAR(255) NULL,
+    position      VARCHAR(255) NULL,
+    CONSTRAINT pk_employees_employee_id PRIMARY KEY (employee_id)
+);
+
+INSERT INTO employees_new (employee_id, date_hired, employee_name, position)
+SELECT employee_id, date_hired, employee_name, position
+FROM employees WITH (TABLOCKX);
+
+DROP TABLE employees;
+EXEC sp_rename 'employees_new', 'employees';
+
+DECLARE @start INT = (SELECT ISNULL(MAX(employee_id), 0) + 1 FROM employees);
+DECLARE @sql NVARCHAR(400) = N'CREATE SEQUENCE employees_seq AS INT START WITH '
+    + CAST(@start AS NVARCHAR(20)) + N' INCREMENT BY 50';
+EXEC sp_executesql @sql;
+
+COMMIT TRANSACTION;
@@ -0,0 +1,7 @@
+-- Adds the version column used by the Employee entity for optimistic locking
+-- and as the ETag of the employee resources. Existing rows start at version 0.
+--
+-- Run it before deploying the API version that has Employee.version.
+
+ALTER TABLE employees ADD version INT NOT NULL
+    CONSTRAINT df_employees_version DEFAULT 0;
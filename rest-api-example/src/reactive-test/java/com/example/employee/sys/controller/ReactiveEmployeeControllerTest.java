@@ -0,0 +1,254 @@
+package com.example.employee.sys.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
+import com.example.employee.sys.service.ReactiveEmployeeService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Mono;
+
+/***
+ * ReactiveEmployeeControllerTest
+ *
+ * This is the test class for ReactiveEmployeeController. It checks that the reactive mode
+ *   answers like EmployeeController, and demonstrates the use of the following components
+ *   and annotations:
+ *
+ *   1. The @SpringBootTest annotation with spring.main.web-application-type=reactive, which
+ *      loads a WebFlux application context instead of a Spring MVC one.
+ *   2. The @ActiveProfiles annotation which activates the reactive profile, so the reactive
+ *      controller, service and repository are created instead of the default ones.
+ *   3. The @AutoConfigureWebTestClient annotation which injects a WebTestClient. It is the
+ *      WebFlux counterpart of MockMvc and calls the controllers without a server.
+ *   4. MockBean to define mock beans that are managed by the Spring application context.
+ *      For this one, the mock bean is the ReactiveEmployeeService.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class ReactiveEmployeeControllerTest {
+
+	@Autowired
+	private WebTestClient client;
+
+	@MockBean
+	private ReactiveEmployeeService service;
+
+	private Employee mockEmployee;
+
+	@BeforeEach
+	void init() {
+		this.mockEmployee = new Employee(1, "John", "Manager", Date.valueOf("2001-01-01"));
+	}
+
+    /***
+     * getEmployeesHasNextSlice
+     *
+     * This is a method to test the GET /employees endpoint when there are more employees
+     *   after the returned slice.
+     *
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to ReactiveEmployeeService
+     *   .getEmployees with the cursor and limit then return a Mono of a slice that has a next
+     *   slice.
+     * - Call WebTestClient.get() to trigger the GET request.
+     * - Use WebTestClient.expectHeader() and expectBody() to check the headers and body are
+     *   the same as in the Spring MVC mode.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("REACTIVE GET /employees?cursor=1&limit=2 HAS NEXT SLICE")
+	void getEmployeesHasNextSlice() throws Exception {
+		// Create a mock slice with a next slice
+		List<Employee> list =
+            Arrays.asList(
+                new Employee(2, "Jane", "Director", Date.valueOf("2002-02-02")),
+                new Employee(3, "James", "Supervisor", Date.valueOf("2003-03-03"))
+            );
+		when(service.getEmployees(1, null, 2))
+			.thenReturn(Mono.just(new SliceImpl<Employee>(list, PageRequest.of(0, 2), true)));
+
+		// Execute the request
+		client.get().uri("/employees?cursor=1&limit=2").exchange()
+
+			// Validate the response
+			.expectStatus().isOk()
+			.expectHeader().contentType(MediaType.APPLICATION_JSON)
+			.expectHeader().valueEquals(EmployeeController.NEXT_CURSOR_HEADER, "3")
+			.expectHeader().valueMatches(HttpHeaders.LINK, "<.*/employees\\?cursor=3&limit=2>; rel=\"next\"")
+			.expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(list))
+			.expectBody()
+			.jsonPath("$.length()").isEqualTo(2)
+			.jsonPath("$.[0].employeeName").isEqualTo("Jane")
+			.jsonPath("$.[1].dateHired").isEqualTo("2003-03-03");
+	}
+
+    /***
+     * getEmployeeByIdNotModified
+     *
+     * This is a method to test the GET /employees/{id} endpoint with an If-None-Match header
+     *   that matches the ETag of the employee.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("REACTIVE GET /employees/1 is NOT MODIFIED")
+	void getEmployeeByIdNotModified() throws Exception {
+		// Using the mock service, return the mock employee which is at version 0
+		when(service.getEmployeeById(1)).thenReturn(Mono.just(this.mockEmployee));
+
+		// Execute the request with the current ETag then validate the response
+		client.get().uri("/employees/1").header(HttpHeaders.IF_NONE_MATCH, "\"0\"").exchange()
+			.expectStatus().isNotModified()
+			.expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+			.expectBody().isEmpty();
+	}
+
+    /***
+     * getEmployeeByIdNotFound
+     *
+     * This is a method to test the GET /employees/{id} endpoint with an ID that does not
+     *   exist. The error body should be the same as in the Spring MVC mode.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("REACTIVE GET /employees/4 is NOT FOUND")
+	void getEmployeeByIdNotFound() throws Exception {
+		// Using the mock service, return a NotFoundException as the Mono error
+		when(service.getEmployeeById(4)).thenReturn(Mono.error(new NotFoundException(4)));
+
+		// Execute the request then validate the response
+		client.get().uri("/employees/4").exchange()
+			.expectStatus().isNotFound()
+			.expectBody()
+			.jsonPath("$.timestamp").exists()
+			.jsonPath("$.type").isEqualTo("NotFoundException")
+			.jsonPath("$.message").isEqualTo("Unable to find employee with ID 4");
+	}
+
+    /***
+     * saveEmployee
+     *
+     * This is a method to test the POST /employees endpoint.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("REACTIVE POST /employees is CREATED")
+	void saveEmployee() throws Exception {
+		// Using the mock service, return the new employee ID
+		when(service.saveEmployee(any())).thenReturn(Mono.just(51));
+
+		// Execute the request then validate the response
+		client.post().uri("/employees")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue("{\"employeeName\":\"John\",\"position\":\"Manager\",\"dateHired\":\"2001-01-01\"}")
+			.exchange()
+			.expectStatus().isCreated()
+			.expectHeader().valueEquals(HttpHeaders.LOCATION, "/employees/51");
+	}
+
+    /***
+     * saveEmployeeInvalid
+     *
+     * This is a method to test the POST /employees endpoint with an employee that does not
+     *   pass the validation.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("REACTIVE POST /employees with a blank name is BAD REQUEST")
+	void saveEmployeeInvalid() throws Exception {
+		// Execute the request then validate the response
+		client.post().uri("/employees")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue("{\"employeeName\":\" \",\"position\":\"Manager\"}")
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody()
+			.jsonPath("$.type").isEqualTo("WebExchangeBindException");
+	}
+
+    /***
+     * updateEmployeeStaleVersion
+     *
+     * This is a method to test the PATCH /employees/{id} endpoint with an If-Match header
+     *   that is not the current ETag of the employee.
+     *
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to return a PreconditionFailedException as the Mono
+     *   error when the service is called with the expected version 1.
+     * - Call WebTestClient.patch() to trigger the PATCH request with If-Match "1".
+     * - Check that the response is 412 with the error body and that the version from the
+     *   If-Match header was passed on to the service.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("REACTIVE PATCH /employees/1 with a stale If-Match is PRECONDITION FAILED")
+	void updateEmployeeStaleVersion() throws Exception {
+		// Using the mock service, fail the update of version 1
+		when(service.updateEmployee(any(), eq(1), eq(1)))
+			.thenReturn(Mono.error(new PreconditionFailedException(1)));
+
+		// Execute the request then validate the response
+		client.patch().uri("/employees/1")
+			.contentType(MediaType.valueOf(EmployeeController.MERGE_PATCH_JSON_VALUE))
+			.header(HttpHeaders.IF_MATCH, "\"1\"")
+			.bodyValue("{\"position\":\"Director\"}")
+			.exchange()
+			.expectStatus().isEqualTo(412)
+			.expectBody()
+			.jsonPath("$.type").isEqualTo("PreconditionFailedException");
+
+		verify(service).updateEmployee(any(), eq(1), eq(1));
+	}
+
+    /***
+     * deleteEmployeeByIdConflict
+     *
+     * This is a method to test the DELETE /employees/{id} endpoint when the employee was
+     *   changed by another request while it was being deleted.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("REACTIVE DELETE /employees/1 changed concurrently is CONFLICT")
+	void deleteEmployeeByIdConflict() throws Exception {
+		// Using the mock service, fail the delete with an optimistic locking failure
+		when(service.deleteEmployee(1, null))
+			.thenReturn(Mono.error(new OptimisticLockingFailureException("Employee 1 was changed")));
+
+		// Execute the request then validate the response
+		client.delete().uri("/employees/1").exchange()
+			.expectStatus().isEqualTo(409)
+			.expectBody()
+			.jsonPath("$.type").isEqualTo("OptimisticLockingFailureException");
+	}
+}
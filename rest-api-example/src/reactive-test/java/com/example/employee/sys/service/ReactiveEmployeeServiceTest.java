@@ -0,0 +1,284 @@
+package com.example.employee.sys.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.util.Arrays;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.example.employee.sys.exceptions.BadRequestException;
+import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
+import com.example.employee.sys.repository.ReactiveEmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/***
+ * ReactiveEmployeeServiceTest
+ *
+ * This is the test class for ReactiveEmployeeService. It starts the application in the
+ *   reactive mode like ReactiveEmployeeControllerTest and demonstrates the use of the
+ *   following components:
+ *
+ *   1. MockBean to define mock beans that are managed by the Spring application context.
+ *      For this one, the mock bean is the ReactiveEmployeeRepository.
+ *   2. StepVerifier to subscribe to the Mono returned by the service and check what it
+ *      emits, or the error it ends with.
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeServiceTest {
+
+	@Autowired
+	ReactiveEmployeeService service;
+
+	@MockBean
+	ReactiveEmployeeRepository repo;
+
+	private Employee mockEmployee;
+
+	@BeforeEach
+	void init() {
+		this.mockEmployee = new Employee(1, "John", "Manager", Date.valueOf("2001-01-01"));
+		// Every write records its change
+		when(repo.recordChange(any(), anyInt(), any())).thenReturn(Mono.empty());
+	}
+
+    /***
+     * getEmployeesByPage
+     *
+     * This is a method to test the ReactiveEmployeeService.getEmployees method with a page
+     *   number.
+     *
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the page query of the repository, which
+     *   is asked for one more row than the limit, then return 3 employees.
+     * - Call the ReactiveEmployeeService.getEmployees method for page 2 with a limit of 2.
+     * - Use StepVerifier to check that the slice has the first 2 employees and a next slice.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive getEmployeesByPage")
+	void getEmployeesByPage() throws Exception {
+		// Using the mock repo, return 3 rows from the offset of page 2
+		when(repo.findPage(0, 2, 3)).thenReturn(Flux.fromIterable(Arrays.asList(
+				new Employee(3, "James", "Supervisor", Date.valueOf("2003-03-03")),
+				new Employee(4, "Jill", "Developer", Date.valueOf("2004-04-04")),
+				new Employee(5, "Joe", "Developer", Date.valueOf("2005-05-05")))));
+
+		// Call the service then validate the slice
+		StepVerifier.create(service.getEmployees(null, 2, 2))
+			.expectNextMatches(slice -> slice.getContent().size() == 2
+					&& slice.getContent().get(1).getEmployeeId() == 4
+					&& slice.hasNext())
+			.verifyComplete();
+	}
+
+    /***
+     * getEmployeesInvalidParameters
+     *
+     * This is a method to test the ReactiveEmployeeService.getEmployees method with both a
+     *   cursor and a page.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive getEmployeesInvalidParameters")
+	void getEmployeesInvalidParameters() throws Exception {
+		StepVerifier.create(service.getEmployees(1, 1, null))
+			.verifyError(BadRequestException.class);
+	}
+
+    /***
+     * getEmployeeByIdNotFound
+     *
+     * This is a method to test the ReactiveEmployeeService.getEmployeeById method with an ID
+     *   that does not exist.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive getEmployeeByIdNotFound")
+	void getEmployeeByIdNotFound() throws Exception {
+		// Using the mock repo, find nothing
+		when(repo.findById(4)).thenReturn(Mono.empty());
+
+		// Validate that the Mono ends with a NotFoundException
+		StepVerifier.create(service.getEmployeeById(4))
+			.verifyError(NotFoundException.class);
+	}
+
+    /***
+     * saveEmployeeNew
+     *
+     * This is a method to test the ReactiveEmployeeService.saveEmployee method with an
+     *   employee without an ID.
+     *
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to give the inserted employee the ID 5.
+     * - Call the ReactiveEmployeeService.saveEmployee method.
+     * - Use StepVerifier and Mockito's verify to check that the new ID is returned, that no
+     *   employee was replaced and that the creation was recorded.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive saveEmployeeNew")
+	void saveEmployeeNew() throws Exception {
+		Employee employee = new Employee(0, "Jack", "Developer", Date.valueOf("2004-04-04"));
+		when(repo.insert(employee)).thenReturn(Mono.just(5));
+
+		// Call the service then validate the ID and the calls to the repository
+		StepVerifier.create(service.saveEmployee(employee))
+			.expectNext(5)
+			.verifyComplete();
+		verify(repo, never()).replace(any());
+		verify(repo).recordChange(EmployeeChange.Type.CREATED, 5, employee);
+	}
+
+    /***
+     * saveEmployeeReplacesExisting
+     *
+     * This is a method to test the ReactiveEmployeeService.saveEmployee method with the ID
+     *   of an existing employee, which is replaced like in the default mode.
+     *
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to have the replace of the employee find its row.
+     * - Call the ReactiveEmployeeService.saveEmployee method.
+     * - Use StepVerifier and Mockito's verify to check that the same ID is returned, that
+     *   nothing was inserted and that the update was recorded.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive saveEmployeeReplacesExisting")
+	void saveEmployeeReplacesExisting() throws Exception {
+		when(repo.replace(this.mockEmployee)).thenReturn(Mono.just(true));
+
+		// Call the service then validate the ID and the calls to the repository
+		StepVerifier.create(service.saveEmployee(this.mockEmployee))
+			.expectNext(1)
+			.verifyComplete();
+		verify(repo, never()).insert(any());
+		verify(repo).recordChange(EmployeeChange.Type.UPDATED, 1, this.mockEmployee);
+	}
+
+    /***
+     * saveEmployeeUnknownId
+     *
+     * This is a method to test the ReactiveEmployeeService.saveEmployee method with an ID
+     *   that does not exist, which creates a new employee with a new ID.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive saveEmployeeUnknownId")
+	void saveEmployeeUnknownId() throws Exception {
+		when(repo.replace(this.mockEmployee)).thenReturn(Mono.just(false));
+		when(repo.insert(this.mockEmployee)).thenReturn(Mono.just(51));
+
+		// Call the service then validate the ID and the calls to the repository
+		StepVerifier.create(service.saveEmployee(this.mockEmployee))
+			.expectNext(51)
+			.verifyComplete();
+		verify(repo).recordChange(EmployeeChange.Type.CREATED, 51, this.mockEmployee);
+	}
+
+    /***
+     * updateEmployeeMergePatch
+     *
+     * This is a method to test the ReactiveEmployeeService.updateEmployee method with a
+     *   merge patch.
+     *
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to return the mock employee from findById and to
+     *   complete the update.
+     * - Call the ReactiveEmployeeService.updateEmployee method with a patch of the position
+     *   and the current version.
+     * - Use Mockito's verify to check that the repository got the employee as it was read
+     *   and a copy with only the position changed, and that the change was recorded.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive updateEmployeeMergePatch")
+	void updateEmployeeMergePatch() throws Exception {
+		// Using the mock repo, return the mock employee and complete the update
+		when(repo.findById(1)).thenReturn(Mono.just(this.mockEmployee));
+		when(repo.update(eq(this.mockEmployee), any())).thenReturn(Mono.empty());
+
+		// Call the service
+		StepVerifier.create(service.updateEmployee(
+				new ObjectMapper().readTree("{\"position\":\"Director\",\"employeeId\":9}"), 1, 0))
+			.verifyComplete();
+
+		// Validate what was sent to the repository
+		verify(repo).update(eq(this.mockEmployee), argThat(changed ->
+				changed.getEmployeeId() == 1
+				&& "John".equals(changed.getEmployeeName())
+				&& "Director".equals(changed.getPosition())));
+		verify(repo).recordChange(eq(EmployeeChange.Type.UPDATED), eq(1), 
+				argThat(changed -> "Director".equals(changed.getPosition())));
+	}
+
+    /***
+     * updateEmployeeStaleVersion
+     *
+     * This is a method to test the ReactiveEmployeeService.updateEmployee method with an
+     *   expected version that is not the current version of the employee.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive updateEmployeeStaleVersion")
+	void updateEmployeeStaleVersion() throws Exception {
+		// Using the mock repo, return the mock employee which is at version 0
+		when(repo.findById(1)).thenReturn(Mono.just(this.mockEmployee));
+
+		// Validate that we get a PreconditionFailedException and nothing was updated
+		StepVerifier.create(service.updateEmployee(new ObjectMapper().readTree("{\"position\":\"Director\"}"), 1, 1))
+			.verifyError(PreconditionFailedException.class);
+		verify(repo, never()).update(any(), any());
+	}
+
+    /***
+     * deleteEmployeeById
+     *
+     * This is a method to test the ReactiveEmployeeService.deleteEmployee method with a
+     *   matching resource.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reactive deleteEmployeeById")
+	void deleteEmployeeById() throws Exception {
+		// Using the mock repo, return the mock employee and complete the delete
+		when(repo.findById(1)).thenReturn(Mono.just(this.mockEmployee));
+		when(repo.delete(this.mockEmployee)).thenReturn(Mono.empty());
+
+		// Call the service then validate that the employee that was read is deleted
+		StepVerifier.create(service.deleteEmployee(1, null))
+			.verifyComplete();
+		verify(repo).delete(this.mockEmployee);
+		verify(repo).recordChange(EmployeeChange.Type.DELETED, 1, null);
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.employee.sys.controller;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.validation.Valid;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.service.ReactiveEmployeeService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import reactor.core.publisher.Mono;
+
+/****
+ * ReactiveEmployeeController
+ *
+ * This is the EmployeeController of the reactive mode, i.e. when the app runs
+ *   with the reactive profile on Spring WebFlux instead of Spring MVC. It has
+ *   the same paths, status codes, headers and bodies as EmployeeController,
+ *   so the API consumers cannot tell which one they are talking to.
+ *
+ * The handlers return a Mono instead of the response itself. WebFlux
+ *   subscribes to it and writes the response when it completes, so the
+ *   thread that received the request is free while the database works. A
+ *   handful of event loop threads can then serve thousands of concurrent
+ *   requests.
+ *
+ * The export and batch create endpoints are only available on Spring MVC.
+ *
+ * @Profile("reactive") only creates this controller in the reactive mode.
+ *   EmployeeController has @Profile("!reactive").
+ *
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveEmployeeController {
+
+	@Autowired
+	ReactiveEmployeeService service;
+
+	/*
+	 * Same slice, headers and ETag as EmployeeController.getEmployees.
+	 *   WebFlux also answers 304 Not Modified when the ETag matches
+	 *   If-None-Match.
+	 */
+	@GetMapping("/employees")
+	public Mono<ResponseEntity<Object>> getEmployees(
+			@RequestParam(name = "cursor", required = false) Integer cursor,
+			@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "limit", required = false) Integer limit,
+			ServerHttpRequest request) {
+		return service.getEmployees(cursor, page, limit).map(slice -> {
+			List<Employee> employees = slice.getContent();
+
+			ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+			if (slice.hasNext() && !employees.isEmpty()) {
+				int nextCursor = employees.get(employees.size() - 1).getEmployeeId();
+				UriComponentsBuilder next = UriComponentsBuilder.fromHttpRequest(request);
+				if (page != null)
+					next.replaceQueryParam("page", page + 1);
+				else
+					next.replaceQueryParam("cursor", nextCursor);
+				next.replaceQueryParam("limit", slice.getSize());
+
+				response.header(EmployeeController.NEXT_CURSOR_HEADER, String.valueOf(nextCursor))
+						.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", next.toUriString()));
+			}
+			return response.eTag(ETags.of(employees)).body(employees);
+		});
+	}
+
+	@GetMapping("/employees/{employeeId}")
+	public Mono<ResponseEntity<Object>> getEmployeeById(
+			@PathVariable("employeeId") Integer employeeId) {
+		return service.getEmployeeById(employeeId)
+				.map(employee -> ResponseEntity.ok().eTag(ETags.of(employee)).body(employee));
+	}
+
+	@PostMapping("/employees")
+	public Mono<ResponseEntity<Object>> saveEmployee(
+			@Valid @RequestBody Employee employee) {
+		return service.saveEmployee(employee)
+				.map(employeeId -> ResponseEntity
+						.created(URI.create(String.format("/employees/%s", employeeId)))
+						.build());
+	}
+
+	@PatchMapping(
+			path = "/employees/{employeeId}",
+			consumes = { EmployeeController.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+	public Mono<ResponseEntity<Object>> updateEmployee(
+			@RequestBody JsonNode patch,
+			@PathVariable("employeeId") Integer employeeId,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return Mono.defer(() -> service.updateEmployee(patch, employeeId, ETags.parseIfMatch(ifMatch, employeeId)))
+				.then(Mono.just(ResponseEntity.noContent().build()));
+	}
+
+	@DeleteMapping("/employees/{employeeId}")
+	public Mono<ResponseEntity<Object>> deleteEmployee(
+			@PathVariable("employeeId") Integer employeeId,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return Mono.defer(() -> service.deleteEmployee(employeeId, ETags.parseIfMatch(ifMatch, employeeId)))
+				.then(Mono.just(ResponseEntity.noContent().build()));
+	}
+}
@@ -0,0 +1,111 @@
+package com.example.employee.sys.controller;
+
+import java.util.Date;
+
+import com.example.employee.sys.entity.Error;
+import com.example.employee.sys.exceptions.BadRequestException;
+import com.example.employee.sys.exceptions.InternalServerException;
+import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/*******
+ * ReactiveExceptionController
+ *
+ * This is the ExceptionController of the reactive mode. It catches the same
+ *   exceptions and answers with the same status codes and Error body.
+ *   1. WebExchangeBindException - this is the WebFlux counterpart of the
+ *      MethodArgumentNotValidException, for a request body that is not valid.
+ *   2. ServerWebInputException - this is thrown by WebFlux for any other
+ *      request value it cannot read, e.g. malformed JSON.
+ *   3. NotFoundException, BadRequestException, PreconditionFailedException,
+ *      OptimisticLockingFailureException and InternalServerException - these
+ *      are handled like in ExceptionController, with the same ErrorTemplates.
+ *
+ * Only the exceptions thrown once a request has reached a controller can be
+ *   handled here. The others, e.g. a method that is not supported, are
+ *   answered by the Spring Boot error handler of WebFlux.
+ *
+ */
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionController {
+
+	/*
+	 * The error bodies of the most frequent exceptions are written from
+	 *   templates, see ErrorTemplate. The others still build an Error.
+	 */
+	private static final ErrorTemplate NOT_FOUND =
+			ErrorTemplate.of(NotFoundException.class, HttpStatus.NOT_FOUND, NotFoundException.MESSAGE_PREFIX);
+	private static final ErrorTemplate BAD_REQUEST =
+			ErrorTemplate.of(BadRequestException.class, HttpStatus.BAD_REQUEST);
+	private static final ErrorTemplate PRECONDITION_FAILED =
+			ErrorTemplate.of(PreconditionFailedException.class, HttpStatus.PRECONDITION_FAILED);
+	private static final ErrorTemplate INTERNAL_SERVER =
+			ErrorTemplate.of(InternalServerException.class, HttpStatus.INTERNAL_SERVER_ERROR);
+
+	/**
+	 * handleWebExchangeBindException()
+	 * This catches and handles a request body that did not pass the
+	 *   validation, e.g. a blank employeeName.
+	 *
+	 * @param e
+	 * @return 400 status with the error object as response body
+	 */
+	@ExceptionHandler(WebExchangeBindException.class)
+	public final ResponseEntity<Object> handleWebExchangeBindException(WebExchangeBindException e) {
+		Error error = new Error(new Date(), e.getClass().getSimpleName(), e.getMessage());
+		return new ResponseEntity<Object>(error, HttpStatus.BAD_REQUEST);
+	}
+
+	/**
+	 * handleServerWebInputException()
+	 * This catches and handles the other request values that WebFlux cannot
+	 *   read, e.g. a malformed JSON body or a path variable that is not a
+	 *   number.
+	 *
+	 * @param e
+	 * @return 400 status with the error object as response body
+	 */
+	@ExceptionHandler(ServerWebInputException.class)
+	public final ResponseEntity<Object> handleServerWebInputException(ServerWebInputException e) {
+		Error error = new Error(new Date(), e.getClass().getSimpleName(), e.getReason());
+		return new ResponseEntity<Object>(error, HttpStatus.BAD_REQUEST);
+	}
+
+	@ExceptionHandler(NotFoundException.class)
+	public final ResponseEntity<Object> handleNotFoundException(NotFoundException e) {
+		return NOT_FOUND.toResponse(e.getId());
+	}
+
+	@ExceptionHandler(BadRequestException.class)
+	public final ResponseEntity<Object> handleBadRequestException(BadRequestException e) {
+		return BAD_REQUEST.toResponse(e.getMessage());
+	}
+
+	@ExceptionHandler(PreconditionFailedException.class)
+	public final ResponseEntity<Object> handlePreconditionFailedException(PreconditionFailedException e) {
+		return PRECONDITION_FAILED.toResponse(e.getMessage());
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public final ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+		Error error = new Error(new Date(), e.getClass().getSimpleName(),
+				"The employee was changed by another request, read it again and retry.");
+		return new ResponseEntity<Object>(error, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(InternalServerException.class)
+	public final ResponseEntity<Object> handleAllExceptions(InternalServerException e) {
+		return INTERNAL_SERVER.toResponse(e.getMessage());
+	}
+
+}
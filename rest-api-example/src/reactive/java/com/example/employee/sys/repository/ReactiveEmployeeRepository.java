@@ -0,0 +1,250 @@
+package com.example.employee.sys.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/****
+ * This is the Employee Repository of the reactive mode. It reads and writes
+ *   the same employees table as EmployeeRepository, but with R2DBC instead of
+ *   JDBC, so no thread is blocked while a query runs.
+ *
+ * There is no Hibernate here. The SQL is written by hand with the
+ *   DatabaseClient and runs on both H2 and SQL Server. It behaves like the
+ *   Employee entity mapping:
+ *
+ * 1. The IDs come from the employees_seq sequence with the pooled-lo
+ *   optimizer. A sequence value is the first ID of a block of
+ *   Employee.ALLOCATION_SIZE IDs that is handed out from memory.
+ *
+ * 2. An UPDATE only sets the columns that changed, like @DynamicUpdate.
+ *
+ * 3. The version column is checked and incremented on every UPDATE and
+ *   checked on DELETE, like @Version. A row that was changed by another
+ *   request fails with an OptimisticLockingFailureException.
+ *
+ * 4. recordChange() inserts the row of a change in the employee_changes
+ *   table, like EmployeeChangeRecord. The instances of the default mode
+ *   number it and publish it to GET /employees/changes. Its record_id comes
+ *   from the employee_changes_seq sequence the same way as the IDs.
+ *
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveEmployeeRepository {
+
+	private static final String COLUMNS = "employee_id, employee_name, position, date_hired, version";
+
+	private final DatabaseClient client;
+
+	private final SequenceBlock employeeIds = new SequenceBlock("employees_seq");
+	private final SequenceBlock changeIds = new SequenceBlock("employee_changes_seq");
+
+	public ReactiveEmployeeRepository(DatabaseClient client) {
+		this.client = client;
+	}
+
+	/*
+	 * Returns at most limit employees with an ID greater than afterId, ordered
+	 *   by ID and skipping the first offset rows. With afterId this is keyset
+	 *   (cursor) pagination and with offset it is offset pagination.
+	 */
+	public Flux<Employee> findPage(int afterId, long offset, int limit) {
+		return client.sql("SELECT " + COLUMNS + " FROM employees WHERE employee_id > :afterId "
+					+ "ORDER BY employee_id OFFSET :offset ROWS FETCH NEXT :limit ROWS ONLY")
+				.bind("afterId", afterId)
+				.bind("offset", offset)
+				.bind("limit", limit)
+				.map((row, metadata) -> toEmployee(row))
+				.all();
+	}
+
+	public Mono<Employee> findById(int id) {
+		return client.sql("SELECT " + COLUMNS + " FROM employees WHERE employee_id = :id")
+				.bind("id", id)
+				.map((row, metadata) -> toEmployee(row))
+				.one();
+	}
+
+	/*
+	 * Inserts a new employee at version 0 and returns its ID. The employeeId
+	 *   of the given employee is ignored.
+	 */
+	public Mono<Integer> insert(Employee employee) {
+		return employeeIds.next().map(Long::intValue).flatMap(id -> {
+			GenericExecuteSpec insert = client.sql("INSERT INTO employees (" + COLUMNS + ") "
+						+ "VALUES (:employee_id, :employee_name, :position, :date_hired, 0)")
+					.bind("employee_id", id);
+			insert = bind(insert, "employee_name", employee.getEmployeeName(), String.class);
+			insert = bind(insert, "position", employee.getPosition(), String.class);
+			insert = bind(insert, "date_hired", toLocalDate(employee.getDateHired()), LocalDate.class);
+			return insert.fetch().rowsUpdated().thenReturn(id);
+		});
+	}
+
+	/*
+	 * Replaces the name, position and dateHired of the employee with the ID of
+	 *   the given one, whatever its version, like the merge of 
+	 *   EmployeeRepository.save(). Returns whether there was one.
+	 */
+	public Mono<Boolean> replace(Employee employee) {
+		GenericExecuteSpec update = client.sql("UPDATE employees SET employee_name = :employee_name, "
+					+ "position = :position, date_hired = :date_hired, version = version + 1 "
+					+ "WHERE employee_id = :id")
+				.bind("id", employee.getEmployeeId());
+		update = bind(update, "employee_name", employee.getEmployeeName(), String.class);
+		update = bind(update, "position", employee.getPosition(), String.class);
+		update = bind(update, "date_hired", toLocalDate(employee.getDateHired()), LocalDate.class);
+		return update.fetch().rowsUpdated().map(rows -> rows > 0);
+	}
+
+	/*
+	 * Writes the changes from current to changed, which are two copies of the
+	 *   same employee. Nothing is sent when no column changed.
+	 */
+	public Mono<Void> update(Employee current, Employee changed) {
+		Map<String, Object> columns = new LinkedHashMap<>();
+		if (!Objects.equals(current.getEmployeeName(), changed.getEmployeeName()))
+			columns.put("employee_name", changed.getEmployeeName());
+		if (!Objects.equals(current.getPosition(), changed.getPosition()))
+			columns.put("position", changed.getPosition());
+		if (!Objects.equals(current.getDateHired(), changed.getDateHired()))
+			columns.put("date_hired", toLocalDate(changed.getDateHired()));
+		if (columns.isEmpty())
+			return Mono.empty();
+
+		StringBuilder sql = new StringBuilder("UPDATE employees SET ");
+		for (String column : columns.keySet())
+			sql.append(column).append(" = :").append(column).append(", ");
+		sql.append("version = version + 1 WHERE employee_id = :id AND version = :version");
+
+		GenericExecuteSpec update = client.sql(sql.toString())
+				.bind("id", current.getEmployeeId())
+				.bind("version", current.getVersion());
+		for (Map.Entry<String, Object> column : columns.entrySet())
+			update = bind(update, column.getKey(), column.getValue(),
+					column.getKey().equals("date_hired") ? LocalDate.class : String.class);
+		return checkVersion(update.fetch().rowsUpdated(), current);
+	}
+
+	/*
+	 * Deletes the employee, only if it is still at the version it was read.
+	 */
+	public Mono<Void> delete(Employee employee) {
+		return checkVersion(client.sql("DELETE FROM employees WHERE employee_id = :id AND version = :version")
+				.bind("id", employee.getEmployeeId())
+				.bind("version", employee.getVersion())
+				.fetch()
+				.rowsUpdated(), employee);
+	}
+
+	/*
+	 * Records a change of an employee in the change log. It must be part of
+	 *   the transaction of the change. The employee is null for a deleted one.
+	 */
+	public Mono<Void> recordChange(EmployeeChange.Type type, int employeeId, Employee employee) {
+		return changeIds.next().flatMap(recordId -> {
+			GenericExecuteSpec insert = client.sql("INSERT INTO employee_changes "
+						+ "(record_id, type, employee_id, employee_name, position, date_hired, changed_at) "
+						+ "VALUES (:record_id, :type, :employee_id, :employee_name, :position, :date_hired, :changed_at)")
+					.bind("record_id", recordId)
+					.bind("type", type.name())
+					.bind("employee_id", employeeId)
+					.bind("changed_at", LocalDateTime.now());
+			insert = bind(insert, "employee_name", employee == null ? null : employee.getEmployeeName(), String.class);
+			insert = bind(insert, "position", employee == null ? null : employee.getPosition(), String.class);
+			insert = bind(insert, "date_hired", employee == null ? null : toLocalDate(employee.getDateHired()), 
+					LocalDate.class);
+			return insert.fetch().rowsUpdated().then();
+		});
+	}
+
+	private static Mono<Void> checkVersion(Mono<Integer> rowsUpdated, Employee employee) {
+		return rowsUpdated.flatMap(rows -> rows == 0
+				? Mono.<Void>error(new OptimisticLockingFailureException(String.format(
+						"Employee %s was changed or deleted since version %s was read.",
+						employee.getEmployeeId(), employee.getVersion())))
+				: Mono.<Void>empty());
+	}
+
+	private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+		return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+	}
+
+	private static LocalDate toLocalDate(Date date) {
+		return date == null ? null : date.toLocalDate();
+	}
+
+	/*
+	 * The current block of values of a sequence. next == blockEnd means the
+	 *   block is used up and the next value needs a new sequence value.
+	 */
+	private final class SequenceBlock {
+
+		private final String sequence;
+
+		/*
+		 * Guarded by this.
+		 */
+		private long next;
+		private long blockEnd;
+
+		private SequenceBlock(String sequence) {
+			this.sequence = sequence;
+		}
+
+		/*
+		 * Hands out the next value of the current block, or reserves a new
+		 *   block from the sequence. Two requests may reserve a block at the
+		 *   same time; the block that is not kept only leaves a gap.
+		 */
+		private Mono<Long> next() {
+			return Mono.defer(() -> {
+				Long value = take();
+				if (value != null)
+					return Mono.just(value);
+				return client.sql("SELECT NEXT VALUE FOR " + sequence)
+						.map((row, metadata) -> ((Number) row.get(0)).longValue())
+						.one()
+						.map(this::takeBlock);
+			});
+		}
+
+		private synchronized Long take() {
+			return next < blockEnd ? next++ : null;
+		}
+
+		private synchronized long takeBlock(long blockStart) {
+			next = blockStart;
+			blockEnd = blockStart + Employee.ALLOCATION_SIZE;
+			return next++;
+		}
+	}
+
+	private static Employee toEmployee(Row row) {
+		LocalDate dateHired = row.get("date_hired", LocalDate.class);
+		Employee employee = new Employee(
+				row.get("employee_id", Integer.class),
+				row.get("employee_name", String.class),
+				row.get("position", String.class),
+				dateHired == null ? null : Date.valueOf(dateHired));
+		employee.setVersion(row.get("version", Integer.class));
+		return employee;
+	}
+}
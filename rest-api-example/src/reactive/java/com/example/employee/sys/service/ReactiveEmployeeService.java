@@ -0,0 +1,17 @@
+package com.example.employee.sys.service;
+
+import com.example.employee.sys.entity.Employee;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.springframework.data.domain.Slice;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+
+	Mono<Slice<Employee>> getEmployees(Integer cursor, Integer page, Integer limit);
+	Mono<Employee> getEmployeeById(Integer id);
+	Mono<Integer> saveEmployee(Employee employee);
+	Mono<Void> updateEmployee(JsonNode patch, Integer id, Integer expectedVersion);
+	Mono<Void> deleteEmployee(Integer id, Integer expectedVersion);
+}
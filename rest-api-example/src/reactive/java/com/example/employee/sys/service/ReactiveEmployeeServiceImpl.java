@@ -0,0 +1,196 @@
+package com.example.employee.sys.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.example.employee.sys.exceptions.BadRequestException;
+import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
+import com.example.employee.sys.repository.ReactiveEmployeeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveEmployeeServiceImpl
+ *
+ * This is the service class of the reactive mode. It follows the same rules
+ *   as EmployeeServiceImpl, i.e. the same pagination, upsert, merge patch and
+ *   If-Match handling, but every method returns right away with a Mono that
+ *   completes when the database has answered.
+ *
+ * Every write records its change in the employee_changes table in the same
+ *   R2DBC transaction, so GET /employees/changes of the instances of the
+ *   default mode has it too.
+ *
+ * The employees are always read from the database. The EmployeeCache, the
+ *   search index, the employee projection and the headcount counters are
+ *   only kept by the instances of the default mode. They get the writes of
+ *   this mode when their entries expire, and at their next reload or
+ *   reconciliation.
+ *
+ */
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+	private static final Sort BY_EMPLOYEE_ID = Sort.by("employeeId");
+
+	@Autowired
+	private ReactiveEmployeeRepository repo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private TransactionalOperator transactionalOperator;
+
+	@Value("${employee.page.default-limit:20}")
+	private int defaultLimit;
+
+	@Value("${employee.page.max-limit:100}")
+	private int maxLimit;
+
+	/*
+	 * Gets one slice of employees ordered by ID, with either a cursor or a
+	 *   page number like EmployeeServiceImpl.getEmployees. One extra row is
+	 *   read to know if there is a next slice.
+	 */
+	@Override
+	public Mono<Slice<Employee>> getEmployees(Integer cursor, Integer page, Integer limit) {
+		return Mono.defer(() -> {
+			int size = resolveLimit(limit);
+
+			if (cursor != null && page != null)
+				throw new BadRequestException("Use either the cursor or the page query parameter, not both.");
+			if (page != null && page < 1)
+				throw new BadRequestException("The page query parameter should be 1 or greater.");
+
+			PageRequest pageable = PageRequest.of(page == null ? 0 : page - 1, size, BY_EMPLOYEE_ID);
+			return repo.findPage(cursor == null ? 0 : cursor, pageable.getOffset(), size + 1)
+					.collectList()
+					.map(employees -> toSlice(employees, pageable));
+		});
+	}
+
+	@Override
+	public Mono<Employee> getEmployeeById(Integer id) {
+		return repo.findById(id)
+				.switchIfEmpty(Mono.error(() -> new NotFoundException(id)));
+	}
+
+	/*
+	 * Creates the employee, or replaces the one with its ID like
+	 *   EmployeeServiceImpl.saveEmployee: whatever its version, the last 
+	 *   request wins. An ID that does not exist gets a new employee with a new
+	 *   ID, as with the merge of JPA.
+	 */
+	@Override
+	public Mono<Integer> saveEmployee(Employee employee) {
+		int id = employee.getEmployeeId();
+		return transactionalOperator.transactional((id == 0 ? Mono.just(false) : repo.replace(employee))
+				.flatMap(replaced -> replaced
+						? repo.recordChange(EmployeeChange.Type.UPDATED, id, employee).thenReturn(id)
+						: repo.insert(employee).flatMap(newId -> 
+								repo.recordChange(EmployeeChange.Type.CREATED, newId, employee).thenReturn(newId))));
+	}
+
+	/*
+	 * Applies a JSON Merge Patch (RFC 7386) to an employee, see
+	 *   EmployeeServiceImpl.updateEmployee. The patch is applied to a copy of
+	 *   the employee that was read, and only the columns that differ between
+	 *   the two are updated.
+	 */
+	@Override
+	public Mono<Void> updateEmployee(JsonNode patch, Integer id, Integer expectedVersion) {
+		if (patch == null || !patch.isObject())
+			return Mono.error(new BadRequestException("The merge patch should be a JSON object."));
+
+		ObjectNode changes = ((ObjectNode) patch).deepCopy();
+		changes.remove("employeeId");
+
+		return findVersion(id, expectedVersion).flatMap(employee -> {
+			Employee changed = copyOf(employee);
+			try {
+				objectMapper.readerForUpdating(changed).readValue(changes);
+			} catch (JsonProcessingException e) {
+				return Mono.error(new BadRequestException("The merge patch has an invalid value: " + e.getOriginalMessage()));
+			} catch (IOException e) {
+				return Mono.error(new BadRequestException("The merge patch has an invalid value: " + e.getMessage()));
+			}
+
+			List<String> errors = validate(changed);
+			if (!errors.isEmpty())
+				return Mono.error(new BadRequestException(String.join(" ", errors)));
+
+			return repo.update(employee, changed)
+					.then(repo.recordChange(EmployeeChange.Type.UPDATED, id, changed));
+		}).as(transactionalOperator::transactional);
+	}
+
+	@Override
+	public Mono<Void> deleteEmployee(Integer id, Integer expectedVersion) {
+		return findVersion(id, expectedVersion)
+				.flatMap(employee -> repo.delete(employee)
+						.then(repo.recordChange(EmployeeChange.Type.DELETED, id, null)))
+				.as(transactionalOperator::transactional);
+	}
+
+	private Mono<Employee> findVersion(Integer id, Integer expectedVersion) {
+		return getEmployeeById(id).flatMap(employee ->
+				expectedVersion != null && employee.getVersion() != expectedVersion
+						? Mono.<Employee>error(new PreconditionFailedException(id))
+						: Mono.just(employee));
+	}
+
+	private List<String> validate(Employee employee) {
+		return validator.validate(employee).stream()
+				.map(ConstraintViolation::getMessage)
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	private int resolveLimit(Integer limit) {
+		if (limit == null)
+			return defaultLimit;
+		if (limit < 1)
+			throw new BadRequestException("The limit query parameter should be 1 or greater.");
+		return Math.min(limit, maxLimit);
+	}
+
+	private static Slice<Employee> toSlice(List<Employee> employees, PageRequest pageable) {
+		boolean hasNext = employees.size() > pageable.getPageSize();
+		List<Employee> content = hasNext ? employees.subList(0, pageable.getPageSize()) : employees;
+		return new SliceImpl<>(content, pageable, hasNext);
+	}
+
+	private static Employee copyOf(Employee employee) {
+		Employee copy = new Employee(employee.getEmployeeId(), employee.getEmployeeName(),
+				employee.getPosition(), employee.getDateHired());
+		copy.setVersion(employee.getVersion());
+		return copy;
+	}
+
+}
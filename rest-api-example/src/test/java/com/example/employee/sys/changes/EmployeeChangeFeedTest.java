@@ -0,0 +1,161 @@
+package com.example.employee.sys.changes;
+
+import java.sql.Date;
+import java.time.Duration;
+
+import com.example.employee.sys.entity.ChangeBatch;
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/***
+ * EmployeeChangeFeedTest
+ *
+ * This is the test class for EmployeeChangeFeed and its ChangeRing. The feed is created
+ *   directly with a SyncTaskExecutor, so a change is dispatched before publish() returns.
+ */
+public class EmployeeChangeFeedTest {
+
+	private final Employee mockEmployee = new Employee(1, "John", "Manager", Date.valueOf("2001-01-01"));
+
+    /***
+     * longPollThenPublish
+     *
+     * This is a method to test that a long poll waits for the next change and resumes from
+     *   the event ID it was given.
+     *
+     * Here's the flow:
+     * - Poll without an event ID and check that the poll waits.
+     * - Publish a change and check that it completed the poll.
+     * - Publish 2 more changes, poll from the event ID of the first one with a limit of 1
+     *   and check that only the next change is returned.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST longPollThenPublish")
+	void longPollThenPublish() throws Exception {
+		EmployeeChangeFeed feed = feed(16);
+
+		// Poll from now on, then publish a change
+		DeferredResult<ChangeBatch> waiting = feed.poll(null, null);
+		Assertions.assertFalse(waiting.hasResult());
+		feed.publish(1, EmployeeChange.Type.CREATED, 1, this.mockEmployee);
+
+		// Validate the completed poll
+		ChangeBatch created = (ChangeBatch) waiting.getResult();
+		Assertions.assertFalse(created.isResync());
+		Assertions.assertEquals(1, created.getChanges().size());
+		Assertions.assertEquals(EmployeeChange.Type.CREATED, created.getChanges().get(0).getType());
+		Assertions.assertEquals("John", created.getChanges().get(0).getEmployee().getEmployeeName());
+		Assertions.assertEquals(created.getLastEventId(), created.getChanges().get(0).getId());
+
+		// Resume from the first change, one change at a time
+		feed.publish(2, EmployeeChange.Type.UPDATED, 1, this.mockEmployee);
+		feed.publish(3, EmployeeChange.Type.DELETED, 1, null);
+		ChangeBatch updated = (ChangeBatch) feed.poll(created.getLastEventId(), 1).getResult();
+		Assertions.assertEquals(1, updated.getChanges().size());
+		Assertions.assertEquals(EmployeeChange.Type.UPDATED, updated.getChanges().get(0).getType());
+		ChangeBatch deleted = (ChangeBatch) feed.poll(updated.getLastEventId(), 1).getResult();
+		Assertions.assertEquals(EmployeeChange.Type.DELETED, deleted.getChanges().get(0).getType());
+		Assertions.assertNull(deleted.getChanges().get(0).getEmployee());
+	}
+
+    /***
+     * pollTooFarBehind
+     *
+     * This is a method to test the resync of a client that is too far behind or comes from
+     *   another run of the application.
+     *
+     * Here's the flow:
+     * - Publish more changes than the ring holds after the event ID of the client.
+     * - Poll from that event ID and check that the client is told to resync from the last
+     *   change.
+     * - Check the same for an event ID of another change log, e.g. of the in-memory database
+     *   before a restart, and that a poll from the event ID of the resync waits for the next
+     *   change.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST pollTooFarBehind")
+	void pollTooFarBehind() throws Exception {
+		EmployeeChangeFeed feed = feed(4);
+		DeferredResult<ChangeBatch> waiting = feed.poll(null, null);
+		feed.publish(1, EmployeeChange.Type.CREATED, 1, this.mockEmployee);
+		String first = ((ChangeBatch) waiting.getResult()).getLastEventId();
+
+		// Publish 5 more changes, the change after the first one is lost
+		for (int i = 2; i <= 6; i++)
+			feed.publish(i, EmployeeChange.Type.UPDATED, 1, this.mockEmployee);
+
+		// Validate the resyncs
+		ChangeBatch behind = (ChangeBatch) feed.poll(first, null).getResult();
+		Assertions.assertTrue(behind.isResync());
+		Assertions.assertTrue(behind.getChanges().isEmpty());
+		ChangeBatch otherRun = (ChangeBatch) feed.poll("other-3", null).getResult();
+		Assertions.assertTrue(otherRun.isResync());
+		Assertions.assertEquals(behind.getLastEventId(), otherRun.getLastEventId());
+		Assertions.assertFalse(feed.poll(behind.getLastEventId(), null).hasResult());
+	}
+
+    /***
+     * pollSkippedAndAhead
+     *
+     * This is a method to test the sequences that are missing, and a client that got later
+     *   changes from another instance.
+     *
+     * Here's the flow:
+     * - Publish the changes 1 and 4, i.e. the rows of 2 and 3 were deleted.
+     * - Poll from the event ID 1 and check that the change 4 is next.
+     * - Poll from the event ID 6 and check that the poll waits, then publish the changes 5
+     *   and 7 and check that only the change 7 completed it.
+     * - Poll from an event ID more than the ring ahead and check that it resyncs.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST pollSkippedAndAhead")
+	void pollSkippedAndAhead() throws Exception {
+		EmployeeChangeFeed feed = feed(16);
+		feed.publish(1, EmployeeChange.Type.CREATED, 1, this.mockEmployee);
+		feed.publish(4, EmployeeChange.Type.UPDATED, 1, this.mockEmployee);
+
+		// Validate that the skipped IDs are passed over
+		ChangeBatch skipped = (ChangeBatch) feed.poll("test-1", null).getResult();
+		Assertions.assertFalse(skipped.isResync());
+		Assertions.assertEquals(1, skipped.getChanges().size());
+		Assertions.assertEquals("test-4", skipped.getChanges().get(0).getId());
+
+		// Validate that a client ahead of the feed waits for it
+		DeferredResult<ChangeBatch> ahead = feed.poll("test-6", null);
+		Assertions.assertFalse(ahead.hasResult());
+		feed.publish(5, EmployeeChange.Type.UPDATED, 1, this.mockEmployee);
+		Assertions.assertFalse(ahead.hasResult());
+		feed.publish(7, EmployeeChange.Type.DELETED, 1, null);
+		ChangeBatch deleted = (ChangeBatch) ahead.getResult();
+		Assertions.assertEquals(1, deleted.getChanges().size());
+		Assertions.assertEquals(EmployeeChange.Type.DELETED, deleted.getChanges().get(0).getType());
+		Assertions.assertEquals("test-7", deleted.getLastEventId());
+
+		// Validate that a client too far ahead resyncs
+		ChangeBatch tooFar = (ChangeBatch) feed.poll("test-100", null).getResult();
+		Assertions.assertTrue(tooFar.isResync());
+		Assertions.assertEquals("test-7", tooFar.getLastEventId());
+	}
+
+	private static EmployeeChangeFeed feed(int bufferSize) {
+		EmployeeChangeFeed feed = new EmployeeChangeFeed(new ObjectMapper(), new SyncTaskExecutor(),
+				new SimpleMeterRegistry(), bufferSize, 100, Duration.ofMinutes(30), Duration.ofSeconds(30));
+		feed.start("test", 0);
+		return feed;
+	}
+}
@@ -0,0 +1,113 @@
+package com.example.employee.sys.changes;
+
+import java.sql.Date;
+
+import com.example.employee.sys.entity.ChangeBatch;
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.example.employee.sys.entity.EmployeeChangeRecord;
+import com.example.employee.sys.repository.EmployeeChangeRepository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/***
+ * EmployeeChangeLogTest
+ *
+ * This is the test class for EmployeeChangeLog. It runs with the application context and
+ *   its in-memory H2 database, where the test inserts the rows of the change log itself,
+ *   like another instance would.
+ */
+@SpringBootTest
+public class EmployeeChangeLogTest {
+
+	@Autowired
+	private EmployeeChangeRepository repo;
+
+	@Autowired
+	private EmployeeChangeLog changeLog;
+
+	@Autowired
+	private EmployeeChangeFeed feed;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+    /***
+     * changeOfAnotherInstance
+     *
+     * This is a method to test that the feed has the changes committed through another
+     *   instance.
+     *
+     * Here's the flow:
+     * - Poll the feed from now on and check that the poll waits.
+     * - Insert a change in the change log and read the log.
+     * - Check that the change completed the poll, with its logSequence in the event ID.
+     * - Poll from the change before it and check that it is returned right away.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST changeOfAnotherInstance")
+	void changeOfAnotherInstance() throws Exception {
+		DeferredResult<ChangeBatch> waiting = feed.poll(null, null);
+		Assertions.assertFalse(waiting.hasResult());
+
+		Employee employee = new Employee(42, "Remote", "Developer", Date.valueOf("2020-02-02"));
+		EmployeeChangeRecord record = repo.save(new EmployeeChangeRecord(EmployeeChange.Type.CREATED, 42, employee));
+		changeLog.poll();
+
+		// The poll is completed on the applicationTaskExecutor
+		for (int i = 0; i < 50 && !waiting.hasResult(); i++)
+			Thread.sleep(100);
+		ChangeBatch created = (ChangeBatch) waiting.getResult();
+		Assertions.assertNotNull(created);
+		Assertions.assertEquals(1, created.getChanges().size());
+		Assertions.assertEquals(feed.idOf(repo.findById(record.getRecordId()).get().getLogSequence()),
+				created.getLastEventId());
+		Assertions.assertEquals("Remote", created.getChanges().get(0).getEmployee().getEmployeeName());
+
+		long sequence = feed.cursorOf(created.getLastEventId());
+		ChangeBatch resumed = (ChangeBatch) feed.poll(feed.idOf(sequence - 1), null).getResult();
+		Assertions.assertNotNull(resumed);
+		Assertions.assertEquals(42, resumed.getChanges().get(0).getEmployeeId());
+	}
+
+    /***
+     * rolledBackChangeLeavesNoGap
+     *
+     * This is a method to test that a change that was rolled back takes no number in the feed.
+     *
+     * Here's the flow:
+     * - Read the change log and note the last sequence of the feed.
+     * - Insert a change in a transaction that is rolled back, then one that is committed.
+     * - Read the log and check that the committed change is the next sequence, right away.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST rolledBackChangeLeavesNoGap")
+	void rolledBackChangeLeavesNoGap() throws Exception {
+		changeLog.poll();
+		long before = feed.cursorOf(null);
+
+		Employee employee = new Employee(43, "Rolled Back", "Developer", Date.valueOf("2020-03-03"));
+		transactionTemplate.executeWithoutResult(status -> {
+			repo.saveAndFlush(new EmployeeChangeRecord(EmployeeChange.Type.CREATED, 43, employee));
+			status.setRollbackOnly();
+		});
+		repo.save(new EmployeeChangeRecord(EmployeeChange.Type.DELETED, 43, null));
+		changeLog.poll();
+
+		ChangeBatch deleted = (ChangeBatch) feed.poll(feed.idOf(before), null).getResult();
+		Assertions.assertNotNull(deleted);
+		Assertions.assertEquals(1, deleted.getChanges().size());
+		Assertions.assertEquals(EmployeeChange.Type.DELETED, deleted.getChanges().get(0).getType());
+		Assertions.assertEquals(feed.idOf(before + 1), deleted.getLastEventId());
+	}
+}
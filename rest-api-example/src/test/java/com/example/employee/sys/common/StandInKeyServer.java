@@ -0,0 +1,144 @@
+package com.example.employee.sys.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+/***
+ * StandInKeyServer
+ *
+ * Stands in for the Keycloak realm in the tests and the benchmarks. It publishes the
+ *   public keys of its RSA signing keys at jwksUri(), the way the certs endpoint of a
+ *   realm does, and signs access tokens shaped like the ones of Keycloak with the current
+ *   key. rotate() adds a new current key and keeps publishing the old ones.
+ *
+ * It runs on the JDK HTTP server on a random local port, so there is no container to
+ *   start and nothing leaves the machine.
+ */
+public class StandInKeyServer implements AutoCloseable {
+
+	public static final String ISSUER = "http://keycloak.test/auth/realms/demo";
+
+	private final List<RSAKey> keys = new CopyOnWriteArrayList<>();
+	private final AtomicInteger fetches = new AtomicInteger();
+	private final HttpServer server;
+
+	public StandInKeyServer() {
+		rotate();
+		try {
+			server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		server.createContext("/certs", exchange -> {
+			fetches.incrementAndGet();
+			List<JWK> published = new ArrayList<>(keys);
+			byte[] body = new JWKSet(published).toPublicJWKSet().toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+	}
+
+	public String jwksUri() {
+		return "http://localhost:" + server.getAddress().getPort() + "/certs";
+	}
+
+	/*
+	 * The number of times the keys were fetched.
+	 */
+	public int fetches() {
+		return fetches.get();
+	}
+
+	/*
+	 * Adds a new signing key, which signs the tokens from now on.
+	 */
+	public RSAKey rotate() {
+		RSAKey key = newKey();
+		keys.add(key);
+		return key;
+	}
+
+	/*
+	 * A key that is not published, e.g. to sign a forged token.
+	 */
+	public static RSAKey newKey() {
+		try {
+			return new RSAKeyGenerator(2048)
+					.keyID(UUID.randomUUID().toString())
+					.keyUse(KeyUse.SIGNATURE)
+					.generate();
+		} catch (JOSEException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	 * An access token of the user with the given realm roles, signed with the
+	 *   current key.
+	 */
+	public String token(String username, Duration expiresIn, String... roles) {
+		return sign(keys.get(keys.size() - 1), claims(username, expiresIn, roles).build());
+	}
+
+	public static JWTClaimsSet.Builder claims(String username, Duration expiresIn, String... roles) {
+		Instant now = Instant.now();
+		return new JWTClaimsSet.Builder()
+				.issuer(ISSUER)
+				.subject(UUID.randomUUID().toString())
+				.issueTime(Date.from(now))
+				.expirationTime(Date.from(now.plus(expiresIn)))
+				.jwtID(UUID.randomUUID().toString())
+				.claim("typ", "Bearer")
+				.claim("preferred_username", username)
+				.claim("realm_access", Map.of("roles", List.of(roles)));
+	}
+
+	public static String sign(RSAKey key, JWTClaimsSet claims) {
+		JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256)
+				.type(JOSEObjectType.JWT)
+				.keyID(key.getKeyID())
+				.build();
+		SignedJWT jwt = new SignedJWT(header, claims);
+		try {
+			jwt.sign(new RSASSASigner(key));
+		} catch (JOSEException e) {
+			throw new IllegalStateException(e);
+		}
+		return jwt.serialize();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.employee.sys.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.service.EmployeeService;
+import com.example.limit.AdaptiveLimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/***
+ * ConcurrencyLimitConfigurationTest
+ *
+ * This is the test class for ConcurrencyLimitConfiguration. The @SpringBootTest properties
+ *   turn the limiter on, with a write limit fixed at 1 so that a single write that does not
+ *   finish fills it. The service is a mock whose saveEmployee() waits for the test.
+ */
+@SpringBootTest(properties = {
+		"employee.limiter.enabled=true",
+		"employee.limiter.write.initial-limit=1",
+		"employee.limiter.write.min-limit=1",
+		"employee.limiter.write.max-limit=1",
+		"employee.limiter.retry-after=2s" })
+@AutoConfigureMockMvc
+public class ConcurrencyLimitConfigurationTest {
+
+	private static final String EMPLOYEE = "{\"employeeName\":\"John Doe\",\"position\":\"Developer\"}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	@Qualifier("writeLimit")
+	private AdaptiveLimit writeLimit;
+
+	@MockBean
+	private EmployeeService service;
+
+    /***
+     * writesAboveLimitAreShed
+     *
+     * This is a method to test that a write above the write limit gets a 503 right away,
+     *   while the reads still go through.
+     *
+     * Here's the flow:
+     * - Start a POST /employees in another thread and wait until it holds the only write slot.
+     * - Send a second POST and check the 503, its Retry-After header and its error body.
+     * - Send a GET /employees/1 and check that it is served, since the reads have their own
+     *   limit.
+     * - Let the first POST finish, check its 201 and the rejected write counter.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST writes above the limit are shed")
+	void writesAboveLimitAreShed() throws Exception {
+		CountDownLatch finish = new CountDownLatch(1);
+		when(service.saveEmployee(any(Employee.class))).thenAnswer(invocation -> {
+			finish.await(10, TimeUnit.SECONDS);
+			return 1;
+		});
+		when(service.getEmployeeById(1))
+			.thenReturn(Optional.of(new Employee(1, "John Doe", "Developer", Date.valueOf("2001-01-01"))));
+		double rejected = rejectedWrites();
+
+		CompletableFuture<ResultActions> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return saveEmployee();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (writeLimit.getInFlight() == 0 && System.nanoTime() < deadline)
+			Thread.sleep(5);
+		Assertions.assertEquals(1, writeLimit.getInFlight());
+
+		saveEmployee()
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+			.andExpect(jsonPath("$.type").value("ServiceUnavailableException"));
+		mockMvc.perform(get("/employees/1"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.employeeName").value("John Doe"));
+
+		finish.countDown();
+		first.get(10, TimeUnit.SECONDS).andExpect(status().isCreated());
+		Assertions.assertEquals(0, writeLimit.getInFlight());
+		Assertions.assertEquals(rejected + 1, rejectedWrites());
+	}
+
+	private ResultActions saveEmployee() throws Exception {
+		return mockMvc.perform(post("/employees").contentType(MediaType.APPLICATION_JSON).content(EMPLOYEE));
+	}
+
+	private double rejectedWrites() {
+		return meterRegistry.get("employees.limiter.requests").tag("operation", "write").tag("result", "rejected")
+				.counter().count();
+	}
+}
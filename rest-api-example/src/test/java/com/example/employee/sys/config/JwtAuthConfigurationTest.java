@@ -0,0 +1,172 @@
+package com.example.employee.sys.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+
+import com.example.employee.sys.common.StandInKeyServer;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/***
+ * JwtAuthConfigurationTest
+ *
+ * This is the test class for JwtAuthConfiguration. The @SpringBootTest properties turn the
+ *   authentication on, and the signing keys are fetched from a StandInKeyServer instead of
+ *   a Keycloak realm. The server signs the tokens of each test with the same keys the API
+ *   fetched from it.
+ */
+@SpringBootTest(properties = {
+		"employee.auth.enabled=true",
+		"employee.auth.issuer=" + StandInKeyServer.ISSUER,
+		"employee.auth.jwks-refresh-interval=PT1H",
+		"employee.auth.jwks-min-refresh-interval=0s" })
+@AutoConfigureMockMvc
+public class JwtAuthConfigurationTest {
+
+	private static final StandInKeyServer keyServer = new StandInKeyServer();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@DynamicPropertySource
+	static void keyServerProperties(DynamicPropertyRegistry registry) {
+		registry.add("employee.auth.jwks-uri", keyServer::jwksUri);
+	}
+
+	@AfterAll
+	static void stopKeyServer() {
+		keyServer.close();
+	}
+
+    /***
+     * validTokenIsCached
+     *
+     * This is a method to test that a valid token is verified once, then served from the
+     *   token cache.
+     *
+     * Here's the flow:
+     * - GET /employees twice with the same token and check that both are 200.
+     * - Check that the token was verified once and found in the cache once.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST valid token is cached")
+	void validTokenIsCached() throws Exception {
+		double verified = tokens("verified");
+		double cached = tokens("cached");
+		String token = keyServer.token("demouser", Duration.ofMinutes(5), "user");
+
+		getEmployees(token).andExpect(status().isOk());
+		getEmployees(token).andExpect(status().isOk());
+
+		Assertions.assertEquals(verified + 1, tokens("verified"));
+		Assertions.assertEquals(cached + 1, tokens("cached"));
+	}
+
+    /***
+     * invalidTokensAreRejected
+     *
+     * This is a method to test the answers to the requests that cannot go through.
+     *
+     * Here's the flow:
+     * - Without a token, check the 401 and its WWW-Authenticate header.
+     * - With an expired token, a token signed with another key under a published key ID,
+     *   and a token of another issuer, check the 401 and its error body.
+     * - With a valid token without the user role, check the 403.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST invalid tokens are rejected")
+	void invalidTokensAreRejected() throws Exception {
+		mockMvc.perform(get("/employees"))
+			.andExpect(status().isUnauthorized())
+			.andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+
+		String expired = keyServer.token("demouser", Duration.ofMinutes(-5), "user");
+		getEmployees(expired)
+			.andExpect(status().isUnauthorized())
+			.andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""))
+			.andExpect(jsonPath("$.type").value("InvalidTokenException"))
+			.andExpect(jsonPath("$.message").value("The access token expired."));
+
+		RSAKey publishedKey = keyServer.rotate();
+		RSAKey forgedKey = new RSAKey.Builder(StandInKeyServer.newKey()).keyID(publishedKey.getKeyID()).build();
+		String forged = StandInKeyServer.sign(forgedKey,
+				StandInKeyServer.claims("demouser", Duration.ofMinutes(5), "user").build());
+		getEmployees(forged)
+			.andExpect(status().isUnauthorized())
+			.andExpect(jsonPath("$.message").value("The signature of the access token is not valid."));
+
+		String otherIssuer = StandInKeyServer.sign(publishedKey,
+				StandInKeyServer.claims("demouser", Duration.ofMinutes(5), "user")
+					.issuer("http://keycloak.test/auth/realms/other").build());
+		getEmployees(otherIssuer)
+			.andExpect(status().isUnauthorized())
+			.andExpect(jsonPath("$.message").value("The access token is from another issuer."));
+
+		String withoutRole = keyServer.token("demouser", Duration.ofMinutes(5), "auditor");
+		getEmployees(withoutRole)
+			.andExpect(status().isForbidden())
+			.andExpect(jsonPath("$.type").value("ForbiddenException"));
+	}
+
+    /***
+     * rotatedKeyIsFetched
+     *
+     * This is a method to test that a token signed with a key the API does not know yet,
+     *   e.g. after the realm keys were rotated, fetches the keys once.
+     *
+     * Here's the flow:
+     * - Rotate the key of the key server and GET /employees with a token signed with it.
+     * - Check that it is 200 and that the keys were fetched once.
+     * - GET /employees with another token of the new key and check that the keys were not
+     *   fetched again.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST rotated key is fetched")
+	void rotatedKeyIsFetched() throws Exception {
+		keyServer.rotate();
+		int fetches = keyServer.fetches();
+
+		getEmployees(keyServer.token("demouser", Duration.ofMinutes(5), "user"))
+			.andExpect(status().isOk());
+		Assertions.assertEquals(fetches + 1, keyServer.fetches());
+
+		getEmployees(keyServer.token("otheruser", Duration.ofMinutes(5), "user"))
+			.andExpect(status().isOk());
+		Assertions.assertEquals(fetches + 1, keyServer.fetches());
+	}
+
+	private ResultActions getEmployees(String token) throws Exception {
+		return mockMvc.perform(get("/employees").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+	}
+
+	private double tokens(String result) {
+		return meterRegistry.get("employees.auth.tokens").tag("result", result).counter().count();
+	}
+}
@@ -0,0 +1,211 @@
+package com.example.employee.sys.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import com.example.employee.sys.common.Utils;
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.routing.DataSourceRouting;
+import com.example.employee.sys.routing.ReadYourWrites;
+import com.example.employee.sys.service.EmployeeService;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/***
+ * ReadReplicaConfigurationTest
+ *
+ * This is the test class for ReadReplicaConfiguration. The @SpringBootTest properties turn
+ *   the read replica on. The primary is the usual in-memory H2 database of the tests, and
+ *   the replica is a second H2 database with the same schema. Nothing copies the rows from
+ *   one to the other, so each test can tell which database answered. ReadThenWriteController
+ *   adds an endpoint that reads the employees, then saves one, in the same request.
+ */
+@SpringBootTest(properties = {
+		"employee.read-replica.enabled=true",
+		"employee.read-replica.datasource.jdbc-url=jdbc:h2:mem:replica-test;DB_CLOSE_DELAY=-1",
+		"employee.read-replica.datasource.username=sa",
+		"employee.read-replica.init-scripts=classpath:db/h2/employees-schema.sql" })
+@AutoConfigureMockMvc
+@Import(ReadReplicaConfigurationTest.ReadThenWriteController.class)
+public class ReadReplicaConfigurationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeeService service;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private DataSource replica;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+    /***
+     * readOnlyTransactionsUseReplica
+     *
+     * This is a method to test that the reads go to the replica and the writes to the
+     *   primary, unless the primary is required.
+     *
+     * Here's the flow:
+     * - Insert an employee straight into the replica and check that getEmployees() has it.
+     * - Save an employee through the service and check that getEmployees() does not have it,
+     *   since it was written to the primary.
+     * - Check that getEmployees() on the primary has it, and that getEmployeeById() finds it
+     *   since it was written a moment ago.
+     * - Check the routing metric of the replica.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST read-only transactions use the replica")
+	void readOnlyTransactionsUseReplica() throws Exception {
+		new JdbcTemplate(replica).update("INSERT INTO employees (employee_id, employee_name, position, date_hired, version) "
+				+ "VALUES (900, 'Replica Only', 'Developer', '2020-01-01', 0)");
+		Assertions.assertTrue(names(service.getEmployees()).contains("Replica Only"));
+
+		Integer id = service.saveEmployee(new Employee(0, "Primary Only", "Developer", Date.valueOf("2020-01-01")));
+		Assertions.assertFalse(names(service.getEmployees()).contains("Primary Only"));
+
+		List<String> onPrimary = names(DataSourceRouting.onPrimary(service::getEmployees));
+		Assertions.assertTrue(onPrimary.contains("Primary Only"));
+		Assertions.assertFalse(onPrimary.contains("Replica Only"));
+		Assertions.assertEquals("Primary Only", service.getEmployeeById(id).get().getEmployeeName());
+
+		Assertions.assertTrue(meterRegistry.get("employees.datasource.routes")
+				.tag("pool", "replica").functionCounter().count() > 0);
+	}
+
+    /***
+     * consistencyTokenReadsOwnWrite
+     *
+     * This is a method to test that a client reads its own write with the consistency token.
+     *
+     * Here's the flow:
+     * - POST an employee and check that the response has an X-Consistency-Token header.
+     * - GET /employees with the token and check that the new employee is there.
+     * - GET /employees without the token and check that it is not, since the replica never
+     *   gets it.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST consistency token reads own write")
+	void consistencyTokenReadsOwnWrite() throws Exception {
+		Employee employee = new Employee(0, "Token Reader", "Manager", Date.valueOf("2021-02-02"));
+		String token = mockMvc.perform(post("/employees")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(Utils.getJsonString(employee)))
+			.andExpect(status().isCreated())
+			.andExpect(header().exists(ReadYourWrites.TOKEN_HEADER))
+			.andReturn().getResponse().getHeader(ReadYourWrites.TOKEN_HEADER);
+
+		String withToken = mockMvc.perform(get("/employees").header(ReadYourWrites.TOKEN_HEADER, token))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		Assertions.assertTrue(withToken.contains("Token Reader"));
+
+		String withoutToken = mockMvc.perform(get("/employees"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		Assertions.assertFalse(withoutToken.contains("Token Reader"));
+	}
+
+    /***
+     * readThenWriteInOneRequest
+     *
+     * This is a method to test that a write made after a read in the same request goes to
+     *   the primary. With open-in-view, the request would keep the connection to the replica
+     *   of the read and write to it.
+     *
+     * Here's the flow:
+     * - POST an employee to ReadThenWriteController, which reads the employees and then
+     *   saves it.
+     * - Check that the primary has it and the replica does not.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST read then write in one request writes to the primary")
+	void readThenWriteInOneRequest() throws Exception {
+		Employee employee = new Employee(0, "Read Then Write", "Developer", Date.valueOf("2022-03-03"));
+		mockMvc.perform(post("/test/read-then-write")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(Utils.getJsonString(employee)))
+			.andExpect(status().isOk());
+
+		Assertions.assertTrue(names(DataSourceRouting.onPrimary(service::getEmployees)).contains("Read Then Write"));
+		Assertions.assertEquals(0, new JdbcTemplate(replica).queryForObject(
+				"SELECT COUNT(*) FROM employees WHERE employee_name = 'Read Then Write'", Integer.class));
+	}
+
+    /***
+     * futureTokenIgnored
+     *
+     * This is a method to test that a token from the future does not send the reads to the
+     *   primary, except within the allowed clock skew.
+     *
+     * Here's the flow:
+     * - Check that a token of now and one a little ahead require the primary.
+     * - Check that a token of tomorrow, an old one and one that is not a number do not.
+     *
+     */
+	@Test
+	@DisplayName("TEST future token ignored")
+	void futureTokenIgnored() {
+		long now = System.currentTimeMillis();
+		Assertions.assertTrue(readYourWrites.requiresPrimary(Long.toString(now)));
+		Assertions.assertTrue(readYourWrites.requiresPrimary(Long.toString(now + 500)));
+		Assertions.assertFalse(readYourWrites.requiresPrimary(Long.toString(now + Duration.ofDays(1).toMillis())));
+		Assertions.assertFalse(readYourWrites.requiresPrimary(Long.toString(now - Duration.ofMinutes(1).toMillis())));
+		Assertions.assertFalse(readYourWrites.requiresPrimary("tomorrow"));
+	}
+
+	private static List<String> names(List<Employee> employees) {
+		return employees.stream().map(Employee::getEmployeeName).collect(Collectors.toList());
+	}
+
+	@RestController
+	static class ReadThenWriteController {
+
+		private final EmployeeService service;
+
+		ReadThenWriteController(EmployeeService service) {
+			this.service = service;
+		}
+
+		@PostMapping("/test/read-then-write")
+		Integer readThenWrite(@RequestBody Employee employee) {
+			service.getEmployees();
+			return service.saveEmployee(employee);
+		}
+	}
+}
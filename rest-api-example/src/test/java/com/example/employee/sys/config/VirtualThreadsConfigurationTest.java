@@ -0,0 +1,93 @@
+package com.example.employee.sys.config;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/***
+ * VirtualThreadsConfigurationTest
+ *
+ * This is the test class for VirtualThreadsConfiguration. The @SpringBootTest properties
+ *   turn the virtual threads on and allow a single JDBC connection at a time, so the
+ *   semaphore is easy to observe.
+ */
+@SpringBootTest(properties = {
+		"employee.virtual-threads.enabled=true",
+		"employee.virtual-threads.jdbc-permits=1" })
+public class VirtualThreadsConfigurationTest {
+
+	@Autowired
+	private AsyncTaskExecutor applicationTaskExecutor;
+
+	@Autowired
+	private DataSource dataSource;
+
+    /***
+     * applicationTaskExecutorUsesVirtualThreads
+     *
+     * This is a method to test that the tasks of the applicationTaskExecutor run on virtual
+     *   threads.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST applicationTaskExecutor runs on virtual threads")
+	void applicationTaskExecutorUsesVirtualThreads() throws Exception {
+		boolean virtual = applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual())
+				.get(5, TimeUnit.SECONDS);
+
+		Assertions.assertTrue(virtual, "The task did not run on a virtual thread.");
+	}
+
+    /***
+     * dataSourceIsBoundedBySemaphore
+     *
+     * This is a method to test that no more than jdbc-permits connections are handed out.
+     *
+     * Here's the flow:
+     * - Check that the DataSource was wrapped in a SemaphoreDataSource.
+     * - Take the only permit by getting a connection.
+     * - Ask for a second connection on a virtual thread and check that it waits.
+     * - Close the first connection and check that the second one is handed out.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST DataSource hands out jdbc-permits connections at a time")
+	void dataSourceIsBoundedBySemaphore() throws Exception {
+		Assertions.assertTrue(dataSource instanceof SemaphoreDataSource, "The DataSource was not wrapped.");
+		SemaphoreDataSource semaphore = (SemaphoreDataSource) dataSource;
+
+		CompletableFuture<Boolean> second = new CompletableFuture<>();
+		try (Connection first = dataSource.getConnection()) {
+			Assertions.assertEquals(0, semaphore.getAvailablePermits());
+
+			Thread.ofVirtual().start(() -> {
+				try {
+					boolean valid;
+					try (Connection connection = dataSource.getConnection()) {
+						valid = connection.isValid(1);
+					}
+					second.complete(valid);
+				} catch (Exception e) {
+					second.completeExceptionally(e);
+				}
+			});
+			Assertions.assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+			Assertions.assertEquals(1, semaphore.getWaitingThreads());
+		}
+
+		Assertions.assertTrue(second.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(1, semaphore.getAvailablePermits());
+	}
+}
@@ -3,29 +3,60 @@ package com.example.employee.sys.controller;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
+import com.example.employee.sys.changes.EmployeeChangeFeed;
 import com.example.employee.sys.common.Utils;
+import com.example.employee.sys.entity.BatchItemResult;
+import com.example.employee.sys.entity.ChangeBatch;
 import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeChange;
+import com.example.employee.sys.entity.EmployeeStats;
+import com.example.employee.sys.entity.Error;
+import com.example.employee.sys.exceptions.BadRequestException;
 import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
+import com.example.employee.sys.protobuf.EmployeeProtobuf;
+import com.example.employee.sys.protobuf.EmployeeProtobufHttpMessageConverter;
 import com.example.employee.sys.service.EmployeeService;
+import com.example.employee.sys.service.ExportFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -36,9 +67,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 /***
  * EmployeeControllerTest
@@ -67,10 +105,19 @@ public class EmployeeControllerTest {
 
 	@Autowired
     private MockMvc mockMvc;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
     
 	@MockBean
 	private EmployeeService service;
 	
+	@MockBean
+	private EmployeeChangeFeed changeFeed;
+	
     private Employee mockEmployee;
 
     // To test BeforeEach, BeforeAll, AfterEach and AfterAll
@@ -110,7 +157,7 @@ public class EmployeeControllerTest {
      * - Create a mock list of employees. This will be set as the return value of the Employee
      *   Service's getEmployees() method.
      * - Use Mockito's when-thenReturn to intercept any call to EmployeeService.getEmployees 
-     *   method then return a mock object which is the mock list of employees.
+     *   method then return a mock object which is a slice holding the mock list of employees.
      * - Call MockMvc.perform() to trigger the GET request.
      * - Use MockMvc.andExpect() to compare the actual result vs expected values.
      * 
@@ -128,7 +175,7 @@ public class EmployeeControllerTest {
             );
 
         // Using the mock service, return the mock employee list when getEmployees() is called
-        when(service.getEmployees()).thenReturn(list);
+        when(service.getEmployees(any(), any(), any())).thenReturn(new SliceImpl<Employee>(list));
 		
 		// Execute the request
 		mockMvc.perform(get("/employees"))
@@ -161,7 +208,7 @@ public class EmployeeControllerTest {
 	@DisplayName("GET /employees NO RESULT")
 	void getEmployeesNoResult() throws Exception {
 		// Using the mock service, return an empty list when getEmployees() is called
-		when(service.getEmployees()).thenReturn(new ArrayList<Employee>());
+		when(service.getEmployees(any(), any(), any())).thenReturn(new SliceImpl<Employee>(new ArrayList<Employee>()));
 		
 		// Execute the request
 		mockMvc.perform(get("/employees"))
@@ -169,7 +216,112 @@ public class EmployeeControllerTest {
 			// Validate the response
 			.andExpect(status().isOk())
 			.andExpect(content().contentType(MediaType.APPLICATION_JSON))		
-			.andExpect(content().string("[]"));
+			.andExpect(content().string("[]"))
+			.andExpect(header().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER));
+	}
+	
+    /***
+     * getEmployeesHasNextSlice
+     * 
+     * This is a method to test the GET /employees endpoint when there are more employees
+     *   after the returned slice. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to EmployeeService.getEmployees 
+     *   with the cursor and limit then return a slice that has a next slice.
+     * - Call MockMvc.perform() to trigger the GET request.
+     * - Use MockMvc.andExpect() to check that the next cursor and Link headers point to the
+     *   last employee in the slice.
+     * 
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("GET /employees?cursor=1&limit=2 HAS NEXT SLICE")
+	void getEmployeesHasNextSlice() throws Exception {
+		// Create a mock slice with a next slice
+		List<Employee> list = 
+            Arrays.asList(
+                new Employee(2, "Jane", "Director", Date.valueOf("2002-02-02")),
+                new Employee(3, "James", "Supervisor", Date.valueOf("2003-03-03"))
+            );
+		when(service.getEmployees(1, null, 2)).thenReturn(new SliceImpl<Employee>(list, PageRequest.of(0, 2), true));
+		
+		// Execute the request
+		mockMvc.perform(get("/employees").param("cursor", "1").param("limit", "2"))
+		
+			// Validate the response
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()", is(2)))
+			.andExpect(header().string(EmployeeController.NEXT_CURSOR_HEADER, "3"))
+			.andExpect(header().string(HttpHeaders.LINK, "<http://localhost/employees?cursor=3&limit=2>; rel=\"next\""));
+	}
+	
+    /***
+     * getEmployeesInvalidPage
+     * 
+     * This is a method to test the GET /employees endpoint with an invalid page number. 
+     * 
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("GET /employees?page=0 is BAD REQUEST")
+	void getEmployeesInvalidPage() throws Exception {
+		// Using the mock service, throw a BadRequestException for page 0
+		when(service.getEmployees(null, 0, null))
+			.thenThrow(new BadRequestException("The page query parameter should be 1 or greater."));
+		
+		// Execute the request
+		mockMvc.perform(get("/employees").param("page", "0"))
+		
+			// Validate the response
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.type", is("BadRequestException")))
+			.andExpect(jsonPath("$.message", is("The page query parameter should be 1 or greater.")));
+	}
+	
+    /***
+     * exportEmployeesAsCsv
+     * 
+     * This is a method to test the GET /employees/export endpoint with the CSV format. 
+     * 
+     * Here's the flow:
+     * - Call MockMvc.perform() to trigger the GET request with format=csv.
+     * - Use MockMvc.andExpect() to validate the content type and the file name.
+     * - Use Mockito's verify to check that the service was asked to stream the employees
+     *   as CSV.
+     * 
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("GET /employees/export?format=csv is SUCCESSFUL")
+	void exportEmployeesAsCsv() throws Exception {
+		// Execute the request
+		mockMvc.perform(get("/employees/export").param("format", "csv"))
+		
+			// Validate the response
+			.andExpect(status().isOk())
+			.andExpect(content().contentType("text/csv;charset=UTF-8"))
+			.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\""));
+		
+		verify(service).exportEmployees(any(), eq(ExportFormat.CSV));
+	}
+	
+    /***
+     * exportEmployeesUnsupportedFormat
+     * 
+     * This is a method to test the GET /employees/export endpoint with an unknown format. 
+     * 
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("GET /employees/export?format=xml is BAD REQUEST")
+	void exportEmployeesUnsupportedFormat() throws Exception {
+		// Execute the request
+		mockMvc.perform(get("/employees/export").param("format", "xml"))
+		
+			// Validate the response
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.type", is("BadRequestException")));
 	}
 	
     /***
@@ -204,9 +356,370 @@ public class EmployeeControllerTest {
 			.andExpect(jsonPath("$.employeeId", is(1)))
 			.andExpect(jsonPath("$.employeeName", is("John")))
 			.andExpect(jsonPath("$.position", is("Manager")))
-			.andExpect(jsonPath("$.dateHired", is("2001-01-01")));
+			.andExpect(jsonPath("$.dateHired", is("2001-01-01")))
+			.andExpect(jsonPath("$.version").doesNotExist())
+			
+			// Validate the ETag which is the version of the employee
+			.andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+	}
+
+    /***
+     * getEmployeeByIdNotModified
+     * 
+     * This is a method to test the GET /employees/id endpoint with an If-None-Match header
+     *   that matches the current ETag. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept any call to EmployeeService.getEmployeeById 
+     *   method then return the mock employee.
+     * - Call MockMvc.perform() to trigger the GET request with the ETag of the mock employee.
+     * - Use MockMvc.andExpect() to check that there is no response body.
+     * 
+     * @throws Exception
+     */
+    @Test
+	@DisplayName("GET /employees/1 with a matching ETag is NOT MODIFIED")
+	void getEmployeeByIdNotModified() throws Exception {
+		// Using the mock service, return the mock employee when getEmployeeById() is called
+		when(service.getEmployeeById(1)).thenReturn(Optional.of(this.mockEmployee));
+		
+		// Execute the request
+		mockMvc.perform(get("/employees/{id}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+		
+			// Validate the response code and that no body is written
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+			.andExpect(content().string(""));
 	}
 
+    /***
+     * getEmployeeByIdETagPerFormat
+     * 
+     * This is a method to test that the GET /employees/id endpoint has a different ETag in
+     *   each format.
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept any call to EmployeeService.getEmployeeById 
+     *   method then return the mock employee.
+     * - Call MockMvc.perform() with Accept: application/cbor and check the ETag.
+     * - Call it again with the ETag of the JSON body and check that the CBOR body is sent.
+     * - Call it again with the ETag of the CBOR body and check that it is NOT MODIFIED.
+     * - PATCH the employee with the ETag of the CBOR body in If-Match and check that the
+     *   service got the version.
+     * 
+     * @throws Exception
+     */
+    @Test
+	@DisplayName("GET /employees/1 has an ETag per format")
+	void getEmployeeByIdETagPerFormat() throws Exception {
+		when(service.getEmployeeById(1)).thenReturn(Optional.of(this.mockEmployee));
+		
+		mockMvc.perform(get("/employees/{id}", 1).accept(MediaType.APPLICATION_CBOR))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"0-cbor\""));
+		
+		mockMvc.perform(get("/employees/{id}", 1).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+		
+		mockMvc.perform(get("/employees/{id}", 1).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, "\"0-cbor\""))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"0-cbor\""))
+			.andExpect(content().string(""));
+		
+		mockMvc.perform(patch("/employees/{id}", 1)
+				.contentType(EmployeeController.MERGE_PATCH_JSON_VALUE)
+				.header(HttpHeaders.IF_MATCH, "\"0-cbor\"")
+				.content("{\"position\":\"Director\"}"))
+			.andExpect(status().isNoContent());
+		verify(service).updateEmployee(any(), eq(1), eq(0));
+	}
+
+    /***
+     * getEmployeesNotModified
+     * 
+     * This is a method to test the GET /employees endpoint with an If-None-Match header. 
+     * 
+     * Here's the flow:
+     * - Create a mock list of employees.
+     * - Use Mockito's when-thenReturn to intercept any call to EmployeeService.getEmployees 
+     *   method then return a slice with the mock employees.
+     * - Call MockMvc.perform() to trigger the GET request and read the ETag.
+     * - Call it again with the ETag in the If-None-Match header and check that there is no
+     *   response body.
+     * - Change the version of one employee and check that the old ETag no longer matches.
+     * 
+     * @throws Exception
+     */
+    @Test
+	@DisplayName("GET /employees with a matching ETag is NOT MODIFIED")
+	void getEmployeesNotModified() throws Exception {
+		// Create a mock employee list
+		List<Employee> list = 
+            Arrays.asList(
+                new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")),
+                new Employee(2, "Jane", "Director", Date.valueOf("2002-02-02"))
+            );
+		
+		// Using the mock service, return a slice with the mock employees
+		when(service.getEmployees(any(), any(), any())).thenReturn(new SliceImpl<Employee>(list));
+		
+		// Execute the request and read the ETag
+		String eTag = mockMvc.perform(get("/employees"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		Assertions.assertNotNull(eTag);
+		
+		// Execute the request again with the ETag
+		mockMvc.perform(get("/employees").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""));
+		
+		// Update one of the employees, the list has a new ETag now
+		list.get(0).setVersion(1);
+		mockMvc.perform(get("/employees").header(HttpHeaders.IF_NONE_MATCH, eTag))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()", is(2)));
+	}
+
+    /***
+     * searchEmployees
+     * 
+     * This is a method to test the GET /employees/search endpoint. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to EmployeeService.searchEmployees
+     *   method then return the mock employee.
+     * - Call MockMvc.perform() to trigger the GET request with a prefix, a position and a 
+     *   limit.
+     * - Use MockMvc.andExpect() to compare the actual result vs expected values.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("GET /employees/search?prefix=Jo&position=Manager is OK")
+	void searchEmployees() throws Exception {
+		// Using the mock service, return the mock employee
+		when(service.searchEmployees("Jo", "Manager", 5)).thenReturn(List.of(this.mockEmployee));
+		
+		// Execute the request
+		mockMvc.perform(get("/employees/search")
+				.param("prefix", "Jo")
+				.param("position", "Manager")
+				.param("limit", "5"))
+		
+			// Validate the response code, content type and ETag
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(header().string(HttpHeaders.ETAG, ETags.of(List.of(this.mockEmployee))))
+		
+			// Validate the response body
+			.andExpect(jsonPath("$[0].employeeId", is(1)))
+			.andExpect(jsonPath("$[0].employeeName", is("John")));
+	}
+	
+    /***
+     * getEmployeesBinaryFormats
+     * 
+     * This is a method to test the GET /employees endpoint in the binary formats. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept any call to EmployeeService.getEmployees 
+     *   method then return a slice with two employees, one without a position.
+     * - Call MockMvc.perform() with an Accept header of CBOR, Smile and Protobuf.
+     * - Check the content type, the Vary header and the ETag of the format, then read each 
+     *   body back and compare the employees with the mock ones.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("GET /employees in CBOR, Smile and Protobuf is OK")
+	void getEmployeesBinaryFormats() throws Exception {
+		List<Employee> list = Arrays.asList(
+				this.mockEmployee,
+				new Employee(2, "Jane", null, Date.valueOf("2002-02-02")));
+		when(service.getEmployees(any(), any(), any())).thenReturn(new SliceImpl<Employee>(list));
+		
+		ObjectReader cbor = new ObjectMapper(new CBORFactory()).readerForListOf(Employee.class);
+		assertEmployees(list, cbor.readValue(getEmployeesAs(list, MediaType.APPLICATION_CBOR)));
+		
+		ObjectReader smile = new ObjectMapper(new SmileFactory()).readerForListOf(Employee.class);
+		assertEmployees(list, smile.readValue(getEmployeesAs(list, new MediaType("application", "x-jackson-smile"))));
+		
+		byte[] protobuf = getEmployeesAs(list, EmployeeProtobufHttpMessageConverter.MEDIA_TYPE);
+		assertEmployees(list, EmployeeProtobuf.readEmployees(new ByteArrayInputStream(protobuf)));
+	}
+	
+	private byte[] getEmployeesAs(List<Employee> list, MediaType mediaType) throws Exception {
+		return mockMvc.perform(get("/employees").accept(mediaType))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(mediaType))
+			.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+			.andExpect(header().string(HttpHeaders.ETAG, ETags.of(ETags.of(list), mediaType)))
+			.andReturn().getResponse().getContentAsByteArray();
+	}
+	
+	private static void assertEmployees(List<Employee> expected, List<Employee> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assertions.assertEquals(expected.get(i).getEmployeeId(), actual.get(i).getEmployeeId());
+			Assertions.assertEquals(expected.get(i).getEmployeeName(), actual.get(i).getEmployeeName());
+			Assertions.assertEquals(expected.get(i).getPosition(), actual.get(i).getPosition());
+			Assertions.assertEquals(expected.get(i).getDateHired().toString(), actual.get(i).getDateHired().toString());
+		}
+	}
+	
+    /***
+     * addEmployeeProtobuf
+     * 
+     * This is a method to test the POST /employees endpoint with a Protobuf body, and that 
+     *   the bodies other than the employees are not served in Protobuf.
+     * 
+     * Here's the flow:
+     * - Write the mock employee as a Protobuf Employee message.
+     * - Call MockMvc.perform() to trigger the POST request with it and check that the service
+     *   got the same employee.
+     * - Call GET /employees/stats with Accept: application/x-protobuf and check that it is
+     *   NOT ACCEPTABLE.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("POST /employees with Protobuf is SUCCESSFUL")
+	void addEmployeeProtobuf() throws Exception {
+		when(service.saveEmployee(any())).thenReturn(1);
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		EmployeeProtobuf.writeEmployee(this.mockEmployee, body);
+		
+		mockMvc.perform(post("/employees")
+				.contentType(EmployeeProtobufHttpMessageConverter.MEDIA_TYPE)
+				.content(body.toByteArray()))
+			.andExpect(status().isCreated())
+			.andExpect(header().string(HttpHeaders.LOCATION, "/employees/1"));
+		verify(service).saveEmployee(argThat(employee -> "John".equals(employee.getEmployeeName())
+				&& "Manager".equals(employee.getPosition())
+				&& "2001-01-01".equals(employee.getDateHired().toString())));
+		
+		when(service.getStats()).thenReturn(new EmployeeStats(1, Map.of(), Map.of(), Map.of()));
+		mockMvc.perform(get("/employees/stats").accept(EmployeeProtobufHttpMessageConverter.MEDIA_TYPE))
+			.andExpect(status().isNotAcceptable());
+	}
+	
+    /***
+     * getHeadcount
+     * 
+     * This is a method to test the GET /employees/headcount endpoint. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to EmployeeService.countHired
+     *   method then return a count.
+     * - Call MockMvc.perform() to trigger the GET request with a date range and a position.
+     * - Use MockMvc.andExpect() to compare the actual result vs expected values.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("GET /employees/headcount?hiredFrom=2020-01-01&hiredTo=2020-12-31&position=Developer is OK")
+	void getHeadcount() throws Exception {
+		// Using the mock service, return a count
+		when(service.countHired(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31), "Developer")).thenReturn(42L);
+		
+		// Execute the request
+		mockMvc.perform(get("/employees/headcount")
+				.param("hiredFrom", "2020-01-01")
+				.param("hiredTo", "2020-12-31")
+				.param("position", "Developer"))
+		
+			// Validate the response code and content type
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+		
+			// Validate the response body
+			.andExpect(jsonPath("$.hiredFrom", is("2020-01-01")))
+			.andExpect(jsonPath("$.hiredTo", is("2020-12-31")))
+			.andExpect(jsonPath("$.position", is("Developer")))
+			.andExpect(jsonPath("$.count", is(42)));
+	}
+	
+    /***
+     * getStats
+     * 
+     * This is a method to test the GET /employees/stats endpoint. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to EmployeeService.getStats
+     *   method then return the counts of 2 Managers and a Developer.
+     * - Call MockMvc.perform() to trigger the GET request.
+     * - Use MockMvc.andExpect() to compare the actual result vs expected values.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("GET /employees/stats is OK")
+	void getStats() throws Exception {
+		// Using the mock service, return the counts
+		when(service.getStats()).thenReturn(new EmployeeStats(3, 
+				Map.of("Manager", 2L, "Developer", 1L), 
+				Map.of(2001, 2L, 2002, 1L), 
+				Map.of("Manager", Map.of(2001, 2L), "Developer", Map.of(2002, 1L))));
+		
+		// Execute the request
+		mockMvc.perform(get("/employees/stats"))
+		
+			// Validate the response code and content type
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+		
+			// Validate the response body
+			.andExpect(jsonPath("$.total", is(3)))
+			.andExpect(jsonPath("$.byPosition.Manager", is(2)))
+			.andExpect(jsonPath("$.byHireYear['2002']", is(1)))
+			.andExpect(jsonPath("$.byPositionAndHireYear.Developer['2002']", is(1)));
+	}
+	
+    /***
+     * pollChanges
+     * 
+     * This is a method to test the long poll of the GET /employees/changes endpoint. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to EmployeeChangeFeed.poll
+     *   method then return a completed poll with a created employee.
+     * - Call MockMvc.perform() to trigger the GET request with a Last-Event-ID header and
+     *   check that the request was handled asynchronously.
+     * - Dispatch the async result and use MockMvc.andExpect() to compare the actual result
+     *   vs expected values.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("GET /employees/changes with Last-Event-ID is OK")
+	void pollChanges() throws Exception {
+		// Using the mock feed, return a poll completed with a created employee
+		DeferredResult<ChangeBatch> poll = new DeferredResult<>();
+		poll.setResult(new ChangeBatch(false, "run-2", 
+				List.of(new EmployeeChange("run-2", EmployeeChange.Type.CREATED, 1, this.mockEmployee))));
+		when(changeFeed.poll("run-1", null)).thenReturn(poll);
+		
+		// Execute the request
+		MvcResult result = mockMvc.perform(get("/employees/changes")
+				.header("Last-Event-ID", "run-1")
+				.accept(MediaType.APPLICATION_JSON))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		
+		// Validate the response code, content type and body
+		mockMvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(jsonPath("$.resync", is(false)))
+			.andExpect(jsonPath("$.lastEventId", is("run-2")))
+			.andExpect(jsonPath("$.changes[0].type", is("CREATED")))
+			.andExpect(jsonPath("$.changes[0].employee.employeeName", is("John")));
+	}
+	
     /***
      * getEmployeeByIdNotFound
      * 
@@ -239,6 +752,82 @@ public class EmployeeControllerTest {
             .andExpect(jsonPath("$.message", is("Unable to find employee with ID 999")));
 	}    
 	
+    /***
+     * getEmployeeByIdNotFoundMatchesError
+     * 
+     * This is a method to test that the 404 body written by the ErrorTemplate is the same 
+     *   as Jackson's serialization of the Error model, and that the NotFoundException has 
+     *   no stack trace. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenThrow to intercept any call to EmployeeService.getEmployeeById 
+     *   method then return an exception to simulate a resource not found scenario.
+     * - Call MockMvc.perform() to trigger the GET request.
+     * - Build an Error with the timestamp of the response and serialize it with the 
+     *   ObjectMapper of the application.
+     * - Compare both bodies.
+     * 
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("GET /employees/997 NOT FOUND body MATCHES the Error model")
+	void getEmployeeByIdNotFoundMatchesError() throws Exception {
+		// Using the mock service, return a NotFoundException when resource is not found 
+		NotFoundException notFound = new NotFoundException(997);
+		when(service.getEmployeeById(997)).thenThrow(notFound);
+		Assertions.assertEquals(0, notFound.getStackTrace().length);
+		
+		// Execute the request
+		String body = mockMvc.perform(get("/employees/{id}", 997))
+			.andExpect(status().isNotFound())
+			.andReturn().getResponse().getContentAsString();
+		
+		// Validate the response body against the Error model
+		JsonNode timestamp = objectMapper.readTree(body).get("timestamp");
+		Error error = new Error(objectMapper.treeToValue(timestamp, java.util.Date.class), 
+				"NotFoundException", "Unable to find employee with ID 997");
+		Assertions.assertEquals(objectMapper.writeValueAsString(error), body);
+	}
+	
+    /***
+     * getEmployeeByIdNotFoundIsMeasured
+     * 
+     * This is a method to test that a request failing with a handled exception is measured
+     *   with the exception type. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenThrow to intercept any call to EmployeeService.getEmployeeById 
+     *   method then return an exception to simulate a resource not found scenario.
+     * - Call MockMvc.perform() to trigger the GET request.
+     * - Use the MeterRegistry to check that the request timer has the exception tag.
+     * 
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("GET /employees/998 NOT FOUND is MEASURED")
+	void getEmployeeByIdNotFoundIsMeasured() throws Exception {
+		// Using the mock service, return a NotFoundException when resource is not found 
+		when(service.getEmployeeById(998)).thenThrow(new NotFoundException(998));
+		double before = requestCount("NotFoundException");
+		
+		// Execute the request
+		mockMvc.perform(get("/employees/{id}", 998))
+			.andExpect(status().isNotFound());
+		
+		// Validate the request timer
+		Assertions.assertEquals(before + 1, requestCount("NotFoundException"));
+	}
+	
+	private double requestCount(String exception) {
+		return meterRegistry.find("http.server.requests")
+				.tag("uri", "/employees/{employeeId}")
+				.tag("status", "404")
+				.tag("exception", exception)
+				.timers().stream()
+				.mapToDouble(timer -> timer.count())
+				.sum();
+	}
+	
     /***
      * addEmployeeSuccess
      * 
@@ -270,6 +859,123 @@ public class EmployeeControllerTest {
 			.andExpect(header().string(HttpHeaders.LOCATION, "/employees/1"));
 	}
 
+    /***
+     * addEmployeesGzipNdjson
+     * 
+     * This is a method to test the POST /employees:batch with a gzip-compressed NDJSON body. 
+     * 
+     * Here's the flow:
+     * - Compress two NDJSON lines with gzip.
+     * - Use Mockito's when-thenAnswer to intercept the call to EmployeeService.saveEmployees,
+     *   check that it gets the decompressed body then return one result per line.
+     * - Call MockMvc.perform() to trigger the POST request.
+     * - Use MockMvc.andExpect() to compare the actual result vs expected values.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("POST /employees:batch with gzip NDJSON is SUCCESSFUL")
+	void addEmployeesGzipNdjson() throws Exception {
+		String ndjson = "{\"employeeName\":\"John\"}\n{\"employeeName\":\"\"}\n";
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+			out.write(ndjson.getBytes(StandardCharsets.UTF_8));
+		}
+		
+		// Using the mock service, validate the decompressed body and return the results
+		when(service.saveEmployees(any())).thenAnswer(invocation -> {
+			InputStream body = invocation.getArgument(0);
+			Assertions.assertEquals(ndjson, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+			return Arrays.asList(
+					BatchItemResult.created(0, 4),
+					BatchItemResult.invalid(1, Arrays.asList("The employeeName should not be blank.")));
+		});
+		
+		// Execute the request
+		mockMvc.perform(post("/employees:batch")
+				.contentType("application/x-ndjson")
+				.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+				.content(gzip.toByteArray()))
+		
+			// Validate the response
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.[0].status", is("CREATED")))
+			.andExpect(jsonPath("$.[0].employeeId", is(4)))
+			.andExpect(jsonPath("$.[1].status", is("INVALID")))
+			.andExpect(jsonPath("$.[1].errors[0]", is("The employeeName should not be blank.")));
+	}
+
+    /***
+     * updateEmployeeMergePatch
+     * 
+     * This is a method to test the PATCH /employees/id with a JSON Merge Patch body. 
+     * 
+     * Here's the flow:
+     * - Call MockMvc.perform() to trigger the PATCH request with only the position field.
+     * - Use MockMvc.andExpect() to validate the response code.
+     * - Use Mockito's verify to check that the service got the patch as is.
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("PATCH /employees/1 with merge patch is SUCCESSFUL")
+	void updateEmployeeMergePatch() throws Exception {
+		// Execute the request
+		mockMvc.perform(patch("/employees/{id}", 1)
+				.contentType(EmployeeController.MERGE_PATCH_JSON_VALUE)
+				.content("{\"position\":\"Director\",\"dateHired\":null}"))
+		
+			// Validate the response code
+			.andExpect(status().isNoContent());
+		
+		verify(service).updateEmployee(
+				argThat(patch -> patch.size() == 2 
+						&& "Director".equals(patch.get("position").asText())
+						&& patch.get("dateHired").isNull()), 
+				eq(1),
+				isNull());
+	}
+
+    /***
+     * updateEmployeeIfMatch
+     * 
+     * This is a method to test the PATCH /employees/id with an If-Match header. 
+     * 
+     * Here's the flow:
+     * - Call MockMvc.perform() to trigger the PATCH request with the ETag of version 3.
+     * - Use Mockito's verify to check that the service got version 3 as the expected version.
+     * - Use Mockito's doThrow-when to simulate a newer version then check for the 412.
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("PATCH /employees/1 with If-Match is checked")
+	void updateEmployeeIfMatch() throws Exception {
+		// Execute the request
+		mockMvc.perform(patch("/employees/{id}", 1)
+				.contentType(EmployeeController.MERGE_PATCH_JSON_VALUE)
+				.header(HttpHeaders.IF_MATCH, "\"3\"")
+				.content("{\"position\":\"Director\"}"))
+			.andExpect(status().isNoContent());
+		verify(service).updateEmployee(any(), eq(1), eq(3));
+		
+		// Using the mock service, simulate an employee that is no longer at version 2
+		doThrow(new PreconditionFailedException(1)).when(service).updateEmployee(any(), eq(1), eq(2));
+		mockMvc.perform(patch("/employees/{id}", 1)
+				.contentType(EmployeeController.MERGE_PATCH_JSON_VALUE)
+				.header(HttpHeaders.IF_MATCH, "\"2\"")
+				.content("{\"position\":\"Director\"}"))
+			.andExpect(status().isPreconditionFailed())
+			.andExpect(jsonPath("$.type", is("PreconditionFailedException")));
+		
+		// A weak ETag never matches with If-Match
+		mockMvc.perform(patch("/employees/{id}", 1)
+				.contentType(EmployeeController.MERGE_PATCH_JSON_VALUE)
+				.header(HttpHeaders.IF_MATCH, "W/\"3\"")
+				.content("{\"position\":\"Director\"}"))
+			.andExpect(status().isPreconditionFailed());
+	}
+
     /***
      * deleteEmployeeByIdFound
      * 
@@ -287,7 +993,7 @@ public class EmployeeControllerTest {
 	@DisplayName("DELETE /employees/1 is FOUND")
 	void deleteEmployeeByIdFound() throws Exception {
 		// Using the mock service, return the mock employee when getEmployeeById() is called
-        doNothing().when(service).deleteEmployee(1);
+        doNothing().when(service).deleteEmployee(1, null);
 		
 		// Execute the request
 		mockMvc.perform(delete("/employees/{id}", 1))
@@ -296,6 +1002,35 @@ public class EmployeeControllerTest {
 			.andExpect(status().isNoContent());
 	}
     
+    /***
+     * deleteEmployeeByIdConflict
+     * 
+     * This is a method to test the DELETE /employees/id when the employee is changed by
+     *   another request at the same time. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's doThrow-when to intercept any call to EmployeeService.deleteEmployee 
+     *   method then throw an optimistic locking exception.
+     * - Call MockMvc.perform() to trigger the DELETE request.
+     * - Use MockMvc.andExpect() to compare the actual result vs expected values.
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("DELETE /employees/1 changed concurrently is a CONFLICT")
+	void deleteEmployeeByIdConflict() throws Exception {
+		// Using the mock service, simulate a concurrent change of the employee
+        doThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1))
+        	.when(service).deleteEmployee(1, 0);
+		
+		// Execute the request
+		mockMvc.perform(delete("/employees/{id}", 1).header(HttpHeaders.IF_MATCH, "\"0\""))
+		
+			// Validate the response code and content type
+			.andExpect(status().isConflict())
+			.andExpect(jsonPath("$.type", is("ObjectOptimisticLockingFailureException")));
+	}
+    
     /***
      * deleteEmployeeByIdNotFound
      * 
@@ -314,7 +1049,7 @@ public class EmployeeControllerTest {
 	void deleteEmployeeByIdNotFound() throws Exception {
 		// Using the mock service, return a NotFoundException when resource is not found 
         Integer nonExistentId = 999;
-        doThrow(new NotFoundException(nonExistentId)).when(service).deleteEmployee(nonExistentId);
+        doThrow(new NotFoundException(nonExistentId)).when(service).deleteEmployee(nonExistentId, null);
 		
 		// Execute the request
 		mockMvc.perform(delete("/employees/{id}", nonExistentId))
@@ -0,0 +1,112 @@
+package com.example.employee.sys.json;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.example.employee.sys.entity.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/***
+ * EmployeeSerializerTest
+ *
+ * This is the test class for EmployeeSerializer. Like EmployeeProtobufTest, it runs without
+ *   the application context. Each employee is written by an ObjectMapper with
+ *   EmployeeJsonModule and by one without it, i.e. with the BeanSerializer of Jackson, and
+ *   the bytes have to be the same.
+ */
+public class EmployeeSerializerTest {
+
+	private static final List<String> TIME_ZONES = List.of(
+			"UTC", "Asia/Manila", "America/Los_Angeles", "Pacific/Kiritimati", "Pacific/Pago_Pago");
+
+	private static final List<Locale> LOCALES = List.of(
+			Locale.ROOT, Locale.US, Locale.forLanguageTag("th-TH"), Locale.forLanguageTag("ja-JP-u-ca-japanese"),
+			Locale.forLanguageTag("ar-EG-u-nu-arab"));
+
+    /***
+     * sameBytesAsReflection
+     *
+     * This is a method to test that the hand-written serializer writes the same JSON as
+     *   the reflection-based one of Jackson.
+     *
+     * Here's the flow:
+     * - Build the employees, with null fields, escaped names and dates around the edges
+     *   of the fast path, e.g. before 1583 and after 9999.
+     * - For each time zone and locale, write each employee and the whole list with both
+     *   mappers and compare the bytes.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST same bytes as reflection")
+	void sameBytesAsReflection() throws Exception {
+		List<Employee> employees = employees();
+		for (String timeZone : TIME_ZONES) {
+			for (Locale locale : LOCALES) {
+				ObjectMapper reflection = Jackson2ObjectMapperBuilder.json()
+						.timeZone(timeZone).locale(locale).build();
+				ObjectMapper tuned = Jackson2ObjectMapperBuilder.json()
+						.timeZone(timeZone).locale(locale).modulesToInstall(new EmployeeJsonModule()).build();
+
+				for (Employee employee : employees)
+					Assertions.assertEquals(reflection.writeValueAsString(employee), tuned.writeValueAsString(employee),
+							() -> timeZone + " " + locale);
+				Assertions.assertArrayEquals(reflection.writeValueAsBytes(employees), tuned.writeValueAsBytes(employees),
+						() -> timeZone + " " + locale);
+			}
+		}
+	}
+
+    /***
+     * sameBytesAsReflectionInCbor
+     *
+     * This is a method to test that the serializer also writes the same CBOR, the binary
+     *   format that ContentNegotiationConfiguration builds with the same modules.
+     *
+     * Here's the flow:
+     * - Write the employees with a CBOR mapper with and without EmployeeJsonModule.
+     * - Compare the bytes.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST same bytes as reflection in CBOR")
+	void sameBytesAsReflectionInCbor() throws Exception {
+		List<Employee> employees = employees();
+		ObjectMapper reflection = Jackson2ObjectMapperBuilder.cbor().build();
+		ObjectMapper tuned = Jackson2ObjectMapperBuilder.cbor().modulesToInstall(new EmployeeJsonModule()).build();
+
+		Assertions.assertArrayEquals(reflection.writeValueAsBytes(employees), tuned.writeValueAsBytes(employees));
+	}
+
+	private static List<Employee> employees() {
+		List<Employee> employees = new ArrayList<>();
+		employees.add(new Employee(1, "John Doe", "Developer", Date.valueOf("2001-01-01")));
+		employees.add(new Employee(2, "José \"Pepe\" Rizal\n", null, Date.valueOf("1999-12-31")));
+		employees.add(new Employee(-3, null, "Manager", null));
+		employees.add(new Employee(Integer.MAX_VALUE, "\u0000 😀", "", Date.valueOf("1583-01-01")));
+		employees.add(new Employee(5, "Old", "Developer", Date.valueOf("1582-10-15")));
+		employees.add(new Employee(6, "Older", "Developer", Date.valueOf("0001-01-01")));
+		employees.add(new Employee(7, "Last", "Developer", Date.valueOf("9999-12-31")));
+		employees.add(new Employee(8, "Later", "Developer",
+				new Date(LocalDate.of(10000, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli())));
+		// Every day of a leap year and of the daylight saving changes, at midnight UTC
+		for (int day = 0; day < 366; day++)
+			employees.add(new Employee(100 + day, "Day " + day, null,
+					new Date(LocalDate.of(2024, 1, 1).plusDays(day).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli())));
+		// A date read from the database is midnight of the default time zone
+		employees.add(new Employee(9, "Local", null, Date.valueOf(LocalDate.of(2020, 2, 29))));
+		// A millisecond before 1970-01-01 in UTC, where the days since then are negative
+		employees.add(new Employee(10, "Instant", null, new Date(-1)));
+		return employees;
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.employee.sys.load;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/***
+ * LoadOperation
+ * 
+ * One kind of request of the load test, e.g. GET /employees/{id}. The weight
+ *   is its share of the requests: an operation with weight 20 is sent twice as
+ *   often as one with weight 10.
+ *   
+ * The request supplier is called for every request and can return null when
+ *   the operation cannot be sent right now, e.g. a DELETE while there is 
+ *   nothing to delete. Another operation is sent instead.
+ *
+ */
+public class LoadOperation {
+	
+	private final String name;
+	private final int weight;
+	private final Supplier<HttpRequest> request;
+	private final Consumer<HttpResponse<String>> onResponse;
+	
+	public LoadOperation(String name, int weight, Supplier<HttpRequest> request) {
+		this(name, weight, request, response -> {});
+	}
+	
+	public LoadOperation(String name, int weight, Supplier<HttpRequest> request, 
+			Consumer<HttpResponse<String>> onResponse) {
+		this.name = name;
+		this.weight = weight;
+		this.request = request;
+		this.onResponse = onResponse;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	public int getWeight() {
+		return weight;
+	}
+	public HttpRequest newRequest() {
+		return request.get();
+	}
+	public void onResponse(HttpResponse<String> response) {
+		onResponse.accept(response);
+	}
+}
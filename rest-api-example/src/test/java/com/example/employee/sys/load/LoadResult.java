@@ -0,0 +1,141 @@
+package com.example.employee.sys.load;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/***
+ * LoadResult
+ * 
+ * The latencies and counts of the measured part of a load test run. The 
+ *   latencies are recorded in microseconds, twice:
+ *   
+ * 1. The response time is measured from the time the request was scheduled
+ *   to be sent. When the API or the generator falls behind, the requests 
+ *   that had to wait are measured with their wait. This is the latency the
+ *   users see and it does not suffer from coordinated omission.
+ *   
+ * 2. The service time is measured from the time the request was actually
+ *   sent. It is what a closed-model tool like JMeter reports, it is kept to
+ *   show the difference.
+ *
+ */
+public class LoadResult {
+	
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+	
+	private static final int SIGNIFICANT_DIGITS = 3;
+	
+	private final Duration duration;
+	private final Histogram responseTime = newHistogram();
+	private final Histogram serviceTime = newHistogram();
+	private final Map<String, Histogram> responseTimeByOperation = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> errorsByOperation = new ConcurrentHashMap<>();
+	private final LongAdder successes = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	
+	public LoadResult(Duration duration) {
+		this.duration = duration;
+	}
+	
+	void record(String operation, long intendedNanos, long sentNanos, long doneNanos, boolean success) {
+		long response = TimeUnit.NANOSECONDS.toMicros(doneNanos - intendedNanos);
+		responseTime.recordValue(Math.min(response, HIGHEST_TRACKABLE_MICROS));
+		serviceTime.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(doneNanos - sentNanos), HIGHEST_TRACKABLE_MICROS));
+		responseTimeByOperation.computeIfAbsent(operation, name -> newHistogram())
+			.recordValue(Math.min(response, HIGHEST_TRACKABLE_MICROS));
+		
+		if (success) {
+			successes.increment();
+		} else {
+			errors.increment();
+			errorsByOperation.computeIfAbsent(operation, name -> new LongAdder()).increment();
+		}
+	}
+	
+	/*
+	 * A request that was not sent because too many requests were outstanding.
+	 *   It counts as an error.
+	 */
+	void drop() {
+		dropped.increment();
+		errors.increment();
+	}
+	
+	public Histogram getResponseTime() {
+		return responseTime;
+	}
+	public Histogram getServiceTime() {
+		return serviceTime;
+	}
+	public long getSuccesses() {
+		return successes.sum();
+	}
+	public long getErrors() {
+		return errors.sum();
+	}
+	public long getDropped() {
+		return dropped.sum();
+	}
+	
+	/*
+	 * Successful requests per second over the measured duration.
+	 */
+	public double getThroughput() {
+		return successes.sum() / (duration.toMillis() / 1000d);
+	}
+	
+	public double getErrorRate() {
+		long total = successes.sum() + errors.sum();
+		return total == 0 ? 0 : (double) errors.sum() / total;
+	}
+	
+	public Duration getResponseTimePercentile(double percentile) {
+		return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(responseTime.getValueAtPercentile(percentile)));
+	}
+	
+	public void print(PrintStream out) {
+		out.printf("Duration:    %d s%n", duration.toSeconds());
+		out.printf("Throughput:  %.1f req/s%n", getThroughput());
+		out.printf("Requests:    %d ok, %d errors (%d dropped), error rate %.3f%%%n", 
+				getSuccesses(), getErrors(), getDropped(), getErrorRate() * 100);
+		out.println();
+		out.printf("%-24s %10s %10s %10s %10s %10s %10s%n", "Response time (ms)", "count", "p50", "p95", "p99", "p99.9", "max");
+		printRow(out, "all", responseTime);
+		responseTimeByOperation.entrySet().stream()
+			.sorted(Map.Entry.comparingByKey())
+			.forEach(entry -> printRow(out, entry.getKey(), entry.getValue()));
+		out.println();
+		out.printf("%-24s %10s %10s %10s %10s %10s %10s%n", "Service time (ms)", "count", "p50", "p95", "p99", "p99.9", "max");
+		printRow(out, "all", serviceTime);
+		
+		if (!errorsByOperation.isEmpty()) {
+			out.println();
+			errorsByOperation.forEach((operation, count) -> out.printf("Errors of %s: %d%n", operation, count.sum()));
+		}
+	}
+	
+	private static void printRow(PrintStream out, String name, Histogram histogram) {
+		out.printf("%-24s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(),
+				millis(histogram.getValueAtPercentile(50)),
+				millis(histogram.getValueAtPercentile(95)),
+				millis(histogram.getValueAtPercentile(99)),
+				millis(histogram.getValueAtPercentile(99.9)),
+				millis(histogram.getMaxValue()));
+	}
+	
+	private static double millis(long micros) {
+		return micros / 1000d;
+	}
+	
+	private static Histogram newHistogram() {
+		return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+	}
+}
@@ -0,0 +1,266 @@
+package com.example.employee.sys.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.example.employee.sys.controller.EmployeeController;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/***
+ * LoadTest
+ * 
+ * This is the load test of the API. It starts the API on a random port with 
+ *   the main configuration, so the default profile runs against the in-memory
+ *   H2 database. Another profile can be used with -Dspring.profiles.active.
+ *   
+ * It is tagged "load" and only runs with the loadtest Maven profile:
+ * 
+ *   ./mvnw -P loadtest test -Dload.rate=500 -Dload.duration=2m
+ *   
+ * Here's the flow:
+ * - Create the seed employees with POST /employees:batch.
+ * - Send a mix of employee requests, and author requests when load.authors-url
+ *   points to a running jsonview-example, at load.rate requests per second 
+ *   with the OpenModelLoadGenerator.
+ * - Print the results and write them to target/load-test.
+ * - Fail when the p99 response time, the throughput or the error rate misses
+ *   its target.
+ *   
+ * The settings are read from system properties, with these defaults:
+ *   load.rate=200                    requests per second
+ *   load.warmup=15s, load.duration=60s
+ *   load.max-outstanding=1000        requests in flight before dropping
+ *   load.seed-rows=1000              employees created before the run
+ *   load.authors-url=                e.g. http://localhost:8080
+ *   load.bearer-token=               sent as Authorization: Bearer, for Keycloak
+ *   load.target.p99=100ms
+ *   load.target.throughput-ratio=0.98  share of load.rate that must succeed
+ *   load.target.error-rate=0.001
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = "spring.config.location=file:src/main/resources/")
+public class LoadTest {
+	
+	private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+	
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+	
+	private static final Path REPORT_DIR = Paths.get("target", "load-test");
+	
+	@LocalServerPort
+	private int port;
+	
+	@Value("${load.rate:200}")
+	private double rate;
+	
+	@Value("${load.warmup:15s}")
+	private Duration warmup;
+	
+	@Value("${load.duration:60s}")
+	private Duration duration;
+	
+	@Value("${load.max-outstanding:1000}")
+	private int maxOutstanding;
+	
+	@Value("${load.seed-rows:1000}")
+	private int seedRows;
+	
+	@Value("${load.authors-url:}")
+	private String authorsUrl;
+	
+	@Value("${load.bearer-token:}")
+	private String bearerToken;
+	
+	@Value("${load.target.p99:100ms}")
+	private Duration targetP99;
+	
+	@Value("${load.target.throughput-ratio:0.98}")
+	private double targetThroughputRatio;
+	
+	@Value("${load.target.error-rate:0.001}")
+	private double targetErrorRate;
+	
+	private final ObjectMapper mapper = new ObjectMapper();
+	
+	private final HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(REQUEST_TIMEOUT)
+			.build();
+	
+	/***
+     * employeesAndAuthorsMix
+     * 
+     * This is the load test of the mix of employee and author requests. 
+     * 
+     * Here's the mix of requests:
+     * - 40% GET /employees/{id} of a seed employee
+     * - 25% GET /employees
+     * - 10% POST /employees
+     * - 10% PATCH /employees/{id} of a seed employee
+     * - 5% DELETE /employees/{id} of an employee created by the test
+     * - 10% GET /authors, /authors/withBooks and /authors/all, only with 
+     *   load.authors-url
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	@DisplayName("LOAD employees and authors")
+	void employeesAndAuthorsMix() throws Exception {
+		List<Integer> seedIds = seedEmployees();
+		Queue<Integer> createdIds = new ConcurrentLinkedQueue<>();
+		
+		List<LoadOperation> operations = new ArrayList<>();
+		operations.add(new LoadOperation("GET /employees/{id}", 40, 
+				() -> request("/employees/" + randomOf(seedIds)).GET().build()));
+		operations.add(new LoadOperation("GET /employees", 25, 
+				() -> request("/employees").GET().build()));
+		operations.add(new LoadOperation("POST /employees", 10, 
+				() -> request("/employees")
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.POST(HttpRequest.BodyPublishers.ofString(employeeJson("Load Test")))
+						.build(),
+				response -> response.headers().firstValue(HttpHeaders.LOCATION)
+						.ifPresent(location -> createdIds.add(idOf(location)))));
+		operations.add(new LoadOperation("PATCH /employees/{id}", 10, 
+				() -> request("/employees/" + randomOf(seedIds))
+						.header(HttpHeaders.CONTENT_TYPE, EmployeeController.MERGE_PATCH_JSON_VALUE)
+						.method("PATCH", HttpRequest.BodyPublishers.ofString(
+								"{\"position\":\"Position " + ThreadLocalRandom.current().nextInt(100) + "\"}"))
+						.build()));
+		operations.add(new LoadOperation("DELETE /employees/{id}", 5, () -> {
+			Integer id = createdIds.poll();
+			return id == null ? null : request("/employees/" + id).DELETE().build();
+		}));
+		if (!authorsUrl.isBlank()) {
+			operations.add(new LoadOperation("GET /authors", 5, 
+					() -> authorRequest("/authors")));
+			operations.add(new LoadOperation("GET /authors/withBooks", 3, 
+					() -> authorRequest("/authors/withBooks")));
+			operations.add(new LoadOperation("GET /authors/all", 2, 
+					() -> authorRequest("/authors/all")));
+		}
+		
+		OpenModelLoadGenerator generator = 
+				new OpenModelLoadGenerator(client, rate, warmup, duration, maxOutstanding);
+		LoadResult result = generator.run(operations);
+		report(result);
+		
+		// Validate the targets
+		Duration p99 = result.getResponseTimePercentile(99);
+		Assertions.assertTrue(p99.compareTo(targetP99) <= 0, 
+				String.format("The p99 response time %d ms is over the target of %d ms", 
+						p99.toMillis(), targetP99.toMillis()));
+		Assertions.assertTrue(result.getThroughput() >= rate * targetThroughputRatio, 
+				String.format("The throughput %.1f req/s is under the target of %.1f req/s", 
+						result.getThroughput(), rate * targetThroughputRatio));
+		Assertions.assertTrue(result.getErrorRate() <= targetErrorRate, 
+				String.format("The error rate %.4f is over the target of %.4f", 
+						result.getErrorRate(), targetErrorRate));
+	}
+	
+	private List<Integer> seedEmployees() throws IOException, InterruptedException {
+		String body = IntStream.rangeClosed(1, seedRows)
+				.mapToObj(i -> employeeJson("Seed Employee " + i))
+				.collect(Collectors.joining("\n"));
+		HttpResponse<String> response = client.send(
+				request("/employees:batch")
+					.timeout(Duration.ofMinutes(1))
+					.header(HttpHeaders.CONTENT_TYPE, "application/x-ndjson")
+					.POST(HttpRequest.BodyPublishers.ofString(body))
+					.build(), 
+				HttpResponse.BodyHandlers.ofString());
+		Assertions.assertEquals(200, response.statusCode(), "Unable to create the seed employees: " + response.body());
+		
+		List<Integer> ids = new ArrayList<>();
+		for (JsonNode item : mapper.readTree(response.body()))
+			if (item.has("employeeId"))
+				ids.add(item.get("employeeId").asInt());
+		Assertions.assertFalse(ids.isEmpty(), "No seed employees were created");
+		return ids;
+	}
+	
+	private void report(LoadResult result) throws IOException {
+		ByteArrayOutputStream summary = new ByteArrayOutputStream();
+		try (PrintStream out = new PrintStream(summary, true, StandardCharsets.UTF_8)) {
+			out.printf("Arrival rate: %.1f req/s%n", rate);
+			result.print(out);
+		}
+		logger.info("Load test results:{}{}", System.lineSeparator(), summary.toString(StandardCharsets.UTF_8));
+		
+		Files.createDirectories(REPORT_DIR);
+		Files.write(REPORT_DIR.resolve("summary.txt"), summary.toByteArray());
+		writeHistogram(result.getResponseTime(), REPORT_DIR.resolve("response-time.hgrm"));
+		writeHistogram(result.getServiceTime(), REPORT_DIR.resolve("service-time.hgrm"));
+	}
+	
+	/*
+	 * Writes the percentile distribution in milliseconds. The .hgrm files can
+	 *   be plotted with https://hdrhistogram.github.io/HdrHistogram/plotFiles.html
+	 */
+	private static void writeHistogram(Histogram histogram, Path path) throws IOException {
+		try (PrintStream out = new PrintStream(new FileOutputStream(path.toFile()), true, StandardCharsets.UTF_8)) {
+			histogram.outputPercentileDistribution(out, 1000d);
+		}
+	}
+	
+	private HttpRequest.Builder request(String path) {
+		return withToken(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)));
+	}
+	
+	private HttpRequest authorRequest(String path) {
+		return withToken(HttpRequest.newBuilder(URI.create(authorsUrl + path))).GET().build();
+	}
+	
+	private HttpRequest.Builder withToken(HttpRequest.Builder builder) {
+		builder.timeout(REQUEST_TIMEOUT);
+		if (!bearerToken.isBlank())
+			builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+		return builder;
+	}
+	
+	private static String employeeJson(String name) {
+		return String.format("{\"employeeName\":\"%s\",\"position\":\"Developer\",\"dateHired\":\"2020-01-01\"}", name);
+	}
+	
+	private static Integer randomOf(List<Integer> ids) {
+		return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+	}
+	
+	private static Integer idOf(String location) {
+		return Integer.valueOf(location.substring(location.lastIndexOf('/') + 1));
+	}
+}
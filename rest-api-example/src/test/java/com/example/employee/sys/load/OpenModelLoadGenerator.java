@@ -0,0 +1,131 @@
+package com.example.employee.sys.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/***
+ * OpenModelLoadGenerator
+ * 
+ * Sends requests at a fixed arrival rate, whatever the response times are.
+ *   This is an open model: like real users, new requests keep arriving while
+ *   the API is slow. A closed model (a fixed number of threads that each wait
+ *   for their response, like the JMeter plans) sends less when the API slows
+ *   down and hides the latency the users would see.
+ *   
+ * Here's how it works:
+ * - The n-th request is scheduled at start + n / rate. The generator thread
+ *   sleeps until then and sends it asynchronously, it never waits for a 
+ *   response.
+ * - The latency is measured from the scheduled time. If the generator is late
+ *   (e.g. a GC pause), the delay is part of the latency.
+ * - Requests sent during the warmup are not measured.
+ * - At most maxOutstanding requests are in flight. Past that the API is not
+ *   keeping up anyway, and the requests are dropped and counted as errors
+ *   instead of exhausting the connections of the generator.
+ *
+ */
+public class OpenModelLoadGenerator {
+	
+	private static final int MAX_PICKS = 10;
+	
+	private final HttpClient client;
+	private final double rate;
+	private final Duration warmup;
+	private final Duration duration;
+	private final int maxOutstanding;
+	
+	public OpenModelLoadGenerator(HttpClient client, double rate, Duration warmup, Duration duration, int maxOutstanding) {
+		if (rate <= 0)
+			throw new IllegalArgumentException("The arrival rate should be greater than 0.");
+		this.client = client;
+		this.rate = rate;
+		this.warmup = warmup;
+		this.duration = duration;
+		this.maxOutstanding = maxOutstanding;
+	}
+	
+	public LoadResult run(List<LoadOperation> operations) throws InterruptedException {
+		int totalWeight = operations.stream().mapToInt(LoadOperation::getWeight).sum();
+		LoadResult result = new LoadResult(duration);
+		AtomicInteger outstanding = new AtomicInteger();
+		
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		long end = measureFrom + duration.toNanos();
+		double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		
+		for (long n = 0; ; n++) {
+			long intended = start + (long) (n * intervalNanos);
+			if (intended >= end)
+				break;
+			
+			long now;
+			while ((now = System.nanoTime()) < intended)
+				LockSupport.parkNanos(intended - now);
+			
+			boolean measured = intended >= measureFrom;
+			if (outstanding.get() >= maxOutstanding) {
+				if (measured)
+					result.drop();
+				continue;
+			}
+			
+			LoadOperation operation = null;
+			HttpRequest request = null;
+			for (int pick = 0; request == null && pick < MAX_PICKS; pick++) {
+				operation = pick(operations, totalWeight);
+				request = operation.newRequest();
+			}
+			if (request == null)
+				continue;
+			
+			send(operation, request, intended, measured, outstanding, result);
+		}
+		
+		awaitOutstanding(outstanding);
+		return result;
+	}
+	
+	private void send(LoadOperation operation, HttpRequest request, long intended, boolean measured,
+			AtomicInteger outstanding, LoadResult result) {
+		outstanding.incrementAndGet();
+		long sent = System.nanoTime();
+		CompletableFuture<HttpResponse<String>> response = 
+				client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+		response.whenComplete((value, error) -> {
+			long done = System.nanoTime();
+			outstanding.decrementAndGet();
+			boolean success = error == null && value.statusCode() < 400;
+			if (measured)
+				result.record(operation.getName(), intended, sent, done, success);
+			if (success)
+				operation.onResponse(value);
+		});
+	}
+	
+	private static LoadOperation pick(List<LoadOperation> operations, int totalWeight) {
+		int value = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (LoadOperation operation : operations) {
+			value -= operation.getWeight();
+			if (value < 0)
+				return operation;
+		}
+		return operations.get(operations.size() - 1);
+	}
+	
+	/*
+	 * Waits for the requests in flight, each one has its own timeout.
+	 */
+	private static void awaitOutstanding(AtomicInteger outstanding) throws InterruptedException {
+		while (outstanding.get() > 0)
+			TimeUnit.MILLISECONDS.sleep(10);
+	}
+}
@@ -0,0 +1,186 @@
+package com.example.employee.sys.projection;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeStats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/***
+ * EmployeeProjectionTest
+ *
+ * This is the test class for EmployeeProjection and EmployeeColumns. They hold no Spring
+ *   dependency, so the projection is created directly instead of loading the application
+ *   context.
+ */
+public class EmployeeProjectionTest {
+
+    /***
+     * loadThenWrite
+     *
+     * This is a method to test the load of the projection and the writes that follow it.
+     *
+     * Here's the flow:
+     * - Begin a load, add 3 employees to it and put a 4th one while it is loading.
+     * - Finish the load and check that the 4th employee was applied on top of the others.
+     * - Keep the snapshot, update and delete an employee, and check the counts of the old
+     *   and the new snapshot.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST loadThenWrite")
+	void loadThenWrite() throws Exception {
+		EmployeeProjection projection = new EmployeeProjection(true);
+
+		// Load the projection, with a write in the middle
+		EmployeeProjection.ColumnsLoader loader = projection.beginLoad();
+		loader.add(new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")));
+		loader.add(new Employee(2, "Jane", "Developer", Date.valueOf("2002-02-02")));
+		projection.put(new Employee(4, "Jack", "Developer", Date.valueOf("2002-12-31")));
+		loader.add(new Employee(3, "James", "Developer", null));
+		Assertions.assertFalse(projection.isReady());
+		projection.finishLoad(loader);
+
+		// Validate the loaded snapshot
+		EmployeeColumns loaded = projection.snapshot();
+		Assertions.assertTrue(projection.isReady());
+		Assertions.assertEquals(4, loaded.size());
+		EmployeeStats stats = loaded.stats();
+		Assertions.assertEquals(4, stats.getTotal());
+		Assertions.assertEquals(Map.of("Manager", 1L, "Developer", 3L), stats.getByPosition());
+		Assertions.assertEquals(Map.of(2001, 1L, 2002, 2L), stats.getByHireYear());
+		Assertions.assertEquals(Map.of("Manager", Map.of(2001, 1L), "Developer", Map.of(2002, 2L)), 
+				stats.getByPositionAndHireYear());
+		Assertions.assertEquals(2, loaded.countHired(LocalDate.of(2002, 1, 1), LocalDate.of(2002, 12, 31), "Developer"));
+
+		// Update and delete employees, the loaded snapshot does not change
+		projection.put(new Employee(2, "Jane", "Manager", Date.valueOf("2002-02-02")));
+		projection.remove(4);
+		EmployeeColumns changed = projection.snapshot();
+		Assertions.assertEquals(Map.of("Manager", 1L, "Developer", 3L), loaded.stats().getByPosition());
+		Assertions.assertEquals(3, changed.size());
+		Assertions.assertEquals(Map.of("Manager", 2L, "Developer", 1L), changed.stats().getByPosition());
+		Assertions.assertEquals(0, changed.countHired(LocalDate.of(2002, 1, 1), LocalDate.of(2002, 12, 31), "Developer"));
+		Assertions.assertEquals(0, changed.countHired(LocalDate.MIN, LocalDate.MAX, "Director"));
+	}
+
+    /***
+     * reloadWhileReady
+     *
+     * This is a method to test that loading the projection again replaces the rows, e.g.
+     *   with the ones written by another instance, and keeps it readable in the meantime.
+     *
+     * Here's the flow:
+     * - Load 2 employees.
+     * - Begin another load, where one of them has another position, and put a 3rd one
+     *   while it is loading.
+     * - Check that the old rows and the 3rd employee are read until the load finishes.
+     * - Finish the load and check that the new rows and the 3rd employee are read.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reloadWhileReady")
+	void reloadWhileReady() throws Exception {
+		EmployeeProjection projection = new EmployeeProjection(true);
+		EmployeeProjection.ColumnsLoader loader = projection.beginLoad();
+		loader.add(new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")));
+		loader.add(new Employee(2, "Jane", "Developer", Date.valueOf("2002-02-02")));
+		projection.finishLoad(loader);
+
+		// Load again, Jane was made a Manager by another instance
+		EmployeeProjection.ColumnsLoader reloader = projection.beginLoad();
+		reloader.add(new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")));
+		projection.put(new Employee(3, "Jack", "Developer", Date.valueOf("2003-03-03")));
+		reloader.add(new Employee(2, "Jane", "Manager", Date.valueOf("2002-02-02")));
+		Assertions.assertTrue(projection.isReady());
+		Assertions.assertEquals(Map.of("Manager", 1L, "Developer", 2L), projection.snapshot().stats().getByPosition());
+		projection.finishLoad(reloader);
+
+		// Validate the reloaded snapshot
+		Assertions.assertTrue(projection.isReady());
+		Assertions.assertEquals(3, projection.snapshot().size());
+		Assertions.assertEquals(Map.of("Manager", 2L, "Developer", 1L), projection.snapshot().stats().getByPosition());
+	}
+
+    /***
+     * statsOfEveryGroup
+     *
+     * This is a method to test the counts of GET /employees/stats when an employee has no
+     *   position or no dateHired, or was hired outside of the table of years.
+     *
+     * Here's the flow:
+     * - Load employees hired in 1850, 2020 and 2250, one without a dateHired and one
+     *   without a position.
+     * - Check that each one is counted in the total and only in the groups it has a value
+     *   for.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST statsOfEveryGroup")
+	void statsOfEveryGroup() throws Exception {
+		EmployeeProjection projection = new EmployeeProjection(true);
+		EmployeeProjection.ColumnsLoader loader = projection.beginLoad();
+		loader.add(new Employee(1, "Old", "Manager", Date.valueOf("1850-03-01")));
+		loader.add(new Employee(2, "Now", "Manager", Date.valueOf("2020-03-01")));
+		loader.add(new Employee(3, "Later", "Developer", Date.valueOf("2250-03-01")));
+		loader.add(new Employee(4, "Undated", "Developer", null));
+		loader.add(new Employee(5, "Unplaced", null, Date.valueOf("2020-06-01")));
+		projection.finishLoad(loader);
+
+		// Validate the counts
+		EmployeeStats stats = projection.snapshot().stats();
+		Assertions.assertEquals(5, stats.getTotal());
+		Assertions.assertEquals(Map.of("Manager", 2L, "Developer", 2L), stats.getByPosition());
+		Assertions.assertEquals(Map.of(1850, 1L, 2020, 2L, 2250, 1L), stats.getByHireYear());
+		Assertions.assertEquals(Map.of("Manager", Map.of(1850, 1L, 2020, 1L), "Developer", Map.of(2250, 1L)),
+				stats.getByPositionAndHireYear());
+	}
+
+    /***
+     * removeManyThenCompact
+     *
+     * This is a method to test that the columns stay correct across chunks and after the
+     *   deleted rows are compacted.
+     *
+     * Here's the flow:
+     * - Load 3 chunks worth of employees, with 2 positions and hire years 2000 to 2009.
+     * - Delete every other employee, which compacts the columns.
+     * - Check the counts and that the compacted columns take less memory.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST removeManyThenCompact")
+	void removeManyThenCompact() throws Exception {
+		int rows = 3 * EmployeeColumns.CHUNK_SIZE;
+		EmployeeProjection projection = new EmployeeProjection(true);
+		EmployeeProjection.ColumnsLoader loader = projection.beginLoad();
+		for (int id = 1; id <= rows; id++)
+			loader.add(new Employee(id, "Employee " + id, id % 2 == 0 ? "Developer" : "Manager",
+					Date.valueOf(LocalDate.of(2000 + id % 10, 6, 1))));
+		projection.finishLoad(loader);
+		long loadedBytes = projection.snapshot().columnBytes();
+
+		// Delete the Managers
+		for (int id = 1; id <= rows; id += 2)
+			projection.remove(id);
+
+		// Validate the counts
+		EmployeeColumns columns = projection.snapshot();
+		Assertions.assertEquals(rows / 2, columns.size());
+		EmployeeStats stats = columns.stats();
+		Assertions.assertEquals(rows / 2, stats.getTotal());
+		Assertions.assertEquals(Map.of("Developer", (long) rows / 2), stats.getByPosition());
+		Assertions.assertEquals(rows / 10, stats.getByHireYear().get(2000));
+		Assertions.assertNull(stats.getByHireYear().get(2001));
+		Assertions.assertTrue(columns.columnBytes() < loadedBytes, "The deleted rows were not compacted.");
+	}
+}
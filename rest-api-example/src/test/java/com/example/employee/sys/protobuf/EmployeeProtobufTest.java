@@ -0,0 +1,90 @@
+package com.example.employee.sys.protobuf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Date;
+import java.util.List;
+
+import com.example.employee.sys.entity.Employee;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/***
+ * EmployeeProtobufTest
+ *
+ * This is the test class for EmployeeProtobuf. Like HeadcountCountersTest, it runs without
+ *   the application context. The expected bytes are the encoding of the messages of
+ *   static/proto/employee.proto, so a change of a field number or type fails here before
+ *   it breaks a client.
+ */
+public class EmployeeProtobufTest {
+
+	/*
+	 * employee_id = 1, employee_name = "A", date_hired = 1 (1970-01-02), no position
+	 */
+	private static final byte[] EMPLOYEE = { 0x08, 0x01, 0x12, 0x01, 'A', 0x20, 0x01 };
+
+    /***
+     * writeMatchesProto
+     *
+     * This is a method to test that the employees are written as the messages of the
+     *   .proto file.
+     *
+     * Here's the flow:
+     * - Write an employee without a position and compare the bytes with the Employee message.
+     * - Write a list of it and compare the bytes with the EmployeeList message.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST write matches the proto")
+	void writeMatchesProto() throws Exception {
+		Employee employee = new Employee(1, "A", null, Date.valueOf("1970-01-02"));
+
+		ByteArrayOutputStream single = new ByteArrayOutputStream();
+		EmployeeProtobuf.writeEmployee(employee, single);
+		Assertions.assertArrayEquals(EMPLOYEE, single.toByteArray());
+
+		ByteArrayOutputStream list = new ByteArrayOutputStream();
+		EmployeeProtobuf.writeEmployees(List.of(employee), list);
+		Assertions.assertArrayEquals(new byte[] { 0x0a, 0x07, 0x08, 0x01, 0x12, 0x01, 'A', 0x20, 0x01 },
+				list.toByteArray());
+	}
+
+    /***
+     * readSkipsUnknownFields
+     *
+     * This is a method to test that the messages are read back, and that a field added to
+     *   the .proto later is skipped.
+     *
+     * Here's the flow:
+     * - Read the Employee message followed by a field 9 and check the employee.
+     * - Write and read a list of two employees and check that they come back the same.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST read skips unknown fields")
+	void readSkipsUnknownFields() throws Exception {
+		byte[] withNewField = { 0x08, 0x01, 0x12, 0x01, 'A', 0x20, 0x01, 0x48, 0x05 };
+		Employee read = EmployeeProtobuf.readEmployee(new ByteArrayInputStream(withNewField));
+		Assertions.assertEquals(1, read.getEmployeeId());
+		Assertions.assertEquals("A", read.getEmployeeName());
+		Assertions.assertNull(read.getPosition());
+		Assertions.assertEquals(Date.valueOf("1970-01-02"), read.getDateHired());
+
+		List<Employee> employees = List.of(
+				new Employee(7, "José Rizal", "Developer", Date.valueOf("1999-12-31")),
+				new Employee(8, "Jane", null, null));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		EmployeeProtobuf.writeEmployees(employees, out);
+		List<Employee> back = EmployeeProtobuf.readEmployees(new ByteArrayInputStream(out.toByteArray()));
+		Assertions.assertEquals(2, back.size());
+		Assertions.assertEquals("José Rizal", back.get(0).getEmployeeName());
+		Assertions.assertEquals(Date.valueOf("1999-12-31"), back.get(0).getDateHired());
+		Assertions.assertEquals(8, back.get(1).getEmployeeId());
+		Assertions.assertNull(back.get(1).getDateHired());
+	}
+}
@@ -1,16 +1,39 @@
 package com.example.employee.sys.service;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.example.employee.sys.cache.EmployeeCache;
+import com.example.employee.sys.entity.BatchItemResult;
 import com.example.employee.sys.entity.Employee;
+import com.example.employee.sys.entity.EmployeeStats;
+import com.example.employee.sys.exceptions.BadRequestException;
 import com.example.employee.sys.exceptions.NotFoundException;
+import com.example.employee.sys.exceptions.PreconditionFailedException;
 import com.example.employee.sys.repository.EmployeeRepository;
+import com.example.employee.sys.repository.EmployeeRepository.HeadcountRow;
+import com.example.employee.sys.search.EmployeeSearchIndex;
+import com.example.employee.sys.stats.HeadcountCounters;
+import com.example.employee.sys.stats.HeadcountKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +42,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 /***
  * EmployeeServiceTest
@@ -43,12 +71,27 @@ public class EmployeeServiceTest {
 	
 	@MockBean
 	EmployeeRepository repo;
+	
+	@Autowired
+	EmployeeCache cache;
+	
+	@Autowired
+	EmployeeSearchIndex searchIndex;
+	
+	@Autowired
+	HeadcountCounters stats;
 
     private Employee mockEmployee;
 	
     @BeforeEach
     void init() {
         this.mockEmployee = new Employee(1, "John", "Manager", Date.valueOf("2001-01-01"));
+        // The cache outlives each test, start every test with an empty one
+        this.cache.evictAll();
+        // Same for the search index, which is cold until a test loads it
+        this.searchIndex.clear();
+        // And the headcount counters, which are cold until a test reconciles them
+        this.stats.clear();
     }
 
     /***
@@ -81,7 +124,7 @@ public class EmployeeServiceTest {
 		when(repo.findAll()).thenReturn(list);
 		
 		// Call the service
-		List<Employee> returnedList = (List<Employee>) service.getEmployees();
+		List<Employee> returnedList = service.getEmployees();
 		
 		// Validate the result
 		Assertions.assertFalse(returnedList.isEmpty(), "No result.");
@@ -89,6 +132,116 @@ public class EmployeeServiceTest {
         // do some more assertions
 	}
 
+    /***
+     * getEmployeesByCursor
+     * 
+     * This is a method to test the EmployeeService.getEmployees method with a cursor. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the keyset query of the JPA repository
+     *   then return a slice with the employees after the cursor.
+     * - Call the EmployeeService.getEmployees method with a limit above the maximum.
+     * - Use Assertions to compare the actual result vs expected values and verify that the 
+     *   limit was capped to the maximum page size before it reached the repository.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("TEST getEmployeesByCursor")
+	void getEmployeesByCursor() throws Exception {
+		// Using the mock repo, return the employees after ID 1
+		List<Employee> list = 
+            Arrays.asList(
+                new Employee(2, "Jane", "Director", Date.valueOf("2002-02-02")),
+                new Employee(3, "James", "Supervisor", Date.valueOf("2003-03-03"))
+            );
+		when(repo.findByEmployeeIdGreaterThan(eq(1), any())).thenReturn(new SliceImpl<Employee>(list));
+		
+		// Call the service
+		Slice<Employee> slice = service.getEmployees(1, null, 100000);
+		
+		// Validate the result
+		Assertions.assertEquals(2, slice.getNumberOfElements());
+		Assertions.assertEquals("Jane", slice.getContent().get(0).getEmployeeName());
+		verify(repo).findByEmployeeIdGreaterThan(1, PageRequest.of(0, 100, Sort.by("employeeId")));
+	}
+
+    /***
+     * getEmployeesByPage
+     * 
+     * This is a method to test the EmployeeService.getEmployees method with a 1-based page 
+     *   number. The repository receives the 0-based page and the default limit.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("TEST getEmployeesByPage")
+	void getEmployeesByPage() throws Exception {
+		// Using the mock repo, return an empty slice for any page
+		when(repo.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<Employee>(Arrays.asList()));
+		
+		// Call the service
+		service.getEmployees(null, 3, null);
+		
+		// Validate that page 3 is the third slice of 20 employees
+		verify(repo).findAllBy(PageRequest.of(2, 20, Sort.by("employeeId")));
+	}
+
+    /***
+     * getEmployeesInvalidParameters
+     * 
+     * This is a method to test the EmployeeService.getEmployees method with invalid query
+     *   parameters. 
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("TEST getEmployeesInvalidParameters")
+	void getEmployeesInvalidParameters() throws Exception {
+        // Validate that we get a BadRequestException for each invalid combination
+		Assertions.assertThrows(BadRequestException.class, () -> service.getEmployees(null, 0, null));
+		Assertions.assertThrows(BadRequestException.class, () -> service.getEmployees(null, null, 0));
+		Assertions.assertThrows(BadRequestException.class, () -> service.getEmployees(1, 1, null));
+	}
+
+    /***
+     * exportEmployees
+     * 
+     * This is a method to test the EmployeeService.exportEmployees method. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository streamAll
+     *   method then return a stream of mock employees.
+     * - Call the EmployeeService.exportEmployees method for NDJSON and then CSV.
+     * - Use Assertions to compare the exported lines vs expected values.
+     * 
+     * @throws Exception
+     */    
+	@Test
+	@DisplayName("TEST exportEmployees")
+	void exportEmployees() throws Exception {
+		// Using the mock repo, return a new stream of mock employees on each call
+		when(repo.streamAll()).then(invocation -> Arrays.asList(
+				new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")),
+				new Employee(2, "Doe, \"Jane\"", null, null)).stream());
+		
+		// Call the service and validate the NDJSON output, one employee per line
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		Assertions.assertEquals(2, service.exportEmployees(ndjson, ExportFormat.NDJSON));
+		String[] lines = ndjson.toString(StandardCharsets.UTF_8.name()).split("\n");
+		Assertions.assertEquals(2, lines.length);
+		Assertions.assertTrue(lines[0].startsWith("{\"employeeId\":1,\"employeeName\":\"John\""));
+		
+		// Call the service and validate the CSV output, with the header row
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		Assertions.assertEquals(2, service.exportEmployees(csv, ExportFormat.CSV));
+		Assertions.assertEquals(
+				"employeeId,employeeName,position,dateHired\r\n"
+				+ "1,John,Manager,2001-01-01\r\n"
+				+ "2,\"Doe, \"\"Jane\"\"\",,\r\n",
+				csv.toString(StandardCharsets.UTF_8.name()));
+	}
+
     /***
      * getEmployeeByIdFound
      * 
@@ -98,28 +251,28 @@ public class EmployeeServiceTest {
      * Here's the flow:
      * - No need to setup the test data here as it is handled by the init method with the 
      *   @BeforeEach annotation.
-     * - Use Mockito's when-thenReturn to intercept the call to the following JPA repository
-     *   methods:
-     *     - when existsById then return true.
-     *     - when findById then return a mock object which is the mock employee.
-     * - Call the EmployeeService.getEmployeeById method.
-     * - Use Assertions to compare the actual result vs expected values.
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository findById 
+     *   method then return a mock object which is the mock employee.
+     * - Call the EmployeeService.getEmployeeById method twice.
+     * - Use Assertions to compare the actual result vs expected values and verify that only
+     *   the first call reached the repository. The second one is served by the cache.
      * 
      * @throws Exception
      */     
 	@Test
 	@DisplayName("TEST getEmployeeByIdFound")
 	void getEmployeeByIdFound() throws Exception {
-		// Use the mock repo to get mock a return value from existsById() and findById()
-        when(repo.existsById(1)).thenReturn(true);
+		// Use the mock repo to get mock a return value from findById()
 		when(repo.findById(1)).thenReturn(Optional.of(this.mockEmployee));
 		
 		// Call the service
 		Optional<Employee> returnedEmployee = service.getEmployeeById(1);
+		Optional<Employee> cachedEmployee = service.getEmployeeById(1);
 		
 		// Validate the result
 		Assertions.assertEquals(this.mockEmployee, returnedEmployee.get());
-        // do some more assertions
+		Assertions.assertEquals(this.mockEmployee, cachedEmployee.get());
+		verify(repo, times(1)).findById(1);
 	}
 
     /***
@@ -130,7 +283,7 @@ public class EmployeeServiceTest {
      * 
      * Here's the flow:
      * - Use Mockito's when-thenReturn to intercept the call to the JPA repository
-     *    existsById method then return false.
+     *    findById method then return an empty Optional.
      * - Call the EmployeeService.getEmployeeById method.
      * - Use Assertions to compare the actual result vs expected values.
      * 
@@ -139,13 +292,274 @@ public class EmployeeServiceTest {
 	@Test
 	@DisplayName("TEST getEmployeeByIdNotFound")
 	void getEmployeeByIdNotFound() throws Exception {
-		// Use the mock repo to get mock a return value from existsById()
-        when(repo.existsById(999)).thenReturn(false);
+		// Use the mock repo to get mock a return value from findById()
+        when(repo.findById(999)).thenReturn(Optional.empty());
 
         // Validate that we get a NotFoundException when resource does not exist
 		Assertions.assertThrows(NotFoundException.class, () -> service.getEmployeeById(999));
 	}
 
+    /***
+     * getEmployeeByIdNotFoundThenCreated
+     * 
+     * This is a method to test that a missing employee is cached and that creating the
+     *   employee evicts it from the cache. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to return an empty Optional on the first findById and
+     *   the mock employee afterwards.
+     * - Call the EmployeeService.getEmployeeById method twice. The second call is answered by
+     *   the cached "not found" and does not reach the repository.
+     * - Save the employee and call the EmployeeService.getEmployeeById method again.
+     *   saveEmployee looks the employee up too, for the headcount group it was in.
+     * - Use Assertions to check that the new employee is found.
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("TEST getEmployeeByIdNotFoundThenCreated")
+	void getEmployeeByIdNotFoundThenCreated() throws Exception {
+		// Use the mock repo to return nothing first, then the mock employee
+        when(repo.findById(1)).thenReturn(Optional.empty()).thenReturn(Optional.of(this.mockEmployee));
+		when(repo.save(this.mockEmployee)).thenReturn(this.mockEmployee);
+
+        // Validate that the missing employee is cached
+		Assertions.assertThrows(NotFoundException.class, () -> service.getEmployeeById(1));
+		Assertions.assertThrows(NotFoundException.class, () -> service.getEmployeeById(1));
+		verify(repo, times(1)).findById(1);
+		
+		// Validate that saving the employee evicts the cached "not found"
+		service.saveEmployee(this.mockEmployee);
+		verify(repo, times(2)).findById(1);
+		Assertions.assertEquals(this.mockEmployee, service.getEmployeeById(1).get());
+		verify(repo, times(3)).findById(1);
+	}
+
+    /***
+     * searchEmployeesFromIndex
+     * 
+     * This is a method to test the EmployeeService.searchEmployees method once the search 
+     *   index is loaded. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository streamAll
+     *   method then return a stream of mock employees, and load the search index with them.
+     * - Call the EmployeeService.searchEmployees method with a prefix, then with a prefix and
+     *   a position, in another case than the mock employees.
+     * - Save a new employee and search again.
+     * - Use Assertions to compare the actual result vs expected values and verify that the
+     *   searches did not reach the repository.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST searchEmployeesFromIndex")
+	void searchEmployeesFromIndex() throws Exception {
+		// Using the mock repo, load the search index with mock employees
+		when(repo.streamAll()).thenReturn(Stream.of(
+				new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")),
+				new Employee(2, "Jane", "Director", Date.valueOf("2002-02-02")),
+				new Employee(3, "James", "Supervisor", Date.valueOf("2003-03-03"))));
+		Assertions.assertEquals(3, service.loadSearchIndex());
+		
+		// Call the service
+		List<Employee> byPrefix = service.searchEmployees("JA", null, null);
+		List<Employee> byPrefixAndPosition = service.searchEmployees("ja", "director", null);
+		
+		// Validate the result, ordered by name
+		Assertions.assertEquals(List.of(3, 2), byPrefix.stream().map(Employee::getEmployeeId).collect(Collectors.toList()));
+		Assertions.assertEquals(1, byPrefixAndPosition.size());
+		Assertions.assertEquals("Jane", byPrefixAndPosition.get(0).getEmployeeName());
+		
+		// Validate that a new employee is found right after it is saved
+		Employee jack = new Employee(4, "Jack", "Manager", Date.valueOf("2004-04-04"));
+		when(repo.save(jack)).thenReturn(jack);
+		service.saveEmployee(jack);
+		Assertions.assertEquals(List.of(4, 3, 2), service.searchEmployees("ja", null, null).stream()
+				.map(Employee::getEmployeeId).collect(Collectors.toList()));
+		verify(repo, never()).findByEmployeeNameKeyStartingWith(any(), any());
+	}
+
+    /***
+     * reloadSearchIndex
+     * 
+     * This is a method to test that loading the search index again picks up the rows that
+     *   were written without the service, e.g. by another instance. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository streamAll
+     *   method then return a stream of mock employees, and load the search index with them.
+     * - Return another stream of mock employees, where one was renamed and one was deleted,
+     *   and load the search index again.
+     * - Use Assertions to check that the old index is searched while the new one loads, and
+     *   that the new one is searched once it is loaded.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST reloadSearchIndex")
+	void reloadSearchIndex() throws Exception {
+		// Using the mock repo, load the search index with mock employees
+		when(repo.streamAll()).thenReturn(Stream.of(
+				new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")),
+				new Employee(2, "Jane", "Director", Date.valueOf("2002-02-02")),
+				new Employee(3, "James", "Supervisor", Date.valueOf("2003-03-03"))));
+		service.loadSearchIndex();
+		
+		// Another instance renamed Jane and deleted James, check the index while it reloads
+		when(repo.streamAll()).thenReturn(Stream.of(
+				new Employee(1, "John", "Manager", Date.valueOf("2001-01-01")),
+				new Employee(2, "Joan", "Director", Date.valueOf("2002-02-02")))
+				.peek(employee -> Assertions.assertEquals(2, service.searchEmployees("ja", null, null).size())));
+		Assertions.assertEquals(2, service.loadSearchIndex());
+		
+		// Validate the result
+		Assertions.assertTrue(service.searchEmployees("ja", null, null).isEmpty());
+		Assertions.assertEquals(List.of(2, 1), service.searchEmployees("jo", null, null).stream()
+				.map(Employee::getEmployeeId).collect(Collectors.toList()));
+		verify(repo, never()).findByEmployeeNameKeyStartingWith(any(), any());
+	}
+
+    /***
+     * searchEmployeesFromDatabase
+     * 
+     * This is a method to test the EmployeeService.searchEmployees method while the search 
+     *   index is cold. 
+     * 
+     * Here's the flow:
+     * - The search index is emptied by the init method with the @BeforeEach annotation.
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository prefix 
+     *   search then return a mock employee.
+     * - Call the EmployeeService.searchEmployees method with a prefix and a position.
+     * - Use Assertions to compare the actual result vs expected values and verify that the
+     *   repository was asked for the lower-case keys and the default limit, ordered by name.
+     * - Check that a search without a prefix and a position is rejected.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST searchEmployeesFromDatabase")
+	void searchEmployeesFromDatabase() throws Exception {
+		// Using the mock repo, return the mock employee
+		when(repo.findByPositionKeyAndEmployeeNameKeyStartingWith(eq("manager"), eq("jo"), any()))
+			.thenReturn(List.of(this.mockEmployee));
+		
+		// Call the service
+		List<Employee> employees = service.searchEmployees("Jo", "Manager", null);
+		
+		// Validate the result
+		Assertions.assertEquals(List.of(this.mockEmployee), employees);
+		verify(repo).findByPositionKeyAndEmployeeNameKeyStartingWith("manager", "jo", 
+				PageRequest.of(0, 10, Sort.by("employeeNameKey", "employeeId")));
+		Assertions.assertThrows(BadRequestException.class, () -> service.searchEmployees(null, " ", null));
+	}
+
+    /***
+     * countHiredFromDatabase
+     * 
+     * This is a method to test the EmployeeService.countHired method while the employee
+     *   projection is disabled, as it is by default. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository countHired
+     *   method then return a count.
+     * - Call the EmployeeService.countHired method without an end date.
+     * - Use Assertions to compare the actual result vs expected values and verify that the
+     *   missing end date was replaced by the latest one.
+     * - Check that a start date after the end date is rejected.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST countHiredFromDatabase")
+	void countHiredFromDatabase() throws Exception {
+		// Using the mock repo, return a count
+		when(repo.countHired(any(), any(), eq("Developer"))).thenReturn(7L);
+		
+		// Call the service
+		long count = service.countHired(LocalDate.of(2020, 1, 1), null, "Developer");
+		
+		// Validate the result
+		Assertions.assertEquals(7, count);
+		verify(repo).countHired(Date.valueOf("2020-01-01"), Date.valueOf("9999-12-31"), "Developer");
+		Assertions.assertThrows(BadRequestException.class, 
+				() -> service.countHired(LocalDate.of(2021, 1, 1), LocalDate.of(2020, 1, 1), null));
+	}
+
+    /***
+     * getStatsFromCounters
+     * 
+     * This is a method to test the EmployeeService.getStats method before and after the
+     *   headcount counters are reconciled. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the GROUP BY query of the JPA repository
+     *   then return 2 Managers hired in 2001 and a Developer hired in 2002.
+     * - Call the EmployeeService.getStats method, which uses the query while the counters
+     *   are cold, then reconcile the counters.
+     * - Update a Manager to a Developer and check that the counts moved without another
+     *   query.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST getStatsFromCounters")
+	void getStatsFromCounters() throws Exception {
+		// Using the mock repo, return the counts and the mock employee
+		when(repo.countByPositionAndHireYear()).thenReturn(
+				List.of(row("Manager", 2001, 2), row("Developer", 2002, 1)));
+		when(repo.findById(1)).thenReturn(Optional.of(this.mockEmployee));
+		
+		// Call the service while the counters are cold, then reconcile them
+		Assertions.assertEquals(Map.of("Manager", 2L, "Developer", 1L), service.getStats().getByPosition());
+		Assertions.assertTrue(service.reconcileStats());
+		
+		// Update the Manager hired in 2001 to a Developer
+		service.updateEmployee(new ObjectMapper().readTree("{\"position\":\"Developer\"}"), 1, null);
+		
+		// Validate the result
+		EmployeeStats stats = service.getStats();
+		Assertions.assertEquals(3, stats.getTotal());
+		Assertions.assertEquals(Map.of("Manager", 1L, "Developer", 2L), stats.getByPosition());
+		Assertions.assertEquals(Map.of(2001, 2L, 2002, 1L), stats.getByHireYear());
+		Assertions.assertEquals(Map.of(2001, 1L, 2002, 1L), stats.getByPositionAndHireYear().get("Developer"));
+		verify(repo, times(2)).countByPositionAndHireYear();
+	}
+
+    /***
+     * reconcileStatsUnderWrites
+     * 
+     * This is a method to test that the headcount counters go cold when every attempt of a
+     *   reconciliation overlaps a write. 
+     * 
+     * Here's the flow:
+     * - Reconcile the counters once without writes so they are ready.
+     * - Use Mockito's thenAnswer to record a write each time the GROUP BY query runs.
+     * - Call the EmployeeService.reconcileStats method and check that it tried 3 times, 
+     *   then made the counters cold so the stats use the query again.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST reconcileStatsUnderWrites")
+	void reconcileStatsUnderWrites() throws Exception {
+		List<HeadcountRow> rows = List.of(row("Manager", 2001, 2));
+		when(repo.countByPositionAndHireYear()).thenReturn(rows);
+		Assertions.assertTrue(service.reconcileStats());
+		Assertions.assertTrue(this.stats.isReady());
+		
+		// Using the mock repo, write an employee while each query runs
+		when(repo.countByPositionAndHireYear()).thenAnswer(invocation -> {
+			this.stats.record(null, HeadcountKey.of(this.mockEmployee));
+			return rows;
+		});
+		
+		// Validate the result
+		Assertions.assertFalse(service.reconcileStats());
+		Assertions.assertFalse(this.stats.isReady());
+		verify(repo, times(4)).countByPositionAndHireYear();
+	}
+
     /***
      * saveEmployee
      * 
@@ -174,6 +588,184 @@ public class EmployeeServiceTest {
 		Assertions.assertEquals(1, employeeId);
 	}
 
+    /***
+     * saveEmployeeReplacesExisting
+     * 
+     * This is a method to test the EmployeeService.saveEmployee method with the ID of an
+     *   employee that was already updated. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository findById 
+     *   method then return the stored employee, at version 3.
+     * - Call the EmployeeService.saveEmployee method with a body for the same ID, which has
+     *   no version.
+     * - Use Assertions to check that the employee was saved with the version of the stored
+     *   one, so the merge replaces it instead of failing the optimistic lock.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST saveEmployeeReplacesExisting")
+	void saveEmployeeReplacesExisting() throws Exception {
+		// Using the mock repo, return the stored employee at version 3
+		Employee stored = new Employee(1, "John", "Manager", Date.valueOf("2001-01-01"));
+		stored.setVersion(3);
+		when(repo.findById(1)).thenReturn(Optional.of(stored));
+		when(repo.save(this.mockEmployee)).thenReturn(this.mockEmployee);
+		
+		// Call the service with a new position for the same ID
+		this.mockEmployee.setPosition("Director");
+		Integer employeeId = service.saveEmployee(this.mockEmployee);
+		
+		// Validate the result
+		Assertions.assertEquals(1, employeeId);
+		verify(repo).save(this.mockEmployee);
+		Assertions.assertEquals(3, this.mockEmployee.getVersion());
+	}
+
+    /***
+     * saveEmployees
+     * 
+     * This is a method to test the EmployeeService.saveEmployees method with a JSON array
+     *   containing valid and invalid employees. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenAnswer to intercept the call to the JPA repository saveAll
+     *   method then give each employee an ID.
+     * - Call the EmployeeService.saveEmployees method passing a mock request body.
+     * - Use Assertions to check that there is one result per item, in order, and that only
+     *   the valid employees were saved.
+     * 
+     * @throws Exception
+     */      
+	@Test
+	@DisplayName("TEST saveEmployees")
+	void saveEmployees() throws Exception {
+		// Using the mock repo, give each saved employee an ID starting at 10
+		when(repo.saveAll(anyList())).thenAnswer(invocation -> {
+			List<Employee> employees = invocation.getArgument(0);
+			int id = 10;
+			for (Employee employee : employees)
+				employee.setEmployeeId(id++);
+			return employees;
+		});
+		
+		// Call the service with a valid, an invalid and another valid employee
+		String body = "[{\"employeeId\":1,\"employeeName\":\"John\"},"
+				+ "{\"employeeName\":\" \"},"
+				+ "{\"employeeName\":\"Jane\",\"dateHired\":\"2002-02-02\"}]";
+		List<BatchItemResult> results = service.saveEmployees(
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+		
+		// Validate the result
+		Assertions.assertEquals(3, results.size());
+		Assertions.assertEquals(BatchItemResult.Status.CREATED, results.get(0).getStatus());
+		Assertions.assertEquals(10, results.get(0).getEmployeeId());
+		Assertions.assertEquals(BatchItemResult.Status.INVALID, results.get(1).getStatus());
+		Assertions.assertEquals("The employeeName should not be blank.", results.get(1).getErrors().get(0));
+		Assertions.assertEquals(BatchItemResult.Status.CREATED, results.get(2).getStatus());
+		Assertions.assertEquals(11, results.get(2).getEmployeeId());
+	}
+
+    /***
+     * updateEmployeeMergePatch
+     * 
+     * This is a method to test the EmployeeService.updateEmployee method with a JSON Merge
+     *   Patch. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository findById 
+     *   method then return the mock employee.
+     * - Call the EmployeeService.updateEmployee method with a patch that changes the position,
+     *   clears the date hired and tries to change the ID.
+     * - Use Assertions to check that only the patched fields changed.
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("TEST updateEmployeeMergePatch")
+	void updateEmployeeMergePatch() throws Exception {
+		// Use the mock repo to return the mock employee
+		when(repo.findById(1)).thenReturn(Optional.of(this.mockEmployee));
+		
+		// Call the service
+		service.updateEmployee(
+				new ObjectMapper().readTree("{\"position\":\"Director\",\"dateHired\":null,\"employeeId\":5}"), 1, null);
+		
+		// Validate the result
+		Assertions.assertEquals(1, this.mockEmployee.getEmployeeId());
+		Assertions.assertEquals("John", this.mockEmployee.getEmployeeName());
+		Assertions.assertEquals("Director", this.mockEmployee.getPosition());
+		Assertions.assertNull(this.mockEmployee.getDateHired());
+	}
+
+    /***
+     * updateEmployeeInvalidPatch
+     * 
+     * This is a method to test the EmployeeService.updateEmployee method with patches that
+     *   are not allowed: clearing the employee name and a body that is not a JSON object. 
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("TEST updateEmployeeInvalidPatch")
+	void updateEmployeeInvalidPatch() throws Exception {
+		// Use the mock repo to return the mock employee
+		when(repo.findById(1)).thenReturn(Optional.of(this.mockEmployee));
+		ObjectMapper mapper = new ObjectMapper();
+		
+		// Validate that we get a BadRequestException for each invalid patch
+		Assertions.assertThrows(BadRequestException.class, 
+				() -> service.updateEmployee(mapper.readTree("{\"employeeName\":null}"), 1, null));
+		Assertions.assertThrows(BadRequestException.class, 
+				() -> service.updateEmployee(mapper.readTree("[]"), 1, null));
+	}
+
+    /***
+     * updateEmployeeNotFound
+     * 
+     * This is a method to test the EmployeeService.updateEmployee method without a matching
+     *   resource. 
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("TEST updateEmployeeNotFound")
+	void updateEmployeeNotFound() throws Exception {
+		// Use the mock repo to get an empty Optional from findById()
+        when(repo.findById(999)).thenReturn(Optional.empty());
+
+        // Validate that we get a NotFoundException when resource does not exist
+		Assertions.assertThrows(NotFoundException.class, 
+				() -> service.updateEmployee(new ObjectMapper().readTree("{}"), 999, null));
+	}
+
+    /***
+     * updateEmployeeStaleVersion
+     * 
+     * This is a method to test the EmployeeService.updateEmployee method with an expected
+     *   version that is not the current version of the employee. 
+     * 
+     * Here's the flow:
+     * - Use Mockito's when-thenReturn to intercept the call to the JPA repository findById 
+     *   method then return the mock employee which is at version 0.
+     * - Call the EmployeeService.updateEmployee method expecting version 1.
+     * - Use Assertions to check that the employee was not changed.
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("TEST updateEmployeeStaleVersion")
+	void updateEmployeeStaleVersion() throws Exception {
+		// Use the mock repo to return the mock employee
+		when(repo.findById(1)).thenReturn(Optional.of(this.mockEmployee));
+		
+		// Validate that we get a PreconditionFailedException and nothing was changed
+		Assertions.assertThrows(PreconditionFailedException.class, 
+				() -> service.updateEmployee(new ObjectMapper().readTree("{\"position\":\"Director\"}"), 1, 1));
+		Assertions.assertEquals("Manager", this.mockEmployee.getPosition());
+	}
+
     /***
      * deleteEmployeeById
      * 
@@ -185,21 +777,59 @@ public class EmployeeServiceTest {
      *   @BeforeEach annotation.
      * - Use Mockito's when-thenReturn to intercept the call to the following JPA repository
      *   methods:
-     *     - when existsById then return true.
-     *     - when deleteById then do nothing.
+     *     - when findById then return the mock employee.
+     *     - when delete then do nothing.
      * - Call the EmployeeService.deleteEmployee method.
-     * - Use Assertions to compare the actual result vs expected values.
+     * - Use Mockito's verify to check that the employee that was read is deleted.
      * 
      * @throws Exception
      */     
 	@Test
 	@DisplayName("TEST deleteEmployeeById")
 	void deleteEmployeeById() throws Exception {
-		// Use the mock repo to get mock a return value from existsById() and deleteById()
-        when(repo.existsById(1)).thenReturn(true);
-		doNothing().when(repo).deleteById(1);
+		// Use the mock repo to get mock a return value from findById() and delete()
+        when(repo.findById(1)).thenReturn(Optional.of(this.mockEmployee));
+		doNothing().when(repo).delete(this.mockEmployee);
 		
 		// Call the service
-		service.deleteEmployee(1);
+		service.deleteEmployee(1, 0);
+		
+		verify(repo).delete(this.mockEmployee);
 	}    
+
+    /***
+     * deleteEmployeeStaleVersion
+     * 
+     * This is a method to test the EmployeeService.deleteEmployee method with an expected
+     *   version that is not the current version of the employee. 
+     * 
+     * @throws Exception
+     */     
+	@Test
+	@DisplayName("TEST deleteEmployeeStaleVersion")
+	void deleteEmployeeStaleVersion() throws Exception {
+		// Use the mock repo to return the mock employee which is at version 0
+        when(repo.findById(1)).thenReturn(Optional.of(this.mockEmployee));
+		
+		// Validate that we get a PreconditionFailedException and nothing was deleted
+		Assertions.assertThrows(PreconditionFailedException.class, () -> service.deleteEmployee(1, 1));
+		verify(repo, times(0)).delete(any());
+	}    
+
+	private static HeadcountRow row(String position, Integer hireYear, long headcount) {
+		return new HeadcountRow() {
+			@Override
+			public String getPosition() {
+				return position;
+			}
+			@Override
+			public Integer getHireYear() {
+				return hireYear;
+			}
+			@Override
+			public long getHeadcount() {
+				return headcount;
+			}
+		};
+	}
 }
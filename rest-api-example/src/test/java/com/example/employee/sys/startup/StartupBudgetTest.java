@@ -0,0 +1,85 @@
+package com.example.employee.sys.startup;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import com.example.employee.sys.SpringBootDemoApplication;
+import com.example.employee.sys.entity.StartupReport;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/***
+ * StartupBudgetTest
+ *
+ * This is the startup regression test. It starts the application the way main() does, with
+ *   its ClassCountingApplicationStartup, and checks the StartupReport against the budgets
+ *   of startup-budgets.properties.
+ *
+ * The application is started in the JVM of the tests, where other tests may already have
+ *   loaded most classes. The budgets are upper bounds, so this only makes them easier to
+ *   meet. StartupTimeTest measures a cold JVM instead.
+ *
+ * Like StartupTimeTest, it is tagged "startup" and only runs with the startuptest profile.
+ */
+@Tag("startup")
+public class StartupBudgetTest {
+
+    /***
+     * phasesWithinBudget
+     *
+     * This is a method to test that no startup phase or bean misses its budget.
+     *
+     * Here's the flow:
+     * - Start the application on a random port, with data.sql and every bean in the report.
+     * - Check that the report was recorded, with beans and class counts.
+     * - Check each budget, a phase or a bean that is gone fails too so the budgets stay
+     *   up to date.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST startup phases are within budget")
+	void phasesWithinBudget() throws Exception {
+		Properties budgets = new Properties();
+		try (InputStream in = getClass().getResourceAsStream("/startup-budgets.properties")) {
+			budgets.load(in);
+		}
+
+		StartupReport report;
+		try (ConfigurableApplicationContext context = SpringBootDemoApplication.application()
+				.run("--server.port=0", "--spring.sql.init.data-locations=classpath:data.sql",
+						"--employee.startup.top-beans=100000")) {
+			report = context.getBean(StartupReporter.class).getReport();
+		}
+		Assertions.assertTrue(report.isRecorded());
+		Assertions.assertFalse(report.getBeans().isEmpty());
+		Assertions.assertTrue(report.getClassesLoaded() > 0);
+
+		List<String> misses = new ArrayList<>();
+		for (String key : budgets.stringPropertyNames()) {
+			Duration budget = DurationStyle.detectAndParse(budgets.getProperty(key));
+			Optional<StartupReport.Step> step = find(report, key);
+			if (step.isEmpty())
+				misses.add(key + " was not recorded");
+			else if (step.get().getDurationMillis() > budget.toMillis())
+				misses.add(String.format("%s took %.0f ms, over the budget of %d ms", 
+						key, step.get().getDurationMillis(), budget.toMillis()));
+		}
+		Assertions.assertTrue(misses.isEmpty(), String.join("\n", misses));
+	}
+
+	private static Optional<StartupReport.Step> find(StartupReport report, String key) {
+		List<StartupReport.Step> steps = key.startsWith("phase.") ? report.getPhases() : report.getBeans();
+		String name = key.substring(key.indexOf('.') + 1);
+		return steps.stream().filter(step -> step.getName().equals(name)).findFirst();
+	}
+}
@@ -0,0 +1,184 @@
+package com.example.employee.sys.startup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.example.employee.sys.SpringBootDemoApplication;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+/***
+ * StartupTimeTest
+ * 
+ * This is the startup test of the API. It measures the time from the start of
+ *   a new process to the first successful GET /employees, which is how long a
+ *   new pod takes before it can serve requests.
+ *   
+ * It is tagged "startup" and only runs with the startuptest Maven profile:
+ * 
+ *   ./mvnw -P startuptest test -Dstartup.budget=8s
+ *   
+ * By default, the API runs in a new JVM with the class path of the tests and
+ *   the main configuration, on the in-memory H2 database. To measure the
+ *   Docker image with its AppCDS archive instead, give the command that starts
+ *   it and the URL to poll:
+ *   
+ *   ./mvnw -P startuptest test \
+ *       -Dstartup.command="docker run --rm -p 8090:8090 spring-boot-demo:latest" \
+ *       -Dstartup.url=http://localhost:8090/employees
+ *   
+ * Here's the flow:
+ * - Start the process, then send GET /employees every startup.poll-interval 
+ *   until it returns 200.
+ * - Stop the process and do it again, startup.runs times.
+ * - Fail when the median time misses startup.budget.
+ * 
+ * The settings are read from system properties, with these defaults:
+ *   startup.budget=15s
+ *   startup.runs=3
+ *   startup.timeout=60s              of each run
+ *   startup.poll-interval=50ms
+ *   startup.jvm-args=                e.g. -XX:TieredStopAtLevel=1
+ *   startup.command=                 replaces the new JVM
+ *   startup.url=                     with startup.command
+ *   
+ * The output of each run is written to target/startup-test.
+ */
+@Tag("startup")
+public class StartupTimeTest {
+	
+	private static final Logger logger = LoggerFactory.getLogger(StartupTimeTest.class);
+	
+	private static final Path REPORT_DIR = Paths.get("target", "startup-test");
+	
+	private final Duration budget = duration("startup.budget", "15s");
+	
+	private final Duration timeout = duration("startup.timeout", "60s");
+	
+	private final Duration pollInterval = duration("startup.poll-interval", "50ms");
+	
+	private final int runs = Integer.getInteger("startup.runs", 3);
+	
+	private final HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(1))
+			.build();
+	
+	/***
+     * timeToFirstGetEmployees
+     * 
+     * This is the startup test of GET /employees.
+     * 
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST time to the first GET /employees is within the budget")
+	void timeToFirstGetEmployees() throws Exception {
+		Files.createDirectories(REPORT_DIR);
+		List<Duration> times = new ArrayList<>();
+		for (int run = 1; run <= runs; run++) {
+			Duration time = startOnce(run);
+			logger.info("Startup run {}: first GET /employees after {} ms", run, time.toMillis());
+			times.add(time);
+		}
+		
+		Collections.sort(times);
+		Duration median = times.get(times.size() / 2);
+		logger.info("Startup: median {} ms, budget {} ms, runs {}", median.toMillis(), budget.toMillis(), times);
+		Assertions.assertTrue(median.compareTo(budget) <= 0, 
+				"The median time to the first GET /employees is " + median.toMillis() 
+				+ " ms, over the budget of " + budget.toMillis() + " ms.");
+	}
+	
+	private Duration startOnce(int run) throws Exception {
+		int port = freePort();
+		String command = System.getProperty("startup.command", "");
+		URI url = URI.create(command.isBlank() ? "http://localhost:" + port + "/employees" 
+				: System.getProperty("startup.url", "http://localhost:8090/employees"));
+		
+		ProcessBuilder builder = new ProcessBuilder(command.isBlank() ? jvmCommand(port) : split(command))
+				.redirectErrorStream(true)
+				.redirectOutput(REPORT_DIR.resolve("run-" + run + ".log").toFile());
+		
+		long start = System.nanoTime();
+		Process process = builder.start();
+		try {
+			while (!succeeds(url)) {
+				Assertions.assertTrue(process.isAlive(), 
+						"The API exited with code " + (process.isAlive() ? 0 : process.exitValue()) 
+						+ ", see " + REPORT_DIR.resolve("run-" + run + ".log"));
+				Assertions.assertTrue(System.nanoTime() - start < timeout.toNanos(), 
+						"The API did not answer GET /employees within " + timeout);
+				Thread.sleep(pollInterval.toMillis());
+			}
+			return Duration.ofNanos(System.nanoTime() - start);
+		} finally {
+			process.destroy();
+			if (!process.waitFor(30, TimeUnit.SECONDS))
+				process.destroyForcibly().waitFor();
+		}
+	}
+	
+	private boolean succeeds(URI url) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(url)
+				.timeout(Duration.ofSeconds(5))
+				.build();
+		try {
+			return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+		} catch (IOException e) {
+			// Not listening yet
+			return false;
+		}
+	}
+	
+	/*
+	 * A new JVM running the application with the class path of the tests. Like
+	 *   LoadTest, it reads the main configuration instead of the one of the
+	 *   tests.
+	 */
+	private static List<String> jvmCommand(int port) {
+		List<String> command = new ArrayList<>();
+		command.add(ProcessHandle.current().info().command().orElse("java"));
+		command.addAll(split(System.getProperty("startup.jvm-args", "")));
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(SpringBootDemoApplication.class.getName());
+		command.add("--spring.config.location=file:src/main/resources/");
+		command.add("--server.port=" + port);
+		return command;
+	}
+	
+	private static List<String> split(String args) {
+		if (args.isBlank())
+			return List.of();
+		return Arrays.asList(args.trim().split("\\s+"));
+	}
+	
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+	
+	private static Duration duration(String name, String defaultValue) {
+		return DurationStyle.detectAndParse(System.getProperty(name, defaultValue));
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.employee.sys.stats;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.employee.sys.entity.EmployeeStats;
+import com.example.employee.sys.repository.EmployeeRepository.HeadcountRow;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/***
+ * HeadcountCountersTest
+ *
+ * This is the test class for HeadcountCounters. Like EmployeeProjectionTest, the counters
+ *   are created directly instead of loading the application context. The transactions are
+ *   simulated with TransactionSynchronizationManager.
+ */
+public class HeadcountCountersTest {
+
+	private static final HeadcountKey DEVELOPER_2020 = new HeadcountKey("Developer", 2020);
+	private static final HeadcountKey MANAGER_2020 = new HeadcountKey("Manager", 2020);
+
+    /***
+     * reconcileThenRecord
+     *
+     * This is a method to test that the counters are set by a reconciliation and then moved
+     *   by the writes.
+     *
+     * Here's the flow:
+     * - Record a write between the start and the end of a reconciliation and check that the
+     *   reconciliation is skipped.
+     * - Reconcile without writes and check the counts of the rows.
+     * - Record an update and a delete, and check that the counts moved.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST reconcileThenRecord")
+	void reconcileThenRecord() throws Exception {
+		HeadcountCounters counters = new HeadcountCounters(true);
+		List<HeadcountRow> rows = List.of(row("Developer", 2020, 5), row(null, 2021, 1));
+
+		// A write while the query runs skips the reconciliation
+		long token = counters.beginReconcile();
+		counters.record(null, DEVELOPER_2020);
+		Assertions.assertFalse(counters.reconcile(token, rows));
+		Assertions.assertFalse(counters.isReady());
+
+		// Reconcile without writes
+		Assertions.assertTrue(counters.reconcile(counters.beginReconcile(), rows));
+		EmployeeStats reconciled = counters.snapshot();
+		Assertions.assertTrue(counters.isReady());
+		Assertions.assertEquals(6, reconciled.getTotal());
+		Assertions.assertEquals(Map.of("Developer", 5L), reconciled.getByPosition());
+		Assertions.assertEquals(Map.of(2020, 5L, 2021, 1L), reconciled.getByHireYear());
+
+		// Update a Developer to a Manager, then delete a Developer
+		counters.record(DEVELOPER_2020, MANAGER_2020);
+		counters.record(DEVELOPER_2020, null);
+		EmployeeStats changed = counters.snapshot();
+		Assertions.assertEquals(5, changed.getTotal());
+		Assertions.assertEquals(Map.of("Developer", 3L, "Manager", 1L), changed.getByPosition());
+		Assertions.assertEquals(Map.of("Developer", Map.of(2020, 3L), "Manager", Map.of(2020, 1L)),
+				changed.getByPositionAndHireYear());
+	}
+
+    /***
+     * recordInTransaction
+     *
+     * This is a method to test that a write in a transaction only moves the counters once the
+     *   transaction commits.
+     *
+     * Here's the flow:
+     * - Start a transaction and record a new employee in it.
+     * - Check that a reconciliation cannot start while it is in flight.
+     * - Roll it back and check that the counts did not change, then do the same with a
+     *   commit and check that they did.
+     *
+     * @throws Exception
+     */
+	@Test
+	@DisplayName("TEST recordInTransaction")
+	void recordInTransaction() throws Exception {
+		HeadcountCounters counters = new HeadcountCounters(true);
+		Assertions.assertTrue(counters.reconcile(counters.beginReconcile(), List.of(row("Developer", 2020, 1))));
+
+		// Roll back a new employee
+		complete(counters, TransactionSynchronization.STATUS_ROLLED_BACK);
+		Assertions.assertEquals(1, counters.snapshot().getTotal());
+
+		// Commit a new employee
+		complete(counters, TransactionSynchronization.STATUS_COMMITTED);
+		Assertions.assertEquals(2, counters.snapshot().getTotal());
+		Assertions.assertTrue(counters.beginReconcile() >= 0);
+	}
+
+	private static void complete(HeadcountCounters counters, int status) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			counters.record(null, DEVELOPER_2020);
+			Assertions.assertEquals(-1, counters.beginReconcile());
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+				synchronization.afterCompletion(status);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	static HeadcountRow row(String position, Integer hireYear, long headcount) {
+		return new HeadcountRow() {
+			@Override
+			public String getPosition() {
+				return position;
+			}
+			@Override
+			public Integer getHireYear() {
+				return hireYear;
+			}
+			@Override
+			public long getHeadcount() {
+				return headcount;
+			}
+		};
+	}
+}